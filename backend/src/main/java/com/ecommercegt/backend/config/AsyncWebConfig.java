@@ -0,0 +1,26 @@
+package com.ecommercegt.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Tiempo máximo de las respuestas asíncronas de Spring MVC
+ *
+ * Las exportaciones de reportes (StreamingResponseBody) son las únicas que usan
+ * el timeout por defecto (los streams SSE fijan el suyo). Sin configurarlo rige
+ * el de Tomcat (30 s) y una exportación grande se cortaría a la mitad del archivo,
+ * sin error visible para el cliente porque los encabezados ya se enviaron.
+ */
+@Configuration
+public class AsyncWebConfig implements WebMvcConfigurer {
+
+    @Value("${reportes.export.timeout-ms:1800000}")
+    private long timeoutExportMs;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(timeoutExportMs);
+    }
+}
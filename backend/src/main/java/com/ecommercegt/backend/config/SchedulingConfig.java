@@ -0,0 +1,13 @@
+package com.ecommercegt.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled)
+ * Usadas por el mantenimiento de la cola de correos y otros procesos en segundo plano
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
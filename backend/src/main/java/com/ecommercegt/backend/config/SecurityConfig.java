@@ -2,11 +2,15 @@ package com.ecommercegt.backend.config;
 
 import com.ecommercegt.backend.security.jwt.AuthEntryPointJwt;
 import com.ecommercegt.backend.security.jwt.AuthTokenFilter;
+import com.ecommercegt.backend.security.limite.LimitadorTasaService;
+import com.ecommercegt.backend.security.limite.LimiteTasaFilter;
+import com.ecommercegt.backend.security.service.HashContrasenaService;
 import com.ecommercegt.backend.security.service.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import jakarta.servlet.DispatcherType;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -16,7 +20,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -41,6 +44,18 @@ public class SecurityConfig {
     @Autowired
     private AuthTokenFilter authTokenFilter;
 
+    @Autowired
+    private LimitadorTasaService limitadorTasaService;
+
+    @Autowired
+    private HashContrasenaService hashContrasenaService;
+
+    @Value("${limite.habilitado:true}")
+    private boolean limiteHabilitado;
+
+    @Value("${limite.confiar-x-forwarded-for:false}")
+    private boolean confiarXForwardedFor;
+
     @Value("${cors.allowed-origins:http://localhost:5173,https://*.ngrok-free.dev,https://*.netlify.app}")
     private String allowedOrigins;
 
@@ -52,7 +67,8 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        // bcrypt con el costo de seguridad.bcrypt.costo
+        return hashContrasenaService.getEncoder();
     }
 
     @Bean
@@ -60,6 +76,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash al iniciar sesión si el costo configurado subió
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -93,7 +111,7 @@ public class SecurityConfig {
         configuration.setAllowCredentials(true);
 
         // Headers expuestos
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "Retry-After"));
 
         configuration.setMaxAge(3600L);
 
@@ -117,6 +135,9 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Despachos asíncronos (SSE) ya fueron autorizados en la petición original
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // ============================================
                         // ENDPOINTS PÚBLICOS (NO REQUIEREN TOKEN)
                         // ============================================
@@ -145,6 +166,10 @@ public class SecurityConfig {
                         // Reviews públicas - Solo GET de reviews y estadísticas
                         .requestMatchers(HttpMethod.GET, "/api/reviews/producto/**").permitAll()
 
+                        // Imágenes subidas - PÚBLICO
+                        .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll()
+                        .requestMatchers(HttpMethod.HEAD, "/uploads/**").permitAll()
+
                         // ============================================
                         // ENDPOINTS DE MODERADOR (TEMPORALMENTE PÚBLICOS PARA TESTING)
                         // ============================================
@@ -172,6 +197,11 @@ public class SecurityConfig {
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class);
 
+        // Límite de peticiones (después del token para contar por usuario)
+        if (limiteHabilitado) {
+            http.addFilterAfter(new LimiteTasaFilter(limitadorTasaService, confiarXForwardedFor), AuthTokenFilter.class);
+        }
+
         return http.build();
     }
 }
\ No newline at end of file
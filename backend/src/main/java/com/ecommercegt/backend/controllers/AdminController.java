@@ -4,8 +4,19 @@ import com.ecommercegt.backend.dto.request.CreateUserRequest;
 import com.ecommercegt.backend.dto.request.UpdateUserRequest;
 import com.ecommercegt.backend.dto.response.EstadisticasGeneralesResponse;
 import com.ecommercegt.backend.dto.response.MessageResponse;
+import com.ecommercegt.backend.dto.response.MetricasCorreoResponse;
+import com.ecommercegt.backend.dto.response.MetricasHashResponse;
+import com.ecommercegt.backend.dto.response.MetricasLimiteResponse;
 import com.ecommercegt.backend.dto.response.UserResponse;
 import com.ecommercegt.backend.service.AdminService;
+import com.ecommercegt.backend.models.enums.TipoNotificacion;
+import com.ecommercegt.backend.security.limite.LimitadorTasaService;
+import com.ecommercegt.backend.security.service.HashContrasenaService;
+import com.ecommercegt.backend.service.CorreoDespachador;
+import com.ecommercegt.backend.service.DashboardSnapshotService;
+import com.ecommercegt.backend.service.NotificacionRetencionService;
+import com.ecommercegt.backend.service.VentasDiariasService;
+import com.ecommercegt.backend.service.VentasVendedorService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -16,6 +27,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -25,20 +38,106 @@ import java.util.UUID;
 public class AdminController {
     
     private final AdminService adminService;
+    private final CorreoDespachador correoDespachador;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final NotificacionRetencionService notificacionRetencionService;
+    private final VentasDiariasService ventasDiariasService;
+    private final VentasVendedorService ventasVendedorService;
+    private final LimitadorTasaService limitadorTasaService;
+    private final HashContrasenaService hashContrasenaService;
     
     // ==================== ESTADÍSTICAS ====================
     
     /**
      * Obtener estadísticas generales
      * GET /api/admin/estadisticas
+     * Se sirve desde el snapshot en memoria (ver fechaSnapshot)
      */
     @GetMapping("/estadisticas")
     //@PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<EstadisticasGeneralesResponse> obtenerEstadisticas() {
-        EstadisticasGeneralesResponse estadisticas = adminService.obtenerEstadisticasGenerales();
+        EstadisticasGeneralesResponse estadisticas = dashboardSnapshotService.obtenerEstadisticasGenerales();
         return ResponseEntity.ok(estadisticas);
     }
     
+    /**
+     * Obtener métricas del envío asíncrono de correos
+     * GET /api/admin/correos/metricas
+     */
+    @GetMapping("/correos/metricas")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<MetricasCorreoResponse> obtenerMetricasCorreo() {
+        return ResponseEntity.ok(correoDespachador.obtenerMetricas());
+    }
+    
+    /**
+     * Obtener métricas del pool de hash de contraseñas (latencia, espera en cola, rechazos)
+     * GET /api/admin/hash/metricas
+     */
+    @GetMapping("/hash/metricas")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<MetricasHashResponse> obtenerMetricasHash() {
+        return ResponseEntity.ok(hashContrasenaService.obtenerMetricas());
+    }
+    
+    /**
+     * Obtener métricas del límite de peticiones (permitidas y rechazadas por grupo de rutas)
+     * GET /api/admin/limites/metricas
+     */
+    @GetMapping("/limites/metricas")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<List<MetricasLimiteResponse>> obtenerMetricasLimite() {
+        return ResponseEntity.ok(limitadorTasaService.obtenerMetricas());
+    }
+    
+    /**
+     * Ejecutar ahora la purga de notificaciones vencidas
+     * POST /api/admin/notificaciones/purgar
+     */
+    @PostMapping("/notificaciones/purgar")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> purgarNotificaciones() {
+        try {
+            Map<TipoNotificacion, Long> borradas = notificacionRetencionService.purgarVencidas();
+            return ResponseEntity.ok(borradas);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al purgar notificaciones: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Reconstruir el resumen diario de ventas desde los pedidos
+     * POST /api/admin/ventas-diarias/reconstruir
+     */
+    @PostMapping("/ventas-diarias/reconstruir")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> reconstruirVentasDiarias() {
+        try {
+            int filas = ventasDiariasService.reconstruir();
+            return ResponseEntity.ok(new MessageResponse("Resumen diario reconstruido: " + filas + " filas"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al reconstruir resumen diario: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Reconstruir el cubo de ventas por vendedor desde pedidos y productos
+     * POST /api/admin/ventas-vendedor/reconstruir
+     */
+    @PostMapping("/ventas-vendedor/reconstruir")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> reconstruirVentasVendedor() {
+        try {
+            int filas = ventasVendedorService.reconstruir();
+            return ResponseEntity.ok(new MessageResponse("Cubo de ventas por vendedor reconstruido: " + filas + " filas"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al reconstruir cubo de ventas por vendedor: " + e.getMessage()));
+        }
+    }
+    
     // ==================== GESTIÓN DE USUARIOS ====================
     
     /**
@@ -1,10 +1,14 @@
 package com.ecommercegt.backend.controllers;
 
+import com.ecommercegt.backend.dto.response.CompradoresUnicosResponse;
 import com.ecommercegt.backend.dto.response.DashboardAdminResponse;
 import com.ecommercegt.backend.dto.response.EstadisticasVentasResponse;
+import com.ecommercegt.backend.dto.response.MessageResponse;
 import com.ecommercegt.backend.dto.response.ProductoMasVendidoResponse;
+import com.ecommercegt.backend.dto.response.ProductoTendenciaResponse;
 import com.ecommercegt.backend.dto.response.ProductoTopCalificadoResponse;
 import com.ecommercegt.backend.service.DashboardService;
+import com.ecommercegt.backend.service.DashboardSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -25,14 +29,18 @@ public class AdminDashboardController {
     @Autowired
     private DashboardService dashboardService;
     
+    @Autowired
+    private DashboardSnapshotService dashboardSnapshotService;
+    
     /**
      * Obtener dashboard completo del administrador
      * GET /api/admin/dashboard
+     * Se sirve desde el snapshot en memoria (ver fechaSnapshot)
      */
     @GetMapping
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<DashboardAdminResponse> obtenerDashboard() {
-        DashboardAdminResponse dashboard = dashboardService.obtenerDashboardAdmin();
+        DashboardAdminResponse dashboard = dashboardSnapshotService.obtenerDashboardAdmin();
         return ResponseEntity.ok(dashboard);
     }
     
@@ -113,4 +121,45 @@ public class AdminDashboardController {
         
         return ResponseEntity.ok(estadisticas);
     }
-}
\ No newline at end of file
+    
+    // ==================== ANALÍTICA APROXIMADA ====================
+    
+    /**
+     * Compradores distintos del período, en total y por categoría (estimados)
+     * GET /api/admin/dashboard/aproximado/compradores-unicos?fechaInicio=2025-10-01&fechaFin=2025-10-24
+     */
+    @GetMapping("/aproximado/compradores-unicos")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> obtenerCompradoresUnicos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+        try {
+            List<CompradoresUnicosResponse> compradores =
+                dashboardService.obtenerCompradoresUnicos(fechaInicio, fechaFin);
+            return ResponseEntity.ok(compradores);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al obtener compradores únicos: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Productos más vendidos del período (estimados)
+     * GET /api/admin/dashboard/aproximado/productos-top?fechaInicio=2025-10-24&fechaFin=2025-10-24&limite=10
+     */
+    @GetMapping("/aproximado/productos-top")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> obtenerProductosTendencia(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "10") int limite) {
+        try {
+            List<ProductoTendenciaResponse> productos =
+                dashboardService.obtenerProductosTendencia(fechaInicio, fechaFin, Math.min(limite, 100));
+            return ResponseEntity.ok(productos);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al obtener productos más vendidos: " + e.getMessage()));
+        }
+    }
+}
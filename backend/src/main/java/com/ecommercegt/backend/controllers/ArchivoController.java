@@ -0,0 +1,36 @@
+package com.ecommercegt.backend.controllers;
+
+import com.ecommercegt.backend.service.ArchivoService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+
+/**
+ * Archivos subidos (imágenes de productos y sus variantes)
+ * Públicos: los nombres llevan el hash del contenido y se cachean como inmutables
+ */
+@RestController
+public class ArchivoController {
+
+    private static final String PREFIJO = "/uploads/";
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    /**
+     * Descargar un archivo (admite HEAD, Range e If-None-Match)
+     * GET /uploads/productos/{nombre}
+     */
+    @GetMapping("/uploads/**")
+    public void descargar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String ruta = urlPathHelper.getPathWithinApplication(request);
+        archivoService.servir(ruta.substring(PREFIJO.length()), request, response);
+    }
+}
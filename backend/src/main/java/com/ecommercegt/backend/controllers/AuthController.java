@@ -1,18 +1,26 @@
 package com.ecommercegt.backend.controllers;
 
 import com.ecommercegt.backend.dto.request.LoginRequest;
+import com.ecommercegt.backend.dto.request.RefreshTokenRequest;
 import com.ecommercegt.backend.dto.request.RegisterRequest;
 import com.ecommercegt.backend.dto.response.JwtResponse;
 import com.ecommercegt.backend.dto.response.MessageResponse;
+import com.ecommercegt.backend.security.jwt.AuthTokenFilter;
 import com.ecommercegt.backend.service.AuthService;
 import com.ecommercegt.backend.security.service.UserDetailsImpl;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -22,17 +30,24 @@ public class AuthController {
     /**
      * Endpoint para registro de usuarios
      * POST /api/auth/register
+     * Asíncrono como el login: el hash de la contraseña corre en el pool de hash
      * @param registerRequest - Datos del usuario
-     * @return Mensaje de éxito o error
+     * @return Mensaje de éxito o error (503 si el pool de hash está saturado)
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
-            MessageResponse response = authService.register(registerRequest);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(new MessageResponse("Error: No se pudo registrar - " + e.getMessage()));
+            return authService.register(registerRequest)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> {
+                        Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        return ResponseEntity.badRequest()
+                                .body(new MessageResponse("Error: No se pudo registrar - " + causa.getMessage()));
+                    });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse("Error: " + e.getMessage())));
         }
     }
     
@@ -42,20 +57,56 @@ public class AuthController {
     /**
      * Endpoint para login de usuarios
      * POST /api/auth/login
+     * La respuesta es asíncrona: el hilo de la petición se libera mientras se verifica la contraseña
      * @param loginRequest - Credenciales (nombreUsuario, contrasena)
-     * @return JwtResponse con token y datos del usuario
+     * @return JwtResponse con token y datos del usuario (503 si el pool de hash está saturado)
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        try {
+            return authService.login(loginRequest)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(e -> {
+                        Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        return ResponseEntity.badRequest()
+                                .body(new MessageResponse("Error: Credenciales inválidas - " + causa.getMessage()));
+                    });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse("Error: " + e.getMessage())));
+        }
+    }
+    
+    /**
+     * Renovar el token de acceso
+     * POST /api/auth/refresh
+     * @param request - Token de refresco (se rota: usar el nuevo de la respuesta)
+     * @return JwtResponse con token y token de refresco nuevos
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
         try {
-            JwtResponse response = authService.login(loginRequest);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(authService.refrescar(request.getRefreshToken()));
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(new MessageResponse("Error: Credenciales inválidas - " + e.getMessage()));
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Error: No se pudo renovar la sesión - " + e.getMessage()));
         }
     }
     
+    /**
+     * Cerrar sesión: revoca la sesión del token (refresco y tokens de acceso emitidos)
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> logout(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestAttribute(name = AuthTokenFilter.ATRIBUTO_SESION, required = false) UUID sesionId) {
+        authService.logout(userDetails.getId(), sesionId);
+        return ResponseEntity.ok(new MessageResponse("Sesión cerrada correctamente"));
+    }
+    
     /**
      * Endpoint de prueba para verificar que los controladores funcionan
      * GET /api/auth/test
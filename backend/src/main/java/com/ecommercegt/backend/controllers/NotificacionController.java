@@ -4,13 +4,17 @@ import com.ecommercegt.backend.models.entidades.Notificacion;
 import com.ecommercegt.backend.dto.request.NotificacionRequest;
 
 import com.ecommercegt.backend.dto.response.NotificacionResponse;
+import com.ecommercegt.backend.security.jwt.AuthTokenFilter;
+import com.ecommercegt.backend.security.jwt.JwtUtils;
 import com.ecommercegt.backend.security.service.UserDetailsImpl;
 import com.ecommercegt.backend.service.NotificacionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -44,6 +48,9 @@ public class NotificacionController {
     
     @Autowired
     private NotificacionService notificacionService;
+
+    @Autowired
+    private JwtUtils jwtUtils;
     
     /**
      * Obtener mis notificaciones (paginadas)
@@ -95,6 +102,36 @@ public class NotificacionController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Stream de notificaciones en tiempo real (Server-Sent Events)
+     * GET /api/notificaciones/stream
+     * 
+     * Reemplaza el polling de /no-leidas/count y /recientes.
+     * Eventos: "notificacion" (nueva notificación) y "no-leidas" ({"count": N})
+     * EventSource no permite headers: se abre con ?ticket=... (ver /stream/ticket);
+     * el JWT de acceso no se acepta en la URL
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        return notificacionService.suscribir(userDetails.getId());
+    }
+    
+    /**
+     * Emitir un ticket para abrir el stream
+     * POST /api/notificaciones/stream/ticket
+     *
+     * Un solo uso y vida corta (jwt.stream.ticket-ms): al reconectar hay que pedir otro
+     */
+    @PostMapping("/stream/ticket")
+    public ResponseEntity<Map<String, Object>> emitirTicketStream(
+            Authentication authentication,
+            @RequestAttribute(name = AuthTokenFilter.ATRIBUTO_SESION, required = false) UUID sesionId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("ticket", jwtUtils.generateStreamTicket(authentication, sesionId));
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Obtener últimas 5 notificaciones (vista rápida)
      * GET /api/notificaciones/recientes
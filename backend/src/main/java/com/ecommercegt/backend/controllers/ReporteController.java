@@ -1,19 +1,32 @@
 package com.ecommercegt.backend.controllers;
 
 import com.ecommercegt.backend.dto.response.*;
+import com.ecommercegt.backend.service.ReporteExportService;
 import com.ecommercegt.backend.service.ReporteService;
+import com.ecommercegt.backend.service.ReporteTrabajoService;
+import com.ecommercegt.backend.service.VentasVendedorService;
+import com.ecommercegt.backend.dto.request.TrabajoReporteRequest;
+import com.ecommercegt.backend.models.entidades.TrabajoReporte;
+import com.ecommercegt.backend.models.enums.EstadoTrabajoReporte;
+import jakarta.validation.Valid;
 import com.ecommercegt.backend.models.entidades.Sancion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/reportes")
@@ -22,6 +35,9 @@ import java.util.List;
 public class ReporteController {
     
     private final ReporteService reporteService;
+    private final ReporteExportService reporteExportService;
+    private final ReporteTrabajoService reporteTrabajoService;
+    private final VentasVendedorService ventasVendedorService;
     
     @GetMapping("/productos-mas-vendidos")
     //@PreAuthorize("hasAuthority('ADMIN')")
@@ -116,4 +132,165 @@ public class ReporteController {
         
         return ResponseEntity.ok(notificaciones);
     }
-}
\ No newline at end of file
+    
+    // ==================== EXPORTACIÓN COMPLETA (STREAMING) ====================
+    
+    /**
+     * Exportar ventas por producto del período
+     * GET /api/reportes/export/productos?fechaInicio=2025-01-01&fechaFin=2025-12-31&formato=csv|xlsx
+     */
+    @GetMapping("/export/productos")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarProductos(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "csv") String formato) {
+        
+        ReporteExportService.Formato tipo = ReporteExportService.Formato.desde(formato);
+        LocalDateTime inicio = fechaInicio.atStartOfDay();
+        LocalDateTime fin = fechaFin.atTime(LocalTime.MAX);
+        
+        return descarga("productos_" + fechaInicio + "_" + fechaFin, tipo,
+                salida -> reporteExportService.exportarProductos(inicio, fin, tipo, salida));
+    }
+    
+    /**
+     * Exportar compras por cliente del período
+     * GET /api/reportes/export/clientes?fechaInicio=2025-01-01&fechaFin=2025-12-31&formato=csv|xlsx
+     */
+    @GetMapping("/export/clientes")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarClientes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(defaultValue = "csv") String formato) {
+        
+        ReporteExportService.Formato tipo = ReporteExportService.Formato.desde(formato);
+        LocalDateTime inicio = fechaInicio.atStartOfDay();
+        LocalDateTime fin = fechaFin.atTime(LocalTime.MAX);
+        
+        return descarga("clientes_" + fechaInicio + "_" + fechaFin, tipo,
+                salida -> reporteExportService.exportarClientes(inicio, fin, tipo, salida));
+    }
+    
+    // ==================== TRABAJOS DE REPORTE ASÍNCRONOS ====================
+    
+    /**
+     * Solicitar un reporte en segundo plano
+     * POST /api/reportes/trabajos
+     * Devuelve 202 con el ID del trabajo (o el de un trabajo idéntico en curso)
+     * y 503 con Retry-After si la cola de trabajos está llena
+     */
+    @PostMapping("/trabajos")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> solicitarTrabajo(@Valid @RequestBody TrabajoReporteRequest request) {
+        try {
+            TrabajoReporteResponse trabajo = reporteTrabajoService.solicitar(
+                    request.getTipo(), request.getFechaInicio(), request.getFechaFin());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(trabajo);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(new MessageResponse("Error al solicitar reporte: " + e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al solicitar reporte: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Consultar el estado de un trabajo
+     * GET /api/reportes/trabajos/{id}
+     */
+    @GetMapping("/trabajos/{id}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> obtenerTrabajo(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(reporteTrabajoService.obtenerEstado(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Error al obtener trabajo: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Descargar el resultado (JSON) de un trabajo completado
+     * GET /api/reportes/trabajos/{id}/resultado
+     * Si el cliente acepta gzip se envía el resultado tal como está guardado
+     */
+    @GetMapping("/trabajos/{id}/resultado")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> obtenerResultadoTrabajo(
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion) {
+        TrabajoReporte trabajo;
+        try {
+            trabajo = reporteTrabajoService.obtener(id);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Error al obtener trabajo: " + e.getMessage()));
+        }
+        if (trabajo.getEstado() != EstadoTrabajoReporte.COMPLETADO) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("El reporte no está disponible, estado: " + trabajo.getEstado()));
+        }
+        
+        if (aceptaCodificacion != null && aceptaCodificacion.contains("gzip")) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .body(trabajo.getResultado());
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .body(reporteTrabajoService.descomprimir(trabajo.getResultado()));
+    }
+    
+    // ==================== ANALÍTICA DE VENDEDORES ====================
+    
+    /**
+     * Analítica de un vendedor en el período (desde el cubo vendedor × día)
+     * GET /api/reportes/vendedores/{vendedorId}/analitica?fechaInicio=2025-01-01&fechaFin=2025-12-31
+     */
+    @GetMapping("/vendedores/{vendedorId}/analitica")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> getAnaliticaVendedor(
+            @PathVariable UUID vendedorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+        try {
+            return ResponseEntity.ok(ventasVendedorService.obtenerAnalitica(vendedorId, fechaInicio, fechaFin));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al obtener analítica: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Analítica del vendedor autenticado
+     * GET /api/reportes/vendedores/mi-analitica?fechaInicio=2025-01-01&fechaFin=2025-12-31
+     */
+    @GetMapping("/vendedores/mi-analitica")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getMiAnalitica(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+        try {
+            return ResponseEntity.ok(ventasVendedorService.obtenerMiAnalitica(fechaInicio, fechaFin));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al obtener analítica: " + e.getMessage()));
+        }
+    }
+    
+    private ResponseEntity<StreamingResponseBody> descarga(
+            String nombre, ReporteExportService.Formato tipo, StreamingResponseBody cuerpo) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + nombre + "." + tipo.getExtension() + "\"")
+                .contentType(MediaType.parseMediaType(tipo.getContentType()))
+                .body(cuerpo);
+    }
+}
@@ -2,9 +2,12 @@ package com.ecommercegt.backend.controllers;
 
 import com.ecommercegt.backend.dto.request.ActualizarReviewRequest;
 import com.ecommercegt.backend.dto.request.CrearReviewRequest;
+import com.ecommercegt.backend.dto.request.ModerarReviewsLoteRequest;
 import com.ecommercegt.backend.dto.request.VotarReviewRequest;
 import com.ecommercegt.backend.dto.response.EstadisticasReviewsResponse;
+import com.ecommercegt.backend.dto.response.GrupoReviewsDuplicadasResponse;
 import com.ecommercegt.backend.dto.response.MessageResponse;
+import com.ecommercegt.backend.dto.response.ModeracionLoteResponse;
 import com.ecommercegt.backend.dto.response.ReviewResponse;
 import com.ecommercegt.backend.dto.response.VotoResponse;
 import com.ecommercegt.backend.service.ReviewService;
@@ -18,6 +21,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -214,6 +218,46 @@ public class ReviewController {
         }
     }
     
+    /**
+     * Aprobar varias reviews en lote (MODERADOR/ADMIN)
+     * PUT /api/reviews/aprobar-lote
+     * 
+     * Body: { "reviewIds": [1, 2, 3] }
+     * 
+     * Requiere rol MODERADOR o ADMIN
+     */
+    @PutMapping("/aprobar-lote")
+    @PreAuthorize("hasAnyAuthority('MODERADOR', 'ADMIN')")
+    public ResponseEntity<?> aprobarReviewsEnLote(@Valid @RequestBody ModerarReviewsLoteRequest request) {
+        try {
+            ModeracionLoteResponse resultado = reviewService.aprobarReviewsEnLote(request);
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al aprobar reviews: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Rechazar varias reviews en lote (MODERADOR/ADMIN)
+     * PUT /api/reviews/rechazar-lote
+     * 
+     * Body: { "reviewIds": [1, 2, 3], "motivo": "opcional" }
+     * 
+     * Requiere rol MODERADOR o ADMIN
+     */
+    @PutMapping("/rechazar-lote")
+    @PreAuthorize("hasAnyAuthority('MODERADOR', 'ADMIN')")
+    public ResponseEntity<?> rechazarReviewsEnLote(@Valid @RequestBody ModerarReviewsLoteRequest request) {
+        try {
+            ModeracionLoteResponse resultado = reviewService.rechazarReviewsEnLote(request);
+            return ResponseEntity.ok(resultado);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al rechazar reviews: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Obtener reviews pendientes de aprobación (MODERADOR/ADMIN)
      * GET /api/reviews/pendientes
@@ -229,4 +273,40 @@ public class ReviewController {
         Page<ReviewResponse> reviews = reviewService.obtenerReviewsPendientes(pageable);
         return ResponseEntity.ok(reviews);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Obtener grupos de reviews casi duplicadas (MODERADOR/ADMIN)
+     * GET /api/reviews/duplicados?limite=20
+     * 
+     * Agrupa reviews con texto casi idéntico (índice MinHash/LSH)
+     * Solo incluye grupos con al menos una review pendiente
+     * 
+     * Requiere rol MODERADOR o ADMIN
+     */
+    @GetMapping("/duplicados")
+    @PreAuthorize("hasAnyAuthority('MODERADOR', 'ADMIN')")
+    public ResponseEntity<List<GrupoReviewsDuplicadasResponse>> obtenerGruposDuplicados(
+            @RequestParam(defaultValue = "20") int limite) {
+        List<GrupoReviewsDuplicadasResponse> grupos = reviewService.obtenerGruposDuplicados(limite);
+        return ResponseEntity.ok(grupos);
+    }
+    
+    /**
+     * Reconstruir el índice de duplicados desde la base de datos (ADMIN)
+     * POST /api/reviews/duplicados/reconstruir
+     * 
+     * Requiere rol ADMIN
+     */
+    @PostMapping("/duplicados/reconstruir")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<?> reconstruirIndiceDuplicados() {
+        try {
+            int indexadas = reviewService.reconstruirIndiceDuplicados();
+            return ResponseEntity.ok(new MessageResponse(
+                    "Índice de duplicados reconstruido: " + indexadas + " reviews indexadas"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error al reconstruir índice: " + e.getMessage()));
+        }
+    }
+}
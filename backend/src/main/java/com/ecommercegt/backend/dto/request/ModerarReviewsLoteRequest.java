@@ -0,0 +1,34 @@
+package com.ecommercegt.backend.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO Request para moderar varias reviews a la vez
+ * 
+ * Usado por los endpoints de aprobación/rechazo en lote
+ * de la cola de moderación
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModerarReviewsLoteRequest {
+    
+    /**
+     * IDs de las reviews a moderar
+     */
+    @NotEmpty(message = "Debe indicar al menos una review")
+    @Size(max = 500, message = "No se pueden moderar más de 500 reviews a la vez")
+    private List<Long> reviewIds;
+    
+    /**
+     * Motivo del rechazo (opcional, solo aplica al rechazar)
+     */
+    @Size(max = 500, message = "El motivo no puede exceder 500 caracteres")
+    private String motivo;
+}
@@ -2,11 +2,13 @@ package com.ecommercegt.backend.dto.request;
 
 import com.ecommercegt.backend.models.enums.TipoNotificacion;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 // import java.util.Map;
 import java.util.UUID;
 
 @Data
+@NoArgsConstructor
 public class NotificacionRequest {
     private UUID usuarioId;
     private TipoNotificacion tipo;
@@ -14,4 +16,14 @@ public class NotificacionRequest {
     private String mensaje;
     private String url;
     private String datos;
+    private String clave;
+
+    // Constructor de conveniencia (notificaciones en lote)
+    public NotificacionRequest(UUID usuarioId, TipoNotificacion tipo, String titulo, String mensaje, String url) {
+        this.usuarioId = usuarioId;
+        this.tipo = tipo;
+        this.titulo = titulo;
+        this.mensaje = mensaje;
+        this.url = url;
+    }
 }
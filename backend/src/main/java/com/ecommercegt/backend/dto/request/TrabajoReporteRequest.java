@@ -0,0 +1,22 @@
+package com.ecommercegt.backend.dto.request;
+
+import com.ecommercegt.backend.models.enums.TipoReporte;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * DTO para solicitar un reporte asíncrono
+ * Las fechas son obligatorias salvo para CLIENTES_POR_PRODUCTOS
+ */
+@Data
+public class TrabajoReporteRequest {
+    
+    @NotNull(message = "El tipo de reporte es obligatorio")
+    private TipoReporte tipo;
+    
+    private LocalDate fechaInicio;
+    
+    private LocalDate fechaFin;
+}
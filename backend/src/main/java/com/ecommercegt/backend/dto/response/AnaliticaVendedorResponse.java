@@ -0,0 +1,51 @@
+package com.ecommercegt.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO para la analítica de ventas de un vendedor en un período
+ * (servida desde el cubo vendedor × día)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnaliticaVendedorResponse {
+    
+    private UUID vendedorId;
+    private String nombreCompleto;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    
+    // Ventas del período (pedidos entregados)
+    private Long unidadesVendidas;
+    private BigDecimal ingresos;
+    private Long pedidos;
+    private BigDecimal ticketPromedio;
+    
+    // Productos creados en el período
+    private Long productosPublicadosPeriodo;
+    private Long productosAprobadosPeriodo;
+    
+    // Productos actuales del vendedor
+    private Long productosPublicados;
+    private Long productosAprobados;
+    
+    private List<VentaDiaResponse> ventasPorDia;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VentaDiaResponse {
+        private LocalDate fecha;
+        private Long unidades;
+        private BigDecimal ingresos;
+        private Long pedidos;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommercegt.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compradores distintos estimados (HyperLogLog) de una categoría en un período
+ * categoriaId null = todas las categorías
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompradoresUnicosResponse {
+    private Integer categoriaId;
+    private String categoriaNombre;
+    private Long compradoresEstimados;
+    private Double errorRelativo;
+}
@@ -5,7 +5,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO para Dashboard del Administrador
@@ -182,4 +184,21 @@ public class DashboardAdminResponse {
      * Productos sin stock
      */
     private Long productosSinStock;
+    
+    // ==================== DIAGNÓSTICO ====================
+    
+    /**
+     * Momento en que se calculó el snapshot servido
+     */
+    private LocalDateTime fechaSnapshot;
+    
+    /**
+     * Tiempo de cada sección del cálculo en milisegundos (incluye "total")
+     */
+    private Map<String, Long> tiemposMs;
+    
+    /**
+     * Secciones que fallaron o superaron su timeout (sus métricas quedan vacías)
+     */
+    private List<String> seccionesFallidas;
 }
\ No newline at end of file
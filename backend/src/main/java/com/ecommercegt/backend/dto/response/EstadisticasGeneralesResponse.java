@@ -5,8 +5,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO Response para estadísticas generales del admin panel
@@ -188,4 +191,21 @@ public class EstadisticasGeneralesResponse {
         private BigDecimal total;
         private String estado;
     }
+    
+    // ==================== DIAGNÓSTICO ====================
+    
+    /**
+     * Momento en que se calculó el snapshot servido
+     */
+    private LocalDateTime fechaSnapshot;
+    
+    /**
+     * Tiempo de cada sección del cálculo en milisegundos (incluye "total")
+     */
+    private Map<String, Long> tiemposMs = new LinkedHashMap<>();
+    
+    /**
+     * Secciones que fallaron o superaron su timeout (sus métricas quedan en cero)
+     */
+    private List<String> seccionesFallidas = new ArrayList<>();
 }
\ No newline at end of file
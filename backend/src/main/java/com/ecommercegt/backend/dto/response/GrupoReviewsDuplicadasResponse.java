@@ -0,0 +1,27 @@
+package com.ecommercegt.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO Response para un grupo de reviews casi duplicadas
+ * Usado en la cola de moderación para revisar oleadas de spam juntas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrupoReviewsDuplicadasResponse {
+    
+    /**
+     * Cantidad de reviews en el grupo
+     */
+    private Integer cantidad;
+    
+    /**
+     * Reviews del grupo (más recientes primero)
+     */
+    private List<ReviewResponse> reviews;
+}
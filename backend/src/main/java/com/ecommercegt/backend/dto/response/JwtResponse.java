@@ -14,6 +14,7 @@ public class JwtResponse {
     
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
     private UUID id;
     private String nombreUsuario;
     private String correo;
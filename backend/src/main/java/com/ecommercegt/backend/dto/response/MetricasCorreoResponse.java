@@ -0,0 +1,51 @@
+package com.ecommercegt.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO Response con métricas del despacho asíncrono de correos
+ * Contadores acumulados desde el inicio de la aplicación
+ * más el estado actual de la cola
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasCorreoResponse {
+    
+    // ==================== CONTADORES ====================
+    
+    private Long encolados;
+    private Long enviados;
+    private Long reintentosProgramados;
+    private Long fallidosDefinitivos;
+    private Long lotesProcesados;
+    
+    // ==================== RENDIMIENTO ====================
+    
+    /**
+     * Correos enviados por segundo desde el inicio
+     */
+    private Double enviadosPorSegundo;
+    
+    /**
+     * Tiempo promedio de envío de un lote al servidor SMTP (ms)
+     */
+    private Double latenciaPromedioLoteMs;
+    
+    /**
+     * Tiempo promedio desde que se encola hasta que se envía (ms)
+     */
+    private Double latenciaPromedioEntregaMs;
+    
+    // ==================== ESTADO DE LA COLA ====================
+    
+    private Long pendientes;
+    private Long enviando;
+    private Long enDeadLetter;
+    
+    private LocalDateTime desde;
+}
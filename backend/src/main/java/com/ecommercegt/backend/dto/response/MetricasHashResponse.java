@@ -0,0 +1,49 @@
+package com.ecommercegt.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO Response con métricas del pool de hash de contraseñas
+ * Contadores acumulados desde el inicio de la aplicación
+ * más el estado actual del pool
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasHashResponse {
+
+    // ==================== CONFIGURACIÓN ====================
+
+    private Integer costo;
+    private Integer workers;
+    private Integer capacidadCola;
+
+    // ==================== CONTADORES ====================
+
+    /**
+     * Operaciones bcrypt (encode y matches)
+     */
+    private Long hashes;
+
+    /**
+     * Tareas ejecutadas en el pool (un login, un registro, etc.)
+     */
+    private Long tareas;
+
+    /**
+     * Tareas rechazadas por cola llena
+     */
+    private Long rechazadas;
+
+    // ==================== LATENCIA ====================
+
+    private Double latenciaPromedioHashMs;
+    private Double esperaPromedioColaMs;
+
+    // ==================== ESTADO DEL POOL ====================
+
+    private Integer enCola;
+    private Integer activos;
+}
@@ -0,0 +1,33 @@
+package com.ecommercegt.backend.dto.response;
+
+import com.ecommercegt.backend.models.enums.GrupoLimite;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO Response con métricas del límite de peticiones de un grupo de rutas
+ * Contadores acumulados desde el inicio de la aplicación
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasLimiteResponse {
+    
+    private GrupoLimite grupo;
+    
+    // ==================== CONFIGURACIÓN ====================
+    
+    private Integer capacidad;
+    private Double recargaPorSegundo;
+    
+    // ==================== CONTADORES ====================
+    
+    private Long permitidas;
+    private Long rechazadas;
+    
+    /**
+     * Claves (IP o usuario) con cubeta en memoria en este momento
+     */
+    private Integer clavesActivas;
+}
@@ -0,0 +1,29 @@
+package com.ecommercegt.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO Response para el resultado de una moderación de reviews en lote
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModeracionLoteResponse {
+    
+    /**
+     * Mensaje de confirmación
+     */
+    private String mensaje;
+    
+    /**
+     * Cantidad de reviews actualizadas
+     */
+    private Integer reviewsProcesadas;
+    
+    /**
+     * Cantidad de productos cuyo promedio fue recalculado
+     */
+    private Integer productosRecalculados;
+}
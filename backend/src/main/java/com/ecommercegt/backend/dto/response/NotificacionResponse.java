@@ -25,6 +25,11 @@ public class NotificacionResponse {
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaLectura;
     
+    /**
+     * Cantidad de eventos agrupados (1 si no se agrupó)
+     */
+    private Integer cantidad;
+    
     /**
      * Tiempo relativo (hace 5 minutos, hace 2 horas, etc.)
      */
@@ -44,6 +49,7 @@ public class NotificacionResponse {
         response.setDatos(notificacion.getDatos());
         response.setFechaCreacion(notificacion.getFechaCreacion());
         response.setFechaLectura(notificacion.getFechaLectura());
+        response.setCantidad(notificacion.getCantidad() != null ? notificacion.getCantidad() : 1);
         response.setTiempoRelativo(calcularTiempoRelativo(notificacion.getFechaCreacion()));
         return response;
     }
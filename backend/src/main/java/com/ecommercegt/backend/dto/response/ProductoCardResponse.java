@@ -70,9 +70,9 @@ public class ProductoCardResponse {
         
         response.setMarca(producto.getMarca());
         
-        // Imagen principal (primera imagen)
+        // Imagen principal (primera imagen, en tamaño tarjeta si ya se generó)
         if (producto.getImagenes() != null && !producto.getImagenes().isEmpty()) {
-            response.setImagenPrincipal(producto.getImagenes().get(0).getUrlImagen());
+            response.setImagenPrincipal(producto.getImagenes().get(0).urlParaTarjeta());
         }
         
         response.setCalificacionPromedio(producto.getCalificacionPromedio());
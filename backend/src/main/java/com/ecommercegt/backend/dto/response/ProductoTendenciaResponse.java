@@ -0,0 +1,21 @@
+package com.ecommercegt.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Producto más vendido estimado (Count-Min Sketch) en un período
+ * unidadesEstimadas nunca es menor al valor real y lo supera como mucho en errorMaximo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoTendenciaResponse {
+    private UUID productoId;
+    private String nombre;
+    private Long unidadesEstimadas;
+    private Long errorMaximo;
+}
@@ -81,6 +81,11 @@ public class ReviewResponse {
      */
     private Boolean aprobado;
     
+    /**
+     * Indica si el texto es casi idéntico al de otra review
+     */
+    private Boolean posibleDuplicado;
+    
     /**
      * Fecha de creación
      */
@@ -0,0 +1,50 @@
+package com.ecommercegt.backend.dto.response;
+
+import com.ecommercegt.backend.models.entidades.TrabajoReporte;
+import com.ecommercegt.backend.models.enums.EstadoTrabajoReporte;
+import com.ecommercegt.backend.models.enums.TipoReporte;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * DTO con el estado de un trabajo de reporte (sin el resultado)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrabajoReporteResponse {
+    
+    private UUID id;
+    private TipoReporte tipo;
+    private EstadoTrabajoReporte estado;
+    private LocalDate fechaInicioReporte;
+    private LocalDate fechaFinReporte;
+    private Integer filas;
+    private String error;
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+    
+    /**
+     * Constructor desde entidad
+     */
+    public static TrabajoReporteResponse fromTrabajo(TrabajoReporte trabajo) {
+        TrabajoReporteResponse response = new TrabajoReporteResponse();
+        response.setId(trabajo.getId());
+        response.setTipo(trabajo.getTipo());
+        response.setEstado(trabajo.getEstado());
+        response.setFechaInicioReporte(trabajo.getFechaInicioReporte());
+        response.setFechaFinReporte(trabajo.getFechaFinReporte());
+        response.setFilas(trabajo.getFilas());
+        response.setError(trabajo.getError());
+        response.setFechaCreacion(trabajo.getFechaCreacion());
+        response.setFechaInicio(trabajo.getFechaInicio());
+        response.setFechaFin(trabajo.getFechaFin());
+        return response;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommercegt.backend.models.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidad ContadorNotificaciones - Contador de notificaciones no leídas por usuario
+ * 
+ * Se mantiene con UPDATEs atómicos en la misma transacción que crea, lee
+ * o elimina la notificación, para que el contador del header no tenga que
+ * hacer COUNT sobre la tabla de notificaciones.
+ * Un reconciliador periódico corrige cualquier desvío.
+ */
+@Entity
+@Table(name = "contadores_notificaciones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContadorNotificaciones {
+    
+    /**
+     * Usuario dueño del contador
+     */
+    @Id
+    @Column(name = "usuario_id", columnDefinition = "UUID")
+    private UUID usuarioId;
+    
+    /**
+     * Cantidad de notificaciones no leídas
+     */
+    @Column(name = "no_leidas", nullable = false)
+    private Long noLeidas = 0L;
+    
+    /**
+     * Última modificación del contador
+     */
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+}
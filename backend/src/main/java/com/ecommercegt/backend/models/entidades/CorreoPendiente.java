@@ -0,0 +1,133 @@
+package com.ecommercegt.backend.models.entidades;
+
+import com.ecommercegt.backend.models.enums.EstadoCorreo;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad CorreoPendiente - Cola persistente de correos salientes
+ * 
+ * Los servicios encolan el correo en la misma transacción que el evento
+ * que lo origina; los workers de CorreoDespachador lo envían después
+ * por lotes, fuera del hilo de la petición.
+ * 
+ * Ciclo de vida:
+ * PENDIENTE → ENVIANDO → ENVIADO
+ *                      → PENDIENTE (reintento con backoff exponencial)
+ *                      → FALLIDO (agotó reintentos)
+ */
+@Entity
+@Table(name = "correos_pendientes", indexes = {
+    @Index(name = "idx_correos_estado_proximo", columnList = "estado, proximo_intento")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorreoPendiente {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * Dirección de correo del destinatario
+     */
+    @Column(nullable = false, length = 255)
+    private String destinatario;
+    
+    /**
+     * Asunto del correo
+     */
+    @Column(nullable = false, length = 255)
+    private String asunto;
+    
+    /**
+     * Cuerpo del correo (texto plano)
+     */
+    @Column(columnDefinition = "TEXT")
+    private String mensaje;
+    
+    /**
+     * Estado actual en la cola
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoCorreo estado = EstadoCorreo.PENDIENTE;
+    
+    /**
+     * Cantidad de intentos de envío realizados
+     */
+    @Column(nullable = false)
+    private Integer intentos = 0;
+    
+    /**
+     * Momento a partir del cual puede (re)intentarse el envío
+     */
+    @Column(name = "proximo_intento", nullable = false)
+    private LocalDateTime proximoIntento;
+    
+    /**
+     * Momento en que un worker reclamó el correo (para recuperar envíos colgados)
+     */
+    @Column(name = "fecha_reclamo")
+    private LocalDateTime fechaReclamo;
+    
+    /**
+     * Último error de envío (si aplica)
+     */
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+    
+    @CreationTimestamp
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+    
+    /**
+     * Fecha en que se entregó al servidor SMTP
+     */
+    @Column(name = "fecha_envio")
+    private LocalDateTime fechaEnvio;
+    
+    // Constructor de conveniencia
+    public CorreoPendiente(String destinatario, String asunto, String mensaje) {
+        this.destinatario = destinatario;
+        this.asunto = asunto;
+        this.mensaje = mensaje;
+        this.estado = EstadoCorreo.PENDIENTE;
+        this.intentos = 0;
+        this.proximoIntento = LocalDateTime.now();
+    }
+    
+    // ==================== MÉTODOS DE UTILIDAD ====================
+    
+    /**
+     * Marcar como enviado
+     */
+    public void marcarEnviado() {
+        this.estado = EstadoCorreo.ENVIADO;
+        this.fechaEnvio = LocalDateTime.now();
+        this.ultimoError = null;
+    }
+    
+    /**
+     * Registrar un intento fallido
+     * Programa un reintento con backoff exponencial o pasa a FALLIDO
+     * si se alcanzó el máximo de intentos
+     */
+    public void registrarFallo(String error, int maxIntentos, long backoffBaseSegundos, long backoffMaxSegundos) {
+        this.intentos = this.intentos + 1;
+        this.ultimoError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (this.intentos >= maxIntentos) {
+            this.estado = EstadoCorreo.FALLIDO;
+            return;
+        }
+        long espera = backoffBaseSegundos << Math.min(this.intentos - 1, 30);
+        this.estado = EstadoCorreo.PENDIENTE;
+        this.proximoIntento = LocalDateTime.now().plusSeconds(Math.min(espera, backoffMaxSegundos));
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommercegt.backend.models.entidades;
 
+import com.ecommercegt.backend.models.enums.EstadoImagen;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,8 +10,17 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Entidad ImagenProducto - Imagen subida para un producto
+ * 
+ * urlImagen es el original. Las variantes (miniatura, tarjeta, detalle) se
+ * generan en segundo plano (ver ImagenVariantesService); mientras no existan
+ * se usa el original.
+ */
 @Entity
-@Table(name = "imagenes_producto")
+@Table(name = "imagenes_producto", indexes = {
+    @Index(name = "idx_imagenes_producto_estado_variantes", columnList = "estado_variantes")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +33,22 @@ public class ImagenProducto {
     @Column(name = "url_imagen", nullable = false, length = 500)
     private String urlImagen;
     
+    @Column(name = "url_miniatura", length = 500)
+    private String urlMiniatura;
+    
+    @Column(name = "url_tarjeta", length = 500)
+    private String urlTarjeta;
+    
+    @Column(name = "url_detalle", length = 500)
+    private String urlDetalle;
+    
+    /**
+     * null en imágenes anteriores a las variantes: se procesan como PENDIENTE
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_variantes", length = 20)
+    private EstadoImagen estadoVariantes = EstadoImagen.PENDIENTE;
+    
     @Column(name = "es_principal")
     private Boolean esPrincipal = false;
     
@@ -37,4 +63,25 @@ public class ImagenProducto {
     @CreationTimestamp
     @Column(name = "fecha_subida", nullable = false, updatable = false)
     private LocalDateTime fechaSubida;
-}
\ No newline at end of file
+    
+    /**
+     * URL para listados (tarjeta de producto), o el original si todavía no se generó
+     */
+    public String urlParaTarjeta() {
+        return urlTarjeta != null ? urlTarjeta : urlImagen;
+    }
+    
+    /**
+     * URL para miniaturas (carrito, pedidos), o el original si todavía no se generó
+     */
+    public String urlParaMiniatura() {
+        return urlMiniatura != null ? urlMiniatura : urlImagen;
+    }
+    
+    /**
+     * URL para la vista de detalle del producto, o el original si todavía no se generó
+     */
+    public String urlParaDetalle() {
+        return urlDetalle != null ? urlDetalle : urlImagen;
+    }
+}
@@ -26,7 +26,9 @@ import java.util.UUID;
  * - N:1 con Pedido (muchos items pertenecen a un pedido)
  */
 @Entity
-@Table(name = "items_pedido")
+@Table(name = "items_pedido", indexes = {
+    @Index(name = "idx_items_pedido_producto_pedido", columnList = "producto_id, pedido_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -68,6 +70,13 @@ public class ItemPedido {
     @Column(name = "vendedor_nombre", length = 200)
     private String vendedorNombre;
     
+    /**
+     * ID del vendedor (SNAPSHOT, para el cubo de ventas por vendedor)
+     * Nullable: los items anteriores se completan al reconstruir el cubo
+     */
+    @Column(name = "vendedor_id")
+    private UUID vendedorId;
+    
     /**
      * Cantidad de unidades compradas
      */
@@ -110,12 +119,13 @@ public class ItemPedido {
         
         // Obtener primera imagen si existe
         if (producto.getImagenes() != null && !producto.getImagenes().isEmpty()) {
-            this.productoImagen = producto.getImagenes().get(0).getUrlImagen();
+            this.productoImagen = producto.getImagenes().get(0).urlParaMiniatura();
         } else {
             this.productoImagen = null;
         }
         
         this.vendedorNombre = producto.getVendedor().getNombreUsuario();
+        this.vendedorId = producto.getVendedor().getId();
         this.cantidad = cantidad;
         this.precioUnitario = producto.getPrecioFinal();
         calcularSubtotal();
@@ -14,7 +14,13 @@ import java.time.LocalDateTime;
  * Almacena notificaciones para usuarios sobre eventos del sistema
  */
 @Entity
-@Table(name = "notificaciones")
+@Table(name = "notificaciones", indexes = {
+    @Index(name = "idx_notificaciones_tipo_fecha", columnList = "tipo, fecha_creacion"),
+    @Index(name = "idx_notificaciones_usuario_leida", columnList = "usuario_id, leida"),
+    @Index(name = "idx_notificaciones_usuario_actualizacion", columnList = "usuario_id, fecha_actualizacion"),
+    @Index(name = "idx_notificaciones_usuario_clave", columnList = "usuario_id, clave"),
+    @Index(name = "idx_notificaciones_correo_pendiente", columnList = "correo_pendiente, usuario_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -83,6 +89,33 @@ public class Notificacion {
     @Column(name = "fecha_lectura")
     private LocalDateTime fechaLectura;
     
+    /**
+     * Clave de agrupación (ej. pedido:ORD-123, venta:<productoId>)
+     * Eventos con la misma clave dentro de la ventana se agrupan en esta notificación.
+     * null = no se agrupa
+     */
+    @Column(length = 150)
+    private String clave;
+    
+    /**
+     * Cantidad de eventos agrupados en esta notificación
+     */
+    @Column(columnDefinition = "INTEGER DEFAULT 1")
+    private Integer cantidad = 1;
+    
+    /**
+     * Fecha del último evento agrupado (inicio de la ventana de agrupación)
+     * Las listas del usuario se ordenan por esta fecha
+     */
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+    
+    /**
+     * Pendiente de incluir en el próximo correo resumen
+     */
+    @Column(name = "correo_pendiente", columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private Boolean correoPendiente = false;
+    
     // Constructor de conveniencia
     public Notificacion(Usuario usuario, TipoNotificacion tipo, String titulo, String mensaje, String url) {
         this.usuario = usuario;
@@ -30,7 +30,9 @@ import java.util.UUID;
  * 6. Vendedor actualiza estados
  */
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+    @Index(name = "idx_pedidos_usuario_estado", columnList = "usuario_id, estado")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
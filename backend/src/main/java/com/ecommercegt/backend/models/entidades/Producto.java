@@ -1,6 +1,8 @@
 package com.ecommercegt.backend.models.entidades;
 
 import com.ecommercegt.backend.models.enums.EstadoProducto;
+import com.ecommercegt.backend.models.listeners.ProductoEventosListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,6 +18,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "productos")
+@EntityListeners(ProductoEventosListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -64,6 +67,14 @@ public class Producto {
     @Column(nullable = false, length = 50)
     private EstadoProducto estado = EstadoProducto.APROBADO;
 
+    /**
+     * Estado guardado en la base de datos (lo mantiene ProductoEventosListener)
+     * Sirve para detectar cambios de estado al actualizar o eliminar
+     */
+    @Transient
+    @JsonIgnore
+    private EstadoProducto estadoPersistido;
+
     @Column(name = "destacado")
     private Boolean destacado = false;
 
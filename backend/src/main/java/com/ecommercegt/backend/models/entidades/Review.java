@@ -83,6 +83,13 @@ public class Review {
     @Column(nullable = false)
     private Boolean aprobado = false;
     
+    /**
+     * Indica si el texto es casi idéntico al de otra reseña
+     * (detectado por el índice MinHash/LSH al crear o editar)
+     */
+    @Column(name = "posible_duplicado", columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private Boolean posibleDuplicado = false;
+    
     /**
      * Fecha de creación de la reseña
      */
@@ -0,0 +1,49 @@
+package com.ecommercegt.backend.models.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidad RevocacionToken - Tokens JWT revocados de un usuario
+ * 
+ * Una fila por usuario (la última revocación):
+ * - Los tokens emitidos antes de revocadoDesde dejan de ser válidos
+ *   (cerrar sesión, cambio de permisos, etc.)
+ * - bloqueado = true invalida todos sus tokens mientras el usuario esté desactivado
+ * 
+ * Cada nodo mantiene una copia en memoria que se refresca leyendo solo las
+ * filas con fechaActualizacion reciente (ver RevocacionTokenService).
+ */
+@Entity
+@Table(name = "revocaciones_token", indexes = {
+    @Index(name = "idx_revocaciones_token_actualizacion", columnList = "fecha_actualizacion")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocacionToken {
+    
+    @Id
+    @Column(name = "usuario_id", columnDefinition = "UUID")
+    private UUID usuarioId;
+    
+    /**
+     * Los tokens emitidos antes de esta fecha no son válidos
+     */
+    @Column(name = "revocado_desde", nullable = false)
+    private LocalDateTime revocadoDesde;
+    
+    /**
+     * Usuario desactivado: ningún token es válido
+     */
+    @Column(nullable = false)
+    private Boolean bloqueado = false;
+    
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
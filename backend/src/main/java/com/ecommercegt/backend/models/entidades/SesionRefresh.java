@@ -0,0 +1,70 @@
+package com.ecommercegt.backend.models.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidad SesionRefresh - Sesión iniciada con login y renovada con tokens de refresco
+ * 
+ * - Solo se guarda el hash SHA-256 del token de refresco vigente, nunca el token
+ * - Cada renovación rota el token: el anterior queda en tokenHashAnterior para
+ *   detectar su reutilización (token robado), que revoca la sesión completa
+ * - Los tokens de acceso llevan el ID de la sesión (claim "sid"); al revocarla
+ *   dejan de aceptarse aunque no hayan expirado (ver RevocacionTokenService)
+ */
+@Entity
+@Table(name = "sesiones_refresh", indexes = {
+    @Index(name = "idx_sesiones_refresh_usuario", columnList = "usuario_id"),
+    @Index(name = "idx_sesiones_refresh_token_anterior", columnList = "token_hash_anterior"),
+    @Index(name = "idx_sesiones_refresh_revocacion", columnList = "fecha_revocacion")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sesiones_refresh_token", columnNames = "token_hash")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SesionRefresh {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+    
+    @Column(name = "usuario_id", nullable = false, columnDefinition = "UUID")
+    private UUID usuarioId;
+    
+    /**
+     * SHA-256 (hex) del token de refresco vigente
+     */
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+    
+    /**
+     * SHA-256 del token reemplazado en la última rotación
+     */
+    @Column(name = "token_hash_anterior", length = 64)
+    private String tokenHashAnterior;
+    
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+    
+    /**
+     * Vencimiento absoluto de la sesión (las rotaciones no lo extienden)
+     */
+    @Column(name = "fecha_expiracion", nullable = false)
+    private LocalDateTime fechaExpiracion;
+    
+    @Column(name = "fecha_rotacion")
+    private LocalDateTime fechaRotacion;
+    
+    @Column(nullable = false)
+    private Boolean revocada = false;
+    
+    @Column(name = "fecha_revocacion")
+    private LocalDateTime fechaRevocacion;
+}
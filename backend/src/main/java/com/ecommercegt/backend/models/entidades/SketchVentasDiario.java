@@ -0,0 +1,57 @@
+package com.ecommercegt.backend.models.entidades;
+
+import com.ecommercegt.backend.models.enums.TipoSketch;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad SketchVentasDiario - Sketch serializado de un día
+ * 
+ * Guarda los sketches de la analítica aproximada (HyperLogLog de compradores
+ * distintos, Count-Min Sketch de productos) por día, tipo y clave. Un rango de
+ * fechas se responde uniendo los sketches de cada día, sin recorrer pedidos.
+ * Lo escribe AnaliticaAproximadaService con JDBC.
+ */
+@Entity
+@Table(name = "sketches_ventas_diarios", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sketches_ventas_fecha_tipo_clave", columnNames = {"fecha", "tipo", "clave"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SketchVentasDiario {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * Día del pedido
+     */
+    @Column(nullable = false)
+    private LocalDate fecha;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoSketch tipo;
+    
+    /**
+     * ID de categoría, o "*" para el total
+     */
+    @Column(nullable = false, length = 40)
+    private String clave;
+    
+    /**
+     * Sketch serializado
+     */
+    @Column(nullable = false)
+    private byte[] datos;
+    
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
@@ -0,0 +1,94 @@
+package com.ecommercegt.backend.models.entidades;
+
+import com.ecommercegt.backend.models.enums.EstadoTrabajoReporte;
+import com.ecommercegt.backend.models.enums.TipoReporte;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Entidad TrabajoReporte - Reporte ejecutado en segundo plano
+ * 
+ * El resultado se guarda como JSON comprimido con gzip y se descarga
+ * después por ID. La clave (tipo + parámetros) permite reutilizar un
+ * trabajo idéntico que todavía está en curso.
+ * 
+ * Ciclo de vida:
+ * PENDIENTE → EJECUTANDO → COMPLETADO
+ *                        → FALLIDO (error o timeout)
+ */
+@Entity
+@Table(name = "trabajos_reporte", indexes = {
+    @Index(name = "idx_trabajos_reporte_clave_estado", columnList = "clave, estado"),
+    @Index(name = "idx_trabajos_reporte_fecha_fin", columnList = "fecha_fin")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrabajoReporte {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private TipoReporte tipo;
+    
+    @Column(name = "fecha_inicio_reporte")
+    private LocalDate fechaInicioReporte;
+    
+    @Column(name = "fecha_fin_reporte")
+    private LocalDate fechaFinReporte;
+    
+    /**
+     * Tipo + parámetros, para detectar trabajos idénticos
+     */
+    @Column(nullable = false, length = 120)
+    private String clave;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoTrabajoReporte estado = EstadoTrabajoReporte.PENDIENTE;
+    
+    /**
+     * Resultado serializado como JSON y comprimido con gzip
+     */
+    @Column(name = "resultado")
+    private byte[] resultado;
+    
+    /**
+     * Cantidad de filas del resultado
+     */
+    @Column
+    private Integer filas;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    @CreationTimestamp
+    @Column(name = "fecha_creacion", nullable = false, updatable = false)
+    private LocalDateTime fechaCreacion;
+    
+    @Column(name = "fecha_inicio")
+    private LocalDateTime fechaInicio;
+    
+    @Column(name = "fecha_fin")
+    private LocalDateTime fechaFin;
+    
+    // Constructor de conveniencia
+    public TrabajoReporte(TipoReporte tipo, LocalDate fechaInicioReporte, LocalDate fechaFinReporte, String clave) {
+        this.tipo = tipo;
+        this.fechaInicioReporte = fechaInicioReporte;
+        this.fechaFinReporte = fechaFinReporte;
+        this.clave = clave;
+        this.estado = EstadoTrabajoReporte.PENDIENTE;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecommercegt.backend.models.entidades;
+
+import com.ecommercegt.backend.models.enums.EstadoPedido;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Entidad VentaDiaria - Resumen de pedidos por día y estado
+ * 
+ * Se actualiza de forma incremental al crear un pedido y en cada cambio de
+ * estado (el pedido pasa de la fila de su estado anterior a la del nuevo),
+ * así las métricas de ventas no tienen que recorrer la tabla de pedidos.
+ * El día es la fecha en que se hizo el pedido.
+ */
+@Entity
+@Table(name = "ventas_diarias", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ventas_diarias_fecha_estado", columnNames = {"fecha", "estado"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaDiaria {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * Día del pedido
+     */
+    @Column(nullable = false)
+    private LocalDate fecha;
+    
+    /**
+     * Estado actual de los pedidos contados en esta fila
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EstadoPedido estado;
+    
+    /**
+     * Cantidad de pedidos
+     */
+    @Column(nullable = false)
+    private Long pedidos = 0L;
+    
+    /**
+     * Suma de monto_total de los pedidos
+     */
+    @Column(name = "monto_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal montoTotal = BigDecimal.ZERO;
+    
+    /**
+     * Unidades vendidas (suma de cantidades de los items)
+     */
+    @Column(nullable = false)
+    private Long items = 0L;
+}
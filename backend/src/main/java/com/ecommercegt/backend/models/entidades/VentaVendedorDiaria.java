@@ -0,0 +1,67 @@
+package com.ecommercegt.backend.models.entidades;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Entidad VentaVendedorDiaria - Cubo vendedor × día
+ * 
+ * - Ventas (unidades, ingresos, pedidos) de pedidos ENTREGADOS, en el día del pedido;
+ *   se suman cuando un pedido pasa a ENTREGADO y se restan si deja de estarlo
+ * - Productos publicados y aprobados, en el día de creación del producto;
+ *   se actualizan con los eventos de Producto (alta, cambio de estado, baja)
+ * 
+ * Sumando las filas de un rango de fechas se responden los reportes por
+ * vendedor sin unir usuarios, productos, items_pedido y pedidos.
+ */
+@Entity
+@Table(name = "ventas_vendedor_diarias", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_ventas_vendedor_vendedor_fecha", columnNames = {"vendedor_id", "fecha"})
+}, indexes = {
+    @Index(name = "idx_ventas_vendedor_fecha", columnList = "fecha")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaVendedorDiaria {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "vendedor_id", nullable = false, columnDefinition = "UUID")
+    private UUID vendedorId;
+    
+    @Column(nullable = false)
+    private LocalDate fecha;
+    
+    /**
+     * Unidades vendidas en pedidos entregados
+     */
+    @Column(nullable = false)
+    private Long unidades = 0L;
+    
+    /**
+     * Suma de subtotales de los items del vendedor
+     */
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos = BigDecimal.ZERO;
+    
+    /**
+     * Pedidos entregados con al menos un producto del vendedor
+     */
+    @Column(nullable = false)
+    private Long pedidos = 0L;
+    
+    @Column(name = "productos_publicados", nullable = false)
+    private Long productosPublicados = 0L;
+    
+    @Column(name = "productos_aprobados", nullable = false)
+    private Long productosAprobados = 0L;
+}
@@ -0,0 +1,26 @@
+package com.ecommercegt.backend.models.enums;
+
+/**
+ * Estados de un correo en la cola de envío
+ */
+public enum EstadoCorreo {
+    /**
+     * En espera de envío (nuevo o programado para reintento)
+     */
+    PENDIENTE,
+
+    /**
+     * Reclamado por un worker, envío en curso
+     */
+    ENVIANDO,
+
+    /**
+     * Entregado al servidor SMTP
+     */
+    ENVIADO,
+
+    /**
+     * Agotó los reintentos (dead-letter), requiere revisión manual
+     */
+    FALLIDO
+}
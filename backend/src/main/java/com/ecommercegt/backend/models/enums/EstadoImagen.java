@@ -0,0 +1,10 @@
+package com.ecommercegt.backend.models.enums;
+
+/**
+ * Estado de las variantes redimensionadas de una imagen de producto
+ */
+public enum EstadoImagen {
+    PENDIENTE,   // Solo existe el original (en cola o esperando reintento)
+    PROCESADA,   // Miniatura, tarjeta y detalle generadas
+    FALLIDA      // El original no se pudo leer: se sirve tal cual
+}
@@ -0,0 +1,26 @@
+package com.ecommercegt.backend.models.enums;
+
+/**
+ * Estados de un trabajo de reporte asíncrono
+ */
+public enum EstadoTrabajoReporte {
+    /**
+     * En la cola del pool de workers
+     */
+    PENDIENTE,
+
+    /**
+     * Consulta en ejecución
+     */
+    EJECUTANDO,
+
+    /**
+     * Resultado guardado, listo para descargar
+     */
+    COMPLETADO,
+
+    /**
+     * La consulta falló o superó el timeout
+     */
+    FALLIDO
+}
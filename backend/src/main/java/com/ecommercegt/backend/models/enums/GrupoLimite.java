@@ -0,0 +1,36 @@
+package com.ecommercegt.backend.models.enums;
+
+/**
+ * Grupos de rutas con límite de peticiones propio
+ * Los valores son los de por defecto (limite.<grupo>.capacidad y
+ * limite.<grupo>.recarga-por-segundo los reemplazan)
+ */
+public enum GrupoLimite {
+    AUTH(10, 0.2),
+    BUSQUEDA(30, 5),
+    CHECKOUT(5, 0.1),
+    REPORTES(10, 0.2);
+
+    private final int capacidad;
+    private final double recargaPorSegundo;
+
+    GrupoLimite(int capacidad, double recargaPorSegundo) {
+        this.capacidad = capacidad;
+        this.recargaPorSegundo = recargaPorSegundo;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    public double getRecargaPorSegundo() {
+        return recargaPorSegundo;
+    }
+
+    /**
+     * Nombre en las propiedades (ej. limite.busqueda.capacidad)
+     */
+    public String getPropiedad() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommercegt.backend.models.enums;
+
+/**
+ * Reportes que se pueden ejecutar como trabajo asíncrono
+ */
+public enum TipoReporte {
+    PRODUCTOS_MAS_VENDIDOS(true),
+    CLIENTES_POR_GANANCIAS(true),
+    CLIENTES_POR_VENTAS(true),
+    CLIENTES_POR_PEDIDOS(true),
+    CLIENTES_POR_PRODUCTOS(false);
+
+    private final boolean requiereFechas;
+
+    TipoReporte(boolean requiereFechas) {
+        this.requiereFechas = requiereFechas;
+    }
+
+    public boolean isRequiereFechas() {
+        return requiereFechas;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommercegt.backend.models.enums;
+
+/**
+ * Tipos de sketch de la analítica aproximada
+ */
+public enum TipoSketch {
+    /**
+     * HyperLogLog de compradores distintos (clave: ID de categoría o "*" para todas)
+     */
+    COMPRADORES,
+
+    /**
+     * Count-Min Sketch de unidades vendidas por producto (clave: "*")
+     */
+    PRODUCTOS
+}
@@ -0,0 +1,50 @@
+package com.ecommercegt.backend.models.listeners;
+
+import com.ecommercegt.backend.models.entidades.Producto;
+import com.ecommercegt.backend.service.VentasVendedorService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Listener JPA de Producto que mantiene los contadores de productos del
+ * cubo vendedor × día (publicados y aprobados)
+ *
+ * Hibernate lo instancia a través de Spring (SpringBeanContainer), por eso
+ * admite inyección. El servicio se inyecta con @Lazy porque el listener se
+ * crea junto con el EntityManagerFactory.
+ */
+public class ProductoEventosListener {
+
+    @Autowired
+    @Lazy
+    private VentasVendedorService ventasVendedorService;
+
+    @PostLoad
+    public void alCargar(Producto producto) {
+        producto.setEstadoPersistido(producto.getEstado());
+    }
+
+    @PostPersist
+    public void alCrear(Producto producto) {
+        ventasVendedorService.registrarCambioProducto(producto, null, producto.getEstado());
+        producto.setEstadoPersistido(producto.getEstado());
+    }
+
+    @PostUpdate
+    public void alActualizar(Producto producto) {
+        if (producto.getEstadoPersistido() != producto.getEstado()) {
+            ventasVendedorService.registrarCambioProducto(
+                    producto, producto.getEstadoPersistido(), producto.getEstado());
+            producto.setEstadoPersistido(producto.getEstado());
+        }
+    }
+
+    @PostRemove
+    public void alEliminar(Producto producto) {
+        ventasVendedorService.registrarCambioProducto(producto, producto.getEstadoPersistido(), null);
+    }
+}
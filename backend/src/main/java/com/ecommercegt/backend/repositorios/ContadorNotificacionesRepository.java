@@ -0,0 +1,70 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.models.entidades.ContadorNotificaciones;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ContadorNotificacionesRepository extends JpaRepository<ContadorNotificaciones, UUID> {
+
+    /**
+     * Sumar (o restar) al contador de un usuario, creándolo si no existe
+     * Nunca baja de cero
+     */
+    @Modifying
+    @Query(value = "INSERT INTO contadores_notificaciones (usuario_id, no_leidas, fecha_actualizacion) " +
+            "VALUES (:usuarioId, GREATEST(:delta, 0), CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (usuario_id) DO UPDATE SET " +
+            "no_leidas = GREATEST(contadores_notificaciones.no_leidas + :delta, 0), " +
+            "fecha_actualizacion = CURRENT_TIMESTAMP", nativeQuery = true)
+    int sumar(@Param("usuarioId") UUID usuarioId, @Param("delta") long delta);
+
+    /**
+     * Dejar el contador de un usuario en cero
+     */
+    @Modifying
+    @Query(value = "UPDATE contadores_notificaciones SET no_leidas = 0, fecha_actualizacion = CURRENT_TIMESTAMP " +
+            "WHERE usuario_id = :usuarioId", nativeQuery = true)
+    int reiniciar(@Param("usuarioId") UUID usuarioId);
+
+    /**
+     * Corregir los contadores existentes sumándoles la diferencia con el conteo real
+     * La diferencia se calcula con la foto del inicio de la sentencia (notificaciones
+     * y contador de la misma foto); si otra transacción sumó al contador después,
+     * la suma se aplica sobre el valor actual y no se pierde
+     *
+     * @return cantidad de contadores corregidos
+     */
+    @Modifying
+    @Query(value = "UPDATE contadores_notificaciones c " +
+            "SET no_leidas = GREATEST(c.no_leidas + d.delta, 0), fecha_actualizacion = CURRENT_TIMESTAMP " +
+            "FROM (SELECT c2.usuario_id, COALESCE(n.total, 0) - c2.no_leidas AS delta " +
+            "      FROM contadores_notificaciones c2 " +
+            "      LEFT JOIN (SELECT usuario_id, COUNT(*) AS total FROM notificaciones " +
+            "                 WHERE leida = false GROUP BY usuario_id) n ON n.usuario_id = c2.usuario_id) d " +
+            "WHERE c.usuario_id = d.usuario_id AND d.delta <> 0", nativeQuery = true)
+    int reconciliarExistentes();
+
+    /**
+     * Crear el contador de los usuarios con no leídas que todavía no tienen fila
+     * Si la fila aparece mientras tanto (un sumar concurrente), se le suma el conteo:
+     * en la foto de la sentencia el contador valía 0
+     *
+     * @return cantidad de contadores creados o corregidos
+     */
+    @Modifying
+    @Query(value = "INSERT INTO contadores_notificaciones (usuario_id, no_leidas, fecha_actualizacion) " +
+            "SELECT n.usuario_id, COUNT(*), CURRENT_TIMESTAMP FROM notificaciones n " +
+            "WHERE n.leida = false AND NOT EXISTS " +
+            "      (SELECT 1 FROM contadores_notificaciones c WHERE c.usuario_id = n.usuario_id) " +
+            "GROUP BY n.usuario_id " +
+            "ON CONFLICT (usuario_id) DO UPDATE SET " +
+            "no_leidas = contadores_notificaciones.no_leidas + EXCLUDED.no_leidas, " +
+            "fecha_actualizacion = EXCLUDED.fecha_actualizacion", nativeQuery = true)
+    int crearFaltantes();
+}
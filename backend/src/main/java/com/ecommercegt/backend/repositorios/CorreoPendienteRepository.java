@@ -0,0 +1,63 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.models.entidades.CorreoPendiente;
+import com.ecommercegt.backend.models.enums.EstadoCorreo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para CorreoPendiente
+ * Cola persistente de correos salientes
+ */
+@Repository
+public interface CorreoPendienteRepository extends JpaRepository<CorreoPendiente, Long> {
+
+    /**
+     * IDs de correos listos para enviar, bloqueados para este worker
+     * SKIP LOCKED permite que varios workers/nodos reclamen lotes distintos sin esperarse
+     */
+    @Query(value = "SELECT id FROM correos_pendientes " +
+            "WHERE estado = 'PENDIENTE' AND proximo_intento <= :ahora " +
+            "ORDER BY proximo_intento " +
+            "LIMIT :limite " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> findIdsListosParaEnviar(@Param("ahora") LocalDateTime ahora, @Param("limite") int limite);
+
+    /**
+     * Marcar un lote como reclamado (ENVIANDO)
+     */
+    @Modifying
+    @Query("UPDATE CorreoPendiente c SET c.estado = com.ecommercegt.backend.models.enums.EstadoCorreo.ENVIANDO, " +
+            "c.fechaReclamo = :ahora WHERE c.id IN :ids")
+    int marcarEnviando(@Param("ids") Collection<Long> ids, @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Devolver a PENDIENTE los correos reclamados por un worker que no terminó
+     */
+    @Modifying
+    @Query("UPDATE CorreoPendiente c SET c.estado = com.ecommercegt.backend.models.enums.EstadoCorreo.PENDIENTE " +
+            "WHERE c.estado = com.ecommercegt.backend.models.enums.EstadoCorreo.ENVIANDO " +
+            "AND c.fechaReclamo < :limite")
+    int liberarReclamosVencidos(@Param("limite") LocalDateTime limite);
+
+    /**
+     * Eliminar correos ya enviados antes de una fecha
+     */
+    @Modifying
+    @Query("DELETE FROM CorreoPendiente c " +
+            "WHERE c.estado = com.ecommercegt.backend.models.enums.EstadoCorreo.ENVIADO " +
+            "AND c.fechaEnvio < :fecha")
+    int eliminarEnviadosAntesDe(@Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Contar correos por estado
+     */
+    Long countByEstado(EstadoCorreo estado);
+}
@@ -1,7 +1,9 @@
 package com.ecommercegt.backend.repositorios;
 
 import com.ecommercegt.backend.models.entidades.ImagenProducto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,4 +21,10 @@ public interface ImagenProductoRepository extends JpaRepository<ImagenProducto,
     
     // Eliminar todas las imágenes de un producto
     void deleteByProductoId(UUID productoId);
+    
+    // Imágenes sin variantes (incluye las anteriores a las variantes), las más antiguas primero
+    @Query("SELECT i.id FROM ImagenProducto i WHERE i.estadoVariantes IS NULL " +
+           "OR i.estadoVariantes = com.ecommercegt.backend.models.enums.EstadoImagen.PENDIENTE " +
+           "ORDER BY i.fechaSubida")
+    List<UUID> findIdsSinVariantes(Pageable pageable);
 }
\ No newline at end of file
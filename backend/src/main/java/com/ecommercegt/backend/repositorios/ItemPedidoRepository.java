@@ -37,6 +37,20 @@ public interface ItemPedidoRepository extends JpaRepository<ItemPedido, Long> {
      */
     void deleteByPedidoId(UUID pedidoId);
 
+    /**
+     * Verificar si un usuario tiene un pedido ENTREGADO que contenga el producto
+     * Usado para marcar reviews como "Compra Verificada"
+     * Se resuelve con los índices idx_items_pedido_producto_pedido e idx_pedidos_usuario_estado
+     */
+    @Query(value = "SELECT EXISTS (" +
+            "SELECT 1 FROM items_pedido ip " +
+            "INNER JOIN pedidos p ON ip.pedido_id = p.id " +
+            "WHERE ip.producto_id = :productoId " +
+            "AND p.usuario_id = :usuarioId " +
+            "AND p.estado = 'ENTREGADO')", nativeQuery = true)
+    boolean existsCompraEntregada(@Param("usuarioId") UUID usuarioId,
+            @Param("productoId") UUID productoId);
+
     // ==================== ESTADÍSTICAS DE PRODUCTOS ====================
 
     /**
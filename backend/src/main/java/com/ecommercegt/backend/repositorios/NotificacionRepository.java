@@ -17,14 +17,20 @@ import java.util.UUID;
 public interface NotificacionRepository extends JpaRepository<Notificacion, Long> {
     
     /**
-     * Obtener notificaciones de un usuario (paginadas)
+     * Obtener notificaciones de un usuario (paginadas), la del último evento primero
+     * Una notificación agrupada sube al recibir eventos nuevos; las anteriores a la
+     * agrupación no tienen fechaActualizacion y van después, por fecha de creación
      */
-    Page<Notificacion> findByUsuarioIdOrderByFechaCreacionDesc(UUID usuarioId, Pageable pageable);
+    @Query("SELECT n FROM Notificacion n WHERE n.usuario.id = :usuarioId " +
+           "ORDER BY n.fechaActualizacion DESC NULLS LAST, n.fechaCreacion DESC")
+    Page<Notificacion> findRecientesPorUsuario(@Param("usuarioId") UUID usuarioId, Pageable pageable);
     
     /**
-     * Obtener notificaciones no leídas de un usuario
+     * Obtener notificaciones no leídas de un usuario (mismo orden que findRecientesPorUsuario)
      */
-    List<Notificacion> findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(UUID usuarioId);
+    @Query("SELECT n FROM Notificacion n WHERE n.usuario.id = :usuarioId AND n.leida = false " +
+           "ORDER BY n.fechaActualizacion DESC NULLS LAST, n.fechaCreacion DESC")
+    List<Notificacion> findNoLeidasRecientes(@Param("usuarioId") UUID usuarioId);
     
     /**
      * Contar notificaciones no leídas de un usuario
@@ -32,10 +38,12 @@ public interface NotificacionRepository extends JpaRepository<Notificacion, Long
     Long countByUsuarioIdAndLeidaFalse(UUID usuarioId);
     
     /**
-     * Obtener notificaciones por tipo
+     * Obtener notificaciones por tipo (mismo orden que findRecientesPorUsuario)
      */
-    Page<Notificacion> findByUsuarioIdAndTipoOrderByFechaCreacionDesc(
-        UUID usuarioId, TipoNotificacion tipo, Pageable pageable);
+    @Query("SELECT n FROM Notificacion n WHERE n.usuario.id = :usuarioId AND n.tipo = :tipo " +
+           "ORDER BY n.fechaActualizacion DESC NULLS LAST, n.fechaCreacion DESC")
+    Page<Notificacion> findRecientesPorUsuarioYTipo(
+        @Param("usuarioId") UUID usuarioId, @Param("tipo") TipoNotificacion tipo, Pageable pageable);
     
     /**
      * Marcar todas como leídas
@@ -53,12 +61,43 @@ public interface NotificacionRepository extends JpaRepository<Notificacion, Long
     int eliminarAntiguasPorFecha(@Param("fecha") java.time.LocalDateTime fecha);
     
     /**
-     * Obtener últimas notificaciones (para vista rápida)
+     * Obtener todas las notificaciones leídas de un usuario
      */
-    List<Notificacion> findTop5ByUsuarioIdOrderByFechaCreacionDesc(UUID usuarioId);
+    List<Notificacion> findByUsuarioIdAndLeidaTrue(UUID usuarioId);
     
     /**
-     * Obtener todas las notificaciones leídas de un usuario
+     * Eliminar todas las notificaciones leídas de un usuario (un solo DELETE)
      */
-    List<Notificacion> findByUsuarioIdAndLeidaTrue(UUID usuarioId);
-}
\ No newline at end of file
+    @Modifying
+    @Query("DELETE FROM Notificacion n WHERE n.usuario.id = :usuarioId AND n.leida = true")
+    int eliminarLeidasPorUsuario(@Param("usuarioId") UUID usuarioId);
+    
+    /**
+     * Notificaciones no leídas que todavía pueden agrupar eventos nuevos
+     */
+    @Query("SELECT n FROM Notificacion n WHERE n.usuario.id IN :usuarioIds AND n.clave IN :claves " +
+           "AND n.leida = false AND n.fechaActualizacion >= :desde ORDER BY n.fechaActualizacion DESC")
+    List<Notificacion> findAbiertasParaAgrupar(@Param("usuarioIds") java.util.Collection<UUID> usuarioIds,
+                                               @Param("claves") java.util.Collection<String> claves,
+                                               @Param("desde") java.time.LocalDateTime desde);
+    
+    /**
+     * Usuarios con notificaciones pendientes de correo resumen
+     */
+    @Query("SELECT DISTINCT n.usuario.id FROM Notificacion n WHERE n.correoPendiente = true")
+    List<UUID> findUsuariosConCorreoPendiente(Pageable pageable);
+    
+    /**
+     * Notificaciones pendientes de correo resumen de varios usuarios
+     */
+    @Query("SELECT n FROM Notificacion n JOIN FETCH n.usuario " +
+           "WHERE n.correoPendiente = true AND n.usuario.id IN :usuarioIds ORDER BY n.fechaCreacion")
+    List<Notificacion> findPendientesDeResumen(@Param("usuarioIds") java.util.Collection<UUID> usuarioIds);
+    
+    /**
+     * Marcar notificaciones como ya incluidas en un correo resumen
+     */
+    @Modifying
+    @Query("UPDATE Notificacion n SET n.correoPendiente = false WHERE n.id IN :ids")
+    int marcarResumenEnviado(@Param("ids") java.util.Collection<Long> ids);
+}
@@ -2,9 +2,11 @@ package com.ecommercegt.backend.repositorios;
 
 import com.ecommercegt.backend.models.entidades.Pedido;
 import com.ecommercegt.backend.models.enums.EstadoPedido;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,6 +24,15 @@ import java.util.UUID;
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, UUID> {
 
+    /**
+     * Buscar un pedido bloqueando su fila hasta el fin de la transacción (SELECT ... FOR UPDATE)
+     * Para cambios de estado: dos cambios simultáneos del mismo pedido se ejecutan
+     * uno después del otro y el segundo valida contra el estado que dejó el primero
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Pedido p WHERE p.id = :id")
+    Optional<Pedido> findByIdParaActualizar(@Param("id") UUID id);
+
     // ==================== BÚSQUEDAS POR USUARIO ====================
 
     /**
@@ -258,4 +269,4 @@ public interface PedidoRepository extends JpaRepository<Pedido, UUID> {
     List<Pedido> findPedidosProximosVencer(
             @Param("inicio") LocalDateTime inicio,
             @Param("fin") LocalDateTime fin);
-}
\ No newline at end of file
+}
@@ -219,4 +219,15 @@ public interface ProductoRepository extends JpaRepository<Producto, UUID>,
         Page<Producto> findByNombreContainingIgnoreCaseAndEstado(String nombre, EstadoProducto estado,
                         Pageable pageable);
 
-}
\ No newline at end of file
+        /**
+         * Métricas de productos del dashboard en una sola consulta
+         * Fila: total, pendientes de revisión, aprobados, stock bajo (1-9), sin stock
+         */
+        @Query(value = "SELECT COUNT(*), " +
+                "COUNT(*) FILTER (WHERE estado = 'PENDIENTE_REVISION'), " +
+                "COUNT(*) FILTER (WHERE estado = 'APROBADO'), " +
+                "COUNT(*) FILTER (WHERE stock < 10 AND stock > 0), " +
+                "COUNT(*) FILTER (WHERE stock = 0) " +
+                "FROM productos", nativeQuery = true)
+        List<Object[]> obtenerMetricasDashboard();
+}
@@ -1,13 +1,17 @@
 package com.ecommercegt.backend.repositorios;
 
 import com.ecommercegt.backend.models.entidades.Review;
+import com.ecommercegt.backend.models.entidades.Usuario;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -156,4 +160,62 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
             "ORDER BY p.calificacion_promedio DESC, p.cantidad_reviews DESC " +
             "LIMIT :limite", nativeQuery = true)
     List<Object[]> findProductosMejorCalificados(@Param("limite") int limite);
+
+    // ==================== MODERACIÓN EN LOTE ====================
+
+    /**
+     * Datos mínimos de un lote de reviews para recalcular y notificar
+     * Retorna: review_id, usuario_id, producto_id, producto_nombre
+     */
+    @Query("SELECT r.id, r.usuario.id, r.producto.id, r.producto.nombre FROM Review r " +
+            "WHERE r.id IN :ids")
+    List<Object[]> findDatosModeracionByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Aprobar varias reviews en una sola sentencia
+     */
+    @Modifying
+    @Query("UPDATE Review r SET r.aprobado = true, r.fechaAprobacion = :fecha, " +
+            "r.moderador = :moderador, r.fechaActualizacion = :fecha " +
+            "WHERE r.id IN :ids")
+    int aprobarEnLote(@Param("ids") Collection<Long> ids,
+            @Param("moderador") Usuario moderador,
+            @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Rechazar varias reviews en una sola sentencia
+     */
+    @Modifying
+    @Query("UPDATE Review r SET r.aprobado = false, r.fechaAprobacion = null, " +
+            "r.moderador = null, r.fechaActualizacion = :fecha " +
+            "WHERE r.id IN :ids")
+    int rechazarEnLote(@Param("ids") Collection<Long> ids,
+            @Param("fecha") LocalDateTime fecha);
+
+    // ==================== DETECCIÓN DE DUPLICADOS ====================
+
+    /**
+     * Textos de reviews a partir de un ID (paginación por clave para reconstruir el índice)
+     * Retorna: review_id, titulo, comentario
+     */
+    @Query("SELECT r.id, r.titulo, r.comentario FROM Review r " +
+            "WHERE r.id > :desdeId ORDER BY r.id")
+    List<Object[]> findTextosDesdeId(@Param("desdeId") Long desdeId, Pageable pageable);
+
+    /**
+     * IDs de reviews pendientes de aprobación
+     */
+    @Query("SELECT r.id FROM Review r WHERE r.aprobado = false")
+    List<Long> findIdsPendientes();
+
+    /**
+     * Métricas de reviews del dashboard en una sola consulta
+     * Fila: total, pendientes, aprobadas, calificación promedio de las aprobadas
+     */
+    @Query(value = "SELECT COUNT(*), " +
+            "COUNT(*) FILTER (WHERE aprobado = false), " +
+            "COUNT(*) FILTER (WHERE aprobado = true), " +
+            "AVG(calificacion) FILTER (WHERE aprobado = true) " +
+            "FROM reviews", nativeQuery = true)
+    List<Object[]> obtenerMetricasDashboard();
 }
@@ -0,0 +1,32 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.models.entidades.RevocacionToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio para RevocacionToken
+ */
+@Repository
+public interface RevocacionTokenRepository extends JpaRepository<RevocacionToken, UUID> {
+
+    /**
+     * Revocaciones creadas o modificadas después de la fecha (refresco incremental)
+     */
+    List<RevocacionToken> findByFechaActualizacionAfter(LocalDateTime fecha);
+
+    /**
+     * Eliminar revocaciones que ya no afectan a ningún token vigente
+     * (no bloqueadas y anteriores a la duración máxima de un token)
+     */
+    @Modifying
+    @Query("DELETE FROM RevocacionToken r WHERE r.bloqueado = false AND r.revocadoDesde < :limite")
+    int eliminarVencidas(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,67 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.models.entidades.SesionRefresh;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repositorio para SesionRefresh
+ */
+@Repository
+public interface SesionRefreshRepository extends JpaRepository<SesionRefresh, UUID> {
+
+    Optional<SesionRefresh> findByTokenHash(String tokenHash);
+
+    Optional<SesionRefresh> findByTokenHashAnterior(String tokenHashAnterior);
+
+    /**
+     * Rotar el token solo si sigue siendo el vigente (dos renovaciones
+     * simultáneas con el mismo token: solo una gana)
+     */
+    @Modifying
+    @Query("UPDATE SesionRefresh s SET s.tokenHash = :nuevo, s.tokenHashAnterior = :actual, " +
+           "s.fechaRotacion = :fecha WHERE s.id = :id AND s.tokenHash = :actual AND s.revocada = false")
+    int rotar(@Param("id") UUID id, @Param("actual") String actual,
+              @Param("nuevo") String nuevo, @Param("fecha") LocalDateTime fecha);
+
+    @Modifying
+    @Query("UPDATE SesionRefresh s SET s.revocada = true, s.fechaRevocacion = :fecha " +
+           "WHERE s.id = :id AND s.revocada = false")
+    int revocar(@Param("id") UUID id, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * IDs de las sesiones sin revocar ni vencer de un usuario
+     */
+    @Query("SELECT s.id FROM SesionRefresh s WHERE s.usuarioId = :usuarioId " +
+           "AND s.revocada = false AND s.fechaExpiracion > :ahora")
+    List<UUID> findIdsActivasByUsuarioId(@Param("usuarioId") UUID usuarioId, @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Query("UPDATE SesionRefresh s SET s.revocada = true, s.fechaRevocacion = :fecha " +
+           "WHERE s.id IN :ids AND s.revocada = false")
+    int revocarTodas(@Param("ids") List<UUID> ids, @Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Sesiones revocadas después de la fecha: [id, fecha_revocacion]
+     */
+    @Query("SELECT s.id, s.fechaRevocacion FROM SesionRefresh s " +
+           "WHERE s.revocada = true AND s.fechaRevocacion > :fecha")
+    List<Object[]> findRevocadasDespuesDe(@Param("fecha") LocalDateTime fecha);
+
+    /**
+     * Eliminar sesiones vencidas y revocaciones que ya no afectan a ningún token de acceso
+     */
+    @Modifying
+    @Query("DELETE FROM SesionRefresh s WHERE (s.revocada = false AND s.fechaExpiracion < :ahora) " +
+           "OR (s.revocada = true AND s.fechaRevocacion < :limiteRevocadas)")
+    int eliminarVencidas(@Param("ahora") LocalDateTime ahora,
+                         @Param("limiteRevocadas") LocalDateTime limiteRevocadas);
+}
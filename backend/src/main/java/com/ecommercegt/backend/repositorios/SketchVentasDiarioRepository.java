@@ -0,0 +1,25 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.models.entidades.SketchVentasDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Repositorio para los sketches diarios de la analítica aproximada
+ * Las escrituras y lecturas por rango se hacen en AnaliticaAproximadaService (JDBC)
+ */
+@Repository
+public interface SketchVentasDiarioRepository extends JpaRepository<SketchVentasDiario, Long> {
+
+    /**
+     * Eliminar los sketches de días anteriores a la fecha
+     */
+    @Modifying
+    @Query("DELETE FROM SketchVentasDiario s WHERE s.fecha < :fecha")
+    int eliminarAntesDe(@Param("fecha") LocalDate fecha);
+}
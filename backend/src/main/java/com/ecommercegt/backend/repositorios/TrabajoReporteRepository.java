@@ -0,0 +1,60 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.dto.response.TrabajoReporteResponse;
+import com.ecommercegt.backend.models.entidades.TrabajoReporte;
+import com.ecommercegt.backend.models.enums.EstadoTrabajoReporte;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repositorio para TrabajoReporte
+ */
+@Repository
+public interface TrabajoReporteRepository extends JpaRepository<TrabajoReporte, UUID> {
+
+    /**
+     * Trabajo con la misma clave que sigue en curso (para deduplicar)
+     */
+    Optional<TrabajoReporte> findFirstByClaveAndEstadoInOrderByFechaCreacionDesc(
+            String clave, Collection<EstadoTrabajoReporte> estados);
+
+    /**
+     * Estado de un trabajo sin el resultado (el resultado comprimido puede pesar varios MB)
+     */
+    @Query("SELECT new com.ecommercegt.backend.dto.response.TrabajoReporteResponse(" +
+            "t.id, t.tipo, t.estado, t.fechaInicioReporte, t.fechaFinReporte, t.filas, t.error, " +
+            "t.fechaCreacion, t.fechaInicio, t.fechaFin) " +
+            "FROM TrabajoReporte t WHERE t.id = :id")
+    Optional<TrabajoReporteResponse> findEstadoById(@Param("id") UUID id);
+
+    /**
+     * Marcar como fallidos los trabajos en curso creados antes del límite
+     * (su worker se detuvo, por ejemplo en un reinicio del servidor)
+     */
+    @Modifying
+    @Query("UPDATE TrabajoReporte t SET t.estado = com.ecommercegt.backend.models.enums.EstadoTrabajoReporte.FALLIDO, " +
+            "t.error = :error, t.fechaFin = :ahora " +
+            "WHERE t.estado IN :estados AND t.fechaCreacion < :limite")
+    int marcarInterrumpidos(@Param("estados") Collection<EstadoTrabajoReporte> estados,
+                            @Param("limite") LocalDateTime limite,
+                            @Param("error") String error,
+                            @Param("ahora") LocalDateTime ahora);
+
+    /**
+     * Eliminar trabajos terminados antes de una fecha
+     */
+    @Modifying
+    @Query("DELETE FROM TrabajoReporte t " +
+            "WHERE t.estado IN (com.ecommercegt.backend.models.enums.EstadoTrabajoReporte.COMPLETADO, " +
+            "com.ecommercegt.backend.models.enums.EstadoTrabajoReporte.FALLIDO) " +
+            "AND t.fechaFin < :fecha")
+    int eliminarTerminadosAntesDe(@Param("fecha") LocalDateTime fecha);
+}
@@ -61,4 +61,24 @@ public interface UsuarioRepository extends JpaRepository<Usuario, UUID> {
     List<Object[]> countUsuariosPorRol();
 
     Long countByActivo(Boolean activo);
-}
\ No newline at end of file
+
+    /**
+     * Métricas de usuarios del dashboard en una sola consulta
+     * Fila: total, registrados hoy, registrados últimos 7 días, vendedores, total categorías
+     */
+    @Query(value = "SELECT COUNT(*), " +
+            "COUNT(*) FILTER (WHERE fecha_creacion >= CURRENT_DATE), " +
+            "COUNT(*) FILTER (WHERE fecha_creacion >= CURRENT_DATE - INTERVAL '7 days'), " +
+            "(SELECT COUNT(DISTINCT ur.usuario_id) FROM usuario_roles ur " +
+            " INNER JOIN roles r ON ur.rol_id = r.id WHERE r.nombre = 'VENDEDOR'), " +
+            "(SELECT COUNT(*) FROM categorias) " +
+            "FROM usuarios", nativeQuery = true)
+    List<Object[]> obtenerMetricasDashboard();
+
+    /**
+     * ID y correo de varios usuarios (sin cargar la entidad ni sus roles)
+     * Fila: id, correo
+     */
+    @Query("SELECT u.id, u.correo FROM Usuario u WHERE u.id IN :ids")
+    List<Object[]> findCorreosByIds(@Param("ids") java.util.Collection<UUID> ids);
+}
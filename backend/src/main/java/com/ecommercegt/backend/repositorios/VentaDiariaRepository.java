@@ -0,0 +1,86 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.models.entidades.VentaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, Long> {
+
+    /**
+     * Sumar (o restar, con valores negativos) pedidos a la fila día × estado
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (fecha, estado, pedidos, monto_total, items) " +
+            "VALUES (:fecha, :estado, :pedidos, :monto, :items) " +
+            "ON CONFLICT (fecha, estado) DO UPDATE SET " +
+            "pedidos = ventas_diarias.pedidos + EXCLUDED.pedidos, " +
+            "monto_total = ventas_diarias.monto_total + EXCLUDED.monto_total, " +
+            "items = ventas_diarias.items + EXCLUDED.items", nativeQuery = true)
+    int sumar(@Param("fecha") LocalDate fecha,
+              @Param("estado") String estado,
+              @Param("pedidos") long pedidos,
+              @Param("monto") BigDecimal monto,
+              @Param("items") long items);
+
+    /**
+     * Métricas de pedidos y ventas del dashboard desde el resumen diario
+     * Fila: total, pendientes, confirmados, en preparación, enviados, entregados, cancelados,
+     *       pedidos hoy, pedidos últimos 7 días, pedidos del mes,
+     *       ventas totales, ventas hoy, ventas últimos 7 días, ventas del mes (solo ENTREGADO)
+     */
+    @Query(value = "SELECT COALESCE(SUM(pedidos), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE estado = 'PENDIENTE'), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE estado = 'CONFIRMADO'), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE estado = 'EN_PREPARACION'), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE estado = 'ENVIADO'), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE estado = 'ENTREGADO'), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE estado = 'CANCELADO'), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE fecha = CURRENT_DATE), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE fecha >= CURRENT_DATE - 7), 0), " +
+            "COALESCE(SUM(pedidos) FILTER (WHERE fecha >= CAST(DATE_TRUNC('month', CURRENT_DATE) AS DATE)), 0), " +
+            "COALESCE(SUM(monto_total) FILTER (WHERE estado = 'ENTREGADO'), 0), " +
+            "COALESCE(SUM(monto_total) FILTER (WHERE estado = 'ENTREGADO' AND fecha = CURRENT_DATE), 0), " +
+            "COALESCE(SUM(monto_total) FILTER (WHERE estado = 'ENTREGADO' AND fecha >= CURRENT_DATE - 7), 0), " +
+            "COALESCE(SUM(monto_total) FILTER (WHERE estado = 'ENTREGADO' " +
+            "    AND fecha >= CAST(DATE_TRUNC('month', CURRENT_DATE) AS DATE)), 0) " +
+            "FROM ventas_diarias", nativeQuery = true)
+    List<Object[]> obtenerMetricasDashboard();
+
+    /**
+     * Resumen por día de un período
+     * Fila: fecha, pedidos (todos los estados), ventas (monto de pedidos ENTREGADOS)
+     */
+    @Query(value = "SELECT fecha, SUM(pedidos), " +
+            "COALESCE(SUM(monto_total) FILTER (WHERE estado = 'ENTREGADO'), 0) " +
+            "FROM ventas_diarias WHERE fecha BETWEEN :inicio AND :fin " +
+            "GROUP BY fecha ORDER BY fecha", nativeQuery = true)
+    List<Object[]> findResumenPorDia(@Param("inicio") LocalDate inicio, @Param("fin") LocalDate fin);
+
+    /**
+     * Monto total de pedidos por día desde una fecha (todos los estados)
+     * Fila: fecha, total
+     */
+    @Query(value = "SELECT fecha, SUM(monto_total) FROM ventas_diarias " +
+            "WHERE fecha >= :desde GROUP BY fecha ORDER BY fecha", nativeQuery = true)
+    List<Object[]> findMontoPorDiaDesde(@Param("desde") LocalDate desde);
+
+    /**
+     * Monto total de todos los pedidos (todos los estados)
+     */
+    @Query(value = "SELECT COALESCE(SUM(monto_total), 0) FROM ventas_diarias", nativeQuery = true)
+    BigDecimal sumMontoTotal();
+
+    /**
+     * Monto total de pedidos desde una fecha (todos los estados)
+     */
+    @Query(value = "SELECT COALESCE(SUM(monto_total), 0) FROM ventas_diarias WHERE fecha >= :desde", nativeQuery = true)
+    BigDecimal sumMontoTotalDesde(@Param("desde") LocalDate desde);
+}
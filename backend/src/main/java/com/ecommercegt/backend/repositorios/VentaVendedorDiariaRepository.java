@@ -0,0 +1,69 @@
+package com.ecommercegt.backend.repositorios;
+
+import com.ecommercegt.backend.models.entidades.VentaVendedorDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio para el cubo vendedor × día
+ * Las escrituras incrementales se hacen en VentasVendedorService (JDBC)
+ */
+@Repository
+public interface VentaVendedorDiariaRepository extends JpaRepository<VentaVendedorDiaria, Long> {
+
+    /**
+     * Top vendedores por unidades vendidas en el período
+     * Retorna: usuario_id, nombre_completo, total_productos_vendidos, ingresos_generados
+     */
+    @Query(value = "SELECT u.id, u.nombre_completo, SUM(v.unidades) AS unidades, SUM(v.ingresos) AS ingresos " +
+            "FROM ventas_vendedor_diarias v " +
+            "INNER JOIN usuarios u ON u.id = v.vendedor_id " +
+            "WHERE v.fecha BETWEEN :inicio AND :fin " +
+            "GROUP BY u.id, u.nombre_completo " +
+            "HAVING SUM(v.unidades) > 0 " +
+            "ORDER BY unidades DESC " +
+            "LIMIT :limite", nativeQuery = true)
+    List<Object[]> findTopVendedoresPorUnidades(@Param("inicio") LocalDate inicio,
+                                                @Param("fin") LocalDate fin,
+                                                @Param("limite") int limite);
+
+    /**
+     * Top vendedores por productos publicados (todas las fechas)
+     * Retorna: usuario_id, nombre_completo, cantidad_productos, productos_aprobados
+     */
+    @Query(value = "SELECT u.id, u.nombre_completo, SUM(v.productos_publicados) AS publicados, " +
+            "SUM(v.productos_aprobados) AS aprobados " +
+            "FROM ventas_vendedor_diarias v " +
+            "INNER JOIN usuarios u ON u.id = v.vendedor_id " +
+            "GROUP BY u.id, u.nombre_completo " +
+            "HAVING SUM(v.productos_publicados) > 0 " +
+            "ORDER BY publicados DESC " +
+            "LIMIT :limite", nativeQuery = true)
+    List<Object[]> findTopVendedoresPorProductos(@Param("limite") int limite);
+
+    /**
+     * Filas de un vendedor en el período
+     * Retorna: fecha, unidades, ingresos, pedidos, productos_publicados, productos_aprobados
+     */
+    @Query(value = "SELECT fecha, unidades, ingresos, pedidos, productos_publicados, productos_aprobados " +
+            "FROM ventas_vendedor_diarias " +
+            "WHERE vendedor_id = :vendedorId AND fecha BETWEEN :inicio AND :fin " +
+            "ORDER BY fecha", nativeQuery = true)
+    List<Object[]> findPorVendedorEntre(@Param("vendedorId") UUID vendedorId,
+                                        @Param("inicio") LocalDate inicio,
+                                        @Param("fin") LocalDate fin);
+
+    /**
+     * Productos publicados y aprobados actuales del vendedor (todas las fechas)
+     * Retorna: productos_publicados, productos_aprobados
+     */
+    @Query(value = "SELECT COALESCE(SUM(productos_publicados), 0), COALESCE(SUM(productos_aprobados), 0) " +
+            "FROM ventas_vendedor_diarias WHERE vendedor_id = :vendedorId", nativeQuery = true)
+    List<Object[]> sumProductosPorVendedor(@Param("vendedorId") UUID vendedorId);
+}
@@ -1,6 +1,9 @@
 package com.ecommercegt.backend.security.jwt;
 
+import com.ecommercegt.backend.security.service.RevocacionTokenService;
+import com.ecommercegt.backend.security.service.UserDetailsImpl;
 import com.ecommercegt.backend.security.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,10 +11,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -19,17 +22,35 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
 public class AuthTokenFilter extends OncePerRequestFilter {
     
+    /**
+     * Atributo de la petición con el ID de la sesión del token (UUID), si lo trae
+     */
+    public static final String ATRIBUTO_SESION = "jwt.sesion";
+    
+    private static final String RUTA_STREAM = "/api/notificaciones/stream";
+    
     @Autowired
     private JwtUtils jwtUtils;
     
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
     
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+    
+    /**
+     * true = el usuario se construye con los claims del token (sin consultar la BD);
+     * false = se carga desde la BD en cada petición
+     */
+    @Value("${jwt.sin-estado:true}")
+    private boolean sinEstado;
+    
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
     
     @Override
@@ -39,35 +60,49 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
+            Claims claims = leerClaims(request);
             
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUsernameFromJwtToken(jwt);
-                
-                //  CARGAR USUARIO
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
+            if (claims != null) {
                 //  EXTRAER ROLES DEL TOKEN
-                List<String> roles = jwtUtils.getRolesFromJwtToken(jwt);
+                @SuppressWarnings("unchecked")
+                List<String> roles = claims.get("roles", List.class);
                 
                 //  CONVERTIR A AUTHORITIES
                 List<SimpleGrantedAuthority> authorities = roles.stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
                 
-                //  CREAR AUTENTICACIÓN CON LOS ROLES
-                UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                authorities  // ← USAR ROLES DEL TOKEN
-                        );
-                
-                authentication.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
+                //  CARGAR USUARIO (desde los claims si el token los trae)
+                String usuarioId = claims.get(JwtUtils.CLAIM_USUARIO_ID, String.class);
+                UserDetailsImpl userDetails = sinEstado && usuarioId != null
+                        ? new UserDetailsImpl(UUID.fromString(usuarioId), claims.getSubject(),
+                                claims.get(JwtUtils.CLAIM_CORREO, String.class), null, authorities)
+                        : (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
                 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                //  TOKEN REVOCADO (cierre de sesión o usuario desactivado)
+                String sesion = claims.get(JwtUtils.CLAIM_SESION, String.class);
+                UUID sesionId = sesion != null ? UUID.fromString(sesion) : null;
+                if (revocacionTokenService.estaRevocado(userDetails.getId(), claims.getIssuedAt())
+                        || revocacionTokenService.sesionRevocada(sesionId)) {
+                    logger.debug("Token JWT revocado para el usuario {}", userDetails.getUsername());
+                } else {
+                    //  CREAR AUTENTICACIÓN CON LOS ROLES
+                    UsernamePasswordAuthenticationToken authentication = 
+                            new UsernamePasswordAuthenticationToken(
+                                    userDetails,
+                                    null,
+                                    authorities  // ← USAR ROLES DEL TOKEN
+                            );
+                    
+                    authentication.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(request)
+                    );
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    if (sesionId != null) {
+                        request.setAttribute(ATRIBUTO_SESION, sesionId);
+                    }
+                }
             }
         } catch (Exception e) {
             logger.error("No se puede establecer la autenticación del usuario: {}", e.getMessage());
@@ -76,11 +111,29 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
-    private String parseJwt(HttpServletRequest request) {
+    /**
+     * Claims del token de acceso (header Authorization) o, solo en el stream SSE,
+     * del ticket de un solo uso (?ticket=); nunca se acepta uno en lugar del otro
+     */
+    private Claims leerClaims(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
         
         if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7);
+            Claims claims = jwtUtils.getClaimsFromJwtToken(headerAuth.substring(7));
+            return claims != null && claims.get(JwtUtils.CLAIM_USO) == null ? claims : null;
+        }
+        
+        // EventSource (SSE) no permite enviar headers: ticket por query param
+        if (RUTA_STREAM.equals(request.getRequestURI())) {
+            String ticket = request.getParameter("ticket");
+            if (StringUtils.hasText(ticket)) {
+                Claims claims = jwtUtils.getClaimsFromJwtToken(ticket);
+                if (claims != null && JwtUtils.USO_STREAM.equals(claims.get(JwtUtils.CLAIM_USO))
+                        && jwtUtils.canjearTicket(claims)) {
+                    return claims;
+                }
+                logger.debug("Ticket de stream inválido o ya usado");
+            }
         }
         
         return null;
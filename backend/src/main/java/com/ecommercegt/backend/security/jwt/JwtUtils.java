@@ -1,8 +1,10 @@
 package com.ecommercegt.backend.security.jwt;
 
+import com.ecommercegt.backend.security.service.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,8 +15,14 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Component
@@ -22,12 +30,51 @@ public class JwtUtils {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
     
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_CORREO = "correo";
+    public static final String CLAIM_SESION = "sid";
+    
+    /**
+     * Uso restringido del token; los tokens de acceso no lo llevan
+     */
+    public static final String CLAIM_USO = "uso";
+    public static final String USO_STREAM = "stream";
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
     
+    @Value("${jwt.stream.ticket-ms:30000}")
+    private int ticketStreamMs;
+    
+    /**
+     * Máximo de tokens verificados en memoria (al llenarse se vacía)
+     */
+    @Value("${jwt.cache.max-tokens:100000}")
+    private int cacheMaxTokens;
+    
+    // Clave y parser se crean una sola vez (ambos son inmutables y thread-safe)
+    private SecretKey key;
+    private JwtParser parser;
+    
+    /**
+     * Claims ya verificados por hash SHA-256 del token; cada entrada vence con el token
+     */
+    private final Map<String, ClaimsVerificados> cache = new ConcurrentHashMap<>();
+    
+    /**
+     * Tickets de stream ya canjeados (jti → expiración en epoch millis)
+     */
+    private final Map<String, Long> ticketsCanjeados = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void iniciar() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+    }
+    
     /**
      * Genera un token JWT a partir de la autenticación
      * INCLUYE LOS ROLES EN EL TOKEN
@@ -35,6 +82,50 @@ public class JwtUtils {
      * @return Token JWT como String
      */
     public String generateJwtToken(Authentication authentication) {
+        return generateJwtToken(authentication, null);
+    }
+    
+    /**
+     * Genera un token JWT asociado a una sesión de refresco
+     * @param authentication - Objeto de autenticación de Spring Security
+     * @param sesionId - Sesión que emite el token (null = sin sesión)
+     * @return Token JWT como String
+     */
+    public String generateJwtToken(Authentication authentication, UUID sesionId) {
+        return construir(authentication, sesionId, jwtExpirationMs).compact();
+    }
+    
+    /**
+     * Genera un ticket para abrir el stream SSE (EventSource no permite headers)
+     * Vida corta y un solo uso: si queda en un log de accesos ya no sirve.
+     * Lleva los mismos claims que el token de acceso más uso=stream y un jti
+     * @param authentication - Autenticación de la petición que pide el ticket
+     * @param sesionId - Sesión del token de acceso (revocarla invalida también el ticket)
+     * @return Ticket firmado
+     */
+    public String generateStreamTicket(Authentication authentication, UUID sesionId) {
+        return construir(authentication, sesionId, ticketStreamMs)
+                .claim(CLAIM_USO, USO_STREAM)
+                .id(UUID.randomUUID().toString())
+                .compact();
+    }
+    
+    /**
+     * Marcar un ticket de stream como usado
+     * @return false si el ticket ya se había canjeado en este nodo
+     */
+    public boolean canjearTicket(Claims claims) {
+        if (claims.getId() == null || claims.getExpiration() == null) {
+            return false;
+        }
+        long ahora = System.currentTimeMillis();
+        if (ticketsCanjeados.size() >= cacheMaxTokens) {
+            ticketsCanjeados.values().removeIf(expira -> expira <= ahora);
+        }
+        return ticketsCanjeados.putIfAbsent(claims.getId(), claims.getExpiration().getTime()) == null;
+    }
+    
+    private JwtBuilder construir(Authentication authentication, UUID sesionId, long duracionMs) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
         
         //  EXTRAER ROLES (authorities)
@@ -42,15 +133,26 @@ public class JwtUtils {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
         
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(userPrincipal.getUsername())
-                .claim("roles", roles)  //  AGREGAR ROLES AL TOKEN
-                .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key, Jwts.SIG.HS256)
-                .compact();
+                .claim("roles", roles);  //  AGREGAR ROLES AL TOKEN
+        
+        // ID y correo para construir el usuario sin consultar la BD (autenticación sin estado)
+        if (userPrincipal instanceof UserDetailsImpl detalles) {
+            builder.claim(CLAIM_USUARIO_ID, detalles.getId().toString())
+                    .claim(CLAIM_CORREO, detalles.getEmail());
+        }
+        
+        // Al revocar la sesión se rechazan también sus tokens de acceso vigentes
+        if (sesionId != null) {
+            builder.claim(CLAIM_SESION, sesionId.toString());
+        }
+        
+        Date ahora = new Date();
+        return builder
+                .issuedAt(ahora)
+                .expiration(new Date(ahora.getTime() + duracionMs))
+                .signWith(key, Jwts.SIG.HS256);
     }
     
     /**
@@ -59,14 +161,7 @@ public class JwtUtils {
      * @return Nombre de usuario
      */
     public String getUsernameFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return verificar(token).getSubject();
     }
     
     /**
@@ -76,30 +171,18 @@ public class JwtUtils {
      */
     @SuppressWarnings("unchecked")
     public List<String> getRolesFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.get("roles", List.class);
+        return verificar(token).get("roles", List.class);
     }
     
     /**
-     * Valida el token JWT
-     * @param authToken - Token JWT a validar
-     * @return true si es válido, false en caso contrario
+     * Valida el token y devuelve sus claims en una sola lectura
+     * Un token ya verificado se toma de la caché hasta su expiración
+     * @param authToken - Token JWT
+     * @return Claims del token, o null si no es válido
      */
-    public boolean validateJwtToken(String authToken) {
+    public Claims getClaimsFromJwtToken(String authToken) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return verificar(authToken);
         } catch (SignatureException e) {
             logger.error("Firma JWT inválida: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -111,6 +194,67 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string está vacío: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+    
+    /**
+     * Valida el token JWT
+     * @param authToken - Token JWT a validar
+     * @return true si es válido, false en caso contrario
+     */
+    public boolean validateJwtToken(String authToken) {
+        return getClaimsFromJwtToken(authToken) != null;
+    }
+    
+    // ==================== MÉTODOS DE UTILIDAD ====================
+    
+    /**
+     * Verificar firma y expiración, usando la caché de tokens ya verificados
+     * @throws JwtException si el token no es válido
+     */
+    private Claims verificar(String token) {
+        String huella = huella(token);
+        long ahora = System.currentTimeMillis();
+        ClaimsVerificados verificados = huella != null ? cache.get(huella) : null;
+        if (verificados != null) {
+            if (verificados.expira > ahora) {
+                return verificados.claims;
+            }
+            cache.remove(huella);
+        }
+        
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (huella != null && claims.getExpiration() != null) {
+            if (cache.size() >= cacheMaxTokens) {
+                cache.clear();
+            }
+            cache.put(huella, new ClaimsVerificados(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+    
+    /**
+     * Hash SHA-256 del token (la caché no guarda los tokens en sí)
+     */
+    private static String huella(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+    
+    private static class ClaimsVerificados {
+        private final Claims claims;
+        private final long expira;
+        
+        private ClaimsVerificados(Claims claims, long expira) {
+            this.claims = claims;
+            this.expira = expira;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package com.ecommercegt.backend.security.limite;
+
+import com.ecommercegt.backend.dto.response.MetricasLimiteResponse;
+import com.ecommercegt.backend.models.enums.GrupoLimite;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de peticiones por cubetas de tokens (token bucket), en memoria
+ *
+ * - Una cubeta por grupo de rutas y clave (usuario autenticado o IP) con
+ *   capacidad C que se recarga R tokens por segundo; cada petición consume uno
+ * - La cubeta se guarda como un solo AtomicLong: el momento (nanos) en que
+ *   volvería a estar llena. Consumir es un compareAndSet, sin locks, y la
+ *   recarga sale de comparar ese momento con el reloj
+ * - Una cubeta llena equivale a una nueva: la limpieza periódica elimina las
+ *   inactivas y, si aun así se supera el máximo de claves, se vacía el grupo
+ *
+ * El límite es por nodo: con varias instancias cada una aplica el suyo.
+ */
+@Service
+public class LimitadorTasaService {
+
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${limite.max-claves:100000}")
+    private int maxClaves;
+
+    private final Map<GrupoLimite, Grupo> grupos = new EnumMap<>(GrupoLimite.class);
+
+    @PostConstruct
+    public void iniciar() {
+        for (GrupoLimite grupo : GrupoLimite.values()) {
+            String prefijo = "limite." + grupo.getPropiedad();
+            int capacidad = environment.getProperty(prefijo + ".capacidad", Integer.class, grupo.getCapacidad());
+            double recarga = environment.getProperty(prefijo + ".recarga-por-segundo", Double.class,
+                    grupo.getRecargaPorSegundo());
+            grupos.put(grupo, new Grupo(Math.max(capacidad, 1), Math.max(recarga, 0.001)));
+        }
+    }
+
+    /**
+     * Consumir un token de la cubeta de la clave
+     *
+     * @return 0 si la petición se permite; si no, nanosegundos hasta que haya un token
+     */
+    public long consumir(GrupoLimite grupoLimite, String clave) {
+        Grupo grupo = grupos.get(grupoLimite);
+        if (grupo.cubetas.size() >= maxClaves && !grupo.cubetas.containsKey(clave)) {
+            liberar(grupo);
+        }
+        AtomicLong llenaEn = grupo.cubetas.computeIfAbsent(clave, k -> new AtomicLong(Long.MIN_VALUE));
+
+        long ahora = System.nanoTime();
+        while (true) {
+            long actual = llenaEn.get();
+            // Una cubeta que ya se llenó no acumula más de C tokens
+            long base = actual == Long.MIN_VALUE || actual - ahora < 0 ? ahora : actual;
+            long siguiente = base + grupo.nanosPorToken;
+            long exceso = siguiente - ahora - grupo.nanosCapacidad;
+            if (exceso > 0) {
+                grupo.rechazadas.increment();
+                return exceso;
+            }
+            if (llenaEn.compareAndSet(actual, siguiente)) {
+                grupo.permitidas.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Métricas de cada grupo
+     */
+    public List<MetricasLimiteResponse> obtenerMetricas() {
+        List<MetricasLimiteResponse> metricas = new ArrayList<>();
+        grupos.forEach((grupoLimite, grupo) -> metricas.add(new MetricasLimiteResponse(
+                grupoLimite,
+                grupo.capacidad,
+                grupo.recargaPorSegundo,
+                grupo.permitidas.sum(),
+                grupo.rechazadas.sum(),
+                grupo.cubetas.size())));
+        return metricas;
+    }
+
+    /**
+     * Eliminar las cubetas llenas (sin actividad reciente)
+     */
+    @Scheduled(fixedDelayString = "${limite.limpieza-ms:60000}")
+    public void limpiar() {
+        grupos.values().forEach(LimitadorTasaService::eliminarLlenas);
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private void liberar(Grupo grupo) {
+        eliminarLlenas(grupo);
+        if (grupo.cubetas.size() >= maxClaves) {
+            grupo.cubetas.clear();
+        }
+    }
+
+    private static void eliminarLlenas(Grupo grupo) {
+        long ahora = System.nanoTime();
+        grupo.cubetas.values().removeIf(llenaEn -> {
+            long valor = llenaEn.get();
+            return valor == Long.MIN_VALUE || valor - ahora < 0;
+        });
+    }
+
+    /**
+     * Configuración, cubetas y contadores de un grupo de rutas
+     */
+    private static final class Grupo {
+        private final int capacidad;
+        private final double recargaPorSegundo;
+        private final long nanosPorToken;
+        private final long nanosCapacidad;
+        private final Map<String, AtomicLong> cubetas = new ConcurrentHashMap<>();
+        private final LongAdder permitidas = new LongAdder();
+        private final LongAdder rechazadas = new LongAdder();
+
+        private Grupo(int capacidad, double recargaPorSegundo) {
+            this.capacidad = capacidad;
+            this.recargaPorSegundo = recargaPorSegundo;
+            this.nanosPorToken = (long) (NANOS_POR_SEGUNDO / recargaPorSegundo);
+            this.nanosCapacidad = nanosPorToken * capacidad;
+        }
+    }
+}
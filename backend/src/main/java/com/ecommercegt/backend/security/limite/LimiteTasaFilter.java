@@ -0,0 +1,125 @@
+package com.ecommercegt.backend.security.limite;
+
+import com.ecommercegt.backend.models.enums.GrupoLimite;
+import com.ecommercegt.backend.security.service.UserDetailsImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro que aplica el límite de peticiones a los grupos de rutas costosas
+ * (login, búsqueda, checkout, reportes)
+ *
+ * Va después de AuthTokenFilter: las peticiones autenticadas se cuentan por
+ * usuario y las anónimas por IP. Las rechazadas reciben 429 con Retry-After.
+ *
+ * No es un @Component a propósito: Spring Boot registraría el filtro también
+ * fuera de la cadena de seguridad, antes de conocer al usuario.
+ */
+public class LimiteTasaFilter extends OncePerRequestFilter {
+
+    private final LimitadorTasaService limitadorTasaService;
+    private final boolean confiarXForwardedFor;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public LimiteTasaFilter(LimitadorTasaService limitadorTasaService, boolean confiarXForwardedFor) {
+        this.limitadorTasaService = limitadorTasaService;
+        this.confiarXForwardedFor = confiarXForwardedFor;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        GrupoLimite grupo = grupoDe(request);
+        if (grupo != null) {
+            long esperaNanos = limitadorTasaService.consumir(grupo, clave(request));
+            if (esperaNanos > 0) {
+                rechazar(request, response, esperaNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private static GrupoLimite grupoDe(HttpServletRequest request) {
+        String ruta = request.getRequestURI();
+        String metodo = request.getMethod();
+        if (HttpMethod.OPTIONS.matches(metodo)) {
+            return null;
+        }
+
+        if (HttpMethod.POST.matches(metodo) && (ruta.equals("/api/auth/login")
+                || ruta.equals("/api/auth/register") || ruta.equals("/api/auth/refresh"))) {
+            return GrupoLimite.AUTH;
+        }
+        if (ruta.equals("/api/search") || ruta.startsWith("/api/search/")) {
+            return GrupoLimite.BUSQUEDA;
+        }
+        if (HttpMethod.POST.matches(metodo) && ruta.equals("/api/pedidos/crear-desde-carrito")) {
+            return GrupoLimite.CHECKOUT;
+        }
+        if (ruta.startsWith("/api/reportes/")) {
+            return GrupoLimite.REPORTES;
+        }
+        return null;
+    }
+
+    private String clave(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl detalles) {
+            return "u:" + detalles.getId();
+        }
+        return "ip:" + ipCliente(request);
+    }
+
+    /**
+     * IP del cliente; X-Forwarded-For solo se usa detrás de un proxy de confianza
+     * (si no, cualquiera podría inventar una IP distinta en cada petición)
+     */
+    private String ipCliente(HttpServletRequest request) {
+        if (confiarXForwardedFor) {
+            String reenviada = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(reenviada)) {
+                int coma = reenviada.indexOf(',');
+                return (coma >= 0 ? reenviada.substring(0, coma) : reenviada).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, long esperaNanos)
+            throws IOException {
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Demasiadas peticiones");
+        body.put("message", "Intenta de nuevo en " + segundos + " segundos");
+        body.put("path", request.getServletPath());
+        mapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,171 @@
+package com.ecommercegt.backend.security.service;
+
+import com.ecommercegt.backend.dto.response.MetricasHashResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Hash de contraseñas (bcrypt) en un pool propio y acotado
+ *
+ * - bcrypt se ejecuta en workers dedicados, no en los hilos de Tomcat: una
+ *   ráfaga de logins no deja sin hilos al resto de la aplicación
+ * - La cola tiene capacidad fija; si está llena la operación falla de
+ *   inmediato (RejectedExecutionException) en lugar de esperar
+ * - El costo de bcrypt es configurable; los hashes con un costo menor se
+ *   regeneran en el siguiente login correcto (ver UserDetailsServiceImpl)
+ */
+@Service
+public class HashContrasenaService {
+
+    @Value("${seguridad.bcrypt.costo:10}")
+    private int costo;
+
+    @Value("${seguridad.hash.workers:0}")
+    private int cantidadWorkers;
+
+    @Value("${seguridad.hash.capacidad-cola:64}")
+    private int capacidadCola;
+
+    private ThreadPoolExecutor workers;
+    private PasswordEncoder encoder;
+
+    // Métricas acumuladas desde el inicio
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder tiempoHashNanos = new LongAdder();
+    private final LongAdder tareas = new LongAdder();
+    private final LongAdder esperaColaNanos = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+
+    @PostConstruct
+    public void iniciar() {
+        // Por defecto un worker por núcleo: bcrypt es puro CPU
+        int cantidad = cantidadWorkers > 0 ? cantidadWorkers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        workers = new ThreadPoolExecutor(cantidad, cantidad, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "hash-worker-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        encoder = new EncoderMedido(new BCryptPasswordEncoder(costo));
+    }
+
+    @PreDestroy
+    public void detener() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Encoder bcrypt con el costo configurado (mide el tiempo de cada hash)
+     * Quien lo use directamente hashea en su propio hilo: usar ejecutar o codificar
+     */
+    public PasswordEncoder getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Ejecutar una operación que hashea (ej. autenticar) en el pool
+     * @throws RejectedExecutionException si la cola está llena
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> operacion) {
+        long encolada = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                esperaColaNanos.add(System.nanoTime() - encolada);
+                tareas.increment();
+                return operacion.get();
+            }, workers);
+        } catch (RejectedExecutionException e) {
+            rechazadas.increment();
+            throw new RejectedExecutionException("Demasiadas solicitudes de autenticación, intenta de nuevo en unos segundos");
+        }
+    }
+
+    /**
+     * Hashear una contraseña en el pool y esperar el resultado
+     * El hilo que llama espera, pero la cola acotada limita cuántos lo hacen a la vez
+     */
+    public String codificar(String contrasena) {
+        try {
+            return ejecutar(() -> encoder.encode(contrasena)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException causa ? causa : e;
+        }
+    }
+
+    /**
+     * Métricas de latencia de hash, espera en cola y rechazos
+     */
+    public MetricasHashResponse obtenerMetricas() {
+        long totalHashes = hashes.sum();
+        long totalTareas = tareas.sum();
+
+        MetricasHashResponse metricas = new MetricasHashResponse();
+        metricas.setCosto(costo);
+        metricas.setWorkers(workers.getMaximumPoolSize());
+        metricas.setCapacidadCola(capacidadCola);
+        metricas.setHashes(totalHashes);
+        metricas.setTareas(totalTareas);
+        metricas.setRechazadas(rechazadas.sum());
+        metricas.setLatenciaPromedioHashMs(totalHashes > 0 ? tiempoHashNanos.sum() / 1_000_000.0 / totalHashes : 0.0);
+        metricas.setEsperaPromedioColaMs(totalTareas > 0 ? esperaColaNanos.sum() / 1_000_000.0 / totalTareas : 0.0);
+        metricas.setEnCola(workers.getQueue().size());
+        metricas.setActivos(workers.getActiveCount());
+        return metricas;
+    }
+
+    /**
+     * Encoder que delega en bcrypt y suma el tiempo de encode y matches
+     */
+    private class EncoderMedido implements PasswordEncoder {
+        private final PasswordEncoder delegado;
+
+        private EncoderMedido(PasswordEncoder delegado) {
+            this.delegado = delegado;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            long inicio = System.nanoTime();
+            try {
+                return delegado.encode(rawPassword);
+            } finally {
+                registrar(inicio);
+            }
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            long inicio = System.nanoTime();
+            try {
+                return delegado.matches(rawPassword, encodedPassword);
+            } finally {
+                registrar(inicio);
+            }
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegado.upgradeEncoding(encodedPassword);
+        }
+
+        private void registrar(long inicio) {
+            hashes.increment();
+            tiempoHashNanos.add(System.nanoTime() - inicio);
+        }
+    }
+}
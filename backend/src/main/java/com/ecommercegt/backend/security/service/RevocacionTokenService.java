@@ -0,0 +1,297 @@
+package com.ecommercegt.backend.security.service;
+
+import com.ecommercegt.backend.models.entidades.RevocacionToken;
+import com.ecommercegt.backend.repositorios.RevocacionTokenRepository;
+import com.ecommercegt.backend.repositorios.SesionRefreshRepository;
+import com.ecommercegt.backend.util.FiltroBloom;
+import com.ecommercegt.backend.util.Hash64;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de tokens revocados en memoria (denylist)
+ *
+ * Con autenticación sin estado el filtro no consulta la base de datos, así que
+ * cerrar sesión o desactivar un usuario se registra aquí:
+ * - Cada usuario tiene como mucho una entrada (desde cuándo se revocan sus
+ *   tokens y si está bloqueado); la tabla revocaciones_token es la fuente
+ * - Las sesiones revocadas (sesiones_refresh) se guardan en un conjunto exacto
+ *   precedido por un filtro de Bloom: la gran mayoría de los tokens, cuya
+ *   sesión no está revocada, se descarta leyendo unos pocos bits
+ * - Cada nodo lee periódicamente solo las filas modificadas desde la última
+ *   lectura (con un margen para transacciones que confirmaron tarde)
+ * - Las entradas más antiguas que la duración de un token se descartan:
+ *   todos los tokens que afectaban ya expiraron
+ */
+@Service
+public class RevocacionTokenService {
+
+    private static final ZoneId ZONA = ZoneId.systemDefault();
+
+    @Autowired
+    private RevocacionTokenRepository revocacionTokenRepository;
+
+    @Autowired
+    private SesionRefreshRepository sesionRefreshRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationMs;
+
+    @Value("${jwt.revocaciones.margen-ms:10000}")
+    private long margenMs;
+
+    @Value("${jwt.revocaciones.bloom.capacidad:100000}")
+    private int capacidadBloom;
+
+    @Value("${jwt.revocaciones.bloom.falsos-positivos:0.01}")
+    private double falsosPositivosBloom;
+
+    private final Map<UUID, Estado> revocaciones = new ConcurrentHashMap<>();
+
+    /**
+     * Sesiones revocadas (ID → momento de la revocación en epoch millis)
+     */
+    private final Map<UUID, Long> sesionesRevocadas = new ConcurrentHashMap<>();
+
+    private volatile FiltroBloom filtroSesiones;
+
+    /**
+     * Momento de la última lectura de la tabla (null = todavía no se cargó)
+     */
+    private volatile LocalDateTime ultimaLectura;
+
+    @PostConstruct
+    public void iniciar() {
+        filtroSesiones = new FiltroBloom(capacidadBloom, falsosPositivosBloom);
+        refrescar();
+    }
+
+    /**
+     * Indica si un token del usuario emitido en la fecha dada está revocado
+     * (solo memoria, sin consultas)
+     *
+     * iat tiene precisión de segundos: se compara por segundo, así un token
+     * emitido en el mismo segundo que la revocación, pero después, no se rechaza
+     */
+    public boolean estaRevocado(UUID usuarioId, Date emitidoEn) {
+        Estado estado = revocaciones.get(usuarioId);
+        if (estado == null) {
+            return false;
+        }
+        return estado.bloqueado || emitidoEn == null
+                || emitidoEn.getTime() / 1000 < estado.revocadoDesde / 1000;
+    }
+
+    /**
+     * Indica si la sesión de un token fue revocada (solo memoria, sin consultas)
+     */
+    public boolean sesionRevocada(UUID sesionId) {
+        return sesionId != null
+                && filtroSesiones.puedeContener(Hash64.de(sesionId))
+                && sesionesRevocadas.containsKey(sesionId);
+    }
+
+    /**
+     * Revocar una sesión: su token de refresco y los tokens de acceso que emitió
+     */
+    public void revocarSesion(UUID sesionId) {
+        LocalDateTime ahora = LocalDateTime.now();
+        if (sesionRefreshRepository.revocar(sesionId, ahora) > 0) {
+            long momento = aMillis(ahora);
+            despuesDeConfirmar(() -> registrarSesion(sesionId, momento));
+        }
+    }
+
+    /**
+     * Revocar todas las sesiones abiertas de un usuario
+     */
+    public void revocarSesionesUsuario(UUID usuarioId) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<UUID> ids = sesionRefreshRepository.findIdsActivasByUsuarioId(usuarioId, ahora);
+        if (ids.isEmpty()) {
+            return;
+        }
+        sesionRefreshRepository.revocarTodas(ids, ahora);
+        long momento = aMillis(ahora);
+        despuesDeConfirmar(() -> ids.forEach(id -> registrarSesion(id, momento)));
+    }
+
+    /**
+     * Revocar los tokens emitidos hasta ahora (para tokens sin sesión)
+     */
+    public void revocarTokens(UUID usuarioId) {
+        guardar(usuarioId, null);
+    }
+
+    /**
+     * Usuario desactivado: ningún token suyo es válido hasta que se desbloquee
+     * y sus sesiones ya no se pueden renovar
+     */
+    public void bloquear(UUID usuarioId) {
+        guardar(usuarioId, true);
+        revocarSesionesUsuario(usuarioId);
+    }
+
+    /**
+     * Usuario reactivado: vuelve a aceptar tokens nuevos (los anteriores siguen revocados)
+     */
+    public void desbloquear(UUID usuarioId) {
+        guardar(usuarioId, false);
+    }
+
+    /**
+     * Leer las revocaciones nuevas o modificadas (la primera vez, todas)
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocaciones.refresco-ms:5000}")
+    public void refrescar() {
+        LocalDateTime inicio = LocalDateTime.now();
+        try {
+            List<RevocacionToken> cambios = ultimaLectura == null
+                    ? revocacionTokenRepository.findAll()
+                    : revocacionTokenRepository.findByFechaActualizacionAfter(
+                            ultimaLectura.minus(Duration.ofMillis(margenMs)));
+            for (RevocacionToken revocacion : cambios) {
+                aplicar(revocacion);
+            }
+            // La primera vez, todas las sesiones revocadas que todavía pueden tener tokens vigentes
+            LocalDateTime desde = ultimaLectura == null
+                    ? inicio.minus(Duration.ofMillis(jwtExpirationMs))
+                    : ultimaLectura.minus(Duration.ofMillis(margenMs));
+            for (Object[] fila : sesionRefreshRepository.findRevocadasDespuesDe(desde)) {
+                registrarSesion((UUID) fila[0], aMillis((LocalDateTime) fila[1]));
+            }
+            ultimaLectura = inicio;
+        } catch (Exception e) {
+            System.err.println("Error al refrescar la lista de tokens revocados: " + e.getMessage());
+        }
+
+        long limite = System.currentTimeMillis() - jwtExpirationMs;
+        revocaciones.values().removeIf(estado -> !estado.bloqueado && estado.revocadoDesde < limite);
+
+        // El filtro de Bloom no permite quitar elementos: se reconstruye sin las sesiones vencidas
+        boolean vencidas = sesionesRevocadas.values().removeIf(momento -> momento < limite);
+        if (vencidas || sesionesRevocadas.size() > filtroSesiones.getCapacidad()) {
+            reconstruirFiltro();
+        }
+    }
+
+    /**
+     * Eliminar de la tabla las revocaciones que ya no afectan a ningún token
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocaciones.limpieza-ms:3600000}")
+    public void limpiar() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    revocacionTokenRepository.eliminarVencidas(
+                            LocalDateTime.now().minus(Duration.ofMillis(jwtExpirationMs))));
+        } catch (Exception e) {
+            System.err.println("Error al limpiar revocaciones de tokens: " + e.getMessage());
+        }
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    /**
+     * Guardar la revocación y aplicarla en memoria cuando la transacción confirma
+     *
+     * @param bloqueado null = mantener el bloqueo actual
+     */
+    private void guardar(UUID usuarioId, Boolean bloqueado) {
+        LocalDateTime ahora = LocalDateTime.now();
+        RevocacionToken revocacion = revocacionTokenRepository.findById(usuarioId)
+                .orElseGet(() -> {
+                    RevocacionToken nueva = new RevocacionToken();
+                    nueva.setUsuarioId(usuarioId);
+                    return nueva;
+                });
+        revocacion.setRevocadoDesde(ahora);
+        if (bloqueado != null) {
+            revocacion.setBloqueado(bloqueado);
+        }
+        revocacion.setFechaActualizacion(ahora);
+        RevocacionToken guardada = revocacionTokenRepository.save(revocacion);
+        despuesDeConfirmar(() -> aplicar(guardada));
+    }
+
+    /**
+     * Aplicar en memoria cuando la transacción confirma (o de inmediato si no hay una)
+     */
+    private static void despuesDeConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private void aplicar(RevocacionToken revocacion) {
+        Estado nuevo = new Estado(
+                aMillis(revocacion.getRevocadoDesde()),
+                Boolean.TRUE.equals(revocacion.getBloqueado()),
+                aMillis(revocacion.getFechaActualizacion()));
+        // Una lectura atrasada no pisa un cambio más reciente
+        revocaciones.merge(revocacion.getUsuarioId(), nuevo,
+                (actual, leido) -> leido.actualizacion >= actual.actualizacion ? leido : actual);
+    }
+
+    /**
+     * Primero el conjunto exacto y después el filtro: una consulta concurrente
+     * nunca ve el bit encendido sin la entrada
+     */
+    private void registrarSesion(UUID sesionId, long momento) {
+        sesionesRevocadas.put(sesionId, momento);
+        filtroSesiones.agregar(Hash64.de(sesionId));
+    }
+
+    private synchronized void reconstruirFiltro() {
+        FiltroBloom nuevo = new FiltroBloom(
+                Math.max(capacidadBloom, sesionesRevocadas.size() * 2), falsosPositivosBloom);
+        sesionesRevocadas.keySet().forEach(id -> nuevo.agregar(Hash64.de(id)));
+        filtroSesiones = nuevo;
+        // Sesiones registradas mientras se llenaba el filtro nuevo
+        sesionesRevocadas.keySet().forEach(id -> nuevo.agregar(Hash64.de(id)));
+    }
+
+    private static long aMillis(LocalDateTime fecha) {
+        return fecha.atZone(ZONA).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Revocación vigente de un usuario (epoch millis)
+     */
+    private static final class Estado {
+        private final long revocadoDesde;
+        private final boolean bloqueado;
+        private final long actualizacion;
+
+        private Estado(long revocadoDesde, boolean bloqueado, long actualizacion) {
+            this.revocadoDesde = revocadoDesde;
+            this.bloqueado = bloqueado;
+            this.actualizacion = actualizacion;
+        }
+    }
+}
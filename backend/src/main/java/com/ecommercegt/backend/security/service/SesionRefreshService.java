@@ -0,0 +1,171 @@
+package com.ecommercegt.backend.security.service;
+
+import com.ecommercegt.backend.models.entidades.SesionRefresh;
+import com.ecommercegt.backend.repositorios.SesionRefreshRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sesiones con tokens de refresco rotativos
+ *
+ * - El login abre una sesión y entrega un token de refresco opaco (aleatorio);
+ *   en la tabla solo queda su hash
+ * - Renovar consume el token y entrega otro: sin bcrypt, una búsqueda por
+ *   índice y una actualización condicional
+ * - Presentar un token ya rotado indica que alguien más lo tiene: se revoca
+ *   la sesión completa
+ */
+@Service
+public class SesionRefreshService {
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    @Autowired
+    private SesionRefreshRepository sesionRefreshRepository;
+
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${jwt.refresh.expiracion-ms:2592000000}")
+    private long expiracionMs;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationMs;
+
+    /**
+     * Abrir una sesión para el usuario
+     */
+    public Sesion abrir(UUID usuarioId) {
+        String token = generarToken();
+        LocalDateTime ahora = LocalDateTime.now();
+
+        SesionRefresh sesion = new SesionRefresh();
+        sesion.setUsuarioId(usuarioId);
+        sesion.setTokenHash(hash(token));
+        sesion.setFechaCreacion(ahora);
+        sesion.setFechaExpiracion(ahora.plus(Duration.ofMillis(expiracionMs)));
+        SesionRefresh guardada = sesionRefreshRepository.save(sesion);
+
+        return new Sesion(guardada.getId(), usuarioId, token);
+    }
+
+    /**
+     * Consumir un token de refresco y emitir el siguiente de la misma sesión
+     */
+    public Sesion rotar(String tokenRefresco) {
+        String actual = hash(tokenRefresco);
+        Optional<SesionRefresh> encontrada = sesionRefreshRepository.findByTokenHash(actual);
+        if (encontrada.isEmpty()) {
+            sesionRefreshRepository.findByTokenHashAnterior(actual)
+                    .ifPresent(reutilizada -> revocarPorReutilizacion(reutilizada.getId()));
+            throw new RuntimeException("Token de refresco inválido");
+        }
+
+        SesionRefresh sesion = encontrada.get();
+        if (Boolean.TRUE.equals(sesion.getRevocada())) {
+            throw new RuntimeException("La sesión fue cerrada");
+        }
+        if (sesion.getFechaExpiracion().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("La sesión expiró, inicia sesión de nuevo");
+        }
+
+        String nuevo = generarToken();
+        if (sesionRefreshRepository.rotar(sesion.getId(), actual, hash(nuevo), LocalDateTime.now()) == 0) {
+            // Otra renovación con el mismo token se adelantó
+            throw new RuntimeException("Token de refresco ya utilizado");
+        }
+        return new Sesion(sesion.getId(), sesion.getUsuarioId(), nuevo);
+    }
+
+    /**
+     * Eliminar sesiones vencidas y revocaciones que ya no afectan a tokens de acceso
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.limpieza-ms:3600000}")
+    public void limpiar() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                LocalDateTime ahora = LocalDateTime.now();
+                sesionRefreshRepository.eliminarVencidas(ahora, ahora.minus(Duration.ofMillis(jwtExpirationMs)));
+            });
+        } catch (Exception e) {
+            System.err.println("Error al limpiar sesiones de refresco: " + e.getMessage());
+        }
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    /**
+     * La revocación se confirma en su propia transacción: la renovación
+     * que la detectó falla y revierte la suya
+     */
+    private void revocarPorReutilizacion(UUID sesionId) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.executeWithoutResult(status -> revocacionTokenService.revocarSesion(sesionId));
+        System.err.println("Token de refresco reutilizado, sesión revocada: " + sesionId);
+    }
+
+    private static String generarToken() {
+        byte[] bytes = new byte[32];
+        ALEATORIO.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        if (token == null || token.isBlank()) {
+            throw new RuntimeException("Token de refresco inválido");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Sesión abierta o renovada, con el token de refresco en claro (solo para la respuesta)
+     */
+    public static final class Sesion {
+        private final UUID id;
+        private final UUID usuarioId;
+        private final String tokenRefresco;
+
+        private Sesion(UUID id, UUID usuarioId, String tokenRefresco) {
+            this.id = id;
+            this.usuarioId = usuarioId;
+            this.tokenRefresco = tokenRefresco;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public UUID getUsuarioId() {
+            return usuarioId;
+        }
+
+        public String getTokenRefresco() {
+            return tokenRefresco;
+        }
+    }
+}
@@ -4,13 +4,14 @@ import com.ecommercegt.backend.models.entidades.Usuario;
 import com.ecommercegt.backend.repositorios.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UsuarioRepository usuarioRepository;
@@ -31,4 +32,24 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         
         return UserDetailsImpl.build(usuario);
     }
+    
+    /**
+     * Guarda el hash regenerado con el costo actual de bcrypt
+     * Spring Security lo llama tras un login correcto cuando el hash guardado
+     * tiene un costo menor al configurado
+     * @param user - Usuario autenticado
+     * @param newPassword - Nuevo hash de la contraseña
+     * @return UserDetails con el hash actualizado
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByNombreUsuario(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "Usuario no encontrado con nombre: " + user.getUsername()));
+        usuario.setContrasenaHash(newPassword);
+        usuarioRepository.save(usuario);
+        
+        return UserDetailsImpl.build(usuario);
+    }
 }
\ No newline at end of file
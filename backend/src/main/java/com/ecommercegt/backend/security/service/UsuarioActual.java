@@ -0,0 +1,122 @@
+package com.ecommercegt.backend.security.service;
+
+import com.ecommercegt.backend.models.entidades.Usuario;
+import com.ecommercegt.backend.repositorios.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.UUID;
+
+/**
+ * Usuario autenticado de la petición actual
+ *
+ * - obtenerId: sale del principal (UserDetailsImpl, armado con los claims
+ *   del token), sin consultar la base de datos
+ * - obtenerReferencia: proxy de Usuario para asociar entidades (getReferenceById),
+ *   no carga el usuario ni sus roles
+ * - obtener: carga el usuario completo una sola vez por petición y lo
+ *   guarda como atributo de la petición
+ *
+ * Fuera de una petición HTTP (tareas programadas, hilos propios) funciona igual
+ * pero sin guardar el usuario cargado.
+ */
+@Component
+public class UsuarioActual {
+
+    private static final String ATRIBUTO = UsuarioActual.class.getName() + ".usuario";
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    /**
+     * ID del usuario autenticado
+     */
+    public UUID obtenerId() {
+        UUID id = obtenerIdOpcional();
+        if (id == null) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+        return id;
+    }
+
+    /**
+     * Referencia al usuario autenticado (sin consulta hasta que se lea un campo)
+     */
+    public Usuario obtenerReferencia() {
+        Usuario cargado = cargadoEnPeticion();
+        return cargado != null ? cargado : usuarioRepository.getReferenceById(obtenerId());
+    }
+
+    /**
+     * Usuario autenticado completo (una consulta por petición como máximo)
+     */
+    public Usuario obtener() {
+        Usuario usuario = obtenerOpcional();
+        if (usuario == null) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+        return usuario;
+    }
+
+    /**
+     * Usuario autenticado completo, o null si la petición es anónima
+     */
+    public Usuario obtenerOpcional() {
+        Usuario cargado = cargadoEnPeticion();
+        if (cargado != null) {
+            return cargado;
+        }
+        Authentication authentication = autenticacion();
+        if (authentication == null) {
+            return null;
+        }
+        Usuario usuario = authentication.getPrincipal() instanceof UserDetailsImpl detalles
+                ? usuarioRepository.findById(detalles.getId()).orElse(null)
+                : usuarioRepository.findByNombreUsuario(authentication.getName()).orElse(null);
+
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (usuario != null && atributos != null) {
+            atributos.setAttribute(ATRIBUTO, usuario, RequestAttributes.SCOPE_REQUEST);
+        }
+        return usuario;
+    }
+
+    /**
+     * ID del usuario autenticado, o null si la petición es anónima (endpoints públicos)
+     */
+    public UUID obtenerIdOpcional() {
+        Authentication authentication = autenticacion();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof UserDetailsImpl detalles) {
+            return detalles.getId();
+        }
+        // Principal sin ID (ej. autenticación de pruebas): cargar por nombre de usuario
+        Usuario usuario = obtenerOpcional();
+        return usuario != null ? usuario.getId() : null;
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private static Authentication autenticacion() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication;
+    }
+
+    private static Usuario cargadoEnPeticion() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos != null
+                ? (Usuario) atributos.getAttribute(ATRIBUTO, RequestAttributes.SCOPE_REQUEST)
+                : null;
+    }
+}
@@ -15,21 +15,25 @@ import com.ecommercegt.backend.models.enums.EstadoPedido;
 import com.ecommercegt.backend.models.enums.EstadoProducto;
 import com.ecommercegt.backend.models.enums.RolNombre;
 import com.ecommercegt.backend.repositorios.*;
+import com.ecommercegt.backend.security.service.HashContrasenaService;
+import com.ecommercegt.backend.security.service.RevocacionTokenService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -45,9 +49,19 @@ public class AdminService {
     private final PedidoRepository pedidoRepository;
     private final ReviewRepository reviewRepository;
     private final ItemPedidoRepository itemPedidoRepository;
+    private final VentaDiariaRepository ventaDiariaRepository;
+
+    // Ejecución de secciones del dashboard
+    private final ConsultasParalelasService consultasParalelasService;
 
     // Encoder
-    private final PasswordEncoder passwordEncoder;
+    private final HashContrasenaService hashContrasenaService;
+
+    // Tokens revocados (usuarios desactivados)
+    private final RevocacionTokenService revocacionTokenService;
+
+    // Transacciones cortas (crear usuario)
+    private final PlatformTransactionManager transactionManager;
 
     // ==================== GESTIÓN DE USUARIOS ====================
 
@@ -87,9 +101,16 @@ public class AdminService {
 
     /**
      * Crear nuevo usuario (empleado)
+     * La contraseña se hashea antes de tocar la base de datos: mientras se espera
+     * al pool de hash no se retiene ninguna conexión; el resto es una transacción corta
      */
-    @Transactional
     public UserResponse crearUsuario(CreateUserRequest request) {
+        String contrasenaHash = hashContrasenaService.codificar(request.getPassword());
+        return new TransactionTemplate(transactionManager).execute(status ->
+                guardarUsuarioNuevo(request, contrasenaHash));
+    }
+
+    private UserResponse guardarUsuarioNuevo(CreateUserRequest request, String contrasenaHash) {
         // Validar que el usuario no exista
         if (usuarioRepository.existsByNombreUsuario(request.getNombreUsuario())) {
             throw new RuntimeException("El nombre de usuario ya está en uso");
@@ -103,7 +124,7 @@ public class AdminService {
         Usuario usuario = new Usuario();
         usuario.setNombreUsuario(request.getNombreUsuario());
         usuario.setCorreo(request.getCorreo());
-        usuario.setContrasenaHash(passwordEncoder.encode(request.getPassword())); // ← CORRECTO
+        usuario.setContrasenaHash(contrasenaHash);
         usuario.setNombreCompleto(request.getNombre() + " " + request.getApellido()); // ← CORRECTO
         usuario.setTelefono(request.getTelefono());
         usuario.setActivo(true);
@@ -173,8 +194,13 @@ public class AdminService {
             usuario.setTelefono(request.getTelefono());
         }
 
-        if (request.getActivo() != null) {
+        if (request.getActivo() != null && !request.getActivo().equals(usuario.getActivo())) {
             usuario.setActivo(request.getActivo());
+            if (request.getActivo()) {
+                revocacionTokenService.desbloquear(usuario.getId());
+            } else {
+                revocacionTokenService.bloquear(usuario.getId());
+            }
         }
 
         Usuario usuarioActualizado = usuarioRepository.save(usuario);
@@ -190,6 +216,7 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
         usuario.setActivo(false);
         usuarioRepository.save(usuario);
+        revocacionTokenService.bloquear(id);
     }
 
     /**
@@ -201,174 +228,136 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado con ID: " + id));
         usuario.setActivo(true);
         usuarioRepository.save(usuario);
+        revocacionTokenService.desbloquear(id);
     }
 
     // ==================== ESTADÍSTICAS ====================
 
     /**
      * Obtener estadísticas generales para el dashboard
+     * Las secciones son independientes y se ejecutan con ConsultasParalelasService
+     * (en paralelo, cada una en su transacción de solo lectura); si alguna falla o
+     * vence se devuelve el resto y se indica en seccionesFallidas.
      */
-    @Transactional(readOnly = true)
     public EstadisticasGeneralesResponse obtenerEstadisticasGenerales() {
         EstadisticasGeneralesResponse estadisticas = new EstadisticasGeneralesResponse();
+        Map<String, Long> tiempos = new LinkedHashMap<>();
+        // Si una sección de listas falla queda vacía (no null)
+        estadisticas.setProductosPopulares(new ArrayList<>());
+        estadisticas.setUsuariosPorRol(new ArrayList<>());
+        estadisticas.setVentasDelMes(new ArrayList<>());
+        LocalDate inicioMes = LocalDate.now().withDayOfMonth(1);
+
+        List<ConsultasParalelasService.Seccion<?>> secciones = List.of(
+                // ==================== USUARIOS ====================
+                ConsultasParalelasService.Seccion.de("usuarios",
+                        () -> new long[] { usuarioRepository.count(), usuarioRepository.countByActivo(true) },
+                        usuarios -> {
+                            estadisticas.setTotalUsuarios(usuarios[0]);
+                            estadisticas.setUsuariosActivos(usuarios[1]);
+                        }),
+
+                // ==================== PRODUCTOS ====================
+                ConsultasParalelasService.Seccion.de("productos",
+                        () -> new long[] {
+                                productoRepository.count(),
+                                productoRepository.countByEstado(EstadoProducto.PENDIENTE_REVISION) },
+                        productos -> {
+                            estadisticas.setTotalProductos(productos[0]);
+                            estadisticas.setProductosPendientes(productos[1]);
+                        }),
+
+                // ==================== PEDIDOS ====================
+                ConsultasParalelasService.Seccion.de("pedidos",
+                        () -> new long[] {
+                                pedidoRepository.count(),
+                                pedidoRepository.countByEstadoIn(List.of(
+                                        EstadoPedido.PENDIENTE,
+                                        EstadoPedido.CONFIRMADO,
+                                        EstadoPedido.EN_PREPARACION)) },
+                        pedidos -> {
+                            estadisticas.setTotalPedidos(pedidos[0]);
+                            estadisticas.setPedidosPendientes(pedidos[1]);
+                        }),
+
+                // ==================== VENTAS (resumen diario) ====================
+                ConsultasParalelasService.Seccion.de("ventas",
+                        () -> new BigDecimal[] {
+                                ventaDiariaRepository.sumMontoTotal(),
+                                ventaDiariaRepository.sumMontoTotalDesde(inicioMes) },
+                        ventas -> {
+                            estadisticas.setTotalVentas(ventas[0] != null ? ventas[0] : BigDecimal.ZERO);
+                            estadisticas.setVentasMes(ventas[1] != null ? ventas[1] : BigDecimal.ZERO);
+                        }),
+
+                // ==================== PRODUCTOS POPULARES ====================
+                ConsultasParalelasService.Seccion.de("productosPopulares",
+                        this::obtenerProductosPopulares,
+                        estadisticas::setProductosPopulares),
+
+                // ==================== USUARIOS POR ROL ====================
+                ConsultasParalelasService.Seccion.de("usuariosPorRol",
+                        this::obtenerUsuariosPorRol,
+                        estadisticas::setUsuariosPorRol),
+
+                // ==================== VENTAS DEL MES ====================
+                ConsultasParalelasService.Seccion.de("ventasDelMes",
+                        () -> obtenerVentasDelMes(inicioMes),
+                        estadisticas::setVentasDelMes));
+
+        estadisticas.setSeccionesFallidas(consultasParalelasService.ejecutar(secciones, tiempos));
+        estadisticas.setTiemposMs(tiempos);
+        return estadisticas;
+    }
 
-        try {
-            // ==================== USUARIOS ====================
-            long totalUsuarios = usuarioRepository.count();
-            long usuariosActivos = usuarioRepository.countByActivo(true);
-
-            estadisticas.setTotalUsuarios(totalUsuarios);
-            estadisticas.setUsuariosActivos(usuariosActivos);
-
-            // ==================== PRODUCTOS ====================
-            long totalProductos = productoRepository.count();
-            long productosPendientes = 0L;
-
-            try {
-                productosPendientes = productoRepository.countByEstado(EstadoProducto.PENDIENTE_REVISION);
-            } catch (Exception e) {
-                System.err.println("Error al contar productos pendientes: " + e.getMessage());
-            }
-
-            estadisticas.setTotalProductos(totalProductos);
-            estadisticas.setProductosPendientes(productosPendientes);
-
-            // ==================== PEDIDOS ====================
-            long totalPedidos = pedidoRepository.count();
-
-            // ✅ Contar pedidos pendientes (usando ENUM)
-            long pedidosPendientes = 0L;
-            try {
-                List<EstadoPedido> estadosPendientes = List.of(
-                        EstadoPedido.PENDIENTE,
-                        EstadoPedido.CONFIRMADO,
-                        EstadoPedido.EN_PREPARACION);
-                pedidosPendientes = pedidoRepository.countByEstadoIn(estadosPendientes);
-            } catch (Exception e) {
-                System.err.println("Error al contar pedidos pendientes: " + e.getMessage());
-            }
-
-            estadisticas.setTotalPedidos(totalPedidos);
-            estadisticas.setPedidosPendientes(pedidosPendientes);
-
-            // ==================== VENTAS ====================
-            BigDecimal totalVentas = pedidoRepository.sumMontoTotal();
-            if (totalVentas == null) {
-                totalVentas = BigDecimal.ZERO;
-            }
-            estadisticas.setTotalVentas(totalVentas);
-
-            // Ventas del mes actual
-            LocalDateTime inicioMes = LocalDateTime.now()
-                    .withDayOfMonth(1)
-                    .withHour(0)
-                    .withMinute(0)
-                    .withSecond(0);
-
-            BigDecimal ventasMes = pedidoRepository.sumMontoTotalByFechaPedidoAfter(inicioMes);
-            if (ventasMes == null) {
-                ventasMes = BigDecimal.ZERO;
-            }
-            estadisticas.setVentasMes(ventasMes);
-
-            // ==================== PRODUCTOS POPULARES ====================
-            List<ProductoPopularResponse> productosPopulares = new ArrayList<>();
-
-            try {
-                List<Object[]> productosData = itemPedidoRepository
-                        .findProductosMasVendidos(PageRequest.of(0, 10));
-
-                for (Object[] row : productosData) {
-                    // row[0] = UUID id
-                    // row[1] = String nombre
-                    // row[2] = Long total_vendido
-                    // row[3] = BigDecimal precio
-                    // row[4] = String imagen_url (puede ser null)
-
-                    UUID productoId = (UUID) row[0];
-                    String nombre = (String) row[1];
-                    Long cantidadVendida = ((Number) row[2]).longValue();
-                    BigDecimal precio = (BigDecimal) row[3];
-                    String imagenUrl = row[4] != null ? row[4].toString() : null;
-
-                    ProductoPopularResponse dto = new ProductoPopularResponse();
-                    dto.setId(productoId);
-                    dto.setNombre(nombre);
-                    dto.setPrecio(precio);
-                    dto.setCantidadVendida(cantidadVendida);
-                    dto.setImagenUrl(imagenUrl);
-
-                    productosPopulares.add(dto);
-                }
-            } catch (Exception e) {
-                System.err.println("Error al obtener productos populares: " + e.getMessage());
-                e.printStackTrace();
-            }
-
-            estadisticas.setProductosPopulares(productosPopulares);
-
-            // ==================== USUARIOS POR ROL ====================
-            List<UsuariosPorRolResponse> usuariosPorRol = new ArrayList<>();
-
-            try {
-                List<Object[]> rolesData = usuarioRepository.countUsuariosPorRol();
-
-                for (Object[] row : rolesData) {
-                    UsuariosPorRolResponse dto = new UsuariosPorRolResponse();
-                    dto.setRol(row[0].toString()); 
-                    dto.setCantidad(((Number) row[1]).longValue());
-
-                    usuariosPorRol.add(dto);
-                }
-            } catch (Exception e) {
-                System.err.println("Error al obtener usuarios por rol: " + e.getMessage());
-                e.printStackTrace();
-            }
-
-            estadisticas.setUsuariosPorRol(usuariosPorRol);
-
-            // ==================== VENTAS DEL MES ====================
-            List<VentaDelDiaResponse> ventasDelMes = new ArrayList<>();
-
-            try {
-                List<Object[]> ventasData = pedidoRepository.findVentasPorDiaDelMes(inicioMes);
-
-                for (Object[] row : ventasData) {
-                    // Manejar fecha
-                    String fecha = String.valueOf(row[0]);
-
-                    // Manejar total
-                    BigDecimal total;
-                    if (row[1] instanceof BigDecimal) {
-                        total = (BigDecimal) row[1];
-                    } else if (row[1] instanceof Number) {
-                        total = new BigDecimal(row[1].toString());
-                    } else {
-                        total = new BigDecimal(String.valueOf(row[1]));
-                    }
-
-                    VentaDelDiaResponse dto = new VentaDelDiaResponse();
-                    dto.setFecha(fecha);
-                    dto.setTotal(total);
-
-                    ventasDelMes.add(dto);
-                }
-            } catch (Exception e) {
-                System.err.println("Error al obtener ventas del mes: " + e.getMessage());
-                e.printStackTrace();
-            }
+    private List<ProductoPopularResponse> obtenerProductosPopulares() {
+        List<ProductoPopularResponse> productosPopulares = new ArrayList<>();
+        List<Object[]> productosData = itemPedidoRepository
+                .findProductosMasVendidos(PageRequest.of(0, 10));
+
+        for (Object[] row : productosData) {
+            // row[0] = UUID id
+            // row[1] = String nombre
+            // row[2] = Long total_vendido
+            // row[3] = BigDecimal precio
+            // row[4] = String imagen_url (puede ser null)
+
+            ProductoPopularResponse dto = new ProductoPopularResponse();
+            dto.setId((UUID) row[0]);
+            dto.setNombre((String) row[1]);
+            dto.setPrecio((BigDecimal) row[3]);
+            dto.setCantidadVendida(((Number) row[2]).longValue());
+            dto.setImagenUrl(row[4] != null ? row[4].toString() : null);
+
+            productosPopulares.add(dto);
+        }
+        return productosPopulares;
+    }
 
-            estadisticas.setVentasDelMes(ventasDelMes);
+    private List<UsuariosPorRolResponse> obtenerUsuariosPorRol() {
+        List<UsuariosPorRolResponse> usuariosPorRol = new ArrayList<>();
+        for (Object[] row : usuarioRepository.countUsuariosPorRol()) {
+            UsuariosPorRolResponse dto = new UsuariosPorRolResponse();
+            dto.setRol(row[0].toString());
+            dto.setCantidad(((Number) row[1]).longValue());
 
-            return estadisticas;
+            usuariosPorRol.add(dto);
+        }
+        return usuariosPorRol;
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error general en obtenerEstadisticasGenerales: " + e.getMessage());
-            e.printStackTrace();
+    private List<VentaDelDiaResponse> obtenerVentasDelMes(LocalDate inicioMes) {
+        List<VentaDelDiaResponse> ventasDelMes = new ArrayList<>();
+        for (Object[] row : ventaDiariaRepository.findMontoPorDiaDesde(inicioMes)) {
+            VentaDelDiaResponse dto = new VentaDelDiaResponse();
+            dto.setFecha(String.valueOf(row[0]));
+            dto.setTotal(row[1] instanceof BigDecimal
+                    ? (BigDecimal) row[1]
+                    : new BigDecimal(String.valueOf(row[1])));
 
-            // Retornar estadísticas vacías
-            return new EstadisticasGeneralesResponse();
+            ventasDelMes.add(dto);
         }
+        return ventasDelMes;
     }
 
     // ==================== CONVERSORES ====================
@@ -0,0 +1,327 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.ItemPedido;
+import com.ecommercegt.backend.models.entidades.Pedido;
+import com.ecommercegt.backend.models.enums.TipoSketch;
+import com.ecommercegt.backend.repositorios.SketchVentasDiarioRepository;
+import com.ecommercegt.backend.util.CountMinSketch;
+import com.ecommercegt.backend.util.Hash64;
+import com.ecommercegt.backend.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Analítica aproximada de ventas con sketches de memoria fija
+ *
+ * - Compradores distintos por (día, categoría): HyperLogLog
+ * - Productos más vendidos por día: Count-Min Sketch con candidatos
+ * - Cada pedido confirmado se suma a sketches pendientes en memoria; cada
+ *   cierto tiempo se unen a los guardados en sketches_ventas_diarios
+ * - Un rango de fechas se responde uniendo los sketches de cada día (más los
+ *   pendientes), así la consulta no recorre pedidos
+ *
+ * Los sketches solo suman: un pedido cancelado después sigue contado.
+ */
+@Service
+public class AnaliticaAproximadaService {
+
+    /**
+     * Clave de los sketches que cubren todas las categorías
+     */
+    public static final String TOTAL = "*";
+
+    // Dimensiones fijas: los sketches guardados solo se pueden unir con otros iguales
+    private static final int PRECISION_HLL = 12;
+    private static final int PROFUNDIDAD_CMS = 4;
+    private static final int ANCHO_CMS = 2048;
+    private static final int CANDIDATOS_CMS = 100;
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO sketches_ventas_diarios (fecha, tipo, clave, datos, fecha_actualizacion) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (fecha, tipo, clave) DO NOTHING";
+
+    @Autowired
+    private SketchVentasDiarioRepository sketchVentasDiarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analitica.aproximada.max-dias:366}")
+    private int maxDias;
+
+    @Value("${analitica.aproximada.retencion-dias:400}")
+    private int retencionDias;
+
+    /**
+     * Sketches pendientes de guardar; se modifican solo dentro de compute/merge
+     */
+    private final Map<ClaveSketch, HyperLogLog> compradoresPendientes = new ConcurrentHashMap<>();
+    private final Map<LocalDate, CountMinSketch> productosPendientes = new ConcurrentHashMap<>();
+
+    // ==================== EVENTOS ====================
+
+    /**
+     * Registrar un pedido nuevo (se aplica cuando la transacción confirma)
+     *
+     * @param categoriaPorProducto categoría de cada producto del pedido
+     */
+    public void registrarPedido(Pedido pedido, Map<UUID, Integer> categoriaPorProducto) {
+        long comprador = Hash64.de(pedido.getUsuario().getId());
+        Set<String> claves = new HashSet<>();
+        claves.add(TOTAL);
+        Map<UUID, Long> unidades = new HashMap<>();
+        for (ItemPedido item : pedido.getItems()) {
+            Integer categoriaId = categoriaPorProducto.get(item.getProductoId());
+            if (categoriaId != null) {
+                claves.add(categoriaId.toString());
+            }
+            unidades.merge(item.getProductoId(), item.getCantidad().longValue(), Long::sum);
+        }
+
+        Runnable aplicar = () -> {
+            // fecha_pedido se asigna al insertar, por eso se lee recién aquí
+            LocalDate fecha = pedido.getFechaPedido() != null
+                    ? pedido.getFechaPedido().toLocalDate()
+                    : LocalDate.now();
+            for (String clave : claves) {
+                compradoresPendientes.compute(new ClaveSketch(fecha, clave), (k, hll) -> {
+                    HyperLogLog sketch = hll != null ? hll : new HyperLogLog(PRECISION_HLL);
+                    sketch.agregar(comprador);
+                    return sketch;
+                });
+            }
+            productosPendientes.compute(fecha, (k, cms) -> {
+                CountMinSketch sketch = cms != null ? cms : nuevoCountMin();
+                unidades.forEach(sketch::agregar);
+                return sketch;
+            });
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar.run();
+                }
+            });
+        } else {
+            aplicar.run();
+        }
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Compradores distintos del período por clave (ID de categoría o TOTAL)
+     * La memoria usada depende de la cantidad de categorías, no del rango.
+     */
+    public Map<String, HyperLogLog> compradoresPorCategoria(LocalDate fechaInicio, LocalDate fechaFin) {
+        validarRango(fechaInicio, fechaFin);
+        Map<String, HyperLogLog> resultado = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT clave, datos FROM sketches_ventas_diarios " +
+                "WHERE tipo = ? AND fecha BETWEEN ? AND ?",
+                rs -> {
+                    resultado.computeIfAbsent(rs.getString(1), k -> new HyperLogLog(PRECISION_HLL))
+                            .unir(HyperLogLog.desdeBytes(rs.getBytes(2)));
+                },
+                TipoSketch.COMPRADORES.name(), fechaInicio, fechaFin);
+
+        for (ClaveSketch clave : compradoresPendientes.keySet()) {
+            if (clave.enRango(fechaInicio, fechaFin)) {
+                HyperLogLog acumulado = resultado.computeIfAbsent(
+                        clave.clave, k -> new HyperLogLog(PRECISION_HLL));
+                compradoresPendientes.computeIfPresent(clave, (k, hll) -> {
+                    acumulado.unir(hll);
+                    return hll;
+                });
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Unidades vendidas por producto en el período (un solo sketch unido)
+     */
+    public CountMinSketch productosEntre(LocalDate fechaInicio, LocalDate fechaFin) {
+        validarRango(fechaInicio, fechaFin);
+        CountMinSketch resultado = nuevoCountMin();
+        jdbcTemplate.query(
+                "SELECT datos FROM sketches_ventas_diarios " +
+                "WHERE tipo = ? AND clave = ? AND fecha BETWEEN ? AND ?",
+                rs -> {
+                    resultado.unir(CountMinSketch.desdeBytes(rs.getBytes(1)));
+                },
+                TipoSketch.PRODUCTOS.name(), TOTAL, fechaInicio, fechaFin);
+
+        for (LocalDate fecha : productosPendientes.keySet()) {
+            if (!fecha.isBefore(fechaInicio) && !fecha.isAfter(fechaFin)) {
+                productosPendientes.computeIfPresent(fecha, (k, cms) -> {
+                    resultado.unir(cms);
+                    return cms;
+                });
+            }
+        }
+        return resultado;
+    }
+
+    // ==================== PERSISTENCIA ====================
+
+    /**
+     * Guardar los sketches pendientes uniéndolos con los de la base de datos
+     * Si uno falla vuelve a la memoria y se reintenta en la próxima vuelta.
+     */
+    @Scheduled(fixedDelayString = "${analitica.aproximada.volcado-ms:30000}")
+    public void volcar() {
+        for (ClaveSketch clave : new ArrayList<>(compradoresPendientes.keySet())) {
+            HyperLogLog pendiente = compradoresPendientes.remove(clave);
+            if (pendiente == null) {
+                continue;
+            }
+            try {
+                guardar(clave.fecha, TipoSketch.COMPRADORES, clave.clave, pendiente.aBytes(), datos -> {
+                    HyperLogLog guardado = HyperLogLog.desdeBytes(datos);
+                    guardado.unir(pendiente);
+                    return guardado.aBytes();
+                });
+            } catch (Exception e) {
+                System.err.println("Error al guardar sketch de compradores: " + e.getMessage());
+                compradoresPendientes.merge(clave, pendiente, (actual, anterior) -> {
+                    actual.unir(anterior);
+                    return actual;
+                });
+            }
+        }
+
+        for (LocalDate fecha : new ArrayList<>(productosPendientes.keySet())) {
+            CountMinSketch pendiente = productosPendientes.remove(fecha);
+            if (pendiente == null) {
+                continue;
+            }
+            try {
+                guardar(fecha, TipoSketch.PRODUCTOS, TOTAL, pendiente.aBytes(), datos -> {
+                    CountMinSketch guardado = CountMinSketch.desdeBytes(datos);
+                    guardado.unir(pendiente);
+                    return guardado.aBytes();
+                });
+            } catch (Exception e) {
+                System.err.println("Error al guardar sketch de productos: " + e.getMessage());
+                productosPendientes.merge(fecha, pendiente, (actual, anterior) -> {
+                    actual.unir(anterior);
+                    return actual;
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        volcar();
+    }
+
+    /**
+     * Eliminar los sketches más antiguos que la retención
+     */
+    @Scheduled(cron = "${analitica.aproximada.limpieza-cron:0 30 3 * * *}")
+    public void limpiar() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    sketchVentasDiarioRepository.eliminarAntesDe(LocalDate.now().minusDays(retencionDias)));
+        } catch (Exception e) {
+            System.err.println("Error al limpiar sketches de ventas: " + e.getMessage());
+        }
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    /**
+     * Insertar el sketch del día o, si ya existe, unirlo bajo bloqueo de fila
+     */
+    private void guardar(LocalDate fecha, TipoSketch tipo, String clave, byte[] nuevo,
+                         UnaryOperator<byte[]> unirConGuardado) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            if (jdbcTemplate.update(SQL_INSERTAR, fecha, tipo.name(), clave, nuevo, ahora) > 0) {
+                return;
+            }
+            byte[] guardado = jdbcTemplate.queryForObject(
+                    "SELECT datos FROM sketches_ventas_diarios " +
+                    "WHERE fecha = ? AND tipo = ? AND clave = ? FOR UPDATE",
+                    byte[].class, fecha, tipo.name(), clave);
+            jdbcTemplate.update(
+                    "UPDATE sketches_ventas_diarios SET datos = ?, fecha_actualizacion = ? " +
+                    "WHERE fecha = ? AND tipo = ? AND clave = ?",
+                    unirConGuardado.apply(guardado), ahora, fecha, tipo.name(), clave);
+        });
+    }
+
+    private void validarRango(LocalDate fechaInicio, LocalDate fechaFin) {
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new RuntimeException("La fecha fin no puede ser anterior a la fecha inicio");
+        }
+        if (ChronoUnit.DAYS.between(fechaInicio, fechaFin) >= maxDias) {
+            throw new RuntimeException("El rango no puede superar " + maxDias + " días");
+        }
+    }
+
+    private static CountMinSketch nuevoCountMin() {
+        return new CountMinSketch(PROFUNDIDAD_CMS, ANCHO_CMS, CANDIDATOS_CMS);
+    }
+
+    /**
+     * Día + clave de un sketch de compradores
+     */
+    private static final class ClaveSketch {
+        private final LocalDate fecha;
+        private final String clave;
+
+        private ClaveSketch(LocalDate fecha, String clave) {
+            this.fecha = fecha;
+            this.clave = clave;
+        }
+
+        private boolean enRango(LocalDate inicio, LocalDate fin) {
+            return !fecha.isBefore(inicio) && !fecha.isAfter(fin);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClaveSketch otra)) {
+                return false;
+            }
+            return fecha.equals(otra.fecha) && clave.equals(otra.clave);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fecha, clave);
+        }
+    }
+}
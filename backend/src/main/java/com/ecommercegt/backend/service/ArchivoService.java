@@ -0,0 +1,339 @@
+package com.ecommercegt.backend.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Archivos subidos (imágenes de productos) en disco local
+ *
+ * - Al subir, el contenido pasa por un canal directo al archivo mientras se
+ *   calcula su SHA-256; el nombre final lleva el hash, así una URL nunca
+ *   cambia de contenido y se puede cachear como inmutable
+ * - Al servir se responden ETag fuerte, peticiones condicionales (304) y
+ *   rangos de un solo tramo (206/416). Desde archivos.sendfile.min-bytes, y si
+ *   el conector lo soporta, el cuerpo se envía con sendfile de Tomcat (sin pasar
+ *   por la JVM). Si no, se copia al stream de la respuesta con
+ *   FileChannel.transferTo: como el destino no es un canal de archivo ni socket,
+ *   eso lee por un buffer en memoria y no es zero-copy
+ */
+@Service
+public class ArchivoService {
+
+    private static final Set<String> EXTENSIONES_IMAGEN = Set.of("jpg", "jpeg", "png", "gif", "webp");
+
+    private static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final String PREFIJO_URL = "/uploads/";
+
+    private static final long[] RANGO_INSATISFACIBLE = new long[0];
+
+    // Atributos con los que Tomcat envía el archivo con sendfile al terminar la petición
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Carpeta que se publica en /uploads/**
+     */
+    @Value("${archivos.raiz:uploads}")
+    private String raiz;
+
+    /**
+     * Tramos más chicos se copian en el hilo de la petición (igual que el DefaultServlet de Tomcat)
+     */
+    @Value("${archivos.sendfile.min-bytes:49152}")
+    private long minBytesSendfile;
+
+    // ==================== SUBIDA ====================
+
+    /**
+     * Guardar una imagen subida en raiz/carpeta
+     * @return URL relativa ("/uploads/carpeta/prefijo_hash.ext")
+     */
+    public String guardarImagen(MultipartFile archivo, String carpeta, String prefijo) throws IOException {
+        String extension = extension(archivo.getOriginalFilename());
+        if (!EXTENSIONES_IMAGEN.contains(extension)) {
+            throw new RuntimeException("Formato de imagen no soportado (jpg, jpeg, png, gif o webp)");
+        }
+
+        Path directorio = Paths.get(raiz, carpeta);
+        Files.createDirectories(directorio);
+
+        // El temporal va en la misma carpeta para que el move sea atómico
+        Path temporal = Files.createTempFile(directorio, prefijo + "_", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            try (InputStream entrada = new DigestInputStream(archivo.getInputStream(), sha256);
+                 ReadableByteChannel origen = Channels.newChannel(entrada);
+                 FileChannel destino = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                long posicion = 0;
+                long copiados;
+                while ((copiados = destino.transferFrom(origen, posicion, 1L << 20)) > 0) {
+                    posicion += copiados;
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(sha256.digest()).substring(0, 32);
+            String nombre = prefijo + "_" + hash + "." + extension;
+            publicar(temporal, directorio.resolve(nombre));
+            return PREFIJO_URL + carpeta + "/" + nombre;
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Archivo en disco de una URL publicada ("/uploads/productos/x.jpg")
+     * @throws IllegalArgumentException si la URL no es de /uploads/ o sale de la raíz
+     */
+    public Path resolverUrl(String url) {
+        Path archivo = url != null && url.startsWith(PREFIJO_URL)
+                ? resolver(url.substring(PREFIJO_URL.length()))
+                : null;
+        if (archivo == null) {
+            throw new IllegalArgumentException("URL fuera de " + PREFIJO_URL + ": " + url);
+        }
+        return archivo;
+    }
+
+    // ==================== DESCARGA ====================
+
+    /**
+     * Responder GET/HEAD de un archivo publicado
+     * @param ruta ruta relativa a la raíz (lo que sigue a /uploads/)
+     */
+    public void servir(String ruta, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path archivo = resolver(ruta);
+        if (archivo == null || archivo.getFileName().toString().endsWith(".tmp")
+                || !Files.isRegularFile(archivo, LinkOption.NOFOLLOW_LINKS)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+        long tamano = atributos.size();
+        long modificado = atributos.lastModifiedTime().toMillis();
+        // Los archivos se escriben completos y se mueven: tamaño + fecha cambian con el contenido
+        String etag = "\"" + Long.toHexString(tamano) + "-" + Long.toHexString(modificado) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, modificado);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_INMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (noModificado(request, etag, modificado)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long inicio = 0;
+        long fin = tamano - 1;
+        String rango = request.getHeader(HttpHeaders.RANGE);
+        if (rango != null && rangoVigente(request, etag, modificado)) {
+            long[] tramo = parsearRango(rango, tamano);
+            if (tramo == RANGO_INSATISFACIBLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamano);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (tramo != null) {
+                inicio = tramo[0];
+                fin = tramo[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + tamano);
+            }
+        }
+
+        long longitud = fin - inicio + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(archivo.getFileName().toString())
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentLengthLong(longitud);
+
+        if ("HEAD".equals(request.getMethod()) || longitud == 0) {
+            return;
+        }
+
+        if (longitud >= minBytesSendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            request.setAttribute(SENDFILE_ARCHIVO, archivo.toRealPath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin + 1);
+            return;
+        }
+
+        // Copia por buffer: el stream del servlet no es un canal al que transferTo pueda enviar directo
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = inicio;
+            long restante = longitud;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicion, restante, salida);
+                if (enviados <= 0) {
+                    break;
+                }
+                posicion += enviados;
+                restante -= enviados;
+            }
+        }
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    /**
+     * Ruta relativa a la raíz, o null si sale de ella ("../")
+     */
+    private Path resolver(String ruta) {
+        Path base = Paths.get(raiz).toAbsolutePath().normalize();
+        Path archivo = base.resolve(ruta).normalize();
+        return archivo.startsWith(base) && !archivo.equals(base) ? archivo : null;
+    }
+
+    /**
+     * Dejar el temporal con su nombre final sin reemplazar nunca uno existente
+     * (rename reemplaza en silencio; un hard link falla si el destino ya existe).
+     * Si otra subida del mismo contenido ganó, se reutiliza su archivo: la fecha,
+     * y con ella el ETag de la URL inmutable, no cambian
+     * (ImagenVariantesService publica las variantes de la misma forma)
+     */
+    static void publicar(Path temporal, Path destino) throws IOException {
+        try {
+            Files.createLink(destino, temporal);
+        } catch (FileAlreadyExistsException e) {
+            // Mismo contenido ya subido
+        } catch (UnsupportedOperationException e) {
+            // Sistema de archivos sin hard links: move sin REPLACE_EXISTING
+            try {
+                Files.move(temporal, destino);
+            } catch (FileAlreadyExistsException yaExiste) {
+                // Mismo contenido ya subido
+            }
+        }
+    }
+
+    /**
+     * If-None-Match tiene prioridad; If-Modified-Since solo se mira si no viene
+     */
+    private static boolean noModificado(HttpServletRequest request, String etag, long modificado) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidato : ifNoneMatch.split(",")) {
+                String valor = candidato.trim();
+                if (valor.startsWith("W/")) {
+                    valor = valor.substring(2);
+                }
+                if (valor.equals("*") || valor.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = fechaEncabezado(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && modificado / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Con If-Range el rango solo vale si el archivo es el mismo que tiene el cliente
+     */
+    private static boolean rangoVigente(HttpServletRequest request, String etag, long modificado) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        long fecha = fechaEncabezado(request, HttpHeaders.IF_RANGE);
+        return fecha >= 0 && modificado / 1000 == fecha / 1000;
+    }
+
+    /**
+     * Rango de un solo tramo ("bytes=a-b", "bytes=a-", "bytes=-n")
+     * @return {inicio, fin} inclusivos, null para ignorarlo (mal formado o de varios
+     *         tramos: se responde el archivo completo) o RANGO_INSATISFACIBLE
+     */
+    private static long[] parsearRango(String rango, long tamano) {
+        if (!rango.startsWith("bytes=") || rango.indexOf(',') >= 0) {
+            return null;
+        }
+        String tramo = rango.substring("bytes=".length()).trim();
+        int guion = tramo.indexOf('-');
+        if (guion < 0) {
+            return null;
+        }
+        try {
+            String desde = tramo.substring(0, guion).trim();
+            String hasta = tramo.substring(guion + 1).trim();
+            if (desde.isEmpty()) {
+                // Sufijo: los últimos n bytes
+                long sufijo = Long.parseLong(hasta);
+                if (sufijo <= 0 || tamano == 0) {
+                    return RANGO_INSATISFACIBLE;
+                }
+                return new long[]{Math.max(0, tamano - sufijo), tamano - 1};
+            }
+            long inicio = Long.parseLong(desde);
+            long fin = hasta.isEmpty() ? tamano - 1 : Long.parseLong(hasta);
+            if (inicio >= tamano) {
+                return RANGO_INSATISFACIBLE;
+            }
+            if (fin < inicio) {
+                return null;
+            }
+            return new long[]{inicio, Math.min(fin, tamano - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long fechaEncabezado(HttpServletRequest request, String nombre) {
+        try {
+            return request.getDateHeader(nombre);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String extension(String nombreOriginal) {
+        if (nombreOriginal == null) {
+            return "";
+        }
+        int punto = nombreOriginal.lastIndexOf('.');
+        return punto >= 0 ? nombreOriginal.substring(punto + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -10,19 +10,24 @@ import com.ecommercegt.backend.models.enums.RolNombre;
 import com.ecommercegt.backend.repositorios.RolRepository;
 import com.ecommercegt.backend.repositorios.UsuarioRepository;
 import com.ecommercegt.backend.security.jwt.JwtUtils;
+import com.ecommercegt.backend.security.service.HashContrasenaService;
+import com.ecommercegt.backend.security.service.RevocacionTokenService;
+import com.ecommercegt.backend.security.service.SesionRefreshService;
 import com.ecommercegt.backend.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,69 +43,117 @@ public class AuthService {
     private RolRepository rolRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private HashContrasenaService hashContrasenaService;
     
     @Autowired
     private JwtUtils jwtUtils;
     
+    @Autowired
+    private RevocacionTokenService revocacionTokenService;
+    
+    @Autowired
+    private SesionRefreshService sesionRefreshService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
     /**
-     * Autentica un usuario y genera un token JWT
+     * Autentica un usuario, abre una sesión y genera el token JWT
+     * La verificación (bcrypt) corre en el pool de hash, no en el hilo de la petición
      * @param loginRequest - Credenciales del usuario
-     * @return JwtResponse con token y datos del usuario
+     * @return JwtResponse con token, token de refresco y datos del usuario
+     * @throws java.util.concurrent.RejectedExecutionException si el pool de hash está saturado
      */
-    @Transactional(readOnly = true)
-    public JwtResponse login(LoginRequest loginRequest) {
-        // Autenticar con Spring Security
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getNombreUsuario(),
-                        loginRequest.getContrasena()
-                )
-        );
-        
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        
-        // Generar JWT
-        String jwt = jwtUtils.generateJwtToken(authentication);
-        
-        // Obtener detalles del usuario autenticado
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+    public CompletableFuture<JwtResponse> login(LoginRequest loginRequest) {
+        return hashContrasenaService.ejecutar(() -> {
+            // Autenticar con Spring Security
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            loginRequest.getNombreUsuario(),
+                            loginRequest.getContrasena()
+                    )
+            );
+            
+            // Obtener detalles del usuario autenticado
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            
+            SesionRefreshService.Sesion sesion = sesionRefreshService.abrir(userDetails.getId());
+            return crearRespuesta(authentication, sesion);
+        });
+    }
+    
+    /**
+     * Renueva el token de acceso con un token de refresco (sin volver a verificar la contraseña)
+     * El token de refresco usado deja de ser válido y se entrega uno nuevo
+     * @param refreshToken - Token de refresco recibido en el login o la renovación anterior
+     * @return JwtResponse con los tokens nuevos
+     */
+    @Transactional
+    public JwtResponse refrescar(String refreshToken) {
+        SesionRefreshService.Sesion sesion = sesionRefreshService.rotar(refreshToken);
         
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(item -> item.getAuthority())
-                .collect(Collectors.toList());
+        // Roles y estado actuales: un cambio de permisos se refleja en la siguiente renovación
+        Usuario usuario = usuarioRepository.findById(sesion.getUsuarioId())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        if (!Boolean.TRUE.equals(usuario.getActivo())) {
+            throw new RuntimeException("El usuario está desactivado");
+        }
         
-        return new JwtResponse(
-                jwt,
-                userDetails.getId(),
-                userDetails.getUsername(),
-                userDetails.getEmail(),
-                roles
-        );
+        UserDetailsImpl userDetails = UserDetailsImpl.build(usuario);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        return crearRespuesta(authentication, sesion);
+    }
+    
+    /**
+     * Cierra la sesión: revoca su token de refresco y los tokens de acceso que emitió
+     * @param usuarioId - ID del usuario autenticado
+     * @param sesionId - Sesión del token usado (null en tokens sin sesión: se revocan todos)
+     */
+    @Transactional
+    public void logout(UUID usuarioId, UUID sesionId) {
+        if (sesionId != null) {
+            revocacionTokenService.revocarSesion(sesionId);
+        } else {
+            revocacionTokenService.revocarTokens(usuarioId);
+        }
     }
     
     /**
      * Registra un nuevo usuario en el sistema
+     * Corre en el pool de hash como el login: validar, hashear sin conexión
+     * tomada y guardar en una transacción corta
      * @param registerRequest - Datos del nuevo usuario
      * @return MessageResponse con mensaje de éxito o error
+     * @throws java.util.concurrent.RejectedExecutionException si el pool de hash está saturado
      */
-    @Transactional
-    public MessageResponse register(RegisterRequest registerRequest) {
-        // Validar que el nombre de usuario no exista
-        if (usuarioRepository.existsByNombreUsuario(registerRequest.getNombreUsuario())) {
-            return new MessageResponse("Error: El nombre de usuario ya está en uso");
-        }
-        
-        // Validar que el correo no exista
-        if (usuarioRepository.existsByCorreo(registerRequest.getCorreo())) {
-            return new MessageResponse("Error: El correo electrónico ya está registrado");
-        }
-        
+    public CompletableFuture<MessageResponse> register(RegisterRequest registerRequest) {
+        return hashContrasenaService.ejecutar(() -> {
+            // Validar que el nombre de usuario no exista
+            if (usuarioRepository.existsByNombreUsuario(registerRequest.getNombreUsuario())) {
+                return new MessageResponse("Error: El nombre de usuario ya está en uso");
+            }
+            
+            // Validar que el correo no exista
+            if (usuarioRepository.existsByCorreo(registerRequest.getCorreo())) {
+                return new MessageResponse("Error: El correo electrónico ya está registrado");
+            }
+            
+            // Ya estamos en un worker del pool: se hashea aquí mismo
+            String contrasenaHash = hashContrasenaService.getEncoder().encode(registerRequest.getContrasena());
+            
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    guardarUsuario(registerRequest, contrasenaHash));
+            return new MessageResponse("Usuario registrado exitosamente");
+        });
+    }
+    
+    private void guardarUsuario(RegisterRequest registerRequest, String contrasenaHash) {
         // Crear nuevo usuario
         Usuario usuario = new Usuario();
         usuario.setNombreUsuario(registerRequest.getNombreUsuario());
         usuario.setCorreo(registerRequest.getCorreo());
-        usuario.setContrasenaHash(passwordEncoder.encode(registerRequest.getContrasena()));
+        usuario.setContrasenaHash(contrasenaHash);
         usuario.setNombreCompleto(registerRequest.getNombreCompleto());
         usuario.setTelefono(registerRequest.getTelefono());
         usuario.setDireccion(registerRequest.getDireccion());
@@ -145,7 +198,24 @@ public class AuthService {
         
         // Guardar usuario en la base de datos
         usuarioRepository.save(usuario);
+    }
+    
+    private JwtResponse crearRespuesta(Authentication authentication, SesionRefreshService.Sesion sesion) {
+        String jwt = jwtUtils.generateJwtToken(authentication, sesion.getId());
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toList());
         
-        return new MessageResponse("Usuario registrado exitosamente");
+        JwtResponse response = new JwtResponse(
+                jwt,
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getEmail(),
+                roles
+        );
+        response.setRefreshToken(sesion.getTokenRefresco());
+        return response;
     }
 }
\ No newline at end of file
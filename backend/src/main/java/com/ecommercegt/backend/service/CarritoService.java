@@ -7,13 +7,11 @@ import com.ecommercegt.backend.dto.response.ItemCarritoResponse;
 import com.ecommercegt.backend.models.entidades.Carrito;
 import com.ecommercegt.backend.models.entidades.ItemCarrito;
 import com.ecommercegt.backend.models.entidades.Producto;
-import com.ecommercegt.backend.models.entidades.Usuario;
 import com.ecommercegt.backend.repositorios.CarritoRepository;
 import com.ecommercegt.backend.repositorios.ItemCarritoRepository;
 import com.ecommercegt.backend.repositorios.ProductoRepository;
-import com.ecommercegt.backend.repositorios.UsuarioRepository;
+import com.ecommercegt.backend.security.service.UsuarioActual;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,19 +33,19 @@ public class CarritoService {
     private ProductoRepository productoRepository;
     
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private UsuarioActual usuarioActual;
     
     /**
      * Obtener o crear carrito del usuario actual
      */
     @Transactional
     public Carrito obtenerOCrearCarrito() {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
-        return carritoRepository.findByUsuarioIdWithItems(usuario.getId())
+        return carritoRepository.findByUsuarioIdWithItems(usuarioId)
                 .orElseGet(() -> {
                     Carrito nuevoCarrito = new Carrito();
-                    nuevoCarrito.setUsuario(usuario);
+                    nuevoCarrito.setUsuario(usuarioActual.obtenerReferencia());
                     return carritoRepository.save(nuevoCarrito);
                 });
     }
@@ -114,9 +112,9 @@ public class CarritoService {
      */
     @Transactional(readOnly = true)
     public CarritoResponse obtenerMiCarrito() {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
-        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuario.getId())
+        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuarioId)
                 .orElseThrow(() -> new RuntimeException("No tienes un carrito activo"));
         
         return convertirAResponse(carrito);
@@ -127,14 +125,14 @@ public class CarritoService {
      */
     @Transactional
     public CarritoResponse actualizarCantidadItem(Integer itemId, ActualizarCantidadRequest request) {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
         // Buscar item
         ItemCarrito item = itemCarritoRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Item no encontrado con ID: " + itemId));
         
         // Verificar que el item pertenece al carrito del usuario
-        if (!item.getCarrito().getUsuario().getId().equals(usuario.getId())) {
+        if (!item.getCarrito().getUsuario().getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes permiso para modificar este item");
         }
         
@@ -148,7 +146,7 @@ public class CarritoService {
         itemCarritoRepository.save(item);
         
         // Obtener carrito actualizado
-        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuario.getId())
+        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
         
         return convertirAResponse(carrito);
@@ -159,14 +157,14 @@ public class CarritoService {
      */
     @Transactional
     public CarritoResponse eliminarItem(Integer itemId) {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
         // Buscar item
         ItemCarrito item = itemCarritoRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Item no encontrado con ID: " + itemId));
         
         // Verificar que el item pertenece al carrito del usuario
-        if (!item.getCarrito().getUsuario().getId().equals(usuario.getId())) {
+        if (!item.getCarrito().getUsuario().getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes permiso para eliminar este item");
         }
         
@@ -174,7 +172,7 @@ public class CarritoService {
         itemCarritoRepository.delete(item);
         
         // Obtener carrito actualizado
-        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuario.getId())
+        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
         
         return convertirAResponse(carrito);
@@ -185,9 +183,9 @@ public class CarritoService {
      */
     @Transactional
     public void limpiarCarrito() {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
-        Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
+        Carrito carrito = carritoRepository.findByUsuarioId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("No tienes un carrito activo"));
         
         // Eliminar todos los items
@@ -203,9 +201,9 @@ public class CarritoService {
      */
     @Transactional(readOnly = true)
     public BigDecimal calcularTotal() {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
-        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuario.getId())
+        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuarioId)
                 .orElseThrow(() -> new RuntimeException("No tienes un carrito activo"));
         
         return carrito.calcularTotal();
@@ -216,9 +214,9 @@ public class CarritoService {
      */
     @Transactional(readOnly = true)
     public boolean verificarStockDisponible() {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
-        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuario.getId())
+        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuarioId)
                 .orElse(null);
         
         if (carrito == null || carrito.estaVacio()) {
@@ -234,9 +232,9 @@ public class CarritoService {
      */
     @Transactional(readOnly = true)
     public Integer contarItems() {
-        Usuario usuario = obtenerUsuarioActual();
+        UUID usuarioId = usuarioActual.obtenerId();
         
-        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuario.getId())
+        Carrito carrito = carritoRepository.findByUsuarioIdWithItems(usuarioId)
                 .orElse(null);
         
         if (carrito == null) {
@@ -246,15 +244,6 @@ public class CarritoService {
         return carrito.getCantidadTotalItems();
     }
     
-    /**
-     * Obtener usuario actual del contexto de seguridad
-     */
-    private Usuario obtenerUsuarioActual() {
-        String nombreUsuario = SecurityContextHolder.getContext().getAuthentication().getName();
-        return usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-    }
-    
     /**
      * Convertir entidad Carrito a DTO Response
      */
@@ -293,11 +282,11 @@ public class CarritoService {
         item.getProducto().getImagenes().stream()
                 .filter(img -> img.getEsPrincipal())
                 .findFirst()
-                .ifPresent(img -> response.setProductoImagen(img.getUrlImagen()));
+                .ifPresent(img -> response.setProductoImagen(img.urlParaMiniatura()));
         
         // Si no hay imagen principal, tomar la primera
         if (response.getProductoImagen() == null && !item.getProducto().getImagenes().isEmpty()) {
-            response.setProductoImagen(item.getProducto().getImagenes().get(0).getUrlImagen());
+            response.setProductoImagen(item.getProducto().getImagenes().get(0).urlParaMiniatura());
         }
         
         response.setCantidad(item.getCantidad());
@@ -0,0 +1,172 @@
+package com.ecommercegt.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ejecución de las secciones independientes de los dashboards
+ *
+ * - Cada sección corre en su propia transacción de solo lectura
+ * - Con dashboard.paralelo.habilitado=true las secciones corren a la vez en
+ *   hilos virtuales y la latencia total es la de la sección más lenta
+ * - Cada sección tiene su propio timeout; si falla o vence, el resto del
+ *   resultado se devuelve igual y la sección se informa como fallida
+ * - El resultado de cada consulta se aplica en el hilo que llama, así una
+ *   sección vencida nunca modifica la respuesta después de devolverla
+ */
+@Service
+public class ConsultasParalelasService {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${dashboard.paralelo.habilitado:true}")
+    private boolean paralelo;
+
+    @Value("${dashboard.paralelo.timeout-ms:5000}")
+    private long timeoutMs;
+
+    /**
+     * Límite global de secciones ejecutándose a la vez (cada una ocupa una conexión del pool)
+     */
+    private final Semaphore conexiones;
+
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ConsultasParalelasService(@Value("${dashboard.paralelo.max-concurrentes:4}") int maxConcurrentes) {
+        this.conexiones = new Semaphore(Math.max(maxConcurrentes, 1));
+    }
+
+    /**
+     * Ejecutar las secciones y aplicar los resultados obtenidos
+     *
+     * @param tiempos mapa donde se registra el tiempo de cada sección y el "total" (puede ser null)
+     * @return nombres de las secciones que fallaron o vencieron (vacía si todo salió bien)
+     */
+    public List<String> ejecutar(List<Seccion<?>> secciones, Map<String, Long> tiempos) {
+        Map<String, Long> duraciones = tiempos != null ? tiempos : new LinkedHashMap<>();
+        List<String> fallidas = new ArrayList<>();
+        long inicio = System.nanoTime();
+
+        if (paralelo) {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (Seccion<?> seccion : secciones) {
+                futuros.add(hilos.submit(() -> {
+                    seccion.consultar(this);
+                    return null;
+                }));
+            }
+            long limite = inicio + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            for (int i = 0; i < secciones.size(); i++) {
+                Seccion<?> seccion = secciones.get(i);
+                Future<?> futuro = futuros.get(i);
+                try {
+                    futuro.get(Math.max(limite - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    seccion.aplicar();
+                } catch (TimeoutException e) {
+                    futuro.cancel(true);
+                    System.err.println("Sección de dashboard '" + seccion.nombre + "' superó " + timeoutMs + " ms");
+                    fallidas.add(seccion.nombre);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futuro.cancel(true);
+                    fallidas.add(seccion.nombre);
+                } catch (Exception e) {
+                    System.err.println("Error en sección de dashboard '" + seccion.nombre + "': " + causa(e));
+                    fallidas.add(seccion.nombre);
+                }
+                duraciones.put(seccion.nombre,
+                        seccion.duracionMs >= 0 ? seccion.duracionMs : (System.nanoTime() - inicio) / 1_000_000);
+            }
+        } else {
+            for (Seccion<?> seccion : secciones) {
+                try {
+                    seccion.consultar(this);
+                    seccion.aplicar();
+                } catch (Exception e) {
+                    System.err.println("Error en sección de dashboard '" + seccion.nombre + "': " + causa(e));
+                    fallidas.add(seccion.nombre);
+                }
+                duraciones.put(seccion.nombre, seccion.duracionMs);
+            }
+        }
+
+        duraciones.put("total", (System.nanoTime() - inicio) / 1_000_000);
+        return fallidas;
+    }
+
+    @PreDestroy
+    public void detener() {
+        hilos.shutdownNow();
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private <T> T enTransaccion(Supplier<T> consulta) throws InterruptedException {
+        conexiones.acquire();
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.setTimeout((int) Math.max(TimeUnit.MILLISECONDS.toSeconds(timeoutMs), 1));
+            return tx.execute(status -> consulta.get());
+        } finally {
+            conexiones.release();
+        }
+    }
+
+    private static String causa(Exception e) {
+        Throwable causa = e.getCause() != null ? e.getCause() : e;
+        return causa.getMessage();
+    }
+
+    /**
+     * Sección de un dashboard: una consulta de solo lectura y cómo aplicar su resultado
+     */
+    public static class Seccion<T> {
+        private final String nombre;
+        private final Supplier<T> consulta;
+        private final Consumer<T> aplicacion;
+        private volatile T resultado;
+        private volatile long duracionMs = -1;
+
+        private Seccion(String nombre, Supplier<T> consulta, Consumer<T> aplicacion) {
+            this.nombre = nombre;
+            this.consulta = consulta;
+            this.aplicacion = aplicacion;
+        }
+
+        public static <T> Seccion<T> de(String nombre, Supplier<T> consulta, Consumer<T> aplicacion) {
+            return new Seccion<>(nombre, consulta, aplicacion);
+        }
+
+        private void consultar(ConsultasParalelasService servicio) throws InterruptedException {
+            long inicio = System.nanoTime();
+            try {
+                resultado = servicio.enTransaccion(consulta);
+            } finally {
+                duracionMs = (System.nanoTime() - inicio) / 1_000_000;
+            }
+        }
+
+        private void aplicar() {
+            aplicacion.accept(resultado);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.ContadorNotificaciones;
+import com.ecommercegt.backend.repositorios.ContadorNotificacionesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de contadores de notificaciones no leídas
+ *
+ * - El contador de cada usuario vive en contadores_notificaciones y se
+ *   actualiza en la misma transacción que la notificación
+ * - Las lecturas se sirven desde un mapa en memoria con TTL corto; si no
+ *   está en memoria se lee la fila del contador por clave primaria
+ * - Nunca se hace COUNT sobre notificaciones en la ruta de lectura; eso
+ *   solo lo hace el reconciliador periódico
+ */
+@Service
+public class ContadorNotificacionesService {
+
+    @Autowired
+    private ContadorNotificacionesRepository contadorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Tiempo que un valor en memoria se considera válido
+     * (acota el desfase entre instancias cuando hay más de una)
+     */
+    @Value("${notificaciones.contador.cache-ttl-ms:10000}")
+    private long cacheTtlMs;
+
+    @Value("${notificaciones.contador.cache-max-usuarios:50000}")
+    private int cacheMaxUsuarios;
+
+    private final Map<UUID, EntradaCache> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Obtener la cantidad de notificaciones no leídas de un usuario
+     * Sin @Transactional: un acierto en memoria no abre transacción ni toma
+     * conexión; solo el fallo lee la fila (en la transacción del repositorio)
+     */
+    public long obtener(UUID usuarioId) {
+        long ahora = System.nanoTime();
+        EntradaCache entrada = cache.get(usuarioId);
+        if (entrada != null && entrada.expira - ahora > 0) {
+            return entrada.valor;
+        }
+
+        long valor = contadorRepository.findById(usuarioId)
+                .map(ContadorNotificaciones::getNoLeidas)
+                .orElse(0L);
+        if (cache.size() >= cacheMaxUsuarios) {
+            cache.clear();
+        }
+        cache.put(usuarioId, new EntradaCache(valor, ahora + cacheTtlMs * 1_000_000L));
+        return valor;
+    }
+
+    /**
+     * Sumar notificaciones no leídas (al crear notificaciones)
+     * Debe llamarse dentro de la transacción que crea la notificación
+     */
+    public void incrementar(UUID usuarioId, long cantidad) {
+        if (cantidad == 0) {
+            return;
+        }
+        contadorRepository.sumar(usuarioId, cantidad);
+        invalidarAlConfirmar(usuarioId);
+    }
+
+    /**
+     * Restar una notificación no leída (al marcarla como leída o eliminarla)
+     */
+    public void decrementar(UUID usuarioId) {
+        contadorRepository.sumar(usuarioId, -1);
+        invalidarAlConfirmar(usuarioId);
+    }
+
+    /**
+     * Dejar el contador en cero (al marcar todas como leídas)
+     */
+    public void reiniciar(UUID usuarioId) {
+        contadorRepository.reiniciar(usuarioId);
+        invalidarAlConfirmar(usuarioId);
+    }
+
+    /**
+     * Reconciliador: recalcula los contadores contra la tabla de notificaciones
+     * Corre al iniciar y luego periódicamente para corregir desvíos
+     * (cambios hechos por fuera del servicio, fallos parciales, etc.)
+     *
+     * Aplica la diferencia (conteo - contador) medida en una misma foto en lugar
+     * de sobrescribir: un incrementar que confirma durante el recuento se conserva
+     *
+     * @return cantidad de contadores corregidos
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.contador.reconciliacion-ms:3600000}")
+    public int reconciliar() {
+        try {
+            Integer corregidos = new TransactionTemplate(transactionManager)
+                    .execute(status -> contadorRepository.reconciliarExistentes() + contadorRepository.crearFaltantes());
+            cache.clear();
+            return corregidos != null ? corregidos : 0;
+        } catch (Exception e) {
+            System.err.println("Error al reconciliar contadores de notificaciones: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    /**
+     * Quitar el valor en memoria cuando la transacción confirme
+     * (antes del commit otra petición podría volver a cachear el valor viejo)
+     */
+    private void invalidarAlConfirmar(UUID usuarioId) {
+        cache.remove(usuarioId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(usuarioId);
+                }
+            });
+        }
+    }
+
+    private static class EntradaCache {
+        private final long valor;
+        private final long expira;
+
+        private EntradaCache(long valor, long expira) {
+            this.valor = valor;
+            this.expira = expira;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.response.MetricasCorreoResponse;
+import com.ecommercegt.backend.models.entidades.CorreoPendiente;
+import com.ecommercegt.backend.models.enums.EstadoCorreo;
+import com.ecommercegt.backend.repositorios.CorreoPendienteRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Despachador asíncrono de correos
+ *
+ * - Workers dedicados reclaman lotes de correos PENDIENTES (FOR UPDATE SKIP LOCKED)
+ * - Cada lote se envía por una sola conexión SMTP
+ * - Los fallos se reintentan con backoff exponencial; al agotar los
+ *   intentos el correo queda en FALLIDO (dead-letter)
+ * - Una tarea programada libera reclamos colgados y purga correos enviados
+ */
+@Service
+public class CorreoDespachador {
+
+    /**
+     * Comandos SMTP de una sesión (EHLO, STARTTLS, EHLO, AUTH, QUIT) y de cada
+     * correo (MAIL FROM, RCPT TO, DATA, fin de datos)
+     */
+    private static final int COMANDOS_SESION = 5;
+    private static final int COMANDOS_POR_CORREO = 4;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private CorreoPendienteRepository correoPendienteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${correo.despacho.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${correo.despacho.workers:2}")
+    private int cantidadWorkers;
+
+    @Value("${correo.despacho.tamano-lote:50}")
+    private int tamanoLote;
+
+    @Value("${correo.despacho.intervalo-ms:2000}")
+    private long intervaloMs;
+
+    @Value("${correo.despacho.max-intentos:6}")
+    private int maxIntentos;
+
+    @Value("${correo.despacho.backoff-base-segundos:30}")
+    private long backoffBaseSegundos;
+
+    @Value("${correo.despacho.backoff-max-segundos:3600}")
+    private long backoffMaxSegundos;
+
+    @Value("${correo.despacho.retencion-enviados-dias:7}")
+    private int retencionEnviadosDias;
+
+    @Value("${correo.despacho.reclamo-vencido-ms:1800000}")
+    private long reclamoVencidoMs;
+
+    @Value("${spring.mail.properties.mail.smtp.connectiontimeout:0}")
+    private long smtpTimeoutConexionMs;
+
+    @Value("${spring.mail.properties.mail.smtp.timeout:0}")
+    private long smtpTimeoutLecturaMs;
+
+    @Value("${spring.mail.properties.mail.smtp.writetimeout:0}")
+    private long smtpTimeoutEscrituraMs;
+
+    @Value("${spring.mail.username:}")
+    private String remitente;
+
+    private ExecutorService workers;
+    private volatile boolean activo = false;
+    private final Object senal = new Object();
+
+    // ==================== MÉTRICAS ====================
+
+    private final LocalDateTime inicio = LocalDateTime.now();
+    private final long inicioNanos = System.nanoTime();
+    private final LongAdder encolados = new LongAdder();
+    private final LongAdder enviados = new LongAdder();
+    private final LongAdder reintentosProgramados = new LongAdder();
+    private final LongAdder fallidosDefinitivos = new LongAdder();
+    private final LongAdder lotesProcesados = new LongAdder();
+    private final LongAdder tiempoLotesNanos = new LongAdder();
+    private final LongAdder tiempoEntregaMs = new LongAdder();
+
+    /**
+     * Iniciar los workers al arrancar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado || activo) {
+            return;
+        }
+        activo = true;
+        if (smtpTimeoutConexionMs <= 0 || Math.max(smtpTimeoutLecturaMs, smtpTimeoutEscrituraMs) <= 0) {
+            System.err.println("Sin timeouts SMTP (spring.mail.properties.mail.smtp.*timeout) un envío colgado "
+                    + "retiene su lote; después de " + reclamoVencidoMs + " ms se libera y podría enviarse dos veces");
+        }
+        AtomicInteger numero = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(cantidadWorkers, tarea -> {
+            Thread hilo = new Thread(tarea, "correo-worker-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        for (int i = 0; i < cantidadWorkers; i++) {
+            workers.submit(this::cicloWorker);
+        }
+    }
+
+    /**
+     * Detener los workers al cerrar la aplicación
+     */
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        despertar();
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Registrar un correo encolado y despertar a los workers cuando la transacción confirme
+     */
+    public void registrarEncolado() {
+        encolados.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    despertar();
+                }
+            });
+        } else {
+            despertar();
+        }
+    }
+
+    /**
+     * Reclamar, enviar y guardar el siguiente lote de la cola
+     *
+     * @return cantidad de correos procesados (0 si la cola está vacía)
+     */
+    public int procesarSiguienteLote() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        List<CorreoPendiente> lote = tx.execute(status -> {
+            LocalDateTime ahora = LocalDateTime.now();
+            List<Long> ids = correoPendienteRepository.findIdsListosParaEnviar(ahora, tamanoLote);
+            if (ids.isEmpty()) {
+                return List.<CorreoPendiente>of();
+            }
+            correoPendienteRepository.marcarEnviando(ids, ahora);
+            return correoPendienteRepository.findAllById(ids);
+        });
+        if (lote == null || lote.isEmpty()) {
+            return 0;
+        }
+
+        enviarLote(lote);
+        tx.executeWithoutResult(status -> correoPendienteRepository.saveAll(lote));
+        return lote.size();
+    }
+
+    /**
+     * Enviar un lote por una sola conexión SMTP y actualizar el estado de cada correo
+     * (ENVIADO, PENDIENTE con reintento programado, o FALLIDO)
+     * No persiste los cambios; eso lo hace quien llama.
+     */
+    public void enviarLote(List<CorreoPendiente> lote) {
+        long inicioLote = System.nanoTime();
+
+        Map<MimeMessage, CorreoPendiente> mensajes = new LinkedHashMap<>();
+        for (CorreoPendiente correo : lote) {
+            try {
+                mensajes.put(construirMensaje(correo), correo);
+            } catch (MessagingException e) {
+                // Mensaje inválido (ej. dirección mal formada): no tiene sentido reintentar
+                correo.registrarFallo(e.getMessage(), 1, backoffBaseSegundos, backoffMaxSegundos);
+                fallidosDefinitivos.increment();
+            }
+        }
+        if (mensajes.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> fallidos = Map.of();
+        Exception errorGeneral = null;
+        try {
+            mailSender.send(mensajes.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            fallidos = e.getFailedMessages();
+            if (fallidos.isEmpty()) {
+                errorGeneral = e;
+            }
+        } catch (MailException e) {
+            errorGeneral = e;
+        }
+
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, CorreoPendiente> entrada : mensajes.entrySet()) {
+            CorreoPendiente correo = entrada.getValue();
+            Exception error = errorGeneral != null ? errorGeneral : fallidos.get(entrada.getKey());
+            if (error == null) {
+                correo.marcarEnviado();
+                enviados.increment();
+                if (correo.getFechaCreacion() != null) {
+                    tiempoEntregaMs.add(Duration.between(correo.getFechaCreacion(), ahora).toMillis());
+                }
+            } else {
+                correo.registrarFallo(error.getMessage(), maxIntentos, backoffBaseSegundos, backoffMaxSegundos);
+                if (correo.getEstado() == EstadoCorreo.FALLIDO) {
+                    fallidosDefinitivos.increment();
+                } else {
+                    reintentosProgramados.increment();
+                }
+            }
+        }
+
+        lotesProcesados.increment();
+        tiempoLotesNanos.add(System.nanoTime() - inicioLote);
+    }
+
+    /**
+     * Mantenimiento de la cola
+     * - Devuelve a PENDIENTE los correos de workers que se detuvieron a mitad de un envío
+     *   (reclamados hace más de ventanaReclamoMs)
+     * - Elimina correos enviados más antiguos que la retención configurada
+     */
+    @Scheduled(fixedDelayString = "${correo.despacho.mantenimiento-ms:60000}")
+    public void mantenimiento() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                LocalDateTime ahora = LocalDateTime.now();
+                correoPendienteRepository.liberarReclamosVencidos(
+                        ahora.minus(Duration.ofMillis(ventanaReclamoMs())));
+                correoPendienteRepository.eliminarEnviadosAntesDe(ahora.minusDays(retencionEnviadosDias));
+            });
+        } catch (Exception e) {
+            System.err.println("Error en mantenimiento de la cola de correos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Antigüedad a partir de la cual un reclamo se considera de un worker detenido
+     * Nunca es menor que lo que puede tardar un lote vivo según los timeouts SMTP:
+     * la conexión más los comandos de la sesión y de cada correo, cada uno hasta el
+     * timeout de lectura o escritura. Liberar antes haría que otro worker reenviara
+     * correos que el primero todavía está entregando.
+     */
+    long ventanaReclamoMs() {
+        long porComando = Math.max(smtpTimeoutLecturaMs, smtpTimeoutEscrituraMs);
+        if (smtpTimeoutConexionMs <= 0 || porComando <= 0) {
+            return reclamoVencidoMs;
+        }
+        long comandos = COMANDOS_SESION + (long) COMANDOS_POR_CORREO * Math.max(tamanoLote, 1);
+        return Math.max(reclamoVencidoMs, smtpTimeoutConexionMs + comandos * porComando);
+    }
+
+    /**
+     * Obtener métricas de throughput, latencia y estado de la cola
+     */
+    public MetricasCorreoResponse obtenerMetricas() {
+        long totalEnviados = enviados.sum();
+        long lotes = lotesProcesados.sum();
+        double segundos = Math.max((System.nanoTime() - inicioNanos) / 1_000_000_000.0, 1.0);
+
+        MetricasCorreoResponse metricas = new MetricasCorreoResponse();
+        metricas.setEncolados(encolados.sum());
+        metricas.setEnviados(totalEnviados);
+        metricas.setReintentosProgramados(reintentosProgramados.sum());
+        metricas.setFallidosDefinitivos(fallidosDefinitivos.sum());
+        metricas.setLotesProcesados(lotes);
+        metricas.setEnviadosPorSegundo(totalEnviados / segundos);
+        metricas.setLatenciaPromedioLoteMs(lotes > 0 ? tiempoLotesNanos.sum() / 1_000_000.0 / lotes : 0.0);
+        metricas.setLatenciaPromedioEntregaMs(totalEnviados > 0 ? (double) tiempoEntregaMs.sum() / totalEnviados : 0.0);
+        metricas.setPendientes(correoPendienteRepository.countByEstado(EstadoCorreo.PENDIENTE));
+        metricas.setEnviando(correoPendienteRepository.countByEstado(EstadoCorreo.ENVIANDO));
+        metricas.setEnDeadLetter(correoPendienteRepository.countByEstado(EstadoCorreo.FALLIDO));
+        metricas.setDesde(inicio);
+        return metricas;
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private void cicloWorker() {
+        while (activo) {
+            try {
+                if (procesarSiguienteLote() == 0) {
+                    esperar();
+                }
+            } catch (Exception e) {
+                System.err.println("Error en worker de correos: " + e.getMessage());
+                esperar();
+            }
+        }
+    }
+
+    private MimeMessage construirMensaje(CorreoPendiente correo) throws MessagingException {
+        MimeMessage mensaje = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mensaje, "UTF-8");
+        if (remitente != null && !remitente.isBlank()) {
+            helper.setFrom(remitente);
+        }
+        helper.setTo(correo.getDestinatario());
+        helper.setSubject(correo.getAsunto());
+        helper.setText(correo.getMensaje() != null ? correo.getMensaje() : "");
+        return mensaje;
+    }
+
+    private void despertar() {
+        synchronized (senal) {
+            senal.notifyAll();
+        }
+    }
+
+    private void esperar() {
+        synchronized (senal) {
+            try {
+                senal.wait(intervaloMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                activo = false;
+            }
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package com.ecommercegt.backend.service;
 
+import com.ecommercegt.backend.models.entidades.CorreoPendiente;
+import com.ecommercegt.backend.repositorios.CorreoPendienteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Servicio de Correo
+ * Encola los correos salientes en la tabla correos_pendientes;
+ * el envío real lo hacen los workers de CorreoDespachador fuera del hilo de la petición
+ */
 @Service
 public class CorreoService {
     @Autowired
-    private JavaMailSender mailSender;
+    private CorreoPendienteRepository correoPendienteRepository;
 
+    @Autowired
+    private CorreoDespachador correoDespachador;
+
+    /**
+     * Encolar un correo para envío asíncrono
+     * Se guarda en la transacción actual, así solo se envía si el evento que lo origina se confirma
+     */
+    @Transactional
     public void enviarCorreo(String destinatario, String asunto, String mensaje) {
-        SimpleMailMessage email = new SimpleMailMessage();
-        email.setTo(destinatario);
-        email.setSubject(asunto);
-        email.setText(mensaje);
-        mailSender.send(email);
+        if (destinatario == null || destinatario.isBlank()) {
+            return;
+        }
+        correoPendienteRepository.save(new CorreoPendiente(destinatario, asunto, mensaje));
+        correoDespachador.registrarEncolado();
     }
 }
@@ -1,9 +1,11 @@
 package com.ecommercegt.backend.service;
 
 import com.ecommercegt.backend.dto.response.*;
-import com.ecommercegt.backend.models.enums.EstadoProducto;
-import com.ecommercegt.backend.models.enums.EstadoPedido;
+import com.ecommercegt.backend.models.entidades.Categoria;
+import com.ecommercegt.backend.models.entidades.Producto;
 import com.ecommercegt.backend.repositorios.*;
+import com.ecommercegt.backend.util.CountMinSketch;
+import com.ecommercegt.backend.util.HyperLogLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -11,10 +13,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -27,100 +31,86 @@ public class DashboardService {
     private ProductoRepository productoRepository;
 
     @Autowired
-    private PedidoRepository pedidoRepository;
+    private ReviewRepository reviewRepository;
 
     @Autowired
-    private CategoriaRepository categoriaRepository;
+    private ItemPedidoRepository itemPedidoRepository;
 
     @Autowired
-    private ReviewRepository reviewRepository;
+    private VentaDiariaRepository ventaDiariaRepository;
 
     @Autowired
-    private ItemPedidoRepository itemPedidoRepository;
+    private ConsultasParalelasService consultasParalelasService;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private AnaliticaAproximadaService analiticaAproximadaService;
 
     /**
      * Obtener dashboard completo para administradores
+     * Una consulta agregada por tabla (FILTER por cada métrica) más las dos listas top.
+     * Las secciones son independientes y se ejecutan con ConsultasParalelasService
+     * (en paralelo, cada una en su transacción de solo lectura); si alguna falla o
+     * vence se devuelve el resto y se indica en seccionesFallidas.
      */
-    @Transactional(readOnly = true)
     public DashboardAdminResponse obtenerDashboardAdmin() {
         DashboardAdminResponse dashboard = new DashboardAdminResponse();
-
-        // ==================== MÉTRICAS DE USUARIOS ====================
-        dashboard.setTotalUsuarios(usuarioRepository.count());
-        dashboard.setUsuariosHoy(usuarioRepository.countUsuariosRegistradosHoy());
-        dashboard.setUsuariosSemana(usuarioRepository.countUsuariosRegistradosEstaSemana());
-        dashboard.setTotalVendedores(usuarioRepository.countVendedores());
-
-        // ==================== MÉTRICAS DE PRODUCTOS ====================
-        dashboard.setTotalProductos(productoRepository.count());
-        // Productos pendientes (PENDIENTE_REVISION en el enum)
-        dashboard.setProductosPendientes(productoRepository.countByEstado(EstadoProducto.PENDIENTE_REVISION));
-
-        // Productos aprobados
-        dashboard.setProductosAprobados(productoRepository.countByEstado(EstadoProducto.APROBADO));
-        dashboard.setProductosStockBajo(productoRepository.countProductosStockBajo());
-        dashboard.setProductosSinStock(productoRepository.countProductosSinStock());
-
-        // ==================== MÉTRICAS DE CATEGORÍAS ====================
-        dashboard.setTotalCategorias(categoriaRepository.count());
-
-        // ==================== MÉTRICAS DE PEDIDOS ====================
-        dashboard.setTotalPedidos(pedidoRepository.count());
-        dashboard.setPedidosPendientes(pedidoRepository.countByEstado(EstadoPedido.PENDIENTE));
-        dashboard.setPedidosConfirmados(pedidoRepository.countByEstado(EstadoPedido.CONFIRMADO));
-        dashboard.setPedidosEnPreparacion(pedidoRepository.countByEstado(EstadoPedido.EN_PREPARACION));
-        dashboard.setPedidosEnviados(pedidoRepository.countByEstado(EstadoPedido.ENVIADO));
-        dashboard.setPedidosEntregados(pedidoRepository.countByEstado(EstadoPedido.ENTREGADO));
-        dashboard.setPedidosCancelados(pedidoRepository.countByEstado(EstadoPedido.CANCELADO));
-
-        dashboard.setPedidosHoy(pedidoRepository.countPedidosHoy());
-        dashboard.setPedidosSemana(pedidoRepository.countPedidosEstaSemana());
-        dashboard.setPedidosMes(pedidoRepository.countPedidosEsteMes());
-
-        // ==================== MÉTRICAS DE VENTAS ====================
-        Double ventasTotalesDouble = pedidoRepository.calcularVentasTotales();
-        dashboard.setVentasTotales(
-                ventasTotalesDouble != null ? BigDecimal.valueOf(ventasTotalesDouble).setScale(2, RoundingMode.HALF_UP)
-                        : BigDecimal.ZERO);
-
-        Double ventasHoyDouble = pedidoRepository.calcularVentasHoy();
-        dashboard.setVentasHoy(
-                ventasHoyDouble != null ? BigDecimal.valueOf(ventasHoyDouble).setScale(2, RoundingMode.HALF_UP)
-                        : BigDecimal.ZERO);
-
-        Double ventasSemanaDouble = pedidoRepository.calcularVentasEstaSemana();
-        dashboard.setVentasSemana(
-                ventasSemanaDouble != null ? BigDecimal.valueOf(ventasSemanaDouble).setScale(2, RoundingMode.HALF_UP)
-                        : BigDecimal.ZERO);
-
-        Double ventasMesDouble = pedidoRepository.calcularVentasEsteMes();
-        dashboard.setVentasMes(
-                ventasMesDouble != null ? BigDecimal.valueOf(ventasMesDouble).setScale(2, RoundingMode.HALF_UP)
-                        : BigDecimal.ZERO);
-
-        // Ticket promedio
-        Long totalPedidosEntregados = pedidoRepository.countByEstado(EstadoPedido.ENTREGADO);
-        if (totalPedidosEntregados > 0 && dashboard.getVentasTotales().compareTo(BigDecimal.ZERO) > 0) {
-            dashboard.setTicketPromedio(
-                    dashboard.getVentasTotales()
-                            .divide(BigDecimal.valueOf(totalPedidosEntregados), 2, RoundingMode.HALF_UP));
-        } else {
-            dashboard.setTicketPromedio(BigDecimal.ZERO);
-        }
-
-        // ==================== MÉTRICAS DE REVIEWS ====================
-        dashboard.setTotalReviews(reviewRepository.count());
-        dashboard.setReviewsPendientes(reviewRepository.countReviewsPendientes());
-        dashboard.setReviewsAprobadas(reviewRepository.countReviewsAprobadas());
-
-        Double calificacionPromedio = reviewRepository.calcularCalificacionPromedio();
-        dashboard.setCalificacionPromedio(
-                calificacionPromedio != null ? calificacionPromedio : 0.0);
-
-        // ==================== PRODUCTOS TOP ====================
-        dashboard.setProductosTopVentas(obtenerProductosMasVendidos(5));
-        dashboard.setProductosTopCalificados(obtenerProductosMejorCalificados(5));
-
+        Map<String, Long> tiempos = new LinkedHashMap<>();
+        // Si una sección top falla su lista queda vacía (no null)
+        dashboard.setProductosTopVentas(new ArrayList<>());
+        dashboard.setProductosTopCalificados(new ArrayList<>());
+
+        List<ConsultasParalelasService.Seccion<?>> secciones = List.of(
+                // ==================== MÉTRICAS DE USUARIOS Y CATEGORÍAS ====================
+                ConsultasParalelasService.Seccion.de("usuarios",
+                        () -> usuarioRepository.obtenerMetricasDashboard().get(0),
+                        usuarios -> {
+                            dashboard.setTotalUsuarios(aLong(usuarios[0]));
+                            dashboard.setUsuariosHoy(aLong(usuarios[1]));
+                            dashboard.setUsuariosSemana(aLong(usuarios[2]));
+                            dashboard.setTotalVendedores(aLong(usuarios[3]));
+                            dashboard.setTotalCategorias(aLong(usuarios[4]));
+                        }),
+
+                // ==================== MÉTRICAS DE PRODUCTOS ====================
+                ConsultasParalelasService.Seccion.de("productos",
+                        () -> productoRepository.obtenerMetricasDashboard().get(0),
+                        productos -> {
+                            dashboard.setTotalProductos(aLong(productos[0]));
+                            dashboard.setProductosPendientes(aLong(productos[1]));
+                            dashboard.setProductosAprobados(aLong(productos[2]));
+                            dashboard.setProductosStockBajo(aLong(productos[3]));
+                            dashboard.setProductosSinStock(aLong(productos[4]));
+                        }),
+
+                // ==================== MÉTRICAS DE PEDIDOS Y VENTAS (resumen diario) ====================
+                ConsultasParalelasService.Seccion.de("pedidos",
+                        () -> ventaDiariaRepository.obtenerMetricasDashboard().get(0),
+                        pedidos -> aplicarMetricasPedidos(dashboard, pedidos)),
+
+                // ==================== MÉTRICAS DE REVIEWS ====================
+                ConsultasParalelasService.Seccion.de("reviews",
+                        () -> reviewRepository.obtenerMetricasDashboard().get(0),
+                        reviews -> {
+                            dashboard.setTotalReviews(aLong(reviews[0]));
+                            dashboard.setReviewsPendientes(aLong(reviews[1]));
+                            dashboard.setReviewsAprobadas(aLong(reviews[2]));
+                            dashboard.setCalificacionPromedio(
+                                    reviews[3] != null ? ((Number) reviews[3]).doubleValue() : 0.0);
+                        }),
+
+                // ==================== PRODUCTOS TOP ====================
+                ConsultasParalelasService.Seccion.de("topVentas",
+                        () -> obtenerProductosMasVendidos(5),
+                        dashboard::setProductosTopVentas),
+                ConsultasParalelasService.Seccion.de("topCalificados",
+                        () -> obtenerProductosMejorCalificados(5),
+                        dashboard::setProductosTopCalificados));
+
+        dashboard.setSeccionesFallidas(consultasParalelasService.ejecutar(secciones, tiempos));
+        dashboard.setTiemposMs(tiempos);
         return dashboard;
     }
 
@@ -131,17 +121,26 @@ public class DashboardService {
     public EstadisticasVentasResponse obtenerEstadisticasVentas(LocalDate fechaInicio, LocalDate fechaFin) {
         EstadisticasVentasResponse estadisticas = new EstadisticasVentasResponse();
 
-        LocalDateTime inicio = fechaInicio.atStartOfDay();
-        LocalDateTime fin = fechaFin.atTime(LocalTime.MAX);
-
-        // Totales del período
-        Long totalPedidos = pedidoRepository.countPedidosPorPeriodo(inicio, fin);
-        Double ventasTotales = pedidoRepository.calcularVentasPorPeriodo(inicio, fin);
+        estadisticas.setFechaInicio(fechaInicio);
+        estadisticas.setFechaFin(fechaFin);
+
+        // Ventas por día desde el resumen diario; los totales salen de las mismas filas
+        List<EstadisticasVentasResponse.VentaDiariaResponse> ventasPorDia = new ArrayList<>();
+        long totalPedidos = 0;
+        BigDecimal ventasTotales = BigDecimal.ZERO;
+        for (Object[] row : ventaDiariaRepository.findResumenPorDia(fechaInicio, fechaFin)) {
+            LocalDate fecha = row[0] instanceof java.sql.Date
+                    ? ((java.sql.Date) row[0]).toLocalDate()
+                    : (LocalDate) row[0];
+            Long pedidosDia = aLong(row[1]);
+            BigDecimal ventasDia = aMonto(row[2]);
+            ventasPorDia.add(new EstadisticasVentasResponse.VentaDiariaResponse(fecha, ventasDia, pedidosDia));
+            totalPedidos += pedidosDia;
+            ventasTotales = ventasTotales.add(ventasDia);
+        }
 
         estadisticas.setTotalPedidos(totalPedidos);
-        estadisticas.setVentasTotales(
-                ventasTotales != null ? BigDecimal.valueOf(ventasTotales).setScale(2, RoundingMode.HALF_UP)
-                        : BigDecimal.ZERO);
+        estadisticas.setVentasTotales(ventasTotales);
 
         if (totalPedidos > 0) {
             estadisticas.setTicketPromedio(
@@ -151,8 +150,7 @@ public class DashboardService {
             estadisticas.setTicketPromedio(BigDecimal.ZERO);
         }
 
-        // Ventas por día (simplificado)
-        estadisticas.setVentasPorDia(new ArrayList<>());
+        estadisticas.setVentasPorDia(ventasPorDia);
 
         return estadisticas;
     }
@@ -163,25 +161,18 @@ public class DashboardService {
     @Transactional(readOnly = true)
     public List<ProductoMasVendidoResponse> obtenerProductosMasVendidos(int limite) {
         List<ProductoMasVendidoResponse> productos = new ArrayList<>();
-
-        try {
-
-            List<Object[]> resultados = itemPedidoRepository.findProductosMasVendidosConLimite(limite);
-
-            for (Object[] row : resultados) {
-                ProductoMasVendidoResponse producto = new ProductoMasVendidoResponse();
-                producto.setProductoId((UUID) row[0]);
-                producto.setNombre((String) row[1]);
-                producto.setTotalVendido(((Number) row[2]).longValue());
-                producto.setCantidadVentas(((Number) row[3]).longValue());
-                producto.setIngresosTotales(
-                        BigDecimal.valueOf(((Number) row[4]).doubleValue())
-                                .setScale(2, RoundingMode.HALF_UP));
-                productos.add(producto);
-            }
-        } catch (Exception e) {
-            System.err.println("Error al obtener productos más vendidos: " + e.getMessage());
-            e.printStackTrace();
+        List<Object[]> resultados = itemPedidoRepository.findProductosMasVendidosConLimite(limite);
+
+        for (Object[] row : resultados) {
+            ProductoMasVendidoResponse producto = new ProductoMasVendidoResponse();
+            producto.setProductoId((UUID) row[0]);
+            producto.setNombre((String) row[1]);
+            producto.setTotalVendido(((Number) row[2]).longValue());
+            producto.setCantidadVentas(((Number) row[3]).longValue());
+            producto.setIngresosTotales(
+                    BigDecimal.valueOf(((Number) row[4]).doubleValue())
+                            .setScale(2, RoundingMode.HALF_UP));
+            productos.add(producto);
         }
 
         return productos;
@@ -193,25 +184,128 @@ public class DashboardService {
     @Transactional(readOnly = true)
     public List<ProductoTopCalificadoResponse> obtenerProductosMejorCalificados(int limite) {
         List<ProductoTopCalificadoResponse> productos = new ArrayList<>();
+        List<Object[]> resultados = reviewRepository.findProductosMejorCalificados(limite);
+
+        for (Object[] row : resultados) {
+            ProductoTopCalificadoResponse producto = new ProductoTopCalificadoResponse();
+            producto.setProductoId((UUID) row[0]);
+            producto.setNombre((String) row[1]);
+            producto.setCalificacionPromedio(((Number) row[2]).doubleValue());
+            producto.setCantidadReviews(((Number) row[3]).intValue());
+            producto.setPrecio(
+                    BigDecimal.valueOf(((Number) row[4]).doubleValue())
+                            .setScale(2, RoundingMode.HALF_UP));
+            productos.add(producto);
+        }
 
-        try {
-            List<Object[]> resultados = reviewRepository.findProductosMejorCalificados(limite);
-
-            for (Object[] row : resultados) {
-                ProductoTopCalificadoResponse producto = new ProductoTopCalificadoResponse();
-                producto.setProductoId((UUID) row[0]);
-                producto.setNombre((String) row[1]);
-                producto.setCalificacionPromedio(((Number) row[2]).doubleValue());
-                producto.setCantidadReviews(((Number) row[3]).intValue());
-                producto.setPrecio(
-                        BigDecimal.valueOf(((Number) row[4]).doubleValue())
-                                .setScale(2, RoundingMode.HALF_UP));
-                productos.add(producto);
+        return productos;
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private static void aplicarMetricasPedidos(DashboardAdminResponse dashboard, Object[] pedidos) {
+        dashboard.setTotalPedidos(aLong(pedidos[0]));
+        dashboard.setPedidosPendientes(aLong(pedidos[1]));
+        dashboard.setPedidosConfirmados(aLong(pedidos[2]));
+        dashboard.setPedidosEnPreparacion(aLong(pedidos[3]));
+        dashboard.setPedidosEnviados(aLong(pedidos[4]));
+        dashboard.setPedidosEntregados(aLong(pedidos[5]));
+        dashboard.setPedidosCancelados(aLong(pedidos[6]));
+        dashboard.setPedidosHoy(aLong(pedidos[7]));
+        dashboard.setPedidosSemana(aLong(pedidos[8]));
+        dashboard.setPedidosMes(aLong(pedidos[9]));
+        dashboard.setVentasTotales(aMonto(pedidos[10]));
+        dashboard.setVentasHoy(aMonto(pedidos[11]));
+        dashboard.setVentasSemana(aMonto(pedidos[12]));
+        dashboard.setVentasMes(aMonto(pedidos[13]));
+
+        // Ticket promedio
+        Long totalPedidosEntregados = dashboard.getPedidosEntregados();
+        if (totalPedidosEntregados > 0 && dashboard.getVentasTotales().compareTo(BigDecimal.ZERO) > 0) {
+            dashboard.setTicketPromedio(
+                    dashboard.getVentasTotales()
+                            .divide(BigDecimal.valueOf(totalPedidosEntregados), 2, RoundingMode.HALF_UP));
+        } else {
+            dashboard.setTicketPromedio(BigDecimal.ZERO);
+        }
+    }
+
+    private static Long aLong(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0L;
+    }
+
+    private static BigDecimal aMonto(Object valor) {
+        return valor != null
+                ? BigDecimal.valueOf(((Number) valor).doubleValue()).setScale(2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+
+    // ==================== ANALÍTICA APROXIMADA ====================
+
+    /**
+     * Compradores distintos del período, en total y por categoría (estimación HyperLogLog)
+     * El total va primero; las categorías de mayor a menor
+     */
+    @Transactional(readOnly = true)
+    public List<CompradoresUnicosResponse> obtenerCompradoresUnicos(LocalDate fechaInicio, LocalDate fechaFin) {
+        Map<String, HyperLogLog> sketches =
+                analiticaAproximadaService.compradoresPorCategoria(fechaInicio, fechaFin);
+
+        List<Integer> categoriaIds = new ArrayList<>();
+        for (String clave : sketches.keySet()) {
+            if (!AnaliticaAproximadaService.TOTAL.equals(clave)) {
+                categoriaIds.add(Integer.valueOf(clave));
+            }
+        }
+        Map<Integer, String> nombres = new HashMap<>();
+        for (Categoria categoria : categoriaRepository.findAllById(categoriaIds)) {
+            nombres.put(categoria.getId(), categoria.getNombre());
+        }
+
+        List<CompradoresUnicosResponse> categorias = new ArrayList<>();
+        CompradoresUnicosResponse total = new CompradoresUnicosResponse(null, "Todas", 0L, 0.0);
+        for (Map.Entry<String, HyperLogLog> entrada : sketches.entrySet()) {
+            HyperLogLog sketch = entrada.getValue();
+            if (AnaliticaAproximadaService.TOTAL.equals(entrada.getKey())) {
+                total.setCompradoresEstimados(sketch.estimar());
+                total.setErrorRelativo(sketch.errorRelativo());
+            } else {
+                Integer categoriaId = Integer.valueOf(entrada.getKey());
+                categorias.add(new CompradoresUnicosResponse(categoriaId, nombres.get(categoriaId),
+                        sketch.estimar(), sketch.errorRelativo()));
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+        }
+        categorias.sort(Comparator.comparing(CompradoresUnicosResponse::getCompradoresEstimados).reversed());
+
+        List<CompradoresUnicosResponse> resultado = new ArrayList<>();
+        resultado.add(total);
+        resultado.addAll(categorias);
+        return resultado;
+    }
+
+    /**
+     * Productos más vendidos del período (estimación Count-Min Sketch)
+     */
+    @Transactional(readOnly = true)
+    public List<ProductoTendenciaResponse> obtenerProductosTendencia(LocalDate fechaInicio, LocalDate fechaFin,
+                                                                     int limite) {
+        CountMinSketch sketch = analiticaAproximadaService.productosEntre(fechaInicio, fechaFin);
+        List<Map.Entry<UUID, Long>> top = sketch.top(limite);
+
+        List<UUID> productoIds = new ArrayList<>();
+        for (Map.Entry<UUID, Long> entrada : top) {
+            productoIds.add(entrada.getKey());
+        }
+        Map<UUID, String> nombres = new HashMap<>();
+        for (Producto producto : productoRepository.findAllById(productoIds)) {
+            nombres.put(producto.getId(), producto.getNombre());
         }
 
+        List<ProductoTendenciaResponse> productos = new ArrayList<>();
+        for (Map.Entry<UUID, Long> entrada : top) {
+            productos.add(new ProductoTendenciaResponse(entrada.getKey(), nombres.get(entrada.getKey()),
+                    entrada.getValue(), sketch.errorMaximo()));
+        }
         return productos;
     }
-}
\ No newline at end of file
+}
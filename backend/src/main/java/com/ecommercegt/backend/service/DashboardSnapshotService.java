@@ -0,0 +1,180 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.response.DashboardAdminResponse;
+import com.ecommercegt.backend.dto.response.EstadisticasGeneralesResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Snapshots en memoria de los dashboards de administración
+ *
+ * - Las respuestas se sirven desde el último snapshot calculado, sin tocar la base de datos
+ * - Una tarea programada los refresca en segundo plano mientras algún admin los esté usando
+ * - Stale-while-revalidate: un snapshot vencido se sirve igual y dispara un refresco;
+ *   solo se espera si no hay snapshot o si supera la antigüedad máxima
+ * - Single-flight: varias peticiones que necesitan refresco comparten un único cálculo
+ * - Cada respuesta lleva fechaSnapshot con el momento en que se calculó
+ */
+@Service
+public class DashboardSnapshotService {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Value("${dashboard.snapshot.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${dashboard.snapshot.vigencia-ms:30000}")
+    private long vigenciaMs;
+
+    @Value("${dashboard.snapshot.max-antiguedad-ms:300000}")
+    private long maxAntiguedadMs;
+
+    @Value("${dashboard.snapshot.inactividad-ms:600000}")
+    private long inactividadMs;
+
+    private final ExecutorService refrescos = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Snapshot<DashboardAdminResponse> dashboard = new Snapshot<>(
+            () -> dashboardService.obtenerDashboardAdmin(),
+            DashboardAdminResponse::setFechaSnapshot);
+
+    private final Snapshot<EstadisticasGeneralesResponse> estadisticas = new Snapshot<>(
+            () -> adminService.obtenerEstadisticasGenerales(),
+            EstadisticasGeneralesResponse::setFechaSnapshot);
+
+    /**
+     * Dashboard completo (GET /api/admin/dashboard)
+     */
+    public DashboardAdminResponse obtenerDashboardAdmin() {
+        return habilitado ? obtener(dashboard) : dashboardService.obtenerDashboardAdmin();
+    }
+
+    /**
+     * Estadísticas generales (GET /api/admin/estadisticas)
+     */
+    public EstadisticasGeneralesResponse obtenerEstadisticasGenerales() {
+        return habilitado ? obtener(estadisticas) : adminService.obtenerEstadisticasGenerales();
+    }
+
+    /**
+     * Refresco periódico de los snapshots que se consultaron recientemente
+     * Sin admins usando el panel no se ejecuta ninguna consulta
+     */
+    @Scheduled(fixedDelayString = "${dashboard.snapshot.refresco-ms:30000}")
+    public void refrescarProgramado() {
+        if (!habilitado) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        for (Snapshot<?> snapshot : new Snapshot<?>[] { dashboard, estadisticas }) {
+            if (ahora - snapshot.ultimoAcceso <= inactividadMs) {
+                try {
+                    refrescar(snapshot).join();
+                } catch (Exception e) {
+                    System.err.println("Error al refrescar snapshot de dashboard: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        refrescos.shutdownNow();
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private <T> T obtener(Snapshot<T> snapshot) {
+        long ahora = System.currentTimeMillis();
+        snapshot.ultimoAcceso = ahora;
+
+        Calculado<T> actual = snapshot.actual;
+        if (actual != null) {
+            long antiguedad = ahora - actual.calculadoEn;
+            if (antiguedad <= vigenciaMs) {
+                return actual.valor;
+            }
+            if (antiguedad <= maxAntiguedadMs) {
+                refrescar(snapshot);
+                return actual.valor;
+            }
+        }
+
+        try {
+            return refrescar(snapshot).join();
+        } catch (Exception e) {
+            // Si el cálculo falla pero hay un snapshot viejo, mejor servirlo que nada
+            if (actual != null) {
+                System.err.println("Error al recalcular dashboard, se sirve snapshot anterior: " + e.getMessage());
+                return actual.valor;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Iniciar un refresco o unirse al que ya está en curso (single-flight)
+     */
+    private <T> CompletableFuture<T> refrescar(Snapshot<T> snapshot) {
+        CompletableFuture<T> nuevo = new CompletableFuture<>();
+        CompletableFuture<T> enCurso = snapshot.enCurso.compareAndExchange(null, nuevo);
+        if (enCurso != null) {
+            return enCurso;
+        }
+        refrescos.submit(() -> {
+            try {
+                T valor = snapshot.calculo.get();
+                LocalDateTime fecha = LocalDateTime.now();
+                snapshot.fecha.accept(valor, fecha);
+                snapshot.actual = new Calculado<>(valor, System.currentTimeMillis());
+                nuevo.complete(valor);
+            } catch (Throwable e) {
+                nuevo.completeExceptionally(e);
+            } finally {
+                snapshot.enCurso.set(null);
+            }
+        });
+        return nuevo;
+    }
+
+    /**
+     * Snapshot de una respuesta: último valor calculado y refresco en curso
+     */
+    private static class Snapshot<T> {
+        private final Supplier<T> calculo;
+        private final BiConsumer<T, LocalDateTime> fecha;
+        private final AtomicReference<CompletableFuture<T>> enCurso = new AtomicReference<>();
+        private volatile Calculado<T> actual;
+        private volatile long ultimoAcceso;
+
+        private Snapshot(Supplier<T> calculo, BiConsumer<T, LocalDateTime> fecha) {
+            this.calculo = calculo;
+            this.fecha = fecha;
+        }
+    }
+
+    private static class Calculado<T> {
+        private final T valor;
+        private final long calculadoEn;
+
+        private Calculado(T valor, long calculadoEn) {
+            this.valor = valor;
+            this.calculadoEn = calculadoEn;
+        }
+    }
+}
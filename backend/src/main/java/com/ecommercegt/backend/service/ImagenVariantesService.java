@@ -0,0 +1,336 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.ImagenProducto;
+import com.ecommercegt.backend.models.enums.EstadoImagen;
+import com.ecommercegt.backend.repositorios.ImagenProductoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Variantes redimensionadas de las imágenes de productos
+ *
+ * - Al subir una imagen se guarda el original y, cuando la transacción
+ *   confirma, se encola la generación de miniatura, tarjeta y detalle
+ * - Las variantes se generan en un pool acotado; si la cola está llena la
+ *   imagen queda PENDIENTE y la toma la revisión periódica (que también
+ *   procesa las imágenes subidas antes de existir las variantes)
+ * - Se guardan como JPEG progresivo con la calidad configurada, junto al
+ *   original (nombre_miniatura.jpg, nombre_tarjeta.jpg, nombre_detalle.jpg);
+ *   como los originales, una vez publicadas no se reemplazan
+ * - Nunca se amplía: si el original es más chico que la variante se recodifica
+ *   con su tamaño
+ */
+@Service
+public class ImagenVariantesService {
+
+    private static final Variante MINIATURA = new Variante("miniatura", 160);
+    private static final Variante TARJETA = new Variante("tarjeta", 480);
+    private static final Variante DETALLE = new Variante("detalle", 1200);
+
+    @Autowired
+    private ImagenProductoRepository imagenProductoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ArchivoService archivoService;
+
+    @Value("${imagenes.variantes.workers:2}")
+    private int cantidadWorkers;
+
+    @Value("${imagenes.variantes.capacidad-cola:200}")
+    private int capacidadCola;
+
+    @Value("${imagenes.variantes.calidad-jpeg:0.8}")
+    private float calidadJpeg;
+
+    /**
+     * Originales más grandes se marcan FALLIDA sin decodificarlos (protege la memoria)
+     */
+    @Value("${imagenes.variantes.max-pixeles:40000000}")
+    private long maxPixeles;
+
+    @Value("${imagenes.variantes.tamano-lote-revision:100}")
+    private int tamanoLoteRevision;
+
+    /**
+     * Imágenes en cola o en proceso en este nodo (evita encolarlas dos veces)
+     */
+    private final Set<UUID> enCurso = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void iniciar() {
+        AtomicInteger numero = new AtomicInteger();
+        workers = new ThreadPoolExecutor(cantidadWorkers, cantidadWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "imagen-worker-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    @PreDestroy
+    public void detener() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Encolar la generación de variantes cuando la transacción actual confirma
+     */
+    public void programar(UUID imagenId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    encolar(imagenId);
+                }
+            });
+        } else {
+            encolar(imagenId);
+        }
+    }
+
+    /**
+     * Encolar las imágenes que siguen sin variantes
+     */
+    @Scheduled(fixedDelayString = "${imagenes.variantes.revision-ms:300000}")
+    public void revisarPendientes() {
+        try {
+            List<UUID> pendientes = imagenProductoRepository.findIdsSinVariantes(
+                    PageRequest.of(0, tamanoLoteRevision));
+            for (UUID id : pendientes) {
+                if (!encolar(id)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error al revisar imágenes sin variantes: " + e.getMessage());
+        }
+    }
+
+    // ==================== PROCESAMIENTO ====================
+
+    /**
+     * @return false si la cola está llena
+     */
+    private boolean encolar(UUID imagenId) {
+        if (!enCurso.add(imagenId)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    procesar(imagenId);
+                } finally {
+                    enCurso.remove(imagenId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            enCurso.remove(imagenId);
+            return false;
+        }
+    }
+
+    private void procesar(UUID imagenId) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String urlOriginal = tx.execute(status -> imagenProductoRepository.findById(imagenId)
+                .filter(imagen -> imagen.getEstadoVariantes() != EstadoImagen.PROCESADA
+                        && imagen.getEstadoVariantes() != EstadoImagen.FALLIDA)
+                .map(ImagenProducto::getUrlImagen)
+                .orElse(null));
+        if (urlOriginal == null) {
+            return;
+        }
+
+        String[] urls;
+        try {
+            urls = generarVariantes(urlOriginal);
+        } catch (Exception e) {
+            System.err.println("Error al generar variantes de la imagen " + imagenId + ": " + e.getMessage());
+            urls = null;
+        }
+
+        String[] resultado = urls;
+        tx.executeWithoutResult(status -> imagenProductoRepository.findById(imagenId).ifPresent(imagen -> {
+            if (resultado != null) {
+                imagen.setUrlMiniatura(resultado[0]);
+                imagen.setUrlTarjeta(resultado[1]);
+                imagen.setUrlDetalle(resultado[2]);
+                imagen.setEstadoVariantes(EstadoImagen.PROCESADA);
+            } else {
+                imagen.setEstadoVariantes(EstadoImagen.FALLIDA);
+            }
+            imagenProductoRepository.save(imagen);
+        }));
+    }
+
+    /**
+     * Generar las tres variantes de un original
+     * Las variantes que ya existen no se vuelven a escribir (re-subida del mismo
+     * contenido, el mismo archivo como .jpg y .jpeg, o la revisión de otro nodo):
+     * un archivo publicado nunca cambia
+     * @return URLs de miniatura, tarjeta y detalle
+     */
+    private String[] generarVariantes(String urlOriginal) throws IOException {
+        Path original = archivoService.resolverUrl(urlOriginal);
+
+        String nombre = original.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        String base = punto > 0 ? nombre.substring(0, punto) : nombre;
+        String prefijoUrl = urlOriginal.substring(0, urlOriginal.length() - nombre.length());
+
+        Variante[] variantes = {MINIATURA, TARJETA, DETALLE};
+        Path[] destinos = new Path[variantes.length];
+        String[] urls = new String[variantes.length];
+        boolean faltaAlguna = false;
+        for (int i = 0; i < variantes.length; i++) {
+            String archivo = base + "_" + variantes[i].nombre + ".jpg";
+            destinos[i] = original.resolveSibling(archivo);
+            urls[i] = prefijoUrl + archivo;
+            faltaAlguna |= !Files.exists(destinos[i]);
+        }
+        if (!faltaAlguna) {
+            return urls;
+        }
+
+        // De mayor a menor: cada variante se reduce desde la anterior
+        BufferedImage imagen = leer(original);
+        BufferedImage detalle = reducir(imagen, DETALLE.ladoMaximo);
+        BufferedImage tarjeta = reducir(detalle, TARJETA.ladoMaximo);
+        BufferedImage miniatura = reducir(tarjeta, MINIATURA.ladoMaximo);
+
+        BufferedImage[] imagenes = {miniatura, tarjeta, detalle};
+        for (int i = 0; i < variantes.length; i++) {
+            if (!Files.exists(destinos[i])) {
+                escribirJpeg(imagenes[i], destinos[i]);
+            }
+        }
+        return urls;
+    }
+
+    private BufferedImage leer(Path archivo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(archivo.toFile())) {
+            if (entrada == null) {
+                throw new IOException("No existe el archivo " + archivo);
+            }
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                throw new IOException("Formato de imagen no soportado");
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                long pixeles = (long) lector.getWidth(0) * lector.getHeight(0);
+                if (pixeles > maxPixeles) {
+                    throw new IOException("Imagen demasiado grande: " + pixeles + " píxeles");
+                }
+                return lector.read(0);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reducir a lo sumo a ladoMaximo (el lado mayor), a la mitad por paso
+     * para no perder detalle con la interpolación bilineal; el resultado es RGB
+     * sobre fondo blanco (JPEG no tiene transparencia)
+     */
+    private static BufferedImage reducir(BufferedImage origen, int ladoMaximo) {
+        int ancho = origen.getWidth();
+        int alto = origen.getHeight();
+        double escala = Math.min(1.0, (double) ladoMaximo / Math.max(ancho, alto));
+        int anchoFinal = Math.max(1, (int) Math.round(ancho * escala));
+        int altoFinal = Math.max(1, (int) Math.round(alto * escala));
+
+        BufferedImage actual = origen;
+        do {
+            ancho = Math.max(anchoFinal, ancho / 2);
+            alto = Math.max(altoFinal, alto / 2);
+            BufferedImage paso = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = paso.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(actual, 0, 0, ancho, alto, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+            actual = paso;
+        } while (ancho != anchoFinal || alto != altoFinal);
+        return actual;
+    }
+
+    /**
+     * Escribir JPEG progresivo en un temporal propio y publicarlo sin reemplazar:
+     * nunca se sirve un archivo a medias y, si otro worker publicó la misma
+     * variante antes, queda la suya
+     */
+    private void escribirJpeg(BufferedImage imagen, Path destino) throws IOException {
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName() + "_", ".tmp");
+        try {
+            ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream salida = ImageIO.createImageOutputStream(temporal.toFile())) {
+                ImageWriteParam parametros = escritor.getDefaultWriteParam();
+                parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                parametros.setCompressionQuality(calidadJpeg);
+                parametros.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                escritor.setOutput(salida);
+                escritor.write(null, new IIOImage(imagen, null, null), parametros);
+            } finally {
+                escritor.dispose();
+            }
+            ArchivoService.publicar(temporal, destino);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static final class Variante {
+        private final String nombre;
+        private final int ladoMaximo;
+
+        private Variante(String nombre, int ladoMaximo) {
+            this.nombre = nombre;
+            this.ladoMaximo = ladoMaximo;
+        }
+    }
+}
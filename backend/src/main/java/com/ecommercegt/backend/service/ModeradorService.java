@@ -9,10 +9,10 @@ import com.ecommercegt.backend.models.enums.EstadoSolicitudModeracion;
 import com.ecommercegt.backend.repositorios.ProductoRepository;
 import com.ecommercegt.backend.repositorios.SolicitudModeracionRepository;
 import com.ecommercegt.backend.repositorios.UsuarioRepository;
+import com.ecommercegt.backend.security.service.UsuarioActual;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
@@ -28,6 +28,7 @@ public class ModeradorService {
     private final ProductoRepository productoRepository;
     private final SolicitudModeracionRepository solicitudRepository;
     private final UsuarioRepository usuarioRepository;
+    private final UsuarioActual usuarioActual;
     
         /**
          * Listar usuarios para sancionar (solo id, nombreCompleto, nombreUsuario)
@@ -101,7 +102,7 @@ public class ModeradorService {
         }
         
         // Obtener el moderador actual
-        Usuario moderador = obtenerUsuarioActual();
+        Usuario moderador = usuarioActual.obtenerReferencia();
         
         // Actualizar solicitud
         solicitud.setEstado(EstadoSolicitudModeracion.APROBADO);
@@ -140,7 +141,7 @@ public class ModeradorService {
         }
         
         // Obtener el moderador actual
-        Usuario moderador = obtenerUsuarioActual();
+        Usuario moderador = usuarioActual.obtenerReferencia();
         
         // Actualizar solicitud
         solicitud.setEstado(EstadoSolicitudModeracion.RECHAZADO);
@@ -171,15 +172,6 @@ public class ModeradorService {
         }
     }
     
-    /**
-     * Obtener usuario actual del contexto de seguridad
-     */
-    private Usuario obtenerUsuarioActual() {
-        String nombreUsuario = SecurityContextHolder.getContext().getAuthentication().getName();
-        return usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-    }
-    
         /**
      * Convertir SolicitudModeracion a ProductoModeracionResponse
      */
@@ -203,8 +195,8 @@ public class ModeradorService {
             imagenUrl = producto.getImagenes().stream()
                     .filter(img -> img.getEsPrincipal())
                     .findFirst()
-                    .map(img -> img.getUrlImagen())
-                    .orElse(producto.getImagenes().get(0).getUrlImagen());
+                    .map(img -> img.urlParaDetalle())
+                    .orElse(producto.getImagenes().get(0).urlParaDetalle());
         }
         
         // Obtener nombre de categoría
@@ -261,7 +253,7 @@ public class ModeradorService {
         }
         
         // Obtener el moderador actual
-        Usuario moderador = obtenerUsuarioActual();
+        Usuario moderador = usuarioActual.obtenerReferencia();
         
         // Actualizar solicitud
         solicitud.setEstado(EstadoSolicitudModeracion.APROBADO);
@@ -300,7 +292,7 @@ public class ModeradorService {
         }
         
         // Obtener el moderador actual
-        Usuario moderador = obtenerUsuarioActual();
+        Usuario moderador = usuarioActual.obtenerReferencia();
         
         // Actualizar solicitud
         solicitud.setEstado(EstadoSolicitudModeracion.RECHAZADO);
@@ -335,7 +327,7 @@ public class ModeradorService {
                 .orElseThrow(() -> new RuntimeException("Solicitud no encontrada"));
         
         // Obtener el moderador actual
-        Usuario moderador = obtenerUsuarioActual();
+        Usuario moderador = usuarioActual.obtenerReferencia();
         
         // Actualizar solicitud
         solicitud.setEstado(EstadoSolicitudModeracion.CAMBIOS_SOLICITADOS);
@@ -0,0 +1,125 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.Notificacion;
+import com.ecommercegt.backend.models.entidades.Usuario;
+import com.ecommercegt.backend.repositorios.NotificacionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Servicio de correos resumen de notificaciones
+ *
+ * Con notificaciones.resumen.habilitado=true las notificaciones que antes
+ * generaban un correo cada una quedan marcadas como pendientes, y esta tarea
+ * envía un solo correo por usuario con todas ellas
+ * (cada hora por defecto; con cron "0 0 8 * * *" queda diario)
+ */
+@Service
+public class NotificacionResumenService {
+
+    /**
+     * Usuarios procesados por transacción
+     */
+    private static final int USUARIOS_POR_LOTE = 200;
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    @Autowired
+    private CorreoService correoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notificaciones.resumen.habilitado:false}")
+    private boolean habilitado;
+
+    @Scheduled(cron = "${notificaciones.resumen.cron:0 0 * * * *}")
+    public void envioProgramado() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            enviarResumenes();
+        } catch (Exception e) {
+            System.err.println("Error al enviar resúmenes de notificaciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encolar un correo resumen por cada usuario con notificaciones pendientes
+     *
+     * @return cantidad de correos resumen encolados
+     */
+    public int enviarResumenes() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int enviados = 0;
+        while (true) {
+            Integer lote = tx.execute(status -> {
+                List<UUID> usuarioIds = notificacionRepository
+                        .findUsuariosConCorreoPendiente(PageRequest.of(0, USUARIOS_POR_LOTE));
+                if (usuarioIds.isEmpty()) {
+                    return 0;
+                }
+                return enviarResumenesDe(usuarioIds);
+            });
+            if (lote == null || lote == 0) {
+                return enviados;
+            }
+            enviados += lote;
+        }
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private int enviarResumenesDe(List<UUID> usuarioIds) {
+        List<Notificacion> pendientes = notificacionRepository.findPendientesDeResumen(usuarioIds);
+
+        Map<UUID, List<Notificacion>> porUsuario = new LinkedHashMap<>();
+        for (Notificacion notificacion : pendientes) {
+            porUsuario.computeIfAbsent(notificacion.getUsuario().getId(), k -> new ArrayList<>()).add(notificacion);
+        }
+
+        List<Long> incluidas = new ArrayList<>();
+        for (List<Notificacion> delUsuario : porUsuario.values()) {
+            Usuario usuario = delUsuario.get(0).getUsuario();
+            correoService.enviarCorreo(
+                usuario.getCorreo(),
+                "Resumen de tus notificaciones (" + delUsuario.size() + ")",
+                construirCuerpo(delUsuario)
+            );
+            delUsuario.forEach(notificacion -> incluidas.add(notificacion.getId()));
+        }
+        if (!incluidas.isEmpty()) {
+            notificacionRepository.marcarResumenEnviado(incluidas);
+        }
+        return porUsuario.size();
+    }
+
+    private String construirCuerpo(List<Notificacion> notificaciones) {
+        StringBuilder cuerpo = new StringBuilder("Esto es lo que pasó desde tu último resumen:\n\n");
+        for (Notificacion notificacion : notificaciones) {
+            cuerpo.append("- ").append(notificacion.getTitulo());
+            if (notificacion.getCantidad() != null && notificacion.getCantidad() > 1) {
+                cuerpo.append(" (x").append(notificacion.getCantidad()).append(")");
+            }
+            cuerpo.append("\n  ").append(notificacion.getMensaje());
+            if (notificacion.getUrl() != null) {
+                cuerpo.append("\n  Detalle: ").append(notificacion.getUrl());
+            }
+            cuerpo.append("\n\n");
+        }
+        return cuerpo.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.enums.TipoNotificacion;
+import com.ecommercegt.backend.repositorios.ContadorNotificacionesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servicio de retención de notificaciones
+ *
+ * - Cada TipoNotificacion tiene su propio tiempo de vida en días
+ *   (notificaciones.retencion.dias.<TIPO>, por defecto notificaciones.retencion.dias-por-defecto)
+ * - Una tarea programada borra las vencidas en lotes pequeños, cada lote en su
+ *   propia transacción, para no mantener locks largos sobre la tabla
+ * - Los contadores de no leídas se ajustan con lo que realmente se borró
+ */
+@Service
+public class NotificacionRetencionService {
+
+    /**
+     * Borra hasta :limite notificaciones vencidas de un tipo (usa idx_notificaciones_tipo_fecha)
+     * y devuelve, por usuario, cuántas no leídas se borraron
+     */
+    private static final String PURGAR_LOTE =
+            "WITH borradas AS ( " +
+            "    DELETE FROM notificaciones WHERE id IN ( " +
+            "        SELECT id FROM notificaciones WHERE tipo = ? AND fecha_creacion < ? LIMIT ?) " +
+            "    RETURNING usuario_id, leida) " +
+            "SELECT usuario_id, COUNT(*) AS total, COUNT(*) FILTER (WHERE leida = false) AS no_leidas " +
+            "FROM borradas GROUP BY usuario_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContadorNotificacionesRepository contadorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${notificaciones.retencion.habilitada:true}")
+    private boolean habilitada;
+
+    @Value("${notificaciones.retencion.dias-por-defecto:90}")
+    private int diasPorDefecto;
+
+    @Value("${notificaciones.retencion.tamano-lote:2000}")
+    private int tamanoLote;
+
+    @Value("${notificaciones.retencion.pausa-entre-lotes-ms:50}")
+    private long pausaEntreLotesMs;
+
+    private final AtomicBoolean purgando = new AtomicBoolean(false);
+
+    /**
+     * Purga programada (por defecto todos los días a las 3:30)
+     */
+    @Scheduled(cron = "${notificaciones.retencion.cron:0 30 3 * * *}")
+    public void purgaProgramada() {
+        if (!habilitada) {
+            return;
+        }
+        try {
+            purgarVencidas();
+        } catch (Exception e) {
+            System.err.println("Error en la purga de notificaciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Borrar las notificaciones vencidas de todos los tipos
+     *
+     * @return cantidad borrada por tipo
+     */
+    public Map<TipoNotificacion, Long> purgarVencidas() {
+        if (!purgando.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una purga de notificaciones en curso");
+        }
+        try {
+            Map<TipoNotificacion, Long> borradas = new LinkedHashMap<>();
+            LocalDateTime ahora = LocalDateTime.now();
+            for (TipoNotificacion tipo : TipoNotificacion.values()) {
+                int dias = diasDeRetencion(tipo);
+                if (dias <= 0) {
+                    continue; // sin vencimiento
+                }
+                borradas.put(tipo, purgarTipo(tipo, ahora.minusDays(dias)));
+            }
+            return borradas;
+        } finally {
+            purgando.set(false);
+        }
+    }
+
+    /**
+     * Días que se conserva un tipo de notificación (0 o menos = no vence)
+     */
+    public int diasDeRetencion(TipoNotificacion tipo) {
+        return environment.getProperty("notificaciones.retencion.dias." + tipo.name(), Integer.class, diasPorDefecto);
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private long purgarTipo(TipoNotificacion tipo, LocalDateTime limite) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long total = 0;
+        while (true) {
+            Long borradasLote = tx.execute(status -> purgarLote(tipo, limite));
+            if (borradasLote == null || borradasLote == 0) {
+                return total;
+            }
+            total += borradasLote;
+            if (borradasLote < tamanoLote) {
+                return total;
+            }
+            pausar();
+        }
+    }
+
+    private long purgarLote(TipoNotificacion tipo, LocalDateTime limite) {
+        List<Object[]> porUsuario = jdbcTemplate.query(PURGAR_LOTE,
+                (rs, i) -> new Object[] {rs.getObject("usuario_id", UUID.class), rs.getLong("total"), rs.getLong("no_leidas")},
+                tipo.name(), Timestamp.valueOf(limite), tamanoLote);
+
+        long borradas = 0;
+        for (Object[] fila : porUsuario) {
+            borradas += (Long) fila[1];
+            long noLeidas = (Long) fila[2];
+            if (noLeidas > 0) {
+                contadorRepository.sumar((UUID) fila[0], -noLeidas);
+            }
+        }
+        return borradas;
+    }
+
+    private void pausar() {
+        if (pausaEntreLotesMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pausaEntreLotesMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommercegt.backend.service;
 
+import com.ecommercegt.backend.dto.request.NotificacionRequest;
 import com.ecommercegt.backend.dto.response.NotificacionResponse;
 import com.ecommercegt.backend.models.entidades.Notificacion;
 import com.ecommercegt.backend.models.entidades.Usuario;
@@ -7,16 +8,32 @@ import com.ecommercegt.backend.models.enums.TipoNotificacion;
 import com.ecommercegt.backend.repositorios.NotificacionRepository;
 import com.ecommercegt.backend.repositorios.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,15 +43,49 @@ import java.util.stream.Collectors;
  */
 @Service
 public class NotificacionService {
+
+    private static final String INSERT_NOTIFICACION =
+            "INSERT INTO notificaciones (usuario_id, tipo, titulo, mensaje, url, leida, datos, fecha_creacion, " +
+            "clave, cantidad, fecha_actualizacion, correo_pendiente) " +
+            "VALUES (?, ?, ?, ?, ?, false, ?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private CorreoService correoService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private NotificacionRepository notificacionRepository;
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private NotificacionStreamService notificacionStreamService;
+
+    @Autowired
+    private ContadorNotificacionesService contadorNotificacionesService;
+
+    /**
+     * Minutos durante los que eventos con la misma clave se agrupan (0 = no agrupar)
+     */
+    @Value("${notificaciones.agrupacion.ventana-minutos:60}")
+    private long ventanaAgrupacionMinutos;
+
+    /**
+     * true = en lugar de un correo por evento se envía un resumen periódico
+     */
+    @Value("${notificaciones.resumen.habilitado:false}")
+    private boolean correoEnResumen;
+
+    /**
+     * Abrir stream SSE de notificaciones en tiempo real para un usuario
+     */
+    public SseEmitter suscribir(UUID usuarioId) {
+        return notificacionStreamService.suscribir(usuarioId);
+    }
+
     /**
      * Notificar usuario sancionado
      */
@@ -57,16 +108,12 @@ public class NotificacionService {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        Notificacion notificacion = new Notificacion();
-        notificacion.setUsuario(usuario);
-        notificacion.setTipo(TipoNotificacion.SANCION_DESACTIVADA);
-        notificacion.setTitulo("Sanción desactivada");
-        notificacion.setMensaje("Tu sanción ha sido desactivada. Motivo original: " + razon);
-        notificacion.setUrl("/mis-sanciones");
-        notificacion.setLeida(false);
-        notificacion.setFechaCreacion(LocalDateTime.now());
-
-        notificacionRepository.save(notificacion);
+        registrar(List.of(new Notificacion(
+                usuario,
+                TipoNotificacion.SANCION_DESACTIVADA,
+                "Sanción desactivada",
+                "Tu sanción ha sido desactivada. Motivo original: " + razon,
+                "/mis-sanciones")));
     }
 
     /**
@@ -79,21 +126,26 @@ public class NotificacionService {
             String titulo,
             String mensaje,
             String url) {
+        return crearNotificacion(usuarioId, tipo, titulo, mensaje, url, null);
+    }
+
+    /**
+     * Crear notificación para un usuario, agrupable por clave
+     * (eventos con la misma clave dentro de la ventana se suman a una sola notificación)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Notificacion crearNotificacion(
+            UUID usuarioId,
+            TipoNotificacion tipo,
+            String titulo,
+            String mensaje,
+            String url,
+            String clave) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
         Notificacion notificacion = new Notificacion(usuario, tipo, titulo, mensaje, url);
-        notificacion = notificacionRepository.save(notificacion);
-        // Enviar correo solo para eventos relevantes
-        if (tipo == TipoNotificacion.PEDIDO_ESTADO_CAMBIADO || tipo == TipoNotificacion.PEDIDO_CREADO
-            || tipo == TipoNotificacion.REVIEW_APROBADA || tipo == TipoNotificacion.REVIEW_RECHAZADA
-            || tipo == TipoNotificacion.USUARIO_SANCIONADO) {
-            correoService.enviarCorreo(
-                usuario.getCorreo(),
-                titulo,
-                mensaje + "\n\nPuedes ver el detalle en: " + url
-            );
-        }
-        return notificacion;
+        notificacion.setClave(clave);
+        return registrar(List.of(notificacion)).get(0);
     }
 
     /**
@@ -111,8 +163,7 @@ public class NotificacionService {
             .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
         Notificacion notificacion = new Notificacion(usuario, tipo, titulo, mensaje, url);
         notificacion.setDatos(datos);
-        notificacion = notificacionRepository.save(notificacion);
-        return notificacion;
+        return registrar(List.of(notificacion)).get(0);
     }
 
     /**
@@ -121,7 +172,7 @@ public class NotificacionService {
     @Transactional(readOnly = true)
     public Page<NotificacionResponse> obtenerNotificaciones(UUID usuarioId, Pageable pageable) {
         Page<Notificacion> notificaciones = notificacionRepository
-                .findByUsuarioIdOrderByFechaCreacionDesc(usuarioId, pageable);
+                .findRecientesPorUsuario(usuarioId, pageable);
 
         return notificaciones.map(NotificacionResponse::fromNotificacion);
     }
@@ -140,8 +191,8 @@ public class NotificacionService {
      */
     @Transactional(readOnly = true)
     public Page<NotificacionResponse> obtenerMisNotificaciones(UUID usuarioId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("fechaCreacion").descending());
-        return obtenerNotificaciones(usuarioId, pageable);
+        // El orden (último evento primero) lo define la consulta
+        return obtenerNotificaciones(usuarioId, PageRequest.of(page, size));
     }
 
     /**
@@ -150,7 +201,7 @@ public class NotificacionService {
     @Transactional(readOnly = true)
     public List<NotificacionResponse> obtenerNoLeidas(UUID usuarioId) {
         List<Notificacion> notificaciones = notificacionRepository
-                .findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(usuarioId);
+                .findNoLeidasRecientes(usuarioId);
         return notificaciones.stream()
                 .map(NotificacionResponse::fromNotificacion)
                 .collect(Collectors.toList());
@@ -166,18 +217,22 @@ public class NotificacionService {
         if (!notificacion.getUsuario().getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes permiso para marcar esta notificación");
         }
+        if (Boolean.TRUE.equals(notificacion.getLeida())) {
+            return NotificacionResponse.fromNotificacion(notificacion);
+        }
         notificacion.setLeida(true);
         notificacion.setFechaLectura(LocalDateTime.now());
         notificacion = notificacionRepository.save(notificacion);
+        contadorNotificacionesService.decrementar(usuarioId);
+        publicarConteoAlConfirmar(usuarioId);
         return NotificacionResponse.fromNotificacion(notificacion);
     }
 
     /**
-     * Contar notificaciones no leídas
+     * Contar notificaciones no leídas (desde el contador, sin COUNT sobre notificaciones)
      */
-    @Transactional(readOnly = true)
     public Long contarNoLeidas(UUID usuarioId) {
-        return notificacionRepository.countByUsuarioIdAndLeidaFalse(usuarioId);
+        return contadorNotificacionesService.obtener(usuarioId);
     }
 
     /**
@@ -190,7 +245,8 @@ public class NotificacionService {
             TipoNotificacion.PEDIDO_ESTADO_CAMBIADO,
             "Estado de pedido actualizado",
             "El estado de tu pedido #" + numeroOrden + " ha cambiado a: " + nuevoEstado,
-            "/mis-pedidos/" + numeroOrden
+            "/mis-pedidos/" + numeroOrden,
+            "pedido:" + numeroOrden
         );
     }
 
@@ -237,6 +293,40 @@ public class NotificacionService {
         );
     }
 
+    /**
+     * Notificar resultado de moderación de varias reviews en un solo lote
+     * Filas: review_id, usuario_id, producto_id, producto_nombre
+     * Los usuarios se resuelven con una consulta y las notificaciones se guardan juntas
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void notificarReviewsModeradas(List<Object[]> reviews, boolean aprobadas, String motivo) {
+        TipoNotificacion tipo = aprobadas ? TipoNotificacion.REVIEW_APROBADA : TipoNotificacion.REVIEW_RECHAZADA;
+        String titulo = aprobadas ? "Review aprobada" : "Review rechazada";
+        List<NotificacionRequest> entradas = new ArrayList<>();
+        for (Object[] fila : reviews) {
+            String productoNombre = (String) fila[3];
+            String mensaje = aprobadas
+                    ? "Tu review del producto '" + productoNombre + "' ha sido aprobada y es visible."
+                    : "Tu review del producto '" + productoNombre + "' no fue aprobada. " +
+                      (motivo != null ? "Motivo: " + motivo : "Por favor revisa el contenido.");
+            entradas.add(new NotificacionRequest((UUID) fila[1], tipo, titulo, mensaje, "/mis-reviews/" + fila[0]));
+        }
+        crearEnLote(entradas);
+    }
+
+    /**
+     * Crear varias notificaciones en una sola transacción (fan-out)
+     * - Los usuarios se resuelven con una sola consulta
+     * - Los INSERT se envían juntos con batching de JDBC
+     * - Las entradas de usuarios inexistentes se omiten
+     *
+     * @return cantidad de notificaciones creadas
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int notificarEnLote(List<NotificacionRequest> entradas) {
+        return crearEnLote(entradas).size();
+    }
+
     /**
      * Notificar producto aprobado a vendedor
      */
@@ -276,7 +366,8 @@ public class NotificacionService {
             TipoNotificacion.PRODUCTO_STOCK_BAJO,
             "Producto con stock bajo",
             "El producto \"" + productoNombre + "\" tiene solo " + stockActual + " unidades en stock.",
-            "/mis-productos/" + productoId
+            "/mis-productos/" + productoId,
+            "stock:" + productoId
         );
     }
 
@@ -287,7 +378,8 @@ public class NotificacionService {
      */
     @Transactional(readOnly = true)
     public List<NotificacionResponse> obtenerUltimas5(UUID usuarioId) {
-        List<Notificacion> notificaciones = notificacionRepository.findTop5ByUsuarioIdOrderByFechaCreacionDesc(usuarioId);
+        List<Notificacion> notificaciones = notificacionRepository
+                .findRecientesPorUsuario(usuarioId, PageRequest.of(0, 5)).getContent();
         return notificaciones.stream().map(NotificacionResponse::fromNotificacion).collect(Collectors.toList());
     }
 
@@ -296,7 +388,12 @@ public class NotificacionService {
      */
     @Transactional
     public int marcarTodasComoLeidas(UUID usuarioId) {
-        return notificacionRepository.marcarTodasComoLeidas(usuarioId);
+        int actualizadas = notificacionRepository.marcarTodasComoLeidas(usuarioId);
+        contadorNotificacionesService.reiniciar(usuarioId);
+        if (actualizadas > 0) {
+            publicarConteoAlConfirmar(usuarioId);
+        }
+        return actualizadas;
     }
 
     /**
@@ -310,15 +407,18 @@ public class NotificacionService {
             throw new RuntimeException("No tienes permiso para eliminar esta notificación");
         }
         notificacionRepository.deleteById(id);
+        if (!Boolean.TRUE.equals(notificacion.getLeida())) {
+            contadorNotificacionesService.decrementar(usuarioId);
+            publicarConteoAlConfirmar(usuarioId);
+        }
     }
 
     /**
      * Eliminar todas las notificaciones leídas de un usuario
      */
     @Transactional
-    public void eliminarLeidas(UUID usuarioId) {
-        List<Notificacion> leidas = notificacionRepository.findByUsuarioIdAndLeidaTrue(usuarioId);
-        notificacionRepository.deleteAll(leidas);
+    public int eliminarLeidas(UUID usuarioId) {
+        return notificacionRepository.eliminarLeidasPorUsuario(usuarioId);
     }
 
     /**
@@ -326,12 +426,300 @@ public class NotificacionService {
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void notificarNuevaVenta(UUID vendedorId, String numeroOrden, String productoNombre, String cantidad) {
-        crearNotificacion(
+        crearEnLote(List.of(nuevaVenta(vendedorId, null, numeroOrden, productoNombre, cantidad)));
+    }
+
+    /**
+     * Notificar a los vendedores de un pedido sobre sus ventas, todo en una transacción
+     * Las ventas de un mismo producto se agrupan por la clave venta:<productoId>
+     * Filas: vendedor_id, producto_id, producto_nombre, cantidad
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void notificarNuevasVentas(String numeroOrden, List<Object[]> ventas) {
+        List<NotificacionRequest> entradas = new ArrayList<>();
+        for (Object[] venta : ventas) {
+            entradas.add(nuevaVenta((UUID) venta[0], (UUID) venta[1], numeroOrden,
+                    (String) venta[2], String.valueOf(venta[3])));
+        }
+        crearEnLote(entradas);
+    }
+
+    private NotificacionRequest nuevaVenta(UUID vendedorId, UUID productoId, String numeroOrden,
+                                           String productoNombre, String cantidad) {
+        NotificacionRequest entrada = new NotificacionRequest(
             vendedorId,
             TipoNotificacion.PEDIDO_CREADO,
             "Nueva venta realizada",
             "Se ha vendido " + cantidad + " unidad(es) del producto '" + productoNombre + "' en el pedido #" + numeroOrden,
             "/mis-ventas/" + numeroOrden
         );
+        entrada.setClave(productoId != null ? "venta:" + productoId : null);
+        return entrada;
+    }
+
+    // ==================== CREACIÓN EN LOTE ====================
+
+    private List<Notificacion> crearEnLote(List<NotificacionRequest> entradas) {
+        if (entradas == null || entradas.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> usuarioIds = entradas.stream()
+                .map(NotificacionRequest::getUsuarioId)
+                .distinct()
+                .collect(Collectors.toList());
+        // Solo ID y correo: la notificación necesita la llave foránea, no el usuario con sus roles
+        Map<UUID, String> correos = new HashMap<>();
+        for (Object[] fila : usuarioRepository.findCorreosByIds(usuarioIds)) {
+            correos.put((UUID) fila[0], (String) fila[1]);
+        }
+
+        List<Notificacion> notificaciones = new ArrayList<>();
+        for (NotificacionRequest entrada : entradas) {
+            if (!correos.containsKey(entrada.getUsuarioId())) {
+                continue;
+            }
+            Notificacion notificacion = new Notificacion(
+                    usuarioRepository.getReferenceById(entrada.getUsuarioId()),
+                    entrada.getTipo(), entrada.getTitulo(), entrada.getMensaje(), entrada.getUrl());
+            notificacion.setDatos(entrada.getDatos());
+            notificacion.setClave(entrada.getClave());
+            notificaciones.add(notificacion);
+        }
+        return registrar(notificaciones, correos);
+    }
+
+    /**
+     * Registrar notificaciones de usuarios ya cargados (el correo sale de la entidad)
+     */
+    private List<Notificacion> registrar(List<Notificacion> notificaciones) {
+        Map<UUID, String> correos = new HashMap<>();
+        for (Notificacion notificacion : notificaciones) {
+            correos.put(notificacion.getUsuario().getId(), notificacion.getUsuario().getCorreo());
+        }
+        return registrar(notificaciones, correos);
+    }
+
+    /**
+     * Guardar notificaciones nuevas aplicando las reglas de agrupación
+     * - Eventos con la misma (usuario, tipo, clave) se agrupan, tanto dentro del
+     *   mismo lote como con una notificación no leída cuya ventana siga abierta
+     * - Las que quedan nuevas se insertan en un solo batch
+     * - Agrupar solo junta la fila de la app: cada llamada envía un correo por
+     *   grupo (con el texto del último evento); en modo resumen se marca como
+     *   pendiente para el correo periódico
+     *
+     * @param correos correo de cada usuario (ID → correo), para no inicializar
+     *                las referencias perezosas de las notificaciones
+     * @return notificaciones resultantes (nuevas o agrupadas), una por grupo
+     */
+    private List<Notificacion> registrar(List<Notificacion> notificaciones, Map<UUID, String> correos) {
+        if (notificaciones.isEmpty()) {
+            return notificaciones;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+
+        // 1. Agrupar dentro del lote
+        Map<String, Notificacion> porClave = new LinkedHashMap<>();
+        List<Notificacion> nuevas = new ArrayList<>();
+        for (Notificacion notificacion : notificaciones) {
+            notificacion.setFechaCreacion(ahora);
+            notificacion.setFechaActualizacion(ahora);
+            String clave = claveDeAgrupacion(notificacion);
+            if (clave == null) {
+                nuevas.add(notificacion);
+                continue;
+            }
+            Notificacion existente = porClave.get(clave);
+            if (existente == null) {
+                porClave.put(clave, notificacion);
+            } else {
+                agrupar(existente, notificacion, ahora);
+            }
+        }
+
+        // 2. Agrupar con notificaciones abiertas en la base de datos
+        List<Notificacion> agrupadas = new ArrayList<>();
+        if (!porClave.isEmpty()) {
+            Set<UUID> usuarioIds = new HashSet<>();
+            Set<String> claves = new HashSet<>();
+            for (Notificacion notificacion : porClave.values()) {
+                usuarioIds.add(notificacion.getUsuario().getId());
+                claves.add(notificacion.getClave());
+            }
+            Map<String, Notificacion> abiertas = new HashMap<>();
+            for (Notificacion abierta : notificacionRepository.findAbiertasParaAgrupar(
+                    usuarioIds, claves, ahora.minusMinutes(ventanaAgrupacionMinutos))) {
+                abiertas.putIfAbsent(claveDeAgrupacion(abierta), abierta);
+            }
+            for (Map.Entry<String, Notificacion> grupo : porClave.entrySet()) {
+                Notificacion abierta = abiertas.get(grupo.getKey());
+                if (abierta == null) {
+                    nuevas.add(grupo.getValue());
+                } else {
+                    agrupar(abierta, grupo.getValue(), ahora);
+                    agrupadas.add(abierta);
+                }
+            }
+        }
+
+        // 3. Correo: inmediato o pendiente de resumen
+        List<Notificacion> correoInmediato = new ArrayList<>();
+        for (Notificacion notificacion : nuevas) {
+            if (debeEnviarCorreo(notificacion.getTipo())) {
+                if (correoEnResumen) {
+                    notificacion.setCorreoPendiente(true);
+                } else {
+                    correoInmediato.add(notificacion);
+                }
+            }
+        }
+        for (Notificacion notificacion : agrupadas) {
+            if (debeEnviarCorreo(notificacion.getTipo())) {
+                if (correoEnResumen) {
+                    notificacion.setCorreoPendiente(true);
+                } else {
+                    correoInmediato.add(notificacion);
+                }
+            }
+        }
+
+        // 4. Escribir
+        if (!nuevas.isEmpty()) {
+            insertarEnBatch(nuevas);
+        }
+        if (!agrupadas.isEmpty()) {
+            notificacionRepository.saveAll(agrupadas);
+        }
+
+        // 5. Contadores y tiempo real (las agrupadas ya contaban como no leídas)
+        nuevas.stream()
+                .collect(Collectors.groupingBy(n -> n.getUsuario().getId(), Collectors.counting()))
+                .forEach(contadorNotificacionesService::incrementar);
+        List<Notificacion> resultado = new ArrayList<>(nuevas);
+        resultado.addAll(agrupadas);
+        for (Notificacion notificacion : resultado) {
+            publicarAlConfirmar(notificacion.getUsuario().getId(), notificacion);
+        }
+
+        for (Notificacion notificacion : correoInmediato) {
+            try {
+                correoService.enviarCorreo(
+                    correos.get(notificacion.getUsuario().getId()),
+                    notificacion.getTitulo(),
+                    notificacion.getMensaje() + "\n\nPuedes ver el detalle en: " + notificacion.getUrl()
+                );
+            } catch (Exception e) {
+                System.err.println("Error al enviar correo de notificación: " + e.getMessage());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Sumar un evento nuevo a una notificación agrupada (queda el texto del último evento)
+     */
+    private static void agrupar(Notificacion destino, Notificacion evento, LocalDateTime ahora) {
+        int anterior = destino.getCantidad() != null ? destino.getCantidad() : 1;
+        int sumar = evento.getCantidad() != null ? evento.getCantidad() : 1;
+        destino.setCantidad(anterior + sumar);
+        destino.setTitulo(evento.getTitulo());
+        destino.setMensaje(evento.getMensaje());
+        destino.setUrl(evento.getUrl());
+        destino.setFechaActualizacion(ahora);
+    }
+
+    /**
+     * Clave (usuario, tipo, clave) o null si la notificación no se agrupa
+     */
+    private String claveDeAgrupacion(Notificacion notificacion) {
+        if (notificacion.getClave() == null || ventanaAgrupacionMinutos <= 0) {
+            return null;
+        }
+        return notificacion.getUsuario().getId() + "|" + notificacion.getTipo() + "|" + notificacion.getClave();
+    }
+
+    /**
+     * INSERT de todas las notificaciones en un solo batch JDBC
+     * (con IDENTITY Hibernate no agrupa los INSERT)
+     * Asigna a cada notificación el ID generado.
+     */
+    private void insertarEnBatch(List<Notificacion> notificaciones) {
+        KeyHolder ids = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                conexion -> conexion.prepareStatement(INSERT_NOTIFICACION, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Notificacion notificacion = notificaciones.get(i);
+                        ps.setObject(1, notificacion.getUsuario().getId());
+                        ps.setString(2, notificacion.getTipo().name());
+                        ps.setString(3, notificacion.getTitulo());
+                        ps.setString(4, notificacion.getMensaje());
+                        ps.setString(5, notificacion.getUrl());
+                        ps.setString(6, notificacion.getDatos());
+                        ps.setTimestamp(7, Timestamp.valueOf(notificacion.getFechaCreacion()));
+                        ps.setString(8, notificacion.getClave());
+                        ps.setInt(9, notificacion.getCantidad() != null ? notificacion.getCantidad() : 1);
+                        ps.setTimestamp(10, Timestamp.valueOf(notificacion.getFechaActualizacion()));
+                        ps.setBoolean(11, Boolean.TRUE.equals(notificacion.getCorreoPendiente()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notificaciones.size();
+                    }
+                },
+                ids);
+
+        List<Map<String, Object>> claves = ids.getKeyList();
+        for (int i = 0; i < notificaciones.size() && i < claves.size(); i++) {
+            notificaciones.get(i).setId(((Number) claves.get(i).get("id")).longValue());
+        }
+    }
+
+    /**
+     * Tipos de notificación que también se envían por correo
+     */
+    private static boolean debeEnviarCorreo(TipoNotificacion tipo) {
+        return tipo == TipoNotificacion.PEDIDO_ESTADO_CAMBIADO || tipo == TipoNotificacion.PEDIDO_CREADO
+            || tipo == TipoNotificacion.REVIEW_APROBADA || tipo == TipoNotificacion.REVIEW_RECHAZADA
+            || tipo == TipoNotificacion.USUARIO_SANCIONADO;
+    }
+
+    // ==================== TIEMPO REAL (SSE) ====================
+
+    /**
+     * Publicar la notificación a los streams abiertos cuando la transacción confirme
+     */
+    private void publicarAlConfirmar(UUID usuarioId, Notificacion notificacion) {
+        NotificacionResponse response = NotificacionResponse.fromNotificacion(notificacion);
+        despuesDelCommit(() -> notificacionStreamService.publicarNotificacion(usuarioId, response));
+    }
+
+    /**
+     * Publicar el nuevo contador de no leídas cuando la transacción confirme
+     */
+    private void publicarConteoAlConfirmar(UUID usuarioId) {
+        despuesDelCommit(() -> notificacionStreamService.publicarConteo(usuarioId));
+    }
+
+    private void despuesDelCommit(Runnable accion) {
+        Runnable segura = () -> {
+            try {
+                accion.run();
+            } catch (Exception e) {
+                System.err.println("Error al publicar notificación en tiempo real: " + e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    segura.run();
+                }
+            });
+        } else {
+            segura.run();
+        }
     }
 }
@@ -0,0 +1,329 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.response.NotificacionResponse;
+import com.ecommercegt.backend.repositorios.NotificacionRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servicio de notificaciones en tiempo real (Server-Sent Events)
+ *
+ * - Registro en memoria de suscriptores por usuario (varias pestañas por usuario, con límite)
+ * - Cada suscriptor tiene un buffer acotado; si se llena se descartan los eventos más viejos
+ * - Heartbeats periódicos para mantener viva la conexión y detectar desconexiones
+ * - Con notificaciones.stream.pg-notify=true los eventos se difunden entre nodos
+ *   con LISTEN/NOTIFY de PostgreSQL; cada nodo entrega solo a sus suscriptores locales
+ *
+ * Eventos enviados al cliente:
+ * - "notificacion": NotificacionResponse nueva
+ * - "no-leidas": {"count": N} cuando cambia el contador de no leídas
+ */
+@Service
+public class NotificacionStreamService {
+
+    private static final String CANAL_PG = "notificaciones_usuario";
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    @Autowired
+    private ContadorNotificacionesService contadorNotificacionesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Datos de conexión del datasource: la escucha abre su propia conexión,
+     * fuera del pool (LISTEN la mantiene tomada mientras el nodo vive)
+     */
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${notificaciones.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${notificaciones.stream.buffer:100}")
+    private int tamanoBuffer;
+
+    @Value("${notificaciones.stream.max-conexiones-por-usuario:5}")
+    private int maxConexionesPorUsuario;
+
+    @Value("${notificaciones.stream.pg-notify:false}")
+    private boolean pgNotify;
+
+    private final Map<UUID, Deque<Suscriptor>> suscriptores = new ConcurrentHashMap<>();
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean escuchando = false;
+
+    // ==================== SUSCRIPCIÓN ====================
+
+    /**
+     * Abrir un stream SSE para el usuario
+     * Envía de inmediato el contador actual de no leídas
+     */
+    public SseEmitter suscribir(UUID usuarioId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Suscriptor suscriptor = new Suscriptor(usuarioId, emitter, tamanoBuffer);
+
+        Deque<Suscriptor> delUsuario = suscriptores.computeIfAbsent(usuarioId, k -> new ConcurrentLinkedDeque<>());
+        delUsuario.addLast(suscriptor);
+        while (delUsuario.size() > maxConexionesPorUsuario) {
+            Suscriptor masViejo = delUsuario.pollFirst();
+            if (masViejo != null) {
+                masViejo.emitter.complete();
+            }
+        }
+
+        emitter.onCompletion(() -> quitar(suscriptor));
+        emitter.onTimeout(() -> quitar(suscriptor));
+        emitter.onError(error -> quitar(suscriptor));
+
+        encolar(suscriptor, eventoConteo(contadorNotificacionesService.obtener(usuarioId)));
+        return emitter;
+    }
+
+    /**
+     * Indica si el usuario tiene algún stream abierto en este nodo
+     */
+    public boolean tieneSuscriptores(UUID usuarioId) {
+        Deque<Suscriptor> delUsuario = suscriptores.get(usuarioId);
+        return delUsuario != null && !delUsuario.isEmpty();
+    }
+
+    // ==================== PUBLICACIÓN ====================
+
+    /**
+     * Publicar una notificación nueva (llamar después del commit)
+     */
+    public void publicarNotificacion(UUID usuarioId, NotificacionResponse notificacion) {
+        if (pgNotify) {
+            notificarEntreNodos(usuarioId, notificacion.getId());
+            return;
+        }
+        entregarNotificacion(usuarioId, notificacion);
+    }
+
+    /**
+     * Publicar un cambio en el contador de no leídas (llamar después del commit)
+     */
+    public void publicarConteo(UUID usuarioId) {
+        if (pgNotify) {
+            notificarEntreNodos(usuarioId, null);
+            return;
+        }
+        entregarConteo(usuarioId);
+    }
+
+    /**
+     * Heartbeat para todas las conexiones abiertas
+     * Mantiene vivos los proxies intermedios y detecta clientes desconectados
+     */
+    @Scheduled(fixedRateString = "${notificaciones.stream.heartbeat-ms:15000}")
+    public void enviarHeartbeats() {
+        for (Deque<Suscriptor> delUsuario : suscriptores.values()) {
+            for (Suscriptor suscriptor : delUsuario) {
+                encolar(suscriptor, SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    // ==================== ENTREGA LOCAL ====================
+
+    private void entregarNotificacion(UUID usuarioId, NotificacionResponse notificacion) {
+        if (!tieneSuscriptores(usuarioId)) {
+            return;
+        }
+        long noLeidas = contadorNotificacionesService.obtener(usuarioId);
+        for (Suscriptor suscriptor : suscriptores.getOrDefault(usuarioId, new ConcurrentLinkedDeque<>())) {
+            if (notificacion != null) {
+                encolar(suscriptor, SseEmitter.event()
+                        .name("notificacion")
+                        .id(String.valueOf(notificacion.getId()))
+                        .data(notificacion));
+            }
+            encolar(suscriptor, eventoConteo(noLeidas));
+        }
+    }
+
+    private void entregarConteo(UUID usuarioId) {
+        entregarNotificacion(usuarioId, null);
+    }
+
+    private SseEmitter.SseEventBuilder eventoConteo(long noLeidas) {
+        Map<String, Long> datos = new HashMap<>();
+        datos.put("count", noLeidas);
+        return SseEmitter.event().name("no-leidas").data(datos);
+    }
+
+    /**
+     * Agregar un evento al buffer acotado del suscriptor y programar su envío
+     */
+    private void encolar(Suscriptor suscriptor, SseEmitter.SseEventBuilder evento) {
+        while (!suscriptor.buffer.offer(evento)) {
+            suscriptor.buffer.poll();
+        }
+        if (suscriptor.enviando.compareAndSet(false, true)) {
+            envios.submit(() -> vaciar(suscriptor));
+        }
+    }
+
+    private void vaciar(Suscriptor suscriptor) {
+        try {
+            SseEmitter.SseEventBuilder evento;
+            while ((evento = suscriptor.buffer.poll()) != null) {
+                suscriptor.emitter.send(evento);
+            }
+        } catch (Exception e) {
+            // Cliente desconectado
+            quitar(suscriptor);
+            suscriptor.emitter.completeWithError(e);
+            return;
+        } finally {
+            suscriptor.enviando.set(false);
+        }
+        if (!suscriptor.buffer.isEmpty() && suscriptor.enviando.compareAndSet(false, true)) {
+            envios.submit(() -> vaciar(suscriptor));
+        }
+    }
+
+    private void quitar(Suscriptor suscriptor) {
+        suscriptor.buffer.clear();
+        suscriptores.computeIfPresent(suscriptor.usuarioId, (id, delUsuario) -> {
+            delUsuario.remove(suscriptor);
+            return delUsuario.isEmpty() ? null : delUsuario;
+        });
+    }
+
+    // ==================== DIFUSIÓN ENTRE NODOS (LISTEN/NOTIFY) ====================
+
+    private void notificarEntreNodos(UUID usuarioId, Long notificacionId) {
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("usuarioId", usuarioId.toString());
+            payload.put("notificacionId", notificacionId);
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CANAL_PG, objectMapper.writeValueAsString(payload));
+        } catch (Exception e) {
+            System.err.println("Error al difundir notificación entre nodos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Iniciar el hilo que escucha el canal de PostgreSQL (solo con pg-notify habilitado)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarEscucha() {
+        if (!pgNotify || escuchando) {
+            return;
+        }
+        escuchando = true;
+        Thread hilo = new Thread(this::cicloEscucha, "notificaciones-pg-listen");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @PreDestroy
+    public void detener() {
+        escuchando = false;
+        envios.shutdownNow();
+        for (Deque<Suscriptor> delUsuario : suscriptores.values()) {
+            delUsuario.forEach(suscriptor -> suscriptor.emitter.complete());
+        }
+        suscriptores.clear();
+    }
+
+    private void cicloEscucha() {
+        while (escuchando) {
+            try (Connection conexion = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement statement = conexion.createStatement()) {
+                statement.execute("LISTEN " + CANAL_PG);
+                PGConnection pgConexion = conexion.unwrap(PGConnection.class);
+                while (escuchando) {
+                    PGNotification[] recibidas = pgConexion.getNotifications(10000);
+                    if (recibidas == null) {
+                        continue;
+                    }
+                    for (PGNotification recibida : recibidas) {
+                        procesarMensajeEntreNodos(recibida.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Error en escucha LISTEN/NOTIFY, reintentando: " + e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void procesarMensajeEntreNodos(String payload) {
+        try {
+            JsonNode nodo = objectMapper.readTree(payload);
+            UUID usuarioId = UUID.fromString(nodo.get("usuarioId").asText());
+            if (!tieneSuscriptores(usuarioId)) {
+                return;
+            }
+            JsonNode notificacionId = nodo.get("notificacionId");
+            if (notificacionId == null || notificacionId.isNull()) {
+                entregarConteo(usuarioId);
+                return;
+            }
+            notificacionRepository.findById(notificacionId.asLong())
+                    .map(NotificacionResponse::fromNotificacion)
+                    .ifPresentOrElse(
+                            notificacion -> entregarNotificacion(usuarioId, notificacion),
+                            () -> entregarConteo(usuarioId));
+        } catch (Exception e) {
+            System.err.println("Error al procesar notificación entre nodos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Conexión SSE abierta de un usuario con su buffer de eventos
+     */
+    private static class Suscriptor {
+        private final UUID usuarioId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean enviando = new AtomicBoolean(false);
+
+        private Suscriptor(UUID usuarioId, SseEmitter emitter, int capacidad) {
+            this.usuarioId = usuarioId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(capacidad);
+        }
+    }
+}
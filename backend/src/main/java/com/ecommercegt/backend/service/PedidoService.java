@@ -8,11 +8,10 @@ import com.ecommercegt.backend.dto.response.ResumenPedidosResponse;
 import com.ecommercegt.backend.models.entidades.*;
 import com.ecommercegt.backend.models.enums.EstadoPedido;
 import com.ecommercegt.backend.repositorios.*;
+import com.ecommercegt.backend.security.service.UsuarioActual;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.Arrays;
@@ -20,7 +19,10 @@ import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -45,7 +47,7 @@ public class PedidoService {
     private CarritoRepository carritoRepository;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private UsuarioActual usuarioActual;
 
     @Autowired
     private ProductoRepository productoRepository;
@@ -53,6 +55,15 @@ public class PedidoService {
     @Autowired
     private NotificacionService notificacionService; // ← NUEVO
 
+    @Autowired
+    private VentasDiariasService ventasDiariasService;
+
+    @Autowired
+    private VentasVendedorService ventasVendedorService;
+
+    @Autowired
+    private AnaliticaAproximadaService analiticaAproximadaService;
+
     /**
      * Crear pedido desde el carrito del usuario autenticado
      * 
@@ -69,7 +80,7 @@ public class PedidoService {
     @Transactional
     public PedidoResponse crearPedidoDesdeCarrito(CrearPedidoRequest request) {
         // 1. Obtener usuario autenticado
-        Usuario usuario = obtenerUsuarioAutenticado();
+        Usuario usuario = usuarioActual.obtener();
 
         // 2. Obtener carrito del usuario
         Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
@@ -104,8 +115,10 @@ public class PedidoService {
         pedido.setNotas(request.getNotas());
 
         // 6. Crear items del pedido (snapshot de datos)
+        Map<UUID, Integer> categoriaPorProducto = new HashMap<>();
         for (ItemCarrito itemCarrito : carrito.getItems()) {
             Producto producto = itemCarrito.getProducto();
+            categoriaPorProducto.put(producto.getId(), producto.getCategoria().getId());
 
             ItemPedido itemPedido = new ItemPedido();
             itemPedido.setProductoId(producto.getId());
@@ -113,10 +126,11 @@ public class PedidoService {
 
             // Obtener imagen del producto
             if (producto.getImagenes() != null && !producto.getImagenes().isEmpty()) {
-                itemPedido.setProductoImagen(producto.getImagenes().get(0).getUrlImagen());
+                itemPedido.setProductoImagen(producto.getImagenes().get(0).urlParaMiniatura());
             }
 
             itemPedido.setVendedorNombre(producto.getVendedor().getNombreUsuario());
+            itemPedido.setVendedorId(producto.getVendedor().getId());
             itemPedido.setCantidad(itemCarrito.getCantidad());
             itemPedido.setPrecioUnitario(itemCarrito.getPrecioUnitario());
             itemPedido.calcularSubtotal();
@@ -129,10 +143,16 @@ public class PedidoService {
 
         // 8. Guardar pedido
         Pedido pedidoGuardado = pedidoRepository.save(pedido);
+        ventasDiariasService.registrarPedidoCreado(pedidoGuardado);
+        analiticaAproximadaService.registrarPedido(pedidoGuardado, categoriaPorProducto);
 
         // 9. Reducir stock de productos y notificar stock bajo
+        Map<UUID, UUID> vendedorPorProducto = new HashMap<>();
         for (ItemCarrito itemCarrito : carrito.getItems()) {
             Producto producto = itemCarrito.getProducto();
+            if (producto.getVendedor() != null) {
+                vendedorPorProducto.put(producto.getId(), producto.getVendedor().getId());
+            }
             producto.setStock(producto.getStock() - itemCarrito.getCantidad());
             productoRepository.save(producto);
 
@@ -166,20 +186,16 @@ public class PedidoService {
             System.err.println("Error al crear notificación de pedido: " + e.getMessage());
         }
 
-        // 12. Notificar a cada vendedor sobre su nueva venta
-        // 12. Notificar a cada vendedor sobre su nueva venta
+        // 12. Notificar a cada vendedor sobre su nueva venta (una sola transacción para todos)
         try {
+            List<Object[]> ventas = new ArrayList<>();
             for (ItemPedido item : pedidoGuardado.getItems()) {
-                // Buscar el producto para obtener el vendedor
-                Producto producto = productoRepository.findById(item.getProductoId()).orElse(null);
-                if (producto != null && producto.getVendedor() != null) {
-                    notificacionService.notificarNuevaVenta(
-                            producto.getVendedor().getId(),
-                            pedidoGuardado.getNumeroOrden(),
-                            item.getProductoNombre(),
-                            item.getCantidad().toString());
+                UUID vendedorId = vendedorPorProducto.get(item.getProductoId());
+                if (vendedorId != null) {
+                    ventas.add(new Object[] {vendedorId, item.getProductoId(), item.getProductoNombre(), item.getCantidad()});
                 }
             }
+            notificacionService.notificarNuevasVentas(pedidoGuardado.getNumeroOrden(), ventas);
         } catch (Exception e) {
             System.err.println("Error al notificar vendedores: " + e.getMessage());
         }
@@ -193,8 +209,7 @@ public class PedidoService {
      */
     @Transactional(readOnly = true)
     public Page<PedidoResponse> obtenerMisPedidos(Pageable pageable) {
-        Usuario usuario = obtenerUsuarioAutenticado();
-        Page<Pedido> pedidos = pedidoRepository.findByUsuarioIdOrderByFechaPedidoDesc(usuario.getId(), pageable);
+        Page<Pedido> pedidos = pedidoRepository.findByUsuarioIdOrderByFechaPedidoDesc(usuarioActual.obtenerId(), pageable);
         return pedidos.map(this::convertirAResponse);
     }
 
@@ -204,7 +219,7 @@ public class PedidoService {
      */
     @Transactional(readOnly = true)
     public PedidoResponse obtenerDetallePedido(UUID pedidoId) {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        Usuario usuario = usuarioActual.obtener();
         Pedido pedido = pedidoRepository.findById(pedidoId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + pedidoId));
 
@@ -237,7 +252,7 @@ public class PedidoService {
      */
     @Transactional
     public PedidoResponse actualizarEstado(UUID pedidoId, ActualizarEstadoRequest request) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
+        Pedido pedido = pedidoRepository.findByIdParaActualizar(pedidoId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + pedidoId));
 
         // Validar transición de estado
@@ -258,6 +273,8 @@ public class PedidoService {
         }
 
         Pedido pedidoActualizado = pedidoRepository.save(pedido);
+        ventasDiariasService.registrarCambioEstado(pedidoActualizado, estadoAnterior);
+        ventasVendedorService.registrarCambioEstado(pedidoActualizado, estadoAnterior);
 
         // ========== NOTIFICAR CAMBIO DE ESTADO (NUEVO) ==========
         try {
@@ -280,13 +297,13 @@ public class PedidoService {
      */
     @Transactional
     public PedidoResponse cancelarPedido(UUID pedidoId, String motivo) {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        UUID usuarioId = usuarioActual.obtenerId();
 
-        Pedido pedido = pedidoRepository.findById(pedidoId)
+        Pedido pedido = pedidoRepository.findByIdParaActualizar(pedidoId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + pedidoId));
 
         // Validar que el pedido pertenezca al usuario
-        if (!pedido.getUsuario().getId().equals(usuario.getId())) {
+        if (!pedido.getUsuario().getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes permiso para cancelar este pedido");
         }
 
@@ -308,13 +325,16 @@ public class PedidoService {
         }
 
         // Cancelar pedido
+        EstadoPedido estadoAnterior = pedido.getEstado();
         pedido.cancelar(motivo);
         Pedido pedidoCancelado = pedidoRepository.save(pedido);
+        ventasDiariasService.registrarCambioEstado(pedidoCancelado, estadoAnterior);
+        ventasVendedorService.registrarCambioEstado(pedidoCancelado, estadoAnterior);
 
         // ========== NOTIFICAR CANCELACIÓN (NUEVO) ==========
         try {
             notificacionService.notificarCambioEstadoPedido(
-                    usuario.getId(),
+                    usuarioId,
                     pedido.getNumeroOrden(),
                     "CANCELADO");
         } catch (Exception e) {
@@ -330,8 +350,7 @@ public class PedidoService {
      */
     @Transactional(readOnly = true)
     public Page<PedidoResponse> obtenerPedidosVendedor(Pageable pageable) {
-        Usuario vendedor = obtenerUsuarioAutenticado();
-        Page<Pedido> pedidos = pedidoRepository.findPedidosConProductosDeVendedor(vendedor.getId(), pageable);
+        Page<Pedido> pedidos = pedidoRepository.findPedidosConProductosDeVendedor(usuarioActual.obtenerId(), pageable);
         return pedidos.map(this::convertirAResponse);
     }
 
@@ -349,7 +368,7 @@ public class PedidoService {
      */
     @Transactional(readOnly = true)
     public ResumenPedidosResponse obtenerResumenPedidos() {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        UUID usuarioId = usuarioActual.obtenerId();
 
         ResumenPedidosResponse resumen = new ResumenPedidosResponse();
         resumen.setPedidosPendientes(pedidoRepository.countByEstado(EstadoPedido.PENDIENTE));
@@ -358,9 +377,9 @@ public class PedidoService {
         resumen.setPedidosEnviados(pedidoRepository.countByEstado(EstadoPedido.ENVIADO));
         resumen.setPedidosEntregados(pedidoRepository.countByEstado(EstadoPedido.ENTREGADO));
         resumen.setPedidosCancelados(pedidoRepository.countByEstado(EstadoPedido.CANCELADO));
-        resumen.setTotalPedidos(pedidoRepository.countByUsuarioId(usuario.getId()));
+        resumen.setTotalPedidos(pedidoRepository.countByUsuarioId(usuarioId));
 
-        Double totalCompras = pedidoRepository.calcularTotalComprasUsuario(usuario.getId());
+        Double totalCompras = pedidoRepository.calcularTotalComprasUsuario(usuarioId);
         resumen.setTotalCompras(
                 totalCompras != null ? java.math.BigDecimal.valueOf(totalCompras) : java.math.BigDecimal.ZERO);
 
@@ -391,17 +410,6 @@ public class PedidoService {
         return String.format("%s%04d", prefijo, siguienteNumero);
     }
 
-    /**
-     * Obtener usuario autenticado
-     */
-    private Usuario obtenerUsuarioAutenticado() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String nombreUsuario = authentication.getName();
-
-        return usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + nombreUsuario));
-    }
-
     /**
      * Convertir entidad Pedido a PedidoResponse
      */
@@ -521,7 +529,7 @@ public class PedidoService {
      */
     @Transactional
     public PedidoResponse marcarComoEntregado(UUID pedidoId) {
-        Pedido pedido = pedidoRepository.findById(pedidoId)
+        Pedido pedido = pedidoRepository.findByIdParaActualizar(pedidoId)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
 
         // Solo se puede marcar como entregado si está ENVIADO
@@ -532,6 +540,8 @@ public class PedidoService {
         pedido.setEstado(EstadoPedido.ENTREGADO);
         pedido.setFechaEntrega(LocalDateTime.now());
         pedidoRepository.save(pedido);
+        ventasDiariasService.registrarCambioEstado(pedido, EstadoPedido.ENVIADO);
+        ventasVendedorService.registrarCambioEstado(pedido, EstadoPedido.ENVIADO);
 
         // Notificar al usuario por correo cuando el pedido es entregado
         notificacionService.notificarCambioEstadoPedido(
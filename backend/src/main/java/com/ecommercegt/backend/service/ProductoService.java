@@ -9,12 +9,12 @@ import com.ecommercegt.backend.models.entidades.Producto;
 import com.ecommercegt.backend.models.entidades.Usuario;
 import com.ecommercegt.backend.models.enums.EstadoProducto;
 import com.ecommercegt.backend.repositorios.CategoriaRepository;
+import com.ecommercegt.backend.repositorios.ImagenProductoRepository;
 import com.ecommercegt.backend.repositorios.ProductoRepository;
-import com.ecommercegt.backend.repositorios.UsuarioRepository;
+import com.ecommercegt.backend.security.service.UsuarioActual;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import com.ecommercegt.backend.dto.request.CrearProductoRequest;
@@ -35,7 +35,16 @@ public class ProductoService {
     private CategoriaRepository categoriaRepository;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private UsuarioActual usuarioActual;
+
+    @Autowired
+    private ImagenProductoRepository imagenProductoRepository;
+
+    @Autowired
+    private ImagenVariantesService imagenVariantesService;
+
+    @Autowired
+    private ArchivoService archivoService;
 
     /**
      * Crear nuevo producto
@@ -43,9 +52,7 @@ public class ProductoService {
     @Transactional
     public ProductoResponse crearProducto(ProductoRequest request) {
         // Obtener usuario autenticado (vendedor)
-        String nombreUsuario = SecurityContextHolder.getContext().getAuthentication().getName();
-        Usuario vendedor = usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        Usuario vendedor = usuarioActual.obtenerReferencia();
 
         // Verificar que la categoría existe
         Categoria categoria = categoriaRepository.findById(request.getCategoriaId())
@@ -98,9 +105,7 @@ public class ProductoService {
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
 
         // Verificar que el usuario actual es el vendedor o es moderador/admin
-        String nombreUsuario = SecurityContextHolder.getContext().getAuthentication().getName();
-        Usuario usuario = usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        Usuario usuario = usuarioActual.obtener();
 
         boolean esVendedor = producto.getVendedor().getId().equals(usuario.getId());
         boolean esModerador = usuario.getRoles().stream()
@@ -165,9 +170,7 @@ public class ProductoService {
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + id));
 
         // Verificar permisos
-        String nombreUsuario = SecurityContextHolder.getContext().getAuthentication().getName();
-        Usuario usuario = usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        Usuario usuario = usuarioActual.obtener();
 
         boolean esVendedor = producto.getVendedor().getId().equals(usuario.getId());
         boolean esAdmin = usuario.getRoles().stream()
@@ -268,11 +271,7 @@ public class ProductoService {
      */
     @Transactional(readOnly = true)
     public Page<ProductoResponse> obtenerMisProductos(Pageable pageable) {
-        String nombreUsuario = SecurityContextHolder.getContext().getAuthentication().getName();
-        Usuario vendedor = usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        return productoRepository.findByVendedorId(vendedor.getId(), pageable)
+        return productoRepository.findByVendedorId(usuarioActual.obtenerId(), pageable)
                 .map(this::convertirAResponse);
     }
 
@@ -303,13 +302,13 @@ public class ProductoService {
 
         // Imágenes
         response.setImagenes(producto.getImagenes().stream()
-                .map(img -> img.getUrlImagen())
+                .map(img -> img.urlParaDetalle())
                 .collect(Collectors.toList()));
 
         producto.getImagenes().stream()
                 .filter(img -> img.getEsPrincipal())
                 .findFirst()
-                .ifPresent(img -> response.setImagenPrincipal(img.getUrlImagen()));
+                .ifPresent(img -> response.setImagenPrincipal(img.urlParaDetalle()));
 
         // Fechas
         response.setFechaCreacion(producto.getFechaCreacion());
@@ -455,27 +454,23 @@ public class ProductoService {
             Producto producto = productoRepository.findById(productoId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + productoId));
 
-            // Carpeta donde se guardarán las imágenes
-            String uploadDir = "uploads/productos";
-            java.nio.file.Files.createDirectories(java.nio.file.Paths.get(uploadDir));
-
-            // Nombre único para la imagen
-            String fileName = productoId + "_" + System.currentTimeMillis() + "_" + file.getOriginalFilename();
-            java.nio.file.Path filePath = java.nio.file.Paths.get(uploadDir, fileName);
-
-            // Guardar archivo en disco
-            java.nio.file.Files.write(filePath, file.getBytes());
+            // Se guarda por streaming con el hash del contenido en el nombre
+            String url = archivoService.guardarImagen(file, "productos", productoId.toString());
 
             // Crear entidad ImagenProducto
             com.ecommercegt.backend.models.entidades.ImagenProducto imagen = new com.ecommercegt.backend.models.entidades.ImagenProducto();
-            imagen.setUrlImagen("/" + uploadDir + "/" + fileName); // URL relativa
+            imagen.setUrlImagen(url); // URL relativa
             imagen.setEsPrincipal(esPrincipal);
             imagen.setProducto(producto);
+            imagen = imagenProductoRepository.save(imagen);
 
             // Asociar imagen al producto
             producto.agregarImagen(imagen);
             productoRepository.save(producto);
 
+            // Miniatura, tarjeta y detalle se generan en segundo plano
+            imagenVariantesService.programar(imagen.getId());
+
             return convertirAResponse(producto);
         } catch (java.io.IOException e) {
             throw new RuntimeException("Error al guardar la imagen: " + e.getMessage(), e);
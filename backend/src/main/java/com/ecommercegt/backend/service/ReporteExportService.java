@@ -0,0 +1,163 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.util.EscritorCsv;
+import com.ecommercegt.backend.util.EscritorTabla;
+import com.ecommercegt.backend.util.EscritorXlsx;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Exportación completa de reportes por streaming (CSV o XLSX)
+ *
+ * - Lee con un cursor JDBC de solo avance (fetch size configurable) dentro de una
+ *   transacción de solo lectura; PostgreSQL solo usa cursor con autocommit apagado
+ * - Cada fila se escribe en la respuesta apenas se lee, así la memoria usada
+ *   no depende de la cantidad de filas exportadas
+ */
+@Service
+public class ReporteExportService {
+
+    private static final String SQL_PRODUCTOS =
+            "SELECT ip.producto_id, ip.producto_nombre, " +
+            "       COUNT(DISTINCT ip.pedido_id) AS pedidos, " +
+            "       SUM(ip.cantidad) AS unidades, " +
+            "       SUM(ip.subtotal) AS ingresos " +
+            "FROM items_pedido ip " +
+            "INNER JOIN pedidos p ON ip.pedido_id = p.id " +
+            "WHERE p.estado = 'ENTREGADO' " +
+            "AND p.fecha_pedido BETWEEN ? AND ? " +
+            "GROUP BY ip.producto_id, ip.producto_nombre " +
+            "ORDER BY unidades DESC, ip.producto_nombre";
+
+    private static final String SQL_CLIENTES =
+            "SELECT u.id, u.nombre_completo, u.correo, " +
+            "       COUNT(p.id) AS pedidos, " +
+            "       COALESCE(SUM(i.unidades), 0) AS unidades, " +
+            "       SUM(p.monto_total) AS total_gastado, " +
+            "       MIN(p.fecha_pedido) AS primer_pedido, " +
+            "       MAX(p.fecha_pedido) AS ultimo_pedido " +
+            "FROM pedidos p " +
+            "INNER JOIN usuarios u ON u.id = p.usuario_id " +
+            "LEFT JOIN (SELECT pedido_id, SUM(cantidad) AS unidades FROM items_pedido GROUP BY pedido_id) i " +
+            "       ON i.pedido_id = p.id " +
+            "WHERE p.estado = 'ENTREGADO' " +
+            "AND p.fecha_pedido BETWEEN ? AND ? " +
+            "GROUP BY u.id, u.nombre_completo, u.correo " +
+            "ORDER BY total_gastado DESC, u.nombre_completo";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${reportes.export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Formatos de exportación soportados
+     */
+    public enum Formato {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Formato desde(String valor) {
+            try {
+                return Formato.valueOf(valor.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Formato de exportación no soportado: " + valor);
+            }
+        }
+    }
+
+    /**
+     * Ventas por producto (pedidos entregados) en el período
+     */
+    public void exportarProductos(LocalDateTime inicio, LocalDateTime fin, Formato formato, OutputStream salida) {
+        exportar(SQL_PRODUCTOS, inicio, fin, formato, salida, "Productos",
+                new String[] { "Producto ID", "Producto", "Pedidos", "Unidades vendidas", "Ingresos" },
+                rs -> new Object[] {
+                        rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5) });
+    }
+
+    /**
+     * Compras por cliente (pedidos entregados) en el período
+     */
+    public void exportarClientes(LocalDateTime inicio, LocalDateTime fin, Formato formato, OutputStream salida) {
+        exportar(SQL_CLIENTES, inicio, fin, formato, salida, "Clientes",
+                new String[] { "Cliente ID", "Nombre", "Correo", "Pedidos", "Unidades compradas",
+                        "Total gastado", "Primer pedido", "Último pedido" },
+                rs -> new Object[] {
+                        rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4), rs.getLong(5),
+                        rs.getBigDecimal(6), fecha(rs.getTimestamp(7)), fecha(rs.getTimestamp(8)) });
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private void exportar(String sql, LocalDateTime inicio, LocalDateTime fin, Formato formato,
+                          OutputStream salida, String nombreHoja, String[] encabezados, LectorFila lector) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        tx.executeWithoutResult(status -> {
+            try (EscritorTabla escritor = formato == Formato.XLSX
+                    ? new EscritorXlsx(salida, nombreHoja)
+                    : new EscritorCsv(salida)) {
+                escritor.encabezado(encabezados);
+                jdbcTemplate.query(conexion -> {
+                    PreparedStatement statement = conexion.prepareStatement(
+                            sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    statement.setTimestamp(1, Timestamp.valueOf(inicio));
+                    statement.setTimestamp(2, Timestamp.valueOf(fin));
+                    return statement;
+                }, rs -> {
+                    try {
+                        escritor.fila(lector.leer(rs));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String fecha(Timestamp valor) {
+        return valor != null ? valor.toLocalDateTime().toString() : null;
+    }
+
+    @FunctionalInterface
+    private interface LectorFila {
+        Object[] leer(ResultSet rs) throws SQLException;
+    }
+}
@@ -4,6 +4,7 @@ import com.ecommercegt.backend.dto.response.*;
 import com.ecommercegt.backend.models.entidades.Sancion;
 import com.ecommercegt.backend.repositorios.ItemPedidoRepository;
 import com.ecommercegt.backend.repositorios.UsuarioReporteRepository;
+import com.ecommercegt.backend.repositorios.VentaVendedorDiariaRepository;
 import com.ecommercegt.backend.service.NotificacionService;
 import com.ecommercegt.backend.service.SancionService;
 import lombok.RequiredArgsConstructor;
@@ -19,12 +20,22 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Servicio de reportes
+ *
+ * Los métodos getTop* devuelven una lista vacía si la consulta falla; los métodos
+ * consultar* propagan el error (los usa ReporteTrabajoService para marcar el trabajo como fallido)
+ *
+ * Los reportes de vendedores (por ventas y por productos) leen del cubo
+ * ventas_vendedor_diarias que mantiene VentasVendedorService
+ */
 @Service
 @RequiredArgsConstructor
 public class ReporteService {
     
     private final ItemPedidoRepository itemPedidoRepository;
     private final UsuarioReporteRepository usuarioReporteRepository;
+    private final VentaVendedorDiariaRepository ventaVendedorDiariaRepository;
     private final SancionService sancionService;
     private final NotificacionService notificacionService;
     
@@ -32,25 +43,29 @@ public class ReporteService {
     public List<ReporteProductoResponse> getTop10ProductosMasVendidos(
             LocalDateTime fechaInicio, LocalDateTime fechaFin) {
         
-        List<ReporteProductoResponse> reportes = new ArrayList<>();
-        
         try {
-            List<Object[]> resultados = itemPedidoRepository
-                .findTop10ProductosMasVendidosPorFecha(fechaInicio, fechaFin);
-            
-            for (Object[] row : resultados) {
-                ReporteProductoResponse reporte = new ReporteProductoResponse();
-                reporte.setProductoId((UUID) row[0]);
-                reporte.setNombreProducto((String) row[1]);
-                reporte.setTotalVendido(((Number) row[2]).longValue());
-                reporte.setIngresosTotales(new BigDecimal(row[3].toString()));
-                reportes.add(reporte);
-            }
+            return consultarProductosMasVendidos(fechaInicio, fechaFin);
         } catch (Exception e) {
             System.err.println("Error al obtener productos mas vendidos: " + e.getMessage());
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+    
+    List<ReporteProductoResponse> consultarProductosMasVendidos(
+            LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        List<ReporteProductoResponse> reportes = new ArrayList<>();
+        List<Object[]> resultados = itemPedidoRepository
+            .findTop10ProductosMasVendidosPorFecha(fechaInicio, fechaFin);
         
+        for (Object[] row : resultados) {
+            ReporteProductoResponse reporte = new ReporteProductoResponse();
+            reporte.setProductoId((UUID) row[0]);
+            reporte.setNombreProducto((String) row[1]);
+            reporte.setTotalVendido(((Number) row[2]).longValue());
+            reporte.setIngresosTotales(new BigDecimal(row[3].toString()));
+            reportes.add(reporte);
+        }
         return reportes;
     }
     
@@ -58,25 +73,29 @@ public class ReporteService {
     public List<ReporteClienteGananciasResponse> getTop5ClientesPorGanancias(
             LocalDateTime fechaInicio, LocalDateTime fechaFin) {
         
-        List<ReporteClienteGananciasResponse> reportes = new ArrayList<>();
-        
         try {
-            List<Object[]> resultados = usuarioReporteRepository
-                .findTop5ClientesPorGanancias(fechaInicio, fechaFin);
-            
-            for (Object[] row : resultados) {
-                ReporteClienteGananciasResponse reporte = new ReporteClienteGananciasResponse();
-                reporte.setUsuarioId((UUID) row[0]);
-                reporte.setNombreCompleto((String) row[1]);
-                reporte.setTotalGastado(new BigDecimal(row[2].toString()));
-                reporte.setCantidadPedidos(((Number) row[3]).longValue());
-                reportes.add(reporte);
-            }
+            return consultarClientesPorGanancias(fechaInicio, fechaFin);
         } catch (Exception e) {
             System.err.println("Error al obtener clientes por ganancias: " + e.getMessage());
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+    
+    List<ReporteClienteGananciasResponse> consultarClientesPorGanancias(
+            LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        List<ReporteClienteGananciasResponse> reportes = new ArrayList<>();
+        List<Object[]> resultados = usuarioReporteRepository
+            .findTop5ClientesPorGanancias(fechaInicio, fechaFin);
         
+        for (Object[] row : resultados) {
+            ReporteClienteGananciasResponse reporte = new ReporteClienteGananciasResponse();
+            reporte.setUsuarioId((UUID) row[0]);
+            reporte.setNombreCompleto((String) row[1]);
+            reporte.setTotalGastado(new BigDecimal(row[2].toString()));
+            reporte.setCantidadPedidos(((Number) row[3]).longValue());
+            reportes.add(reporte);
+        }
         return reportes;
     }
     
@@ -84,25 +103,29 @@ public class ReporteService {
     public List<ReporteClienteVentasResponse> getTop5ClientesPorVentas(
             LocalDateTime fechaInicio, LocalDateTime fechaFin) {
         
-        List<ReporteClienteVentasResponse> reportes = new ArrayList<>();
-        
         try {
-            List<Object[]> resultados = usuarioReporteRepository
-                .findTop5ClientesPorVentas(fechaInicio, fechaFin);
-            
-            for (Object[] row : resultados) {
-                ReporteClienteVentasResponse reporte = new ReporteClienteVentasResponse();
-                reporte.setUsuarioId((UUID) row[0]);
-                reporte.setNombreCompleto((String) row[1]);
-                reporte.setTotalProductosVendidos(((Number) row[2]).longValue());
-                reporte.setIngresosGenerados(new BigDecimal(row[3].toString()));
-                reportes.add(reporte);
-            }
+            return consultarClientesPorVentas(fechaInicio, fechaFin);
         } catch (Exception e) {
             System.err.println("Error al obtener clientes por ventas: " + e.getMessage());
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+    
+    List<ReporteClienteVentasResponse> consultarClientesPorVentas(
+            LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        List<ReporteClienteVentasResponse> reportes = new ArrayList<>();
+        List<Object[]> resultados = ventaVendedorDiariaRepository
+            .findTopVendedoresPorUnidades(fechaInicio.toLocalDate(), fechaFin.toLocalDate(), 5);
         
+        for (Object[] row : resultados) {
+            ReporteClienteVentasResponse reporte = new ReporteClienteVentasResponse();
+            reporte.setUsuarioId((UUID) row[0]);
+            reporte.setNombreCompleto((String) row[1]);
+            reporte.setTotalProductosVendidos(((Number) row[2]).longValue());
+            reporte.setIngresosGenerados(new BigDecimal(row[3].toString()));
+            reportes.add(reporte);
+        }
         return reportes;
     }
     
@@ -110,50 +133,57 @@ public class ReporteService {
     public List<ReporteClientePedidosResponse> getTop10ClientesPorPedidos(
             LocalDateTime fechaInicio, LocalDateTime fechaFin) {
         
-        List<ReporteClientePedidosResponse> reportes = new ArrayList<>();
-        
         try {
-            List<Object[]> resultados = usuarioReporteRepository
-                .findTop10ClientesPorPedidos(fechaInicio, fechaFin);
-            
-            for (Object[] row : resultados) {
-                ReporteClientePedidosResponse reporte = new ReporteClientePedidosResponse();
-                reporte.setUsuarioId((UUID) row[0]);
-                reporte.setNombreCompleto((String) row[1]);
-                reporte.setCantidadPedidos(((Number) row[2]).longValue());
-                reporte.setTotalGastado(new BigDecimal(row[3].toString()));
-                reportes.add(reporte);
-            }
+            return consultarClientesPorPedidos(fechaInicio, fechaFin);
         } catch (Exception e) {
             System.err.println("Error al obtener clientes por pedidos: " + e.getMessage());
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+    
+    List<ReporteClientePedidosResponse> consultarClientesPorPedidos(
+            LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        List<ReporteClientePedidosResponse> reportes = new ArrayList<>();
+        List<Object[]> resultados = usuarioReporteRepository
+            .findTop10ClientesPorPedidos(fechaInicio, fechaFin);
         
+        for (Object[] row : resultados) {
+            ReporteClientePedidosResponse reporte = new ReporteClientePedidosResponse();
+            reporte.setUsuarioId((UUID) row[0]);
+            reporte.setNombreCompleto((String) row[1]);
+            reporte.setCantidadPedidos(((Number) row[2]).longValue());
+            reporte.setTotalGastado(new BigDecimal(row[3].toString()));
+            reportes.add(reporte);
+        }
         return reportes;
     }
     
     @Transactional(readOnly = true)
     public List<ReporteClienteProductosResponse> getTop10ClientesPorProductos() {
         
-        List<ReporteClienteProductosResponse> reportes = new ArrayList<>();
-        
         try {
-            List<Object[]> resultados = usuarioReporteRepository
-                .findTop10ClientesPorProductosEnVenta();
-            
-            for (Object[] row : resultados) {
-                ReporteClienteProductosResponse reporte = new ReporteClienteProductosResponse();
-                reporte.setUsuarioId((UUID) row[0]);
-                reporte.setNombreCompleto((String) row[1]);
-                reporte.setCantidadProductos(((Number) row[2]).longValue());
-                reporte.setProductosAprobados(((Number) row[3]).longValue());
-                reportes.add(reporte);
-            }
+            return consultarClientesPorProductos();
         } catch (Exception e) {
             System.err.println("Error al obtener clientes por productos: " + e.getMessage());
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
+    
+    List<ReporteClienteProductosResponse> consultarClientesPorProductos() {
+        List<ReporteClienteProductosResponse> reportes = new ArrayList<>();
+        List<Object[]> resultados = ventaVendedorDiariaRepository
+            .findTopVendedoresPorProductos(10);
         
+        for (Object[] row : resultados) {
+            ReporteClienteProductosResponse reporte = new ReporteClienteProductosResponse();
+            reporte.setUsuarioId((UUID) row[0]);
+            reporte.setNombreCompleto((String) row[1]);
+            reporte.setCantidadProductos(((Number) row[2]).longValue());
+            reporte.setProductosAprobados(((Number) row[3]).longValue());
+            reportes.add(reporte);
+        }
         return reportes;
     }
 
@@ -0,0 +1,301 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.response.TrabajoReporteResponse;
+import com.ecommercegt.backend.models.entidades.TrabajoReporte;
+import com.ecommercegt.backend.models.enums.EstadoTrabajoReporte;
+import com.ecommercegt.backend.models.enums.TipoReporte;
+import com.ecommercegt.backend.repositorios.TrabajoReporteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ejecución asíncrona de reportes
+ *
+ * - Solicitar un reporte devuelve de inmediato el ID del trabajo
+ * - Los trabajos corren en un pool acotado de workers (cola con capacidad fija;
+ *   si se llena la solicitud se rechaza con RejectedExecutionException) con
+ *   statement_timeout en la base de datos
+ * - El resultado se guarda como JSON comprimido con gzip y se descarga por ID
+ * - Una solicitud idéntica (mismo tipo y fechas) a un trabajo en curso devuelve ese trabajo
+ * - Los trabajos terminados se eliminan después de la retención configurada;
+ *   los que quedaron colgados (sin worker) pasan a FALLIDO
+ */
+@Service
+public class ReporteTrabajoService {
+
+    private static final List<EstadoTrabajoReporte> EN_CURSO =
+            List.of(EstadoTrabajoReporte.PENDIENTE, EstadoTrabajoReporte.EJECUTANDO);
+
+    @Autowired
+    private TrabajoReporteRepository trabajoReporteRepository;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${reportes.trabajos.workers:2}")
+    private int cantidadWorkers;
+
+    @Value("${reportes.trabajos.capacidad-cola:20}")
+    private int capacidadCola;
+
+    @Value("${reportes.trabajos.timeout-segundos:120}")
+    private int timeoutSegundos;
+
+    @Value("${reportes.trabajos.retencion-horas:24}")
+    private int retencionHoras;
+
+    @Value("${reportes.trabajos.max-duracion-minutos:60}")
+    private int maxDuracionMinutos;
+
+    /**
+     * Trabajos en curso en este nodo por clave (tipo + parámetros); el futuro se
+     * completa con el ID del trabajo apenas se crea
+     */
+    private final Map<String, CompletableFuture<UUID>> enCurso = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void iniciar() {
+        AtomicInteger numero = new AtomicInteger();
+        workers = new ThreadPoolExecutor(cantidadWorkers, cantidadWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "reporte-worker-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    @PreDestroy
+    public void detener() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Solicitar un reporte
+     * Si ya hay un trabajo idéntico en curso se devuelve ese en lugar de crear otro
+     *
+     * @throws RejectedExecutionException si la cola de trabajos está llena
+     */
+    public TrabajoReporteResponse solicitar(TipoReporte tipo, LocalDate fechaInicio, LocalDate fechaFin) {
+        if (tipo.isRequiereFechas()) {
+            if (fechaInicio == null || fechaFin == null) {
+                throw new RuntimeException("El reporte " + tipo + " requiere fechaInicio y fechaFin");
+            }
+            if (fechaFin.isBefore(fechaInicio)) {
+                throw new RuntimeException("La fecha fin no puede ser anterior a la fecha inicio");
+            }
+        } else {
+            fechaInicio = null;
+            fechaFin = null;
+        }
+        String clave = tipo + ":" + fechaInicio + ":" + fechaFin;
+
+        // Un solo solicitante por clave crea el trabajo; los demás esperan su ID.
+        // Las consultas a la base de datos se hacen fuera del mapa
+        CompletableFuture<UUID> propio = new CompletableFuture<>();
+        CompletableFuture<UUID> existente = enCurso.putIfAbsent(clave, propio);
+        if (existente != null) {
+            return obtenerEstado(esperar(existente));
+        }
+        UUID id;
+        try {
+            // Otro nodo puede estar ejecutando el mismo reporte
+            Optional<TrabajoReporte> enOtroNodo =
+                    trabajoReporteRepository.findFirstByClaveAndEstadoInOrderByFechaCreacionDesc(clave, EN_CURSO);
+            if (enOtroNodo.isPresent()) {
+                id = enOtroNodo.get().getId();
+                enCurso.remove(clave, propio);
+            } else {
+                TrabajoReporte nuevo =
+                        trabajoReporteRepository.save(new TrabajoReporte(tipo, fechaInicio, fechaFin, clave));
+                try {
+                    workers.execute(() -> ejecutar(nuevo.getId(), clave, propio));
+                } catch (RejectedExecutionException e) {
+                    trabajoReporteRepository.delete(nuevo);
+                    throw new RejectedExecutionException(
+                            "Hay demasiados reportes en cola, intenta de nuevo en unos minutos");
+                }
+                id = nuevo.getId();
+            }
+        } catch (RuntimeException e) {
+            enCurso.remove(clave, propio);
+            propio.completeExceptionally(e);
+            throw e;
+        }
+        propio.complete(id);
+        return obtenerEstado(id);
+    }
+
+    /**
+     * Obtener un trabajo por ID (con el resultado)
+     */
+    public TrabajoReporte obtener(UUID id) {
+        return trabajoReporteRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Trabajo de reporte no encontrado con ID: " + id));
+    }
+
+    /**
+     * Obtener el estado de un trabajo por ID (sin cargar el resultado)
+     */
+    public TrabajoReporteResponse obtenerEstado(UUID id) {
+        return trabajoReporteRepository.findEstadoById(id)
+                .orElseThrow(() -> new RuntimeException("Trabajo de reporte no encontrado con ID: " + id));
+    }
+
+    /**
+     * Descomprimir el resultado de un trabajo (JSON)
+     */
+    public byte[] descomprimir(byte[] resultado) {
+        try (InputStream entrada = new GZIPInputStream(new ByteArrayInputStream(resultado))) {
+            return entrada.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo leer el resultado del reporte: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mantenimiento de los trabajos
+     * - Marca como fallidos los que siguen en curso después de la duración máxima
+     *   (su worker ya no existe, por ejemplo tras un reinicio)
+     * - Elimina los terminados más antiguos que la retención
+     */
+    @Scheduled(fixedDelayString = "${reportes.trabajos.limpieza-ms:600000}")
+    public void mantenimiento() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                LocalDateTime ahora = LocalDateTime.now();
+                trabajoReporteRepository.marcarInterrumpidos(EN_CURSO,
+                        ahora.minusMinutes(maxDuracionMinutos),
+                        "Interrumpido: superó la duración máxima sin terminar", ahora);
+                trabajoReporteRepository.eliminarTerminadosAntesDe(ahora.minusHours(retencionHoras));
+            });
+        } catch (Exception e) {
+            System.err.println("Error en mantenimiento de trabajos de reporte: " + e.getMessage());
+        }
+    }
+
+    // ==================== EJECUCIÓN ====================
+
+    private void ejecutar(UUID id, String clave, CompletableFuture<UUID> registro) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            TrabajoReporte trabajo = tx.execute(status -> {
+                TrabajoReporte actual = obtener(id);
+                actual.setEstado(EstadoTrabajoReporte.EJECUTANDO);
+                actual.setFechaInicio(LocalDateTime.now());
+                return trabajoReporteRepository.save(actual);
+            });
+
+            TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+            lectura.setReadOnly(true);
+            lectura.setTimeout(timeoutSegundos);
+            List<?> filas = lectura.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL statement_timeout = " + (timeoutSegundos * 1000L));
+                return consultar(trabajo);
+            });
+
+            byte[] resultado = comprimir(objectMapper.writeValueAsBytes(filas));
+            tx.executeWithoutResult(status -> {
+                TrabajoReporte actual = obtener(id);
+                actual.setEstado(EstadoTrabajoReporte.COMPLETADO);
+                actual.setResultado(resultado);
+                actual.setFilas(filas != null ? filas.size() : 0);
+                actual.setFechaFin(LocalDateTime.now());
+                trabajoReporteRepository.save(actual);
+            });
+        } catch (Exception e) {
+            System.err.println("Error al ejecutar trabajo de reporte " + id + ": " + e.getMessage());
+            try {
+                tx.executeWithoutResult(status -> {
+                    TrabajoReporte actual = obtener(id);
+                    actual.setEstado(EstadoTrabajoReporte.FALLIDO);
+                    String mensaje = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                    actual.setError(mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje);
+                    actual.setFechaFin(LocalDateTime.now());
+                    trabajoReporteRepository.save(actual);
+                });
+            } catch (Exception ex) {
+                System.err.println("Error al marcar trabajo de reporte como fallido: " + ex.getMessage());
+            }
+        } finally {
+            enCurso.remove(clave, registro);
+        }
+    }
+
+    /**
+     * ID del trabajo que crea otro solicitante de la misma clave (o su mismo error)
+     */
+    private static UUID esperar(CompletableFuture<UUID> registro) {
+        try {
+            return registro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private List<?> consultar(TrabajoReporte trabajo) {
+        LocalDateTime inicio = trabajo.getFechaInicioReporte() != null
+                ? trabajo.getFechaInicioReporte().atStartOfDay() : null;
+        LocalDateTime fin = trabajo.getFechaFinReporte() != null
+                ? trabajo.getFechaFinReporte().atTime(LocalTime.MAX) : null;
+
+        return switch (trabajo.getTipo()) {
+            case PRODUCTOS_MAS_VENDIDOS -> reporteService.consultarProductosMasVendidos(inicio, fin);
+            case CLIENTES_POR_GANANCIAS -> reporteService.consultarClientesPorGanancias(inicio, fin);
+            case CLIENTES_POR_VENTAS -> reporteService.consultarClientesPorVentas(inicio, fin);
+            case CLIENTES_POR_PEDIDOS -> reporteService.consultarClientesPorPedidos(inicio, fin);
+            case CLIENTES_POR_PRODUCTOS -> reporteService.consultarClientesPorProductos();
+        };
+    }
+
+    private static byte[] comprimir(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(datos.length / 4, 64));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        }
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,274 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.repositorios.ReviewRepository;
+import com.ecommercegt.backend.util.MinHashLsh;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servicio de detección de reviews casi duplicadas
+ *
+ * Mantiene en memoria un índice MinHash/LSH sobre título + comentario:
+ * - Se actualiza de forma incremental al crear, editar o eliminar reviews
+ *   (cuando la transacción confirma)
+ * - Se reconstruye en paralelo desde la base de datos al iniciar la aplicación
+ *   o cuando un administrador lo solicita
+ * - La búsqueda de similares solo revisa los buckets LSH de la review,
+ *   sin comparar contra todas las demás
+ */
+@Service
+public class ReviewDuplicadosService {
+
+    /**
+     * Reviews leídas por consulta durante la reconstrucción
+     */
+    private static final int TAMANO_LOTE_RECONSTRUCCION = 1000;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Value("${reviews.duplicados.umbral:0.8}")
+    private double umbral;
+
+    @Value("${reviews.duplicados.bandas:16}")
+    private int bandas;
+
+    @Value("${reviews.duplicados.filas-por-banda:8}")
+    private int filasPorBanda;
+
+    private volatile MinHashLsh indice;
+
+    /**
+     * Último cambio de cada review mientras corre una reconstrucción: su firma,
+     * o null si se eliminó (para aplicarlos sobre el índice nuevo al cambiar de índice)
+     * Protegido por el monitor de cambiosDuranteReconstruccion, igual que el cambio
+     * de índice: un cambio incremental va al índice anterior antes de la réplica o
+     * al nuevo después, nunca se pierde entre ambos
+     */
+    private final Map<Long, int[]> cambiosDuranteReconstruccion = new HashMap<>();
+
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean(false);
+
+    /**
+     * Reconstruir el índice en segundo plano al iniciar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        Thread.ofVirtual()
+                .name("reviews-duplicados-reconstruccion")
+                .start(() -> {
+                    try {
+                        reconstruirIndice();
+                    } catch (Exception e) {
+                        System.err.println("Error al reconstruir índice de reviews duplicadas: " + e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Registrar (o actualizar) una review en el índice
+     * La búsqueda es inmediata; el índice cambia cuando la transacción confirma
+     * (una review revertida no queda indexada). Un texto sin contenido
+     * comparable (vacío o solo signos) no se indexa ni tiene similares.
+     *
+     * @return IDs de reviews casi duplicadas con su similitud estimada
+     */
+    public Map<Long, Double> registrarReview(Long reviewId, String titulo, String comentario) {
+        int[] firma = obtenerIndice().calcularFirma(textoDeReview(titulo, comentario));
+        if (firma == null) {
+            quitarReview(reviewId);
+            return new HashMap<>();
+        }
+        Map<Long, Double> similares = obtenerIndice().buscarSimilares(firma, umbral, reviewId);
+        despuesDeConfirmar(() -> {
+            synchronized (cambiosDuranteReconstruccion) {
+                obtenerIndice().agregar(reviewId, firma);
+                if (reconstruyendo.get()) {
+                    cambiosDuranteReconstruccion.put(reviewId, firma);
+                }
+            }
+        });
+        return similares;
+    }
+
+    /**
+     * Quitar una review del índice (al eliminarla), cuando la transacción confirma
+     */
+    public void quitarReview(Long reviewId) {
+        despuesDeConfirmar(() -> {
+            synchronized (cambiosDuranteReconstruccion) {
+                obtenerIndice().quitar(reviewId);
+                if (reconstruyendo.get()) {
+                    cambiosDuranteReconstruccion.put(reviewId, null);
+                }
+            }
+        });
+    }
+
+    /**
+     * Agrupar las reviews indexadas en clusters de casi duplicados
+     * Dos reviews quedan en el mismo grupo si están conectadas por
+     * una cadena de pares con similitud mayor o igual al umbral
+     *
+     * @param idsBase si no es null, solo se devuelven grupos que contengan alguno de estos IDs
+     * @return grupos de tamaño >= 2, de mayor a menor
+     */
+    public List<Set<Long>> obtenerGrupos(Set<Long> idsBase) {
+        MinHashLsh actual = obtenerIndice();
+        Map<Long, Long> padres = new HashMap<>();
+
+        Set<Long> origen = idsBase != null ? idsBase : actual.ids();
+        for (Long id : origen) {
+            int[] firma = actual.obtenerFirma(id);
+            if (firma == null) {
+                continue;
+            }
+            for (Long similar : actual.buscarSimilares(firma, umbral, id).keySet()) {
+                unir(padres, id, similar);
+            }
+        }
+
+        Map<Long, Set<Long>> grupos = new HashMap<>();
+        for (Long id : new ArrayList<>(padres.keySet())) {
+            grupos.computeIfAbsent(raiz(padres, id), k -> new HashSet<>()).add(id);
+        }
+
+        List<Set<Long>> resultado = new ArrayList<>();
+        for (Set<Long> grupo : grupos.values()) {
+            if (grupo.size() >= 2) {
+                resultado.add(grupo);
+            }
+        }
+        resultado.sort(Comparator.comparingInt(Set<Long>::size).reversed());
+        return resultado;
+    }
+
+    /**
+     * Reconstruir el índice completo desde la base de datos
+     * Lee las reviews por lotes (paginación por ID) y calcula las firmas en paralelo.
+     * Las reviews registradas mientras tanto se conservan al cambiar de índice.
+     *
+     * @return cantidad de reviews indexadas
+     */
+    public int reconstruirIndice() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una reconstrucción del índice en curso");
+        }
+        try {
+            synchronized (cambiosDuranteReconstruccion) {
+                cambiosDuranteReconstruccion.clear();
+            }
+            MinHashLsh nuevo = new MinHashLsh(bandas, filasPorBanda);
+
+            Long ultimoId = 0L;
+            while (true) {
+                List<Object[]> lote = reviewRepository.findTextosDesdeId(
+                        ultimoId, PageRequest.of(0, TAMANO_LOTE_RECONSTRUCCION));
+                if (lote.isEmpty()) {
+                    break;
+                }
+                lote.parallelStream().forEach(fila -> {
+                    int[] firma = nuevo.calcularFirma(textoDeReview((String) fila[1], (String) fila[2]));
+                    if (firma != null) {
+                        nuevo.agregar((Long) fila[0], firma);
+                    }
+                });
+                ultimoId = (Long) lote.get(lote.size() - 1)[0];
+            }
+
+            // Aplicar los cambios incrementales ocurridos durante la reconstrucción
+            // y cambiar de índice sin que entre otro cambio en medio
+            synchronized (cambiosDuranteReconstruccion) {
+                cambiosDuranteReconstruccion.forEach((id, firma) -> {
+                    if (firma != null) {
+                        nuevo.agregar(id, firma);
+                    } else {
+                        nuevo.quitar(id);
+                    }
+                });
+                cambiosDuranteReconstruccion.clear();
+                indice = nuevo;
+            }
+            return nuevo.tamano();
+        } finally {
+            reconstruyendo.set(false);
+        }
+    }
+
+    /**
+     * Cantidad de reviews indexadas
+     */
+    public int tamanoIndice() {
+        return obtenerIndice().tamano();
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    /**
+     * Ejecutar cuando la transacción actual confirma (o de inmediato si no hay una)
+     */
+    private static void despuesDeConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private MinHashLsh obtenerIndice() {
+        MinHashLsh actual = indice;
+        if (actual == null) {
+            synchronized (this) {
+                if (indice == null) {
+                    indice = new MinHashLsh(bandas, filasPorBanda);
+                }
+                actual = indice;
+            }
+        }
+        return actual;
+    }
+
+    private static String textoDeReview(String titulo, String comentario) {
+        return (titulo != null ? titulo : "") + " " + (comentario != null ? comentario : "");
+    }
+
+    private static Long raiz(Map<Long, Long> padres, Long id) {
+        Long actual = id;
+        while (!padres.get(actual).equals(actual)) {
+            Long abuelo = padres.get(padres.get(actual));
+            padres.put(actual, abuelo);
+            actual = abuelo;
+        }
+        return actual;
+    }
+
+    private static void unir(Map<Long, Long> padres, Long a, Long b) {
+        padres.putIfAbsent(a, a);
+        padres.putIfAbsent(b, b);
+        Long raizA = raiz(padres, a);
+        Long raizB = raiz(padres, b);
+        if (!raizA.equals(raizB)) {
+            padres.put(raizA, raizB);
+        }
+    }
+}
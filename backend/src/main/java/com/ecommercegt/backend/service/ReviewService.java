@@ -2,24 +2,30 @@ package com.ecommercegt.backend.service;
 
 import com.ecommercegt.backend.dto.request.ActualizarReviewRequest;
 import com.ecommercegt.backend.dto.request.CrearReviewRequest;
+import com.ecommercegt.backend.dto.request.ModerarReviewsLoteRequest;
 import com.ecommercegt.backend.dto.request.VotarReviewRequest;
 import com.ecommercegt.backend.dto.response.EstadisticasReviewsResponse;
+import com.ecommercegt.backend.dto.response.GrupoReviewsDuplicadasResponse;
+import com.ecommercegt.backend.dto.response.ModeracionLoteResponse;
 import com.ecommercegt.backend.dto.response.ReviewResponse;
 import com.ecommercegt.backend.dto.response.VotoResponse;
 import com.ecommercegt.backend.models.entidades.*;
-import com.ecommercegt.backend.models.enums.EstadoPedido;
 import com.ecommercegt.backend.repositorios.*;
+import com.ecommercegt.backend.security.service.UsuarioActual;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -41,10 +47,7 @@ public class ReviewService {
     private ProductoRepository productoRepository;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
-
-    @Autowired
-    private PedidoRepository pedidoRepository;
+    private UsuarioActual usuarioActual;
 
     @Autowired
     private ItemPedidoRepository itemPedidoRepository;
@@ -52,6 +55,9 @@ public class ReviewService {
     @Autowired
     private NotificacionService notificacionService;  // ← NUEVO
 
+    @Autowired
+    private ReviewDuplicadosService reviewDuplicadosService;
+
     /**
      * Crear una nueva review
      * 
@@ -63,7 +69,7 @@ public class ReviewService {
      */
     @Transactional
     public ReviewResponse crearReview(CrearReviewRequest request) {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        Usuario usuario = usuarioActual.obtenerReferencia();
 
         // 1. Validar que el producto existe
         Producto producto = productoRepository.findById(request.getProductoId())
@@ -93,6 +99,9 @@ public class ReviewService {
         // 5. Guardar review
         Review reviewGuardada = reviewRepository.save(review);
 
+        // 5.1 Detectar texto casi duplicado (índice MinHash/LSH)
+        marcarSiEsDuplicada(reviewGuardada);
+
         // 6. Recalcular promedio del producto (solo si está aprobada, pero lo hacemos preventivo)
         recalcularPromedioProducto(request.getProductoId());
 
@@ -107,7 +116,7 @@ public class ReviewService {
      */
     @Transactional
     public ReviewResponse actualizarReview(Long reviewId, ActualizarReviewRequest request) {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        Usuario usuario = usuarioActual.obtenerReferencia();
 
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review no encontrada con ID: " + reviewId));
@@ -137,6 +146,7 @@ public class ReviewService {
         review.setModerador(null);
 
         Review reviewActualizada = reviewRepository.save(review);
+        marcarSiEsDuplicada(reviewActualizada);
 
         // Recalcular promedio
         recalcularPromedioProducto(review.getProducto().getId());
@@ -150,7 +160,7 @@ public class ReviewService {
      */
     @Transactional
     public void eliminarReview(Long reviewId) {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        Usuario usuario = usuarioActual.obtener();
 
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review no encontrada con ID: " + reviewId));
@@ -171,6 +181,7 @@ public class ReviewService {
 
         // Eliminar review
         reviewRepository.delete(review);
+        reviewDuplicadosService.quitarReview(reviewId);
 
         // Recalcular promedio
         recalcularPromedioProducto(productoId);
@@ -184,7 +195,7 @@ public class ReviewService {
      */
     @Transactional
     public VotoResponse votarReview(Long reviewId, VotarReviewRequest request) {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        Usuario usuario = usuarioActual.obtenerReferencia();
 
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review no encontrada con ID: " + reviewId));
@@ -231,7 +242,7 @@ public class ReviewService {
      */
     @Transactional
     public ReviewResponse aprobarReview(Long reviewId) {
-        Usuario moderador = obtenerUsuarioAutenticado();
+        Usuario moderador = usuarioActual.obtenerReferencia();
 
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review no encontrada con ID: " + reviewId));
@@ -262,7 +273,7 @@ public class ReviewService {
      */
     @Transactional
     public ReviewResponse rechazarReview(Long reviewId) {
-        Usuario moderador = obtenerUsuarioAutenticado();
+        Usuario moderador = usuarioActual.obtenerReferencia();
 
         Review review = reviewRepository.findById(reviewId)
                 .orElseThrow(() -> new RuntimeException("Review no encontrada con ID: " + reviewId));
@@ -288,13 +299,71 @@ public class ReviewService {
         return convertirAResponse(reviewRechazada, moderador.getId());
     }
 
+    /**
+     * Aprobar varias reviews en lote (MODERADOR/ADMIN)
+     * Una sola sentencia UPDATE, un recálculo por producto afectado
+     * y las notificaciones se crean juntas en un solo lote
+     */
+    @Transactional
+    public ModeracionLoteResponse aprobarReviewsEnLote(ModerarReviewsLoteRequest request) {
+        Usuario moderador = usuarioActual.obtenerReferencia();
+
+        List<Object[]> datos = reviewRepository.findDatosModeracionByIdIn(request.getReviewIds());
+        if (datos.isEmpty()) {
+            throw new RuntimeException("No se encontraron reviews con los IDs indicados");
+        }
+
+        int procesadas = reviewRepository.aprobarEnLote(
+                idsDeReviews(datos), moderador, LocalDateTime.now());
+        int productos = recalcularPromedioProductos(datos);
+
+        // ========== NOTIFICAR APROBACIÓN EN LOTE ==========
+        try {
+            notificacionService.notificarReviewsModeradas(datos, true, null);
+        } catch (Exception e) {
+            System.err.println("Error al notificar aprobación de reviews en lote: " + e.getMessage());
+        }
+
+        return new ModeracionLoteResponse("Reviews aprobadas exitosamente", procesadas, productos);
+    }
+
+    /**
+     * Rechazar varias reviews en lote (MODERADOR/ADMIN)
+     * Una sola sentencia UPDATE, un recálculo por producto afectado
+     * y las notificaciones se crean juntas en un solo lote
+     */
+    @Transactional
+    public ModeracionLoteResponse rechazarReviewsEnLote(ModerarReviewsLoteRequest request) {
+        usuarioActual.obtenerId();
+
+        List<Object[]> datos = reviewRepository.findDatosModeracionByIdIn(request.getReviewIds());
+        if (datos.isEmpty()) {
+            throw new RuntimeException("No se encontraron reviews con los IDs indicados");
+        }
+
+        int procesadas = reviewRepository.rechazarEnLote(idsDeReviews(datos), LocalDateTime.now());
+        int productos = recalcularPromedioProductos(datos);
+
+        String motivo = request.getMotivo() != null && !request.getMotivo().isBlank()
+                ? request.getMotivo()
+                : "No cumple con las políticas de reseñas de la tienda";
+
+        // ========== NOTIFICAR RECHAZO EN LOTE ==========
+        try {
+            notificacionService.notificarReviewsModeradas(datos, false, motivo);
+        } catch (Exception e) {
+            System.err.println("Error al notificar rechazo de reviews en lote: " + e.getMessage());
+        }
+
+        return new ModeracionLoteResponse("Reviews rechazadas exitosamente", procesadas, productos);
+    }
+
     /**
      * Obtener reviews de un producto (solo aprobadas)
      */
     @Transactional(readOnly = true)
     public Page<ReviewResponse> obtenerReviewsProducto(UUID productoId, Pageable pageable) {
-        Usuario usuarioActual = obtenerUsuarioAutenticadoOpcional();
-        UUID usuarioId = usuarioActual != null ? usuarioActual.getId() : null;
+        UUID usuarioId = usuarioActual.obtenerIdOpcional();
 
         Page<Review> reviews = reviewRepository
                 .findByProductoIdAndAprobadoTrueOrderByVotosUtiles(productoId, pageable);
@@ -307,7 +376,7 @@ public class ReviewService {
      */
     @Transactional(readOnly = true)
     public Page<ReviewResponse> obtenerMisReviews(Pageable pageable) {
-        Usuario usuario = obtenerUsuarioAutenticado();
+        Usuario usuario = usuarioActual.obtenerReferencia();
 
         Page<Review> reviews = reviewRepository
                 .findByUsuarioIdOrderByFechaCreacionDesc(usuario.getId(), pageable);
@@ -320,7 +389,7 @@ public class ReviewService {
      */
     @Transactional(readOnly = true)
     public Page<ReviewResponse> obtenerReviewsPendientes(Pageable pageable) {
-        Usuario moderador = obtenerUsuarioAutenticado();
+        Usuario moderador = usuarioActual.obtenerReferencia();
 
         Page<Review> reviews = reviewRepository
                 .findByAprobadoFalseOrderByFechaCreacionDesc(pageable);
@@ -328,6 +397,40 @@ public class ReviewService {
         return reviews.map(review -> convertirAResponse(review, moderador.getId()));
     }
 
+    /**
+     * Obtener grupos de reviews casi duplicadas (MODERADOR/ADMIN)
+     * Solo se devuelven grupos que contengan al menos una review pendiente
+     */
+    @Transactional(readOnly = true)
+    public List<GrupoReviewsDuplicadasResponse> obtenerGruposDuplicados(int limite) {
+        Usuario moderador = usuarioActual.obtenerReferencia();
+
+        Set<Long> pendientes = new HashSet<>(reviewRepository.findIdsPendientes());
+        List<Set<Long>> grupos = reviewDuplicadosService.obtenerGrupos(pendientes);
+
+        return grupos.stream()
+                .limit(limite)
+                .map(ids -> {
+                    List<ReviewResponse> reviews = reviewRepository.findAllById(ids).stream()
+                            .sorted(Comparator.comparing(Review::getFechaCreacion,
+                                    Comparator.nullsLast(Comparator.reverseOrder())))
+                            .map(review -> convertirAResponse(review, moderador.getId()))
+                            .collect(Collectors.toList());
+                    return new GrupoReviewsDuplicadasResponse(reviews.size(), reviews);
+                })
+                .filter(grupo -> grupo.getCantidad() >= 2)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reconstruir el índice de duplicados desde la base de datos (ADMIN)
+     *
+     * @return cantidad de reviews indexadas
+     */
+    public int reconstruirIndiceDuplicados() {
+        return reviewDuplicadosService.reconstruirIndice();
+    }
+
     /**
      * Obtener estadísticas de reviews de un producto
      */
@@ -370,15 +473,10 @@ public class ReviewService {
 
     /**
      * Verificar si el usuario compró el producto
+     * Consulta EXISTS sobre items_pedido + pedidos (una sola búsqueda por índice)
      */
     private boolean usuarioComproProducto(UUID usuarioId, UUID productoId) {
-        // Buscar en pedidos ENTREGADOS que contengan el producto
-        List<Pedido> pedidosEntregados = pedidoRepository
-                .findByUsuarioIdAndEstado(usuarioId, EstadoPedido.ENTREGADO);
-
-        return pedidosEntregados.stream()
-                .flatMap(pedido -> pedido.getItems().stream())
-                .anyMatch(item -> item.getProductoId().equals(productoId));
+        return itemPedidoRepository.existsCompraEntregada(usuarioId, productoId);
     }
 
     /**
@@ -398,31 +496,38 @@ public class ReviewService {
     }
 
     /**
-     * Obtener usuario autenticado
+     * Registrar la review en el índice de duplicados y marcarla si se parece a otra
      */
-    private Usuario obtenerUsuarioAutenticado() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String nombreUsuario = authentication.getName();
-
-        return usuarioRepository.findByNombreUsuario(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado: " + nombreUsuario));
+    private void marcarSiEsDuplicada(Review review) {
+        Map<Long, Double> similares = reviewDuplicadosService.registrarReview(
+                review.getId(), review.getTitulo(), review.getComentario());
+        boolean duplicada = !similares.isEmpty();
+        if (!Boolean.valueOf(duplicada).equals(review.getPosibleDuplicado())) {
+            review.setPosibleDuplicado(duplicada);
+            reviewRepository.save(review);
+        }
     }
 
     /**
-     * Obtener usuario autenticado opcional (para endpoints públicos)
+     * Recalcular una sola vez el promedio de cada producto afectado por un lote
+     * Filas: review_id, usuario_id, producto_id, producto_nombre
      */
-    private Usuario obtenerUsuarioAutenticadoOpcional() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated()
-                    && !authentication.getName().equals("anonymousUser")) {
-                String nombreUsuario = authentication.getName();
-                return usuarioRepository.findByNombreUsuario(nombreUsuario).orElse(null);
-            }
-        } catch (Exception e) {
-            // Usuario no autenticado
+    private int recalcularPromedioProductos(List<Object[]> datos) {
+        Set<UUID> productoIds = new LinkedHashSet<>();
+        for (Object[] fila : datos) {
+            productoIds.add((UUID) fila[2]);
         }
-        return null;
+        productoIds.forEach(this::recalcularPromedioProducto);
+        return productoIds.size();
+    }
+
+    /**
+     * Extraer los IDs de review de las filas de un lote
+     */
+    private List<Long> idsDeReviews(List<Object[]> datos) {
+        return datos.stream()
+                .map(fila -> (Long) fila[0])
+                .collect(Collectors.toList());
     }
 
     /**
@@ -449,6 +554,7 @@ public class ReviewService {
 
         response.setVerificado(review.getVerificado());
         response.setAprobado(review.getAprobado());
+        response.setPosibleDuplicado(Boolean.TRUE.equals(review.getPosibleDuplicado()));
         response.setFechaCreacion(review.getFechaCreacion());
         response.setFechaActualizacion(review.getFechaActualizacion());
         response.setFechaAprobacion(review.getFechaAprobacion());
@@ -0,0 +1,120 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.ItemPedido;
+import com.ecommercegt.backend.models.entidades.Pedido;
+import com.ecommercegt.backend.models.enums.EstadoPedido;
+import com.ecommercegt.backend.repositorios.PedidoRepository;
+import com.ecommercegt.backend.repositorios.VentaDiariaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Servicio del resumen diario de ventas (tabla ventas_diarias)
+ *
+ * - Cada pedido se cuenta en la fila (día del pedido, estado actual)
+ * - Crear un pedido suma en su fila; un cambio de estado o cancelación lo
+ *   resta de la fila del estado anterior y lo suma en la del nuevo
+ * - La reconstrucción (backfill) recalcula todo desde pedidos; se ejecuta
+ *   al iniciar si el resumen está vacío y se puede programar o pedir a mano
+ */
+@Service
+public class VentasDiariasService {
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Registrar un pedido nuevo (llamar en la misma transacción que lo guarda)
+     */
+    public void registrarPedidoCreado(Pedido pedido) {
+        sumar(pedido, pedido.getEstado(), 1);
+    }
+
+    /**
+     * Mover un pedido de la fila de su estado anterior a la del estado actual
+     * El pedido debe haberse leído con PedidoRepository.findByIdParaActualizar: sin
+     * el bloqueo, dos cambios simultáneos leen el mismo estado anterior y mueven
+     * el pedido dos veces
+     */
+    public void registrarCambioEstado(Pedido pedido, EstadoPedido estadoAnterior) {
+        if (estadoAnterior == pedido.getEstado()) {
+            return;
+        }
+        sumar(pedido, estadoAnterior, -1);
+        sumar(pedido, pedido.getEstado(), 1);
+    }
+
+    /**
+     * Reconstruir el resumen completo desde la tabla de pedidos
+     * Bloquea el resumen mientras tanto: los pedidos que se crean o cambian
+     * en paralelo esperan y se aplican sobre el resultado nuevo.
+     *
+     * @return cantidad de filas día × estado generadas
+     */
+    @Transactional
+    public int reconstruir() {
+        jdbcTemplate.execute("LOCK TABLE ventas_diarias IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM ventas_diarias");
+        return jdbcTemplate.update(
+                "INSERT INTO ventas_diarias (fecha, estado, pedidos, monto_total, items) " +
+                "SELECT CAST(p.fecha_pedido AS DATE), p.estado, COUNT(*), COALESCE(SUM(p.monto_total), 0), " +
+                "       COALESCE(SUM(i.unidades), 0) " +
+                "FROM pedidos p " +
+                "LEFT JOIN (SELECT pedido_id, SUM(cantidad) AS unidades FROM items_pedido GROUP BY pedido_id) i " +
+                "       ON i.pedido_id = p.id " +
+                "GROUP BY CAST(p.fecha_pedido AS DATE), p.estado");
+    }
+
+    /**
+     * Backfill al iniciar: si el resumen está vacío pero ya hay pedidos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInicial() {
+        try {
+            if (ventaDiariaRepository.count() == 0 && pedidoRepository.count() > 0) {
+                reconstruir();
+            }
+        } catch (Exception e) {
+            System.err.println("Error en backfill de ventas diarias: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstrucción programada (deshabilitada por defecto, cron "-")
+     */
+    @Scheduled(cron = "${ventas.resumen.reconstruccion-cron:-}")
+    public void reconstruccionProgramada() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            System.err.println("Error al reconstruir ventas diarias: " + e.getMessage());
+        }
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private void sumar(Pedido pedido, EstadoPedido estado, int signo) {
+        LocalDate fecha = pedido.getFechaPedido() != null ? pedido.getFechaPedido().toLocalDate() : LocalDate.now();
+        BigDecimal monto = pedido.getMontoTotal() != null ? pedido.getMontoTotal() : BigDecimal.ZERO;
+        long unidades = 0;
+        for (ItemPedido item : pedido.getItems()) {
+            unidades += item.getCantidad() != null ? item.getCantidad() : 0;
+        }
+        ventaDiariaRepository.sumar(fecha, estado.name(), signo,
+                signo < 0 ? monto.negate() : monto, signo * unidades);
+    }
+}
@@ -0,0 +1,245 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.response.AnaliticaVendedorResponse;
+import com.ecommercegt.backend.models.entidades.Pedido;
+import com.ecommercegt.backend.models.entidades.Producto;
+import com.ecommercegt.backend.models.entidades.Usuario;
+import com.ecommercegt.backend.models.enums.EstadoPedido;
+import com.ecommercegt.backend.models.enums.EstadoProducto;
+import com.ecommercegt.backend.repositorios.ProductoRepository;
+import com.ecommercegt.backend.repositorios.UsuarioRepository;
+import com.ecommercegt.backend.repositorios.VentaVendedorDiariaRepository;
+import com.ecommercegt.backend.security.service.UsuarioActual;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Servicio del cubo vendedor × día (tabla ventas_vendedor_diarias)
+ *
+ * - Pedidos: cuando un pedido pasa a ENTREGADO se suman sus items a la fila de
+ *   cada vendedor en el día del pedido (y se restan si deja de estar ENTREGADO)
+ * - Productos: ProductoEventosListener registra altas, bajas y cambios de
+ *   estado en la fila del vendedor del día de creación del producto
+ * - La reconstrucción recalcula todo desde pedidos y productos; se ejecuta al
+ *   iniciar si el cubo está vacío y se puede programar o pedir a mano
+ */
+@Service
+public class VentasVendedorService {
+
+    private static final String SQL_SUMAR_PEDIDO =
+            "INSERT INTO ventas_vendedor_diarias " +
+            "(vendedor_id, fecha, unidades, ingresos, pedidos, productos_publicados, productos_aprobados) " +
+            "SELECT COALESCE(ip.vendedor_id, prod.vendedor_id), CAST(p.fecha_pedido AS DATE), " +
+            "       ? * SUM(ip.cantidad), ? * SUM(ip.subtotal), ?, 0, 0 " +
+            "FROM items_pedido ip " +
+            "INNER JOIN pedidos p ON p.id = ip.pedido_id " +
+            "LEFT JOIN productos prod ON prod.id = ip.producto_id " +
+            "WHERE ip.pedido_id = ? AND COALESCE(ip.vendedor_id, prod.vendedor_id) IS NOT NULL " +
+            "GROUP BY COALESCE(ip.vendedor_id, prod.vendedor_id), CAST(p.fecha_pedido AS DATE) " +
+            "ON CONFLICT (vendedor_id, fecha) DO UPDATE SET " +
+            "unidades = ventas_vendedor_diarias.unidades + EXCLUDED.unidades, " +
+            "ingresos = ventas_vendedor_diarias.ingresos + EXCLUDED.ingresos, " +
+            "pedidos = ventas_vendedor_diarias.pedidos + EXCLUDED.pedidos";
+
+    private static final String SQL_SUMAR_PRODUCTOS =
+            "INSERT INTO ventas_vendedor_diarias " +
+            "(vendedor_id, fecha, unidades, ingresos, pedidos, productos_publicados, productos_aprobados) " +
+            "VALUES (?, ?, 0, 0, 0, ?, ?) " +
+            "ON CONFLICT (vendedor_id, fecha) DO UPDATE SET " +
+            "productos_publicados = ventas_vendedor_diarias.productos_publicados + EXCLUDED.productos_publicados, " +
+            "productos_aprobados = ventas_vendedor_diarias.productos_aprobados + EXCLUDED.productos_aprobados";
+
+    @Autowired
+    private VentaVendedorDiariaRepository ventaVendedorDiariaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private UsuarioActual usuarioActual;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ==================== EVENTOS ====================
+
+    /**
+     * Registrar un cambio de estado de pedido (solo importa entrar o salir de ENTREGADO)
+     * Igual que en VentasDiariasService, el pedido debe haberse leído con
+     * PedidoRepository.findByIdParaActualizar para que un doble "entregado" no
+     * sume el pedido dos veces
+     */
+    public void registrarCambioEstado(Pedido pedido, EstadoPedido estadoAnterior) {
+        boolean antes = estadoAnterior == EstadoPedido.ENTREGADO;
+        boolean ahora = pedido.getEstado() == EstadoPedido.ENTREGADO;
+        if (antes == ahora) {
+            return;
+        }
+        int signo = ahora ? 1 : -1;
+        jdbcTemplate.update(SQL_SUMAR_PEDIDO, signo, signo, signo, pedido.getId());
+    }
+
+    /**
+     * Registrar un cambio en los productos de un vendedor
+     * (ProductoEventosListener; se ejecuta durante el flush, por eso usa JDBC directo)
+     *
+     * @param estadoAnterior estado guardado antes del cambio (null si el producto es nuevo)
+     * @param estadoNuevo    estado después del cambio (null si el producto se eliminó)
+     */
+    public void registrarCambioProducto(Producto producto, EstadoProducto estadoAnterior, EstadoProducto estadoNuevo) {
+        int publicados = (estadoNuevo != null ? 1 : 0) - (estadoAnterior != null ? 1 : 0);
+        int aprobados = (estadoNuevo == EstadoProducto.APROBADO ? 1 : 0)
+                - (estadoAnterior == EstadoProducto.APROBADO ? 1 : 0);
+        if ((publicados == 0 && aprobados == 0) || producto.getVendedor() == null) {
+            return;
+        }
+        LocalDate fecha = producto.getFechaCreacion() != null
+                ? producto.getFechaCreacion().toLocalDate()
+                : LocalDate.now();
+        jdbcTemplate.update(SQL_SUMAR_PRODUCTOS, producto.getVendedor().getId(), fecha, publicados, aprobados);
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Analítica de un vendedor en el período, sumando filas del cubo
+     */
+    @Transactional(readOnly = true)
+    public AnaliticaVendedorResponse obtenerAnalitica(UUID vendedorId, LocalDate fechaInicio, LocalDate fechaFin) {
+        Usuario vendedor = usuarioRepository.findById(vendedorId)
+                .orElseThrow(() -> new RuntimeException("Vendedor no encontrado con ID: " + vendedorId));
+
+        AnaliticaVendedorResponse analitica = new AnaliticaVendedorResponse();
+        analitica.setVendedorId(vendedorId);
+        analitica.setNombreCompleto(vendedor.getNombreCompleto());
+        analitica.setFechaInicio(fechaInicio);
+        analitica.setFechaFin(fechaFin);
+
+        List<AnaliticaVendedorResponse.VentaDiaResponse> ventasPorDia = new ArrayList<>();
+        long unidades = 0;
+        long pedidos = 0;
+        long publicadosPeriodo = 0;
+        long aprobadosPeriodo = 0;
+        BigDecimal ingresos = BigDecimal.ZERO;
+        for (Object[] row : ventaVendedorDiariaRepository.findPorVendedorEntre(vendedorId, fechaInicio, fechaFin)) {
+            LocalDate fecha = row[0] instanceof java.sql.Date
+                    ? ((java.sql.Date) row[0]).toLocalDate()
+                    : (LocalDate) row[0];
+            long unidadesDia = ((Number) row[1]).longValue();
+            BigDecimal ingresosDia = new BigDecimal(row[2].toString()).setScale(2, RoundingMode.HALF_UP);
+            long pedidosDia = ((Number) row[3]).longValue();
+            if (unidadesDia != 0 || pedidosDia != 0) {
+                ventasPorDia.add(new AnaliticaVendedorResponse.VentaDiaResponse(
+                        fecha, unidadesDia, ingresosDia, pedidosDia));
+            }
+            unidades += unidadesDia;
+            ingresos = ingresos.add(ingresosDia);
+            pedidos += pedidosDia;
+            publicadosPeriodo += ((Number) row[4]).longValue();
+            aprobadosPeriodo += ((Number) row[5]).longValue();
+        }
+
+        analitica.setUnidadesVendidas(unidades);
+        analitica.setIngresos(ingresos);
+        analitica.setPedidos(pedidos);
+        analitica.setTicketPromedio(pedidos > 0
+                ? ingresos.divide(BigDecimal.valueOf(pedidos), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+        analitica.setProductosPublicadosPeriodo(publicadosPeriodo);
+        analitica.setProductosAprobadosPeriodo(aprobadosPeriodo);
+        analitica.setVentasPorDia(ventasPorDia);
+
+        Object[] productos = ventaVendedorDiariaRepository.sumProductosPorVendedor(vendedorId).get(0);
+        analitica.setProductosPublicados(((Number) productos[0]).longValue());
+        analitica.setProductosAprobados(((Number) productos[1]).longValue());
+        return analitica;
+    }
+
+    /**
+     * Analítica del vendedor autenticado
+     */
+    @Transactional(readOnly = true)
+    public AnaliticaVendedorResponse obtenerMiAnalitica(LocalDate fechaInicio, LocalDate fechaFin) {
+        return obtenerAnalitica(usuarioActual.obtenerId(), fechaInicio, fechaFin);
+    }
+
+    // ==================== RECONSTRUCCIÓN ====================
+
+    /**
+     * Reconstruir el cubo completo desde pedidos y productos
+     * Completa antes el vendedor_id de items antiguos que no lo tenían.
+     * Bloquea el cubo mientras tanto: los eventos concurrentes esperan y se
+     * aplican sobre el resultado nuevo.
+     *
+     * @return cantidad de filas vendedor × día generadas
+     */
+    @Transactional
+    public int reconstruir() {
+        jdbcTemplate.execute("LOCK TABLE ventas_vendedor_diarias IN EXCLUSIVE MODE");
+        jdbcTemplate.update(
+                "UPDATE items_pedido ip SET vendedor_id = prod.vendedor_id " +
+                "FROM productos prod WHERE ip.vendedor_id IS NULL AND prod.id = ip.producto_id");
+        jdbcTemplate.update("DELETE FROM ventas_vendedor_diarias");
+        return jdbcTemplate.update(
+                "INSERT INTO ventas_vendedor_diarias " +
+                "(vendedor_id, fecha, unidades, ingresos, pedidos, productos_publicados, productos_aprobados) " +
+                "SELECT vendedor_id, fecha, SUM(unidades), SUM(ingresos), SUM(pedidos), " +
+                "       SUM(publicados), SUM(aprobados) " +
+                "FROM ( " +
+                "  SELECT ip.vendedor_id, CAST(p.fecha_pedido AS DATE) AS fecha, " +
+                "         SUM(ip.cantidad) AS unidades, SUM(ip.subtotal) AS ingresos, " +
+                "         COUNT(DISTINCT p.id) AS pedidos, 0 AS publicados, 0 AS aprobados " +
+                "  FROM items_pedido ip " +
+                "  INNER JOIN pedidos p ON p.id = ip.pedido_id " +
+                "  WHERE p.estado = 'ENTREGADO' AND ip.vendedor_id IS NOT NULL " +
+                "  GROUP BY ip.vendedor_id, CAST(p.fecha_pedido AS DATE) " +
+                "  UNION ALL " +
+                "  SELECT vendedor_id, CAST(fecha_creacion AS DATE), 0, 0, 0, " +
+                "         COUNT(*), COUNT(*) FILTER (WHERE estado = 'APROBADO') " +
+                "  FROM productos " +
+                "  GROUP BY vendedor_id, CAST(fecha_creacion AS DATE) " +
+                ") t " +
+                "GROUP BY vendedor_id, fecha");
+    }
+
+    /**
+     * Backfill al iniciar: si el cubo está vacío pero ya hay productos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInicial() {
+        try {
+            if (ventaVendedorDiariaRepository.count() == 0 && productoRepository.count() > 0) {
+                reconstruir();
+            }
+        } catch (Exception e) {
+            System.err.println("Error en backfill del cubo de ventas por vendedor: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstrucción programada (deshabilitada por defecto, cron "-")
+     */
+    @Scheduled(cron = "${ventas.vendedor.reconstruccion-cron:-}")
+    public void reconstruccionProgramada() {
+        try {
+            reconstruir();
+        } catch (Exception e) {
+            System.err.println("Error al reconstruir cubo de ventas por vendedor: " + e.getMessage());
+        }
+    }
+}
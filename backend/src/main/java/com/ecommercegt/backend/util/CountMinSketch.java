@@ -0,0 +1,171 @@
+package com.ecommercegt.backend.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Count-Min Sketch con lista acotada de candidatos (productos más frecuentes)
+ *
+ * - Los contadores (profundidad × ancho) estiman la frecuencia de cualquier
+ *   elemento; nunca subestiman y sobreestiman como mucho 2/ancho del total
+ *   con probabilidad 1 - 2^-profundidad
+ * - Los candidatos son los elementos con mayor estimación vistos hasta ahora;
+ *   al llenarse la lista se reemplaza el menor
+ * - Dos sketches con las mismas dimensiones se unen sumando contadores y
+ *   juntando candidatos, así los de cada día se combinan para un rango
+ *
+ * No es thread-safe; quien lo comparte debe sincronizar.
+ */
+public class CountMinSketch {
+
+    private final int profundidad;
+    private final int ancho;
+    private final int maxCandidatos;
+    private final long[] contadores;
+    private final Map<UUID, Long> candidatos = new HashMap<>();
+    private long total;
+
+    public CountMinSketch(int profundidad, int ancho, int maxCandidatos) {
+        this.profundidad = profundidad;
+        this.ancho = ancho;
+        this.maxCandidatos = maxCandidatos;
+        this.contadores = new long[profundidad * ancho];
+    }
+
+    /**
+     * Sumar una cantidad a la frecuencia de un elemento
+     */
+    public void agregar(UUID elemento, long cantidad) {
+        long hash = Hash64.de(elemento);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimacion = Long.MAX_VALUE;
+        for (int fila = 0; fila < profundidad; fila++) {
+            int posicion = fila * ancho + columna(h1, h2, fila);
+            contadores[posicion] += cantidad;
+            estimacion = Math.min(estimacion, contadores[posicion]);
+        }
+        total += cantidad;
+        actualizarCandidato(elemento, estimacion);
+    }
+
+    /**
+     * Frecuencia estimada de un elemento (cota superior)
+     */
+    public long estimar(UUID elemento) {
+        long hash = Hash64.de(elemento);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimacion = Long.MAX_VALUE;
+        for (int fila = 0; fila < profundidad; fila++) {
+            estimacion = Math.min(estimacion, contadores[fila * ancho + columna(h1, h2, fila)]);
+        }
+        return estimacion;
+    }
+
+    /**
+     * Los elementos más frecuentes entre los candidatos, de mayor a menor
+     */
+    public List<Map.Entry<UUID, Long>> top(int limite) {
+        List<Map.Entry<UUID, Long>> resultado = new ArrayList<>();
+        for (UUID candidato : candidatos.keySet()) {
+            resultado.add(Map.entry(candidato, estimar(candidato)));
+        }
+        resultado.sort(Map.Entry.<UUID, Long>comparingByValue(Comparator.reverseOrder()));
+        return resultado.size() > limite ? resultado.subList(0, limite) : resultado;
+    }
+
+    /**
+     * Unir otro sketch a este (deben tener las mismas dimensiones)
+     */
+    public void unir(CountMinSketch otro) {
+        if (otro.profundidad != profundidad || otro.ancho != ancho) {
+            throw new IllegalArgumentException("No se pueden unir sketches con distintas dimensiones");
+        }
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] += otro.contadores[i];
+        }
+        total += otro.total;
+        List<UUID> todos = new ArrayList<>(candidatos.keySet());
+        todos.addAll(otro.candidatos.keySet());
+        candidatos.clear();
+        for (UUID candidato : todos) {
+            actualizarCandidato(candidato, estimar(candidato));
+        }
+    }
+
+    /**
+     * Suma de todas las cantidades agregadas
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Sobreestimación máxima esperada de cada frecuencia (2/ancho del total)
+     */
+    public long errorMaximo() {
+        return (long) Math.ceil(2.0 * total / ancho);
+    }
+
+    public byte[] aBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(
+                4 * 4 + 8 + contadores.length * 8 + candidatos.size() * 16);
+        buffer.putInt(profundidad).putInt(ancho).putInt(maxCandidatos).putLong(total);
+        for (long contador : contadores) {
+            buffer.putLong(contador);
+        }
+        buffer.putInt(candidatos.size());
+        for (UUID candidato : candidatos.keySet()) {
+            buffer.putLong(candidato.getMostSignificantBits()).putLong(candidato.getLeastSignificantBits());
+        }
+        return buffer.array();
+    }
+
+    public static CountMinSketch desdeBytes(byte[] datos) {
+        ByteBuffer buffer = ByteBuffer.wrap(datos);
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        sketch.total = buffer.getLong();
+        for (int i = 0; i < sketch.contadores.length; i++) {
+            sketch.contadores[i] = buffer.getLong();
+        }
+        int cantidad = buffer.getInt();
+        for (int i = 0; i < cantidad; i++) {
+            UUID candidato = new UUID(buffer.getLong(), buffer.getLong());
+            sketch.actualizarCandidato(candidato, sketch.estimar(candidato));
+        }
+        return sketch;
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private int columna(int h1, int h2, int fila) {
+        // Doble hashing (Kirsch-Mitzenmacher): h1 + fila * h2
+        return Math.floorMod(h1 + fila * h2, ancho);
+    }
+
+    private void actualizarCandidato(UUID elemento, long estimacion) {
+        if (candidatos.containsKey(elemento) || candidatos.size() < maxCandidatos) {
+            candidatos.put(elemento, estimacion);
+            return;
+        }
+        // Lista llena: reemplazar el candidato con menor estimación si este lo supera
+        UUID menor = null;
+        long minimo = Long.MAX_VALUE;
+        for (Map.Entry<UUID, Long> entrada : candidatos.entrySet()) {
+            if (entrada.getValue() < minimo) {
+                minimo = entrada.getValue();
+                menor = entrada.getKey();
+            }
+        }
+        if (estimacion > minimo) {
+            candidatos.remove(menor);
+            candidatos.put(elemento, estimacion);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommercegt.backend.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor CSV (RFC 4180) en UTF-8 con BOM para que Excel reconozca las tildes
+ */
+public class EscritorCsv implements EscritorTabla {
+
+    private final Writer salida;
+
+    public EscritorCsv(OutputStream salida) throws IOException {
+        this.salida = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        this.salida.write('\uFEFF');
+    }
+
+    @Override
+    public void encabezado(String... columnas) throws IOException {
+        fila((Object[]) columnas);
+    }
+
+    @Override
+    public void fila(Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                salida.write(',');
+            }
+            if (valores[i] instanceof String texto) {
+                escribirCampo(neutralizarFormula(texto));
+            } else if (valores[i] != null) {
+                escribirCampo(valores[i].toString());
+            }
+        }
+        salida.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.flush();
+    }
+
+    /**
+     * Evitar que Excel interprete como fórmula un texto que empieza con =, +, - o @
+     */
+    private static String neutralizarFormula(String texto) {
+        if (!texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+            return "'" + texto;
+        }
+        return texto;
+    }
+
+    private void escribirCampo(String valor) throws IOException {
+        boolean requiereComillas = valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0;
+        if (!requiereComillas) {
+            salida.write(valor);
+            return;
+        }
+        salida.write('"');
+        salida.write(valor.replace("\"", "\"\""));
+        salida.write('"');
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommercegt.backend.util;
+
+import java.io.IOException;
+
+/**
+ * Escritor de filas hacia un stream (CSV o XLSX)
+ *
+ * Escribe cada fila apenas la recibe, sin acumular el contenido en memoria.
+ */
+public interface EscritorTabla extends AutoCloseable {
+
+    /**
+     * Escribir la fila de encabezados
+     */
+    void encabezado(String... columnas) throws IOException;
+
+    /**
+     * Escribir una fila de datos (null se escribe como celda vacía)
+     */
+    void fila(Object... valores) throws IOException;
+
+    /**
+     * Terminar el documento; no cierra el stream de salida
+     */
+    @Override
+    void close() throws IOException;
+}
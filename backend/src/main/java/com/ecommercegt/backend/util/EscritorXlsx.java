@@ -0,0 +1,122 @@
+package com.ecommercegt.backend.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escritor XLSX por streaming (una sola hoja)
+ *
+ * Un XLSX es un ZIP con XML (SpreadsheetML). Las partes fijas se escriben al
+ * inicio y las filas de la hoja se van comprimiendo a medida que llegan, con
+ * textos en línea (inlineStr) para no necesitar la tabla de strings compartidos.
+ * La memoria usada no depende de la cantidad de filas.
+ */
+public class EscritorXlsx implements EscritorTabla {
+
+    private final ZipOutputStream zip;
+    private final Writer hoja;
+    private int numeroFila = 0;
+
+    public EscritorXlsx(OutputStream salida, String nombreHoja) throws IOException {
+        this.zip = new ZipOutputStream(salida, StandardCharsets.UTF_8);
+        Writer xml = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+
+        parte(xml, "[Content_Types].xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                + "<Override PartName=\"/xl/worksheets/sheet1.xml\" "
+                + "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                + "</Types>");
+        parte(xml, "_rels/.rels",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" "
+                + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" "
+                + "Target=\"xl/workbook.xml\"/>"
+                + "</Relationships>");
+        parte(xml, "xl/workbook.xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                + "<sheets><sheet name=\"" + escapar(nombreHoja) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+                + "</workbook>");
+        parte(xml, "xl/_rels/workbook.xml.rels",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                + "<Relationship Id=\"rId1\" "
+                + "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" "
+                + "Target=\"worksheets/sheet1.xml\"/>"
+                + "</Relationships>");
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        this.hoja = new BufferedWriter(xml, 64 * 1024);
+        hoja.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+    }
+
+    @Override
+    public void encabezado(String... columnas) throws IOException {
+        fila((Object[]) columnas);
+    }
+
+    @Override
+    public void fila(Object... valores) throws IOException {
+        numeroFila++;
+        hoja.write("<row r=\"" + numeroFila + "\">");
+        for (Object valor : valores) {
+            if (valor == null) {
+                hoja.write("<c/>");
+            } else if (valor instanceof Number) {
+                hoja.write("<c><v>" + valor + "</v></c>");
+            } else {
+                hoja.write("<c t=\"inlineStr\"><is><t>" + escapar(valor.toString()) + "</t></is></c>");
+            }
+        }
+        hoja.write("</row>");
+    }
+
+    @Override
+    public void close() throws IOException {
+        hoja.write("</sheetData></worksheet>");
+        hoja.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void parte(Writer xml, String nombre, String contenido) throws IOException {
+        zip.putNextEntry(new ZipEntry(nombre));
+        xml.write(contenido);
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private static String escapar(String texto) {
+        StringBuilder resultado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '&' -> resultado.append("&amp;");
+                case '<' -> resultado.append("&lt;");
+                case '>' -> resultado.append("&gt;");
+                case '"' -> resultado.append("&quot;");
+                default -> {
+                    // Caracteres de control no permitidos en XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        resultado.append(c);
+                    }
+                }
+            }
+        }
+        return resultado.toString();
+    }
+}
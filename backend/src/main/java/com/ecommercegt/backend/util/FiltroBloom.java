@@ -0,0 +1,78 @@
+package com.ecommercegt.backend.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom: pertenencia aproximada a un conjunto con memoria fija
+ *
+ * puedeContener nunca da falsos negativos; da falsos positivos con la tasa
+ * configurada mientras no se agreguen más elementos que la capacidad (después
+ * la tasa sube, así que conviene reconstruirlo). Los elementos no se pueden
+ * quitar: para descartar elementos se crea un filtro nuevo.
+ *
+ * Los k índices salen de un solo hash de 64 bits (doble hashing de
+ * Kirsch-Mitzenmacher). Agregar y consultar son thread-safe.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int cantidadBits;
+    private final int funciones;
+    private final int capacidad;
+
+    /**
+     * @param capacidad           elementos esperados
+     * @param tasaFalsosPositivos tasa deseada con esa capacidad (ej. 0.01)
+     */
+    public FiltroBloom(int capacidad, double tasaFalsosPositivos) {
+        if (capacidad <= 0 || tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("Parámetros de filtro de Bloom inválidos");
+        }
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-capacidad * Math.log(tasaFalsosPositivos) / (ln2 * ln2));
+        this.cantidadBits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.funciones = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * ln2));
+        this.bits = new AtomicLongArray((cantidadBits + 63) / 64);
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Agregar un elemento por su hash de 64 bits
+     */
+    public void agregar(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funciones; i++) {
+            int indice = indice(h1 + i * h2);
+            long mascara = 1L << indice;
+            int palabra = indice >>> 6;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                actual = bits.get(palabra);
+            }
+        }
+    }
+
+    /**
+     * false = el elemento seguro no está; true = puede estar
+     */
+    public boolean puedeContener(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < funciones; i++) {
+            int indice = indice(h1 + i * h2);
+            if ((bits.get(indice >>> 6) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    private int indice(int combinado) {
+        return (combinado & Integer.MAX_VALUE) % cantidadBits;
+    }
+}
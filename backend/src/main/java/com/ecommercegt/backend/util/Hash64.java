@@ -0,0 +1,27 @@
+package com.ecommercegt.backend.util;
+
+import java.util.UUID;
+
+/**
+ * Hash de 64 bits para los sketches (finalizador de MurmurHash3)
+ * Los UUID aleatorios ya están bien distribuidos, pero los sketches
+ * necesitan que todos los bits del hash sean independientes.
+ */
+public final class Hash64 {
+
+    private Hash64() {
+    }
+
+    public static long de(UUID valor) {
+        return mezclar(valor.getMostSignificantBits() ^ mezclar(valor.getLeastSignificantBits()));
+    }
+
+    public static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommercegt.backend.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog: estimación de cantidad de elementos distintos con memoria fija
+ *
+ * Con precisión p usa 2^p registros de un byte; el error relativo típico es
+ * 1.04 / sqrt(2^p) (p = 12: 4 KB y ~1.6 %). Dos sketches con la misma
+ * precisión se unen tomando el máximo de cada registro, así que los de cada
+ * día se pueden combinar para cualquier rango de fechas.
+ *
+ * No es thread-safe; quien lo comparte debe sincronizar.
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registros;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precisión fuera de rango (4-18): " + precision);
+        }
+        this.precision = precision;
+        this.registros = new byte[1 << precision];
+    }
+
+    private HyperLogLog(int precision, byte[] registros) {
+        this.precision = precision;
+        this.registros = registros;
+    }
+
+    /**
+     * Agregar un elemento por su hash de 64 bits
+     */
+    public void agregar(long hash) {
+        int indice = (int) (hash >>> (64 - precision));
+        // Posición del primer 1 en los bits restantes (el centinela acota el resultado)
+        long resto = (hash << precision) | (1L << (precision - 1));
+        byte rango = (byte) (Long.numberOfLeadingZeros(resto) + 1);
+        if (rango > registros[indice]) {
+            registros[indice] = rango;
+        }
+    }
+
+    /**
+     * Cantidad estimada de elementos distintos
+     */
+    public long estimar() {
+        int m = registros.length;
+        double suma = 0;
+        int vacios = 0;
+        for (byte registro : registros) {
+            suma += 1.0 / (1L << registro);
+            if (registro == 0) {
+                vacios++;
+            }
+        }
+        double alfa = 0.7213 / (1 + 1.079 / m);
+        double estimacion = alfa * m * m / suma;
+        // Rango bajo: conteo lineal sobre los registros vacíos
+        if (estimacion <= 2.5 * m && vacios > 0) {
+            estimacion = m * Math.log((double) m / vacios);
+        }
+        return Math.round(estimacion);
+    }
+
+    /**
+     * Unir otro sketch a este (deben tener la misma precisión)
+     */
+    public void unir(HyperLogLog otro) {
+        if (otro.precision != precision) {
+            throw new IllegalArgumentException("No se pueden unir sketches con distinta precisión");
+        }
+        for (int i = 0; i < registros.length; i++) {
+            if (otro.registros[i] > registros[i]) {
+                registros[i] = otro.registros[i];
+            }
+        }
+    }
+
+    /**
+     * Error relativo típico (una desviación estándar)
+     */
+    public double errorRelativo() {
+        return 1.04 / Math.sqrt(registros.length);
+    }
+
+    public byte[] aBytes() {
+        return ByteBuffer.allocate(1 + registros.length)
+                .put((byte) precision)
+                .put(registros)
+                .array();
+    }
+
+    public static HyperLogLog desdeBytes(byte[] datos) {
+        ByteBuffer buffer = ByteBuffer.wrap(datos);
+        int precision = buffer.get();
+        byte[] registros = new byte[1 << precision];
+        buffer.get(registros);
+        return new HyperLogLog(precision, registros);
+    }
+}
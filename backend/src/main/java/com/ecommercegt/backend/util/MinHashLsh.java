@@ -0,0 +1,262 @@
+package com.ecommercegt.backend.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice MinHash + LSH (Locality-Sensitive Hashing) para detectar textos casi duplicados
+ *
+ * Funcionamiento:
+ * 1. El texto se normaliza (minúsculas, sin tildes ni signos) y se divide en
+ *    shingles de K caracteres
+ * 2. La firma MinHash guarda el mínimo de cada una de las N funciones hash
+ *    sobre los shingles; la fracción de posiciones iguales entre dos firmas
+ *    estima la similitud de Jaccard de los textos
+ * 3. La firma se divide en bandas; dos textos son candidatos si coinciden
+ *    en al menos una banda completa, así la búsqueda solo revisa los
+ *    buckets de sus bandas y no todo el índice
+ *
+ * Es seguro para uso concurrente: agregar, quitar y consultar pueden
+ * ejecutarse desde varios hilos a la vez.
+ */
+public class MinHashLsh {
+
+    /**
+     * Tamaño de los shingles de caracteres
+     */
+    private static final int TAMANO_SHINGLE = 5;
+
+    private final int bandas;
+    private final int filasPorBanda;
+    private final long[] semillas;
+
+    /**
+     * Firmas indexadas por ID
+     */
+    private final Map<Long, int[]> firmas = new ConcurrentHashMap<>();
+
+    /**
+     * Un mapa de buckets por banda: clave de banda → IDs
+     */
+    private final List<Map<Long, Set<Long>>> buckets;
+
+    public MinHashLsh(int bandas, int filasPorBanda) {
+        if (bandas < 1 || filasPorBanda < 1) {
+            throw new IllegalArgumentException("Bandas y filas por banda deben ser mayores que cero");
+        }
+        this.bandas = bandas;
+        this.filasPorBanda = filasPorBanda;
+
+        int totalFunciones = bandas * filasPorBanda;
+        this.semillas = new long[totalFunciones];
+        long semilla = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < totalFunciones; i++) {
+            semilla = mezclar(semilla + 0x9E3779B97F4A7C15L);
+            semillas[i] = semilla;
+        }
+
+        this.buckets = new ArrayList<>(bandas);
+        for (int i = 0; i < bandas; i++) {
+            buckets.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    // ==================== FIRMAS ====================
+
+    /**
+     * Calcular la firma MinHash de un texto
+     * No modifica el índice, se puede llamar en paralelo
+     *
+     * @return null si el texto no tiene shingles (vacío o solo signos): todas
+     *         esas firmas serían iguales y se marcarían como duplicadas entre sí
+     */
+    public int[] calcularFirma(String texto) {
+        Set<Long> shingles = shingles(texto);
+        if (shingles.isEmpty()) {
+            return null;
+        }
+
+        long[] minimos = new long[semillas.length];
+        Arrays.fill(minimos, Long.MAX_VALUE);
+
+        for (long shingle : shingles) {
+            for (int i = 0; i < semillas.length; i++) {
+                long valor = mezclar(shingle ^ semillas[i]);
+                if (valor < minimos[i]) {
+                    minimos[i] = valor;
+                }
+            }
+        }
+
+        int[] firma = new int[semillas.length];
+        for (int i = 0; i < firma.length; i++) {
+            firma[i] = (int) (minimos[i] ^ (minimos[i] >>> 32));
+        }
+        return firma;
+    }
+
+    /**
+     * Estimar similitud de Jaccard entre dos firmas (0.0 - 1.0)
+     */
+    public static double similitud(int[] a, int[] b) {
+        int iguales = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                iguales++;
+            }
+        }
+        return (double) iguales / a.length;
+    }
+
+    // ==================== ÍNDICE ====================
+
+    /**
+     * Agregar (o reemplazar) una firma en el índice
+     */
+    public void agregar(Long id, int[] firma) {
+        int[] anterior = firmas.put(id, firma);
+        if (anterior != null) {
+            quitarDeBuckets(id, anterior);
+        }
+        for (int banda = 0; banda < bandas; banda++) {
+            buckets.get(banda).compute(claveBanda(firma, banda), (clave, bucket) -> {
+                Set<Long> resultado = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+                resultado.add(id);
+                return resultado;
+            });
+        }
+    }
+
+    /**
+     * Quitar una firma del índice
+     */
+    public void quitar(Long id) {
+        int[] firma = firmas.remove(id);
+        if (firma != null) {
+            quitarDeBuckets(id, firma);
+        }
+    }
+
+    /**
+     * Buscar IDs cuya similitud estimada con la firma sea mayor o igual al umbral
+     * Solo se comparan los candidatos que comparten alguna banda
+     *
+     * @param excluirId ID a omitir del resultado (la propia review), puede ser null
+     * @return mapa ID → similitud estimada
+     */
+    public Map<Long, Double> buscarSimilares(int[] firma, double umbral, Long excluirId) {
+        Set<Long> candidatos = new HashSet<>();
+        for (int banda = 0; banda < bandas; banda++) {
+            Set<Long> bucket = buckets.get(banda).get(claveBanda(firma, banda));
+            if (bucket != null) {
+                candidatos.addAll(bucket);
+            }
+        }
+        if (excluirId != null) {
+            candidatos.remove(excluirId);
+        }
+
+        Map<Long, Double> similares = new HashMap<>();
+        for (Long candidato : candidatos) {
+            int[] otra = firmas.get(candidato);
+            if (otra == null) {
+                continue;
+            }
+            double valor = similitud(firma, otra);
+            if (valor >= umbral) {
+                similares.put(candidato, valor);
+            }
+        }
+        return similares;
+    }
+
+    /**
+     * Obtener la firma indexada de un ID (null si no existe)
+     */
+    public int[] obtenerFirma(Long id) {
+        return firmas.get(id);
+    }
+
+    /**
+     * IDs indexados actualmente
+     */
+    public Set<Long> ids() {
+        return firmas.keySet();
+    }
+
+    /**
+     * Cantidad de firmas indexadas
+     */
+    public int tamano() {
+        return firmas.size();
+    }
+
+    // ==================== MÉTODOS DE UTILIDAD ====================
+
+    private void quitarDeBuckets(Long id, int[] firma) {
+        for (int banda = 0; banda < bandas; banda++) {
+            buckets.get(banda).computeIfPresent(claveBanda(firma, banda), (clave, bucket) -> {
+                bucket.remove(id);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    private long claveBanda(int[] firma, int banda) {
+        long clave = banda;
+        int inicio = banda * filasPorBanda;
+        for (int i = inicio; i < inicio + filasPorBanda; i++) {
+            clave = mezclar(clave * 31 + firma[i]);
+        }
+        return clave;
+    }
+
+    /**
+     * Normalizar el texto y generar los hashes de sus shingles
+     */
+    private static Set<Long> shingles(String texto) {
+        String normalizado = normalizar(texto);
+        Set<Long> resultado = new HashSet<>();
+        if (normalizado.isEmpty()) {
+            return resultado;
+        }
+        if (normalizado.length() <= TAMANO_SHINGLE) {
+            resultado.add(mezclar(normalizado.hashCode()));
+            return resultado;
+        }
+        for (int i = 0; i + TAMANO_SHINGLE <= normalizado.length(); i++) {
+            resultado.add(mezclar(normalizado.substring(i, i + TAMANO_SHINGLE).hashCode()));
+        }
+        return resultado;
+    }
+
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase()
+                .replaceAll("[^a-z0-9]+", " ")
+                .trim();
+    }
+
+    /**
+     * Finalizador de MurmurHash3 (64 bits)
+     */
+    private static long mezclar(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb34fe63a5d53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommercegt.backend.security.limite;
+
+import com.ecommercegt.backend.dto.response.MetricasLimiteResponse;
+import com.ecommercegt.backend.models.enums.GrupoLimite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LimitadorTasaServiceTest {
+
+    private static final long NANOS_POR_TOKEN = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private LimitadorTasaService limitador;
+
+    @BeforeEach
+    void configurar() {
+        // Búsqueda: 3 peticiones seguidas y un token nuevo cada 100 ms
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("limite.busqueda.capacidad", "3")
+                .withProperty("limite.busqueda.recarga-por-segundo", "10");
+        limitador = new LimitadorTasaService();
+        ReflectionTestUtils.setField(limitador, "environment", environment);
+        ReflectionTestUtils.setField(limitador, "maxClaves", 100);
+        limitador.iniciar();
+    }
+
+    @Test
+    void consumir_permiteLaRafagaYRechazaAlVaciarse() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1"));
+        }
+
+        long espera = limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1");
+
+        // Falta como mucho un token entero
+        assertTrue(espera > 0 && espera <= NANOS_POR_TOKEN, "Espera: " + espera);
+    }
+
+    @Test
+    void consumir_despuesDeLaEspera_recargaUnToken() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1");
+        }
+        long espera = limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1");
+
+        TimeUnit.NANOSECONDS.sleep(espera + TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(0, limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1"));
+        assertTrue(limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1") > 0);
+    }
+
+    @Test
+    void consumir_cubetaInactiva_noAcumulaMasQueLaCapacidad() throws InterruptedException {
+        limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1");
+
+        // Tiempo para recargar bastante más que la capacidad
+        TimeUnit.NANOSECONDS.sleep(NANOS_POR_TOKEN * 6);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1"));
+        }
+        assertTrue(limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1") > 0);
+    }
+
+    @Test
+    void consumir_clavesYGruposIndependientes() {
+        for (int i = 0; i < 3; i++) {
+            limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1");
+        }
+
+        assertEquals(0, limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.2"));
+        assertEquals(0, limitador.consumir(GrupoLimite.AUTH, "10.0.0.1"));
+    }
+
+    @Test
+    void obtenerMetricas_cuentaPermitidasYRechazadas() {
+        for (int i = 0; i < 5; i++) {
+            limitador.consumir(GrupoLimite.BUSQUEDA, "10.0.0.1");
+        }
+
+        MetricasLimiteResponse busqueda = limitador.obtenerMetricas().stream()
+                .filter(m -> m.getGrupo() == GrupoLimite.BUSQUEDA)
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(3, busqueda.getCapacidad());
+        assertEquals(3L, busqueda.getPermitidas());
+        assertEquals(2L, busqueda.getRechazadas());
+        assertEquals(1, busqueda.getClavesActivas());
+    }
+}
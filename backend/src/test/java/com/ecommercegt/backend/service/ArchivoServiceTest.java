@@ -0,0 +1,247 @@
+package com.ecommercegt.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ArchivoServiceTest {
+
+    private static final int TAMANO = 1000;
+
+    @TempDir
+    Path directorio;
+
+    private Path raiz;
+    private ArchivoService archivoService;
+    private byte[] contenido;
+
+    @BeforeEach
+    void configurar() throws Exception {
+        contenido = new byte[TAMANO];
+        for (int i = 0; i < TAMANO; i++) {
+            contenido[i] = (byte) i;
+        }
+        raiz = directorio.resolve("uploads");
+        Files.createDirectories(raiz.resolve("productos"));
+        Files.write(raiz.resolve("productos/foto.png"), contenido);
+
+        archivoService = new ArchivoService();
+        ReflectionTestUtils.setField(archivoService, "raiz", raiz.toString());
+        ReflectionTestUtils.setField(archivoService, "minBytesSendfile", 49152L);
+    }
+
+    @Test
+    void servir_sinRango_respondeElArchivoCompleto() throws Exception {
+        MockHttpServletResponse response = servir(peticion());
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(contenido, response.getContentAsByteArray());
+        assertEquals("image/png", response.getContentType());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(String.valueOf(TAMANO), response.getHeader(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    void servir_rangoCerrado_responde206ConElTramo() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(contenido, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void servir_rangoAbiertoYFinMayorAlTamano_seRecortaAlFinal() throws Exception {
+        MockHttpServletRequest abierto = peticion();
+        abierto.addHeader(HttpHeaders.RANGE, "bytes=990-");
+        MockHttpServletRequest largo = peticion();
+        largo.addHeader(HttpHeaders.RANGE, "bytes=990-5000");
+
+        assertEquals("bytes 990-999/1000", servir(abierto).getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("bytes 990-999/1000", servir(largo).getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void servir_rangoSufijo_respondeLosUltimosBytes() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-100");
+
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 900-999/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(contenido, 900, TAMANO), response.getContentAsByteArray());
+    }
+
+    @Test
+    void servir_sufijoMayorAlTamano_respondeElArchivoCompletoComo206() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-5000");
+
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 0-999/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void servir_sufijoCero_responde416() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-0");
+
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void servir_inicioFueraDelArchivo_responde416() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=1000-");
+
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void servir_rangoMalFormadoOVariosTramos_seIgnora() throws Exception {
+        for (String rango : new String[]{"bytes=20-10", "bytes=a-b", "items=0-10", "bytes=0-9,20-29"}) {
+            MockHttpServletRequest request = peticion();
+            request.addHeader(HttpHeaders.RANGE, rango);
+
+            MockHttpServletResponse response = servir(request);
+
+            assertEquals(200, response.getStatus(), rango);
+            assertEquals(TAMANO, response.getContentAsByteArray().length, rango);
+        }
+    }
+
+    @Test
+    void servir_ifRangeConElETagActual_respetaElRango() throws Exception {
+        String etag = servir(peticion()).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(10, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void servir_ifRangeDesactualizado_respondeElArchivoCompleto() throws Exception {
+        MockHttpServletRequest porETag = peticion();
+        porETag.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        porETag.addHeader(HttpHeaders.IF_RANGE, "\"otro-etag\"");
+        MockHttpServletRequest porFecha = peticion();
+        porFecha.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        porFecha.addHeader(HttpHeaders.IF_RANGE, "Thu, 01 Jan 2015 00:00:00 GMT");
+
+        MockHttpServletResponse respuestaETag = servir(porETag);
+        MockHttpServletResponse respuestaFecha = servir(porFecha);
+
+        assertEquals(200, respuestaETag.getStatus());
+        assertNull(respuestaETag.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(TAMANO, respuestaETag.getContentAsByteArray().length);
+        assertEquals(200, respuestaFecha.getStatus());
+        assertEquals(TAMANO, respuestaFecha.getContentAsByteArray().length);
+    }
+
+    @Test
+    void servir_ifRangeConLaFechaActual_respetaElRango() throws Exception {
+        long modificado = servir(peticion()).getDateHeader(HttpHeaders.LAST_MODIFIED);
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, modificado);
+
+        assertEquals(206, servir(request).getStatus());
+    }
+
+    @Test
+    void servir_ifNoneMatch_responde304SinCuerpo() throws Exception {
+        String etag = servir(peticion()).getHeader(HttpHeaders.ETAG);
+        for (String ifNoneMatch : new String[]{etag, "W/" + etag, "\"viejo\", " + etag, "*"}) {
+            MockHttpServletRequest request = peticion();
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+
+            MockHttpServletResponse response = servir(request);
+
+            assertEquals(304, response.getStatus(), ifNoneMatch);
+            assertEquals(0, response.getContentAsByteArray().length, ifNoneMatch);
+        }
+    }
+
+    @Test
+    void servir_ifNoneMatchDistinto_ignoraIfModifiedSince() throws Exception {
+        MockHttpServletResponse primera = servir(peticion());
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"viejo\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, primera.getDateHeader(HttpHeaders.LAST_MODIFIED));
+
+        assertEquals(200, servir(request).getStatus());
+    }
+
+    @Test
+    void servir_ifModifiedSince_responde304() throws Exception {
+        MockHttpServletResponse primera = servir(peticion());
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, primera.getDateHeader(HttpHeaders.LAST_MODIFIED));
+
+        assertEquals(304, servir(request).getStatus());
+    }
+
+    @Test
+    void servir_head_noEnviaCuerpo() throws Exception {
+        MockHttpServletRequest request = peticion();
+        request.setMethod("HEAD");
+
+        MockHttpServletResponse response = servir(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(String.valueOf(TAMANO), response.getHeader(HttpHeaders.CONTENT_LENGTH));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void servir_rutaFueraDeLaRaizOInexistente_responde404() throws Exception {
+        Files.write(directorio.resolve("secreto.png"), contenido);
+        Files.write(raiz.resolve("productos/subida.tmp"), contenido);
+
+        for (String ruta : new String[]{"../secreto.png", "productos/../../secreto.png", "productos/otra.png",
+                "productos", "productos/subida.tmp"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            archivoService.servir(ruta, peticion(), response);
+
+            assertEquals(404, response.getStatus(), ruta);
+        }
+    }
+
+    private MockHttpServletRequest peticion() {
+        return new MockHttpServletRequest("GET", "/uploads/productos/foto.png");
+    }
+
+    private MockHttpServletResponse servir(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        archivoService.servir("productos/foto.png", request, response);
+        return response;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.CorreoPendiente;
+import com.ecommercegt.backend.models.enums.EstadoCorreo;
+import com.ecommercegt.backend.repositorios.CorreoPendienteRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CorreoDespachadorTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private CorreoDespachador despachador;
+
+    @BeforeEach
+    void configurar() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        despachador = crearDespachador(mailSender);
+    }
+
+    @Test
+    void enviarLote_entregaTodosLosCorreosPorSMTP() throws Exception {
+        List<CorreoPendiente> lote = List.of(
+                new CorreoPendiente("cliente1@ecommercegt.com", "Pedido creado", "Tu pedido #1 fue creado"),
+                new CorreoPendiente("cliente2@ecommercegt.com", "Review aprobada", "Tu review fue aprobada"),
+                new CorreoPendiente("cliente3@ecommercegt.com", "Has sido sancionado", "Motivo: spam"));
+
+        despachador.enviarLote(lote);
+
+        assertTrue(greenMail.waitForIncomingEmail(5000, 3));
+        MimeMessage[] recibidos = greenMail.getReceivedMessages();
+        assertEquals(3, recibidos.length);
+        assertEquals("Pedido creado", recibidos[0].getSubject());
+        assertEquals("Tu pedido #1 fue creado", GreenMailUtil.getBody(recibidos[0]));
+
+        for (CorreoPendiente correo : lote) {
+            assertEquals(EstadoCorreo.ENVIADO, correo.getEstado());
+            assertNotNull(correo.getFechaEnvio());
+        }
+    }
+
+    @Test
+    void enviarLote_servidorCaido_programaReintentoConBackoff() {
+        JavaMailSenderImpl servidorInexistente = new JavaMailSenderImpl();
+        servidorInexistente.setHost("localhost");
+        servidorInexistente.setPort(1);
+        CorreoDespachador sinServidor = crearDespachador(servidorInexistente);
+
+        CorreoPendiente correo = new CorreoPendiente("cliente@ecommercegt.com", "Asunto", "Mensaje");
+        LocalDateTime antes = LocalDateTime.now();
+
+        sinServidor.enviarLote(List.of(correo));
+
+        assertEquals(EstadoCorreo.PENDIENTE, correo.getEstado());
+        assertEquals(1, correo.getIntentos());
+        assertNotNull(correo.getUltimoError());
+        assertTrue(correo.getProximoIntento().isAfter(antes.plusSeconds(29)));
+    }
+
+    @Test
+    void enviarLote_agotaReintentos_pasaADeadLetter() {
+        JavaMailSenderImpl servidorInexistente = new JavaMailSenderImpl();
+        servidorInexistente.setHost("localhost");
+        servidorInexistente.setPort(1);
+        CorreoDespachador sinServidor = crearDespachador(servidorInexistente);
+
+        CorreoPendiente correo = new CorreoPendiente("cliente@ecommercegt.com", "Asunto", "Mensaje");
+        correo.setIntentos(5);
+
+        sinServidor.enviarLote(List.of(correo));
+
+        assertEquals(EstadoCorreo.FALLIDO, correo.getEstado());
+        assertEquals(6, correo.getIntentos());
+    }
+
+    @Test
+    void ventanaReclamoMs_menorQueUnLoteConTimeoutsSmtp_usaElMinimo() {
+        configurarVentana(despachador, 60_000L, 5000L, 50);
+
+        // 5 s de conexión + (5 de sesión + 4 × 50 correos) comandos × 5 s
+        assertEquals(5000L + 205 * 5000L, despachador.ventanaReclamoMs());
+    }
+
+    @Test
+    void ventanaReclamoMs_mayorQueUnLote_usaLaConfigurada() {
+        configurarVentana(despachador, 1_800_000L, 5000L, 50);
+
+        assertEquals(1_800_000L, despachador.ventanaReclamoMs());
+    }
+
+    @Test
+    void ventanaReclamoMs_sinTimeoutsSmtp_usaLaConfigurada() {
+        configurarVentana(despachador, 60_000L, 0L, 50);
+
+        assertEquals(60_000L, despachador.ventanaReclamoMs());
+    }
+
+    @Test
+    void mantenimiento_liberaSoloReclamosMasViejosQueLaVentana() {
+        CorreoPendienteRepository repositorio = Mockito.mock(CorreoPendienteRepository.class);
+        ReflectionTestUtils.setField(despachador, "correoPendienteRepository", repositorio);
+        ReflectionTestUtils.setField(despachador, "transactionManager", Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(despachador, "habilitado", true);
+        ReflectionTestUtils.setField(despachador, "retencionEnviadosDias", 7);
+        configurarVentana(despachador, 1_800_000L, 5000L, 50);
+        LocalDateTime antes = LocalDateTime.now();
+
+        despachador.mantenimiento();
+
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+        Mockito.verify(repositorio).liberarReclamosVencidos(limite.capture());
+        assertFalse(limite.getValue().isAfter(LocalDateTime.now().minusMinutes(30)));
+        assertFalse(limite.getValue().isBefore(antes.minusMinutes(30)));
+    }
+
+    private static void configurarVentana(CorreoDespachador despachador, long reclamoVencidoMs,
+                                          long timeoutSmtpMs, int tamanoLote) {
+        ReflectionTestUtils.setField(despachador, "reclamoVencidoMs", reclamoVencidoMs);
+        ReflectionTestUtils.setField(despachador, "smtpTimeoutConexionMs", timeoutSmtpMs);
+        ReflectionTestUtils.setField(despachador, "smtpTimeoutLecturaMs", timeoutSmtpMs);
+        ReflectionTestUtils.setField(despachador, "smtpTimeoutEscrituraMs", timeoutSmtpMs);
+        ReflectionTestUtils.setField(despachador, "tamanoLote", tamanoLote);
+    }
+
+    private CorreoDespachador crearDespachador(JavaMailSenderImpl mailSender) {
+        CorreoDespachador nuevo = new CorreoDespachador();
+        ReflectionTestUtils.setField(nuevo, "mailSender", mailSender);
+        ReflectionTestUtils.setField(nuevo, "maxIntentos", 6);
+        ReflectionTestUtils.setField(nuevo, "backoffBaseSegundos", 30L);
+        ReflectionTestUtils.setField(nuevo, "backoffMaxSegundos", 3600L);
+        ReflectionTestUtils.setField(nuevo, "remitente", "");
+        return nuevo;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.response.DashboardAdminResponse;
+import com.ecommercegt.backend.repositorios.ItemPedidoRepository;
+import com.ecommercegt.backend.repositorios.ProductoRepository;
+import com.ecommercegt.backend.repositorios.ReviewRepository;
+import com.ecommercegt.backend.repositorios.UsuarioRepository;
+import com.ecommercegt.backend.repositorios.VentaDiariaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+public class DashboardServiceTest {
+
+    private DashboardService dashboardService;
+    private ItemPedidoRepository itemPedidoRepository;
+
+    @BeforeEach
+    void configurar() {
+        ConsultasParalelasService consultasParalelasService = new ConsultasParalelasService(4);
+        ReflectionTestUtils.setField(consultasParalelasService, "transactionManager",
+                Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(consultasParalelasService, "paralelo", false);
+        ReflectionTestUtils.setField(consultasParalelasService, "timeoutMs", 5000L);
+
+        itemPedidoRepository = Mockito.mock(ItemPedidoRepository.class);
+        ReviewRepository reviewRepository = Mockito.mock(ReviewRepository.class);
+        Mockito.when(reviewRepository.findProductosMejorCalificados(anyInt())).thenReturn(List.<Object[]>of(
+                new Object[]{UUID.randomUUID(), "Café", 4.5, 12L, new BigDecimal("35.00")}));
+
+        dashboardService = new DashboardService();
+        ReflectionTestUtils.setField(dashboardService, "itemPedidoRepository", itemPedidoRepository);
+        ReflectionTestUtils.setField(dashboardService, "reviewRepository", reviewRepository);
+        ReflectionTestUtils.setField(dashboardService, "usuarioRepository", Mockito.mock(UsuarioRepository.class));
+        ReflectionTestUtils.setField(dashboardService, "productoRepository", Mockito.mock(ProductoRepository.class));
+        ReflectionTestUtils.setField(dashboardService, "ventaDiariaRepository", Mockito.mock(VentaDiariaRepository.class));
+        ReflectionTestUtils.setField(dashboardService, "consultasParalelasService", consultasParalelasService);
+    }
+
+    @Test
+    void obtenerDashboardAdmin_topVentasFalla_seInformaComoFallidaConListaVacia() {
+        Mockito.when(itemPedidoRepository.findProductosMasVendidosConLimite(anyInt()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        DashboardAdminResponse dashboard = dashboardService.obtenerDashboardAdmin();
+
+        assertTrue(dashboard.getSeccionesFallidas().contains("topVentas"));
+        assertFalse(dashboard.getSeccionesFallidas().contains("topCalificados"));
+        assertNotNull(dashboard.getProductosTopVentas());
+        assertTrue(dashboard.getProductosTopVentas().isEmpty());
+        assertEquals(1, dashboard.getProductosTopCalificados().size());
+    }
+
+    @Test
+    void obtenerProductosMasVendidos_errorDeConsulta_seTransmite() {
+        Mockito.when(itemPedidoRepository.findProductosMasVendidosConLimite(anyInt()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThrows(QueryTimeoutException.class, () -> dashboardService.obtenerProductosMasVendidos(10));
+    }
+}
@@ -0,0 +1,128 @@
+package com.ecommercegt.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ImagenVariantesServiceTest {
+
+    private static final String URL_ORIGINAL = "/uploads/productos/p1_abc.png";
+
+    @TempDir
+    Path raiz;
+
+    private ImagenVariantesService imagenVariantesService;
+    private Path productos;
+
+    @BeforeEach
+    void configurar() throws Exception {
+        productos = Files.createDirectories(raiz.resolve("productos"));
+        BufferedImage original = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 2000; x++) {
+            original.setRGB(x, x / 2, 0x336699);
+        }
+        ImageIO.write(original, "png", productos.resolve("p1_abc.png").toFile());
+
+        ArchivoService archivoService = new ArchivoService();
+        ReflectionTestUtils.setField(archivoService, "raiz", raiz.toString());
+        imagenVariantesService = new ImagenVariantesService();
+        ReflectionTestUtils.setField(imagenVariantesService, "archivoService", archivoService);
+        ReflectionTestUtils.setField(imagenVariantesService, "calidadJpeg", 0.8f);
+        ReflectionTestUtils.setField(imagenVariantesService, "maxPixeles", 40_000_000L);
+    }
+
+    @Test
+    void generarVariantes_escribeLasTresConSuTamano() throws Exception {
+        String[] urls = generar();
+
+        assertArrayEquals(new String[]{"/uploads/productos/p1_abc_miniatura.jpg",
+                "/uploads/productos/p1_abc_tarjeta.jpg", "/uploads/productos/p1_abc_detalle.jpg"}, urls);
+        assertAncho("p1_abc_miniatura.jpg", 160);
+        assertAncho("p1_abc_tarjeta.jpg", 480);
+        assertAncho("p1_abc_detalle.jpg", 1200);
+        assertSinTemporales();
+    }
+
+    @Test
+    void generarVariantes_yaPublicadas_noLasReemplaza() throws Exception {
+        generar();
+        Path detalle = productos.resolve("p1_abc_detalle.jpg");
+        FileTime antigua = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(detalle, antigua);
+        byte[] contenido = Files.readAllBytes(detalle);
+
+        generar();
+
+        assertEquals(antigua, Files.getLastModifiedTime(detalle));
+        assertArrayEquals(contenido, Files.readAllBytes(detalle));
+    }
+
+    @Test
+    void generarVariantes_unaYaExiste_soloEscribeLasQueFaltan() throws Exception {
+        byte[] existente = {1, 2, 3};
+        Files.write(productos.resolve("p1_abc_tarjeta.jpg"), existente);
+
+        generar();
+
+        assertArrayEquals(existente, Files.readAllBytes(productos.resolve("p1_abc_tarjeta.jpg")));
+        assertAncho("p1_abc_miniatura.jpg", 160);
+        assertAncho("p1_abc_detalle.jpg", 1200);
+    }
+
+    @Test
+    void generarVariantes_variosWorkersALaVez_publicanJpegCompletos() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String[]>> resultados = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                resultados.add(hilos.submit((Callable<String[]>) this::generar));
+            }
+            for (Future<String[]> resultado : resultados) {
+                assertNotNull(resultado.get());
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
+
+        assertAncho("p1_abc_miniatura.jpg", 160);
+        assertAncho("p1_abc_tarjeta.jpg", 480);
+        assertAncho("p1_abc_detalle.jpg", 1200);
+        assertSinTemporales();
+    }
+
+    private String[] generar() {
+        return ReflectionTestUtils.invokeMethod(imagenVariantesService, "generarVariantes", URL_ORIGINAL);
+    }
+
+    private void assertAncho(String archivo, int ancho) throws Exception {
+        BufferedImage imagen = ImageIO.read(productos.resolve(archivo).toFile());
+        assertNotNull(imagen, archivo);
+        assertEquals(ancho, imagen.getWidth(), archivo);
+        assertEquals(ancho / 2, imagen.getHeight(), archivo);
+    }
+
+    private void assertSinTemporales() throws Exception {
+        try (Stream<Path> archivos = Files.list(productos)) {
+            assertTrue(archivos.noneMatch(p -> p.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.request.ActualizarEstadoRequest;
+import com.ecommercegt.backend.models.entidades.ItemPedido;
+import com.ecommercegt.backend.models.entidades.Pedido;
+import com.ecommercegt.backend.models.entidades.Producto;
+import com.ecommercegt.backend.models.entidades.Usuario;
+import com.ecommercegt.backend.models.enums.EstadoPedido;
+import com.ecommercegt.backend.repositorios.PedidoRepository;
+import com.ecommercegt.backend.repositorios.ProductoRepository;
+import com.ecommercegt.backend.security.service.UsuarioActual;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Cambios de estado de pedidos y su efecto en los agregados incrementales
+ * El repositorio devuelve siempre la misma instancia: así se comporta la fila
+ * bloqueada que lee el segundo de dos cambios simultáneos (ya con el estado
+ * que dejó el primero)
+ */
+public class PedidoServiceTest {
+
+    private final UUID pedidoId = UUID.randomUUID();
+    private final UUID clienteId = UUID.randomUUID();
+
+    private PedidoService pedidoService;
+    private PedidoRepository pedidoRepository;
+    private ProductoRepository productoRepository;
+    private VentasDiariasService ventasDiariasService;
+    private VentasVendedorService ventasVendedorService;
+    private Pedido pedido;
+    private Producto producto;
+
+    @BeforeEach
+    void configurar() {
+        Usuario cliente = new Usuario();
+        cliente.setId(clienteId);
+        producto = new Producto();
+        producto.setId(UUID.randomUUID());
+        producto.setStock(10);
+
+        pedido = new Pedido();
+        pedido.setId(pedidoId);
+        pedido.setUsuario(cliente);
+        pedido.setNumeroOrden("ORD-1");
+        pedido.setMontoTotal(new BigDecimal("50.00"));
+        ItemPedido item = new ItemPedido();
+        item.setProductoId(producto.getId());
+        item.setCantidad(3);
+        pedido.agregarItem(item);
+
+        pedidoRepository = Mockito.mock(PedidoRepository.class);
+        Mockito.when(pedidoRepository.findByIdParaActualizar(pedidoId)).thenReturn(Optional.of(pedido));
+        Mockito.when(pedidoRepository.save(any(Pedido.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        productoRepository = Mockito.mock(ProductoRepository.class);
+        Mockito.when(productoRepository.findById(producto.getId())).thenReturn(Optional.of(producto));
+        UsuarioActual usuarioActual = Mockito.mock(UsuarioActual.class);
+        Mockito.when(usuarioActual.obtenerId()).thenReturn(clienteId);
+        ventasDiariasService = Mockito.mock(VentasDiariasService.class);
+        ventasVendedorService = Mockito.mock(VentasVendedorService.class);
+
+        pedidoService = new PedidoService();
+        ReflectionTestUtils.setField(pedidoService, "pedidoRepository", pedidoRepository);
+        ReflectionTestUtils.setField(pedidoService, "productoRepository", productoRepository);
+        ReflectionTestUtils.setField(pedidoService, "usuarioActual", usuarioActual);
+        ReflectionTestUtils.setField(pedidoService, "notificacionService", Mockito.mock(NotificacionService.class));
+        ReflectionTestUtils.setField(pedidoService, "ventasDiariasService", ventasDiariasService);
+        ReflectionTestUtils.setField(pedidoService, "ventasVendedorService", ventasVendedorService);
+    }
+
+    @Test
+    void marcarComoEntregado_dosVeces_registraElCambioUnaSolaVez() {
+        pedido.setEstado(EstadoPedido.ENVIADO);
+
+        pedidoService.marcarComoEntregado(pedidoId);
+        assertThrows(RuntimeException.class, () -> pedidoService.marcarComoEntregado(pedidoId));
+
+        assertEquals(EstadoPedido.ENTREGADO, pedido.getEstado());
+        Mockito.verify(ventasDiariasService, Mockito.times(1)).registrarCambioEstado(pedido, EstadoPedido.ENVIADO);
+        Mockito.verify(ventasVendedorService, Mockito.times(1)).registrarCambioEstado(pedido, EstadoPedido.ENVIADO);
+        Mockito.verify(pedidoRepository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void actualizarEstado_repetido_registraElCambioUnaSolaVez() {
+        pedido.setEstado(EstadoPedido.EN_PREPARACION);
+        ActualizarEstadoRequest request = new ActualizarEstadoRequest(EstadoPedido.ENVIADO, null);
+
+        pedidoService.actualizarEstado(pedidoId, request);
+        assertThrows(RuntimeException.class, () -> pedidoService.actualizarEstado(pedidoId, request));
+
+        Mockito.verify(ventasDiariasService, Mockito.times(1))
+                .registrarCambioEstado(pedido, EstadoPedido.EN_PREPARACION);
+        Mockito.verify(pedidoRepository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void cancelarPedido_repetido_devuelveElStockYRegistraUnaSolaVez() {
+        pedido.setEstado(EstadoPedido.CONFIRMADO);
+
+        pedidoService.cancelarPedido(pedidoId, "Ya no lo necesito");
+        assertThrows(RuntimeException.class, () -> pedidoService.cancelarPedido(pedidoId, "Ya no lo necesito"));
+
+        assertEquals(13, producto.getStock());
+        Mockito.verify(ventasDiariasService, Mockito.times(1))
+                .registrarCambioEstado(eq(pedido), eq(EstadoPedido.CONFIRMADO));
+        Mockito.verify(pedidoRepository, Mockito.never()).findById(any());
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.config.AsyncWebConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+
+public class ReporteExportServiceTest {
+
+    /**
+     * Un export grande: cien mil filas
+     */
+    private static final int FILAS = 100_000;
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime FIN = LocalDateTime.of(2025, 12, 31, 23, 59);
+
+    private ReporteExportService reporteExportService;
+
+    @BeforeEach
+    void configurar() throws Exception {
+        // Sin registrar invocaciones: el mock se consulta millones de veces
+        ResultSet rs = Mockito.mock(ResultSet.class, Mockito.withSettings().stubOnly());
+        int[] fila = {0};
+        Mockito.when(rs.getString(anyInt())).thenAnswer(invocacion -> "producto-" + fila[0]);
+        Mockito.when(rs.getLong(anyInt())).thenAnswer(invocacion -> (long) fila[0]);
+        Mockito.when(rs.getBigDecimal(anyInt())).thenReturn(new BigDecimal("19.99"));
+
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.doAnswer(invocacion -> {
+            RowCallbackHandler manejador = invocacion.getArgument(1);
+            for (fila[0] = 1; fila[0] <= FILAS; fila[0]++) {
+                manejador.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        reporteExportService = new ReporteExportService();
+        ReflectionTestUtils.setField(reporteExportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(reporteExportService, "transactionManager",
+                Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(reporteExportService, "fetchSize", 1000);
+    }
+
+    @Test
+    void exportarProductos_csvGrande_escribeTodasLasFilas() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        reporteExportService.exportarProductos(INICIO, FIN, ReporteExportService.Formato.CSV, salida);
+
+        String csv = salida.toString(StandardCharsets.UTF_8);
+        int lineas = 0;
+        for (int i = csv.indexOf("\r\n"); i >= 0; i = csv.indexOf("\r\n", i + 2)) {
+            lineas++;
+        }
+        assertEquals(FILAS + 1, lineas);
+        assertTrue(csv.endsWith("producto-" + FILAS + ",producto-" + FILAS + ","
+                + FILAS + "," + FILAS + ",19.99\r\n"));
+    }
+
+    @Test
+    void exportarProductos_xlsxGrande_cierraLaHojaConTodasLasFilas() throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        reporteExportService.exportarProductos(INICIO, FIN, ReporteExportService.Formato.XLSX, salida);
+
+        String hoja = leerHoja(new ByteArrayInputStream(salida.toByteArray()));
+        int filas = 0;
+        for (int i = hoja.indexOf("<row "); i >= 0; i = hoja.indexOf("<row ", i + 5)) {
+            filas++;
+        }
+        assertEquals(FILAS + 1, filas);
+        assertTrue(hoja.contains("<row r=\"" + (FILAS + 1) + "\">"));
+        assertTrue(hoja.endsWith("</sheetData></worksheet>"));
+    }
+
+    @Test
+    void asyncWebConfig_usaElTimeoutDeExportacion() {
+        AsyncWebConfig config = new AsyncWebConfig();
+        ReflectionTestUtils.setField(config, "timeoutExportMs", 1_800_000L);
+        AsyncSupportConfigurer configurer = new AsyncSupportConfigurer();
+
+        config.configureAsyncSupport(configurer);
+
+        assertEquals(1_800_000L, ReflectionTestUtils.getField(configurer, "timeout"));
+    }
+
+    private static String leerHoja(InputStream xlsx) throws Exception {
+        try (ZipInputStream zip = new ZipInputStream(xlsx)) {
+            for (ZipEntry entrada = zip.getNextEntry(); entrada != null; entrada = zip.getNextEntry()) {
+                if (entrada.getName().equals("xl/worksheets/sheet1.xml")) {
+                    return new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        throw new AssertionError("El XLSX no tiene la hoja");
+    }
+}
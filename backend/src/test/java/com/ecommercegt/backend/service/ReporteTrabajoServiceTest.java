@@ -0,0 +1,153 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.dto.response.TrabajoReporteResponse;
+import com.ecommercegt.backend.models.entidades.TrabajoReporte;
+import com.ecommercegt.backend.models.enums.TipoReporte;
+import com.ecommercegt.backend.repositorios.TrabajoReporteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Deduplicación de trabajos de reporte y rechazo con la cola llena
+ * El único worker queda ocupado durante cada prueba, así los trabajos
+ * creados siguen en curso y la cola se llena con capacidadCola trabajos
+ */
+public class ReporteTrabajoServiceTest {
+
+    private static final LocalDate INICIO = LocalDate.of(2025, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2025, 1, 31);
+
+    private ReporteTrabajoService reporteTrabajoService;
+    private TrabajoReporteRepository trabajoReporteRepository;
+    private ThreadPoolExecutor workers;
+    private final CountDownLatch liberarWorker = new CountDownLatch(1);
+
+    @BeforeEach
+    void configurar() {
+        trabajoReporteRepository = Mockito.mock(TrabajoReporteRepository.class);
+        Mockito.when(trabajoReporteRepository.findFirstByClaveAndEstadoInOrderByFechaCreacionDesc(
+                anyString(), anyCollection())).thenReturn(Optional.empty());
+        Mockito.when(trabajoReporteRepository.save(any(TrabajoReporte.class))).thenAnswer(invocacion -> {
+            // Una inserción lenta deja a los demás solicitantes esperando el mismo trabajo
+            Thread.sleep(50);
+            TrabajoReporte trabajo = invocacion.getArgument(0);
+            trabajo.setId(UUID.randomUUID());
+            return trabajo;
+        });
+        Mockito.when(trabajoReporteRepository.findEstadoById(any(UUID.class))).thenAnswer(invocacion -> {
+            TrabajoReporteResponse estado = new TrabajoReporteResponse();
+            estado.setId(invocacion.getArgument(0));
+            return Optional.of(estado);
+        });
+
+        workers = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(2));
+        workers.execute(() -> {
+            try {
+                liberarWorker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        reporteTrabajoService = new ReporteTrabajoService();
+        ReflectionTestUtils.setField(reporteTrabajoService, "trabajoReporteRepository", trabajoReporteRepository);
+        ReflectionTestUtils.setField(reporteTrabajoService, "workers", workers);
+    }
+
+    @AfterEach
+    void detener() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void solicitar_identicosALaVez_creanUnSoloTrabajo() throws Exception {
+        ExecutorService solicitantes = Executors.newFixedThreadPool(8);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<TrabajoReporteResponse>> respuestas = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                respuestas.add(solicitantes.submit(() -> {
+                    salida.await();
+                    return reporteTrabajoService.solicitar(TipoReporte.PRODUCTOS_MAS_VENDIDOS, INICIO, FIN);
+                }));
+            }
+            salida.countDown();
+
+            Set<UUID> ids = new HashSet<>();
+            for (Future<TrabajoReporteResponse> respuesta : respuestas) {
+                ids.add(respuesta.get(5, TimeUnit.SECONDS).getId());
+            }
+            assertEquals(1, ids.size());
+        } finally {
+            solicitantes.shutdownNow();
+        }
+
+        Mockito.verify(trabajoReporteRepository, Mockito.times(1)).save(any(TrabajoReporte.class));
+        Mockito.verify(trabajoReporteRepository, Mockito.never()).findById(any());
+    }
+
+    @Test
+    void solicitar_parametrosDistintos_creanTrabajosDistintos() {
+        UUID enero = reporteTrabajoService.solicitar(TipoReporte.PRODUCTOS_MAS_VENDIDOS, INICIO, FIN).getId();
+        UUID febrero = reporteTrabajoService.solicitar(
+                TipoReporte.PRODUCTOS_MAS_VENDIDOS, FIN, FIN.plusDays(28)).getId();
+
+        assertNotEquals(enero, febrero);
+    }
+
+    @Test
+    void solicitar_enCursoEnOtroNodo_devuelveEseTrabajo() {
+        TrabajoReporte enOtroNodo = new TrabajoReporte(TipoReporte.CLIENTES_POR_PRODUCTOS, null, null,
+                "CLIENTES_POR_PRODUCTOS:null:null");
+        enOtroNodo.setId(UUID.randomUUID());
+        Mockito.when(trabajoReporteRepository.findFirstByClaveAndEstadoInOrderByFechaCreacionDesc(
+                Mockito.eq("CLIENTES_POR_PRODUCTOS:null:null"), anyCollection())).thenReturn(Optional.of(enOtroNodo));
+
+        TrabajoReporteResponse respuesta =
+                reporteTrabajoService.solicitar(TipoReporte.CLIENTES_POR_PRODUCTOS, INICIO, FIN);
+
+        assertEquals(enOtroNodo.getId(), respuesta.getId());
+        Mockito.verify(trabajoReporteRepository, Mockito.never()).save(any(TrabajoReporte.class));
+    }
+
+    @Test
+    void solicitar_colaLlena_rechazaYNoDejaLaClaveBloqueada() {
+        reporteTrabajoService.solicitar(TipoReporte.CLIENTES_POR_GANANCIAS, INICIO, FIN);
+        reporteTrabajoService.solicitar(TipoReporte.CLIENTES_POR_VENTAS, INICIO, FIN);
+
+        assertThrows(RejectedExecutionException.class,
+                () -> reporteTrabajoService.solicitar(TipoReporte.CLIENTES_POR_PEDIDOS, INICIO, FIN));
+        Mockito.verify(trabajoReporteRepository).delete(any(TrabajoReporte.class));
+
+        // La clave rechazada no queda registrada: el siguiente intento vuelve a crear el trabajo
+        assertThrows(RejectedExecutionException.class,
+                () -> reporteTrabajoService.solicitar(TipoReporte.CLIENTES_POR_PEDIDOS, INICIO, FIN));
+        Mockito.verify(trabajoReporteRepository, Mockito.times(4)).save(any(TrabajoReporte.class));
+    }
+}
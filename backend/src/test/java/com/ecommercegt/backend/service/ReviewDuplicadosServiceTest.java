@@ -0,0 +1,132 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.repositorios.ReviewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Reconstrucción del índice de reviews duplicadas con cambios incrementales en medio
+ * Las reviews "confirmadas" viven en un mapa que hace de tabla; sin transacción
+ * activa los cambios se aplican al índice de inmediato (como en afterCommit)
+ */
+public class ReviewDuplicadosServiceTest {
+
+    private ReviewDuplicadosService reviewDuplicadosService;
+
+    /**
+     * Tabla de reviews: id → {título, comentario}
+     */
+    private final ConcurrentSkipListMap<Long, String[]> reviews = new ConcurrentSkipListMap<>();
+
+    /**
+     * Acción ejecutada cuando la reconstrucción termina de leer la base de datos
+     */
+    private Runnable alTerminarLectura = () -> { };
+
+    @BeforeEach
+    void configurar() {
+        ReviewRepository reviewRepository = Mockito.mock(ReviewRepository.class);
+        Mockito.when(reviewRepository.findTextosDesdeId(anyLong(), any(Pageable.class))).thenAnswer(invocacion -> {
+            Long desdeId = invocacion.getArgument(0);
+            Pageable pagina = invocacion.getArgument(1);
+            List<Object[]> lote = new ArrayList<>();
+            reviews.tailMap(desdeId, false).entrySet().stream()
+                    .limit(pagina.getPageSize())
+                    .forEach(review -> lote.add(new Object[]{review.getKey(), review.getValue()[0], review.getValue()[1]}));
+            if (lote.isEmpty()) {
+                alTerminarLectura.run();
+            }
+            return lote;
+        });
+
+        reviewDuplicadosService = new ReviewDuplicadosService();
+        ReflectionTestUtils.setField(reviewDuplicadosService, "reviewRepository", reviewRepository);
+        ReflectionTestUtils.setField(reviewDuplicadosService, "umbral", 0.8);
+        ReflectionTestUtils.setField(reviewDuplicadosService, "bandas", 16);
+        ReflectionTestUtils.setField(reviewDuplicadosService, "filasPorBanda", 8);
+    }
+
+    @Test
+    void reconstruirIndice_indexaLasReviewsDeLaBaseDeDatos() {
+        for (long id = 1; id <= 2500; id++) {
+            guardar(id);
+        }
+
+        assertEquals(2500, reviewDuplicadosService.reconstruirIndice());
+        assertEquals(2500, reviewDuplicadosService.tamanoIndice());
+    }
+
+    @Test
+    void reconstruirIndice_cambiosDuranteLaLectura_seConservan() {
+        guardar(1L);
+        guardar(2L);
+        guardar(3L);
+        alTerminarLectura = () -> {
+            // Alta nueva, baja y baja seguida de reingreso de la misma review
+            guardar(4L);
+            reviewDuplicadosService.registrarReview(4L, titulo(4L), comentario(4L));
+            reviews.remove(2L);
+            reviewDuplicadosService.quitarReview(2L);
+            reviewDuplicadosService.quitarReview(3L);
+            reviewDuplicadosService.registrarReview(3L, titulo(3L), comentario(3L));
+        };
+
+        reviewDuplicadosService.reconstruirIndice();
+
+        assertEquals(3, reviewDuplicadosService.tamanoIndice());
+        assertTrue(reviewDuplicadosService.obtenerGrupos(null).isEmpty());
+        assertFalse(reviewDuplicadosService.registrarReview(99L, titulo(4L), comentario(4L)).isEmpty());
+        assertTrue(reviewDuplicadosService.registrarReview(98L, titulo(2L), comentario(2L)).isEmpty());
+    }
+
+    @Test
+    void reconstruirIndice_altasConcurrentes_ningunaSePierde() throws Exception {
+        for (long id = 1; id <= 200; id++) {
+            guardar(id);
+        }
+        reviewDuplicadosService.reconstruirIndice();
+
+        AtomicBoolean registrando = new AtomicBoolean(true);
+        Thread reconstrucciones = Thread.ofPlatform().start(() -> {
+            while (registrando.get()) {
+                reviewDuplicadosService.reconstruirIndice();
+            }
+        });
+        for (long id = 201; id <= 3000; id++) {
+            // La fila se confirma antes de actualizar el índice, como en afterCommit
+            guardar(id);
+            reviewDuplicadosService.registrarReview(id, titulo(id), comentario(id));
+        }
+        registrando.set(false);
+        reconstrucciones.join();
+
+        assertEquals(3000, reviewDuplicadosService.tamanoIndice());
+    }
+
+    private void guardar(Long id) {
+        reviews.put(id, new String[]{titulo(id), comentario(id)});
+    }
+
+    private static String titulo(Long id) {
+        return "Opinión número " + id;
+    }
+
+    private static String comentario(Long id) {
+        return "El pedido " + id + " llegó con el código " + Long.toHexString(id * 2654435761L)
+                + " y la caja " + Long.toString(id * 40503L, 36) + " en buen estado";
+    }
+}
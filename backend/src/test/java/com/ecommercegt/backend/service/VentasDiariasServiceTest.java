@@ -0,0 +1,125 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.ItemPedido;
+import com.ecommercegt.backend.models.entidades.Pedido;
+import com.ecommercegt.backend.models.enums.EstadoPedido;
+import com.ecommercegt.backend.repositorios.VentaDiariaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class VentasDiariasServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+    private VentasDiariasService ventasDiariasService;
+
+    /**
+     * Filas del resumen en memoria: estado → {pedidos, items} y estado → monto
+     */
+    private final Map<String, long[]> pedidosPorEstado = new HashMap<>();
+    private final Map<String, BigDecimal> montoPorEstado = new HashMap<>();
+
+    @BeforeEach
+    void configurar() {
+        VentaDiariaRepository repositorio = Mockito.mock(VentaDiariaRepository.class);
+        Mockito.when(repositorio.sumar(any(), anyString(), anyLong(), any(), anyLong())).thenAnswer(invocacion -> {
+            String estado = invocacion.getArgument(1);
+            long[] fila = pedidosPorEstado.computeIfAbsent(estado, k -> new long[2]);
+            fila[0] += invocacion.<Long>getArgument(2);
+            fila[1] += invocacion.<Long>getArgument(4);
+            montoPorEstado.merge(estado, invocacion.getArgument(3), BigDecimal::add);
+            assertEquals(DIA, invocacion.getArgument(0));
+            return 1;
+        });
+        ventasDiariasService = new VentasDiariasService();
+        ReflectionTestUtils.setField(ventasDiariasService, "ventaDiariaRepository", repositorio);
+    }
+
+    @Test
+    void registrarPedidoCreado_sumaEnLaFilaDeSuEstado() {
+        ventasDiariasService.registrarPedidoCreado(pedido(EstadoPedido.PENDIENTE, "150.00", 2, 3));
+
+        assertEquals(1, pedidos(EstadoPedido.PENDIENTE));
+        assertEquals(5, items(EstadoPedido.PENDIENTE));
+        assertEquals(new BigDecimal("150.00"), montoPorEstado.get("PENDIENTE"));
+    }
+
+    @Test
+    void registrarCambioEstado_recorridoCompleto_quedaSoloEnElEstadoFinal() {
+        Pedido pedido = pedido(EstadoPedido.PENDIENTE, "80.50", 1, 4);
+        ventasDiariasService.registrarPedidoCreado(pedido);
+
+        for (EstadoPedido nuevo : new EstadoPedido[]{EstadoPedido.CONFIRMADO, EstadoPedido.EN_PREPARACION,
+                EstadoPedido.ENVIADO, EstadoPedido.ENTREGADO}) {
+            EstadoPedido anterior = pedido.getEstado();
+            pedido.cambiarEstado(nuevo);
+            ventasDiariasService.registrarCambioEstado(pedido, anterior);
+        }
+
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            int esperado = estado == EstadoPedido.ENTREGADO ? 1 : 0;
+            assertEquals(esperado, pedidos(estado), estado.name());
+            assertEquals(esperado * 5L, items(estado), estado.name());
+        }
+        assertEquals(0, new BigDecimal("80.50").compareTo(montoPorEstado.get("ENTREGADO")));
+        assertEquals(0, BigDecimal.ZERO.compareTo(montoPorEstado.get("ENVIADO")));
+    }
+
+    @Test
+    void registrarCambioEstado_cancelacion_mueveElPedidoACancelado() {
+        Pedido pedido = pedido(EstadoPedido.CONFIRMADO, "20.00", 1);
+        ventasDiariasService.registrarPedidoCreado(pedido);
+
+        pedido.cancelar("Sin stock");
+        ventasDiariasService.registrarCambioEstado(pedido, EstadoPedido.CONFIRMADO);
+
+        assertEquals(0, pedidos(EstadoPedido.CONFIRMADO));
+        assertEquals(1, pedidos(EstadoPedido.CANCELADO));
+    }
+
+    @Test
+    void registrarCambioEstado_mismoEstado_noModificaElResumen() {
+        Pedido pedido = pedido(EstadoPedido.ENVIADO, "10.00", 1);
+
+        ventasDiariasService.registrarCambioEstado(pedido, EstadoPedido.ENVIADO);
+
+        assertEquals(0, pedidosPorEstado.size());
+    }
+
+    private long pedidos(EstadoPedido estado) {
+        long[] fila = pedidosPorEstado.get(estado.name());
+        return fila != null ? fila[0] : 0;
+    }
+
+    private long items(EstadoPedido estado) {
+        long[] fila = pedidosPorEstado.get(estado.name());
+        return fila != null ? fila[1] : 0;
+    }
+
+    static Pedido pedido(EstadoPedido estado, String monto, int... cantidades) {
+        Pedido pedido = new Pedido();
+        pedido.setEstado(estado);
+        pedido.setMontoTotal(new BigDecimal(monto));
+        pedido.setFechaPedido(LocalDateTime.of(DIA, LocalTime.NOON));
+        for (int cantidad : cantidades) {
+            ItemPedido item = new ItemPedido();
+            item.setCantidad(cantidad);
+            pedido.agregarItem(item);
+        }
+        return pedido;
+    }
+}
@@ -0,0 +1,101 @@
+package com.ecommercegt.backend.service;
+
+import com.ecommercegt.backend.models.entidades.Pedido;
+import com.ecommercegt.backend.models.entidades.Producto;
+import com.ecommercegt.backend.models.entidades.Usuario;
+import com.ecommercegt.backend.models.enums.EstadoPedido;
+import com.ecommercegt.backend.models.enums.EstadoProducto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class VentasVendedorServiceTest {
+
+    private VentasVendedorService ventasVendedorService;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void configurar() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        ventasVendedorService = new VentasVendedorService();
+        ReflectionTestUtils.setField(ventasVendedorService, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void registrarCambioEstado_entraAEntregado_sumaElPedido() {
+        Pedido pedido = pedido(EstadoPedido.ENTREGADO);
+
+        ventasVendedorService.registrarCambioEstado(pedido, EstadoPedido.ENVIADO);
+
+        Mockito.verify(jdbcTemplate).update(anyString(), eq(1), eq(1), eq(1), eq(pedido.getId()));
+    }
+
+    @Test
+    void registrarCambioEstado_saleDeEntregado_restaElPedido() {
+        Pedido pedido = pedido(EstadoPedido.CANCELADO);
+
+        ventasVendedorService.registrarCambioEstado(pedido, EstadoPedido.ENTREGADO);
+
+        Mockito.verify(jdbcTemplate).update(anyString(), eq(-1), eq(-1), eq(-1), eq(pedido.getId()));
+    }
+
+    @Test
+    void registrarCambioEstado_sinEntregado_noModificaElCubo() {
+        ventasVendedorService.registrarCambioEstado(pedido(EstadoPedido.ENVIADO), EstadoPedido.EN_PREPARACION);
+        ventasVendedorService.registrarCambioEstado(pedido(EstadoPedido.CANCELADO), EstadoPedido.PENDIENTE);
+        ventasVendedorService.registrarCambioEstado(pedido(EstadoPedido.ENTREGADO), EstadoPedido.ENTREGADO);
+
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void registrarCambioProducto_altaAprobacionYBaja() {
+        UUID vendedorId = UUID.randomUUID();
+        Producto producto = producto(vendedorId);
+        LocalDate dia = producto.getFechaCreacion().toLocalDate();
+
+        ventasVendedorService.registrarCambioProducto(producto, null, EstadoProducto.PENDIENTE_REVISION);
+        ventasVendedorService.registrarCambioProducto(
+                producto, EstadoProducto.PENDIENTE_REVISION, EstadoProducto.APROBADO);
+        ventasVendedorService.registrarCambioProducto(producto, EstadoProducto.APROBADO, null);
+
+        Mockito.verify(jdbcTemplate).update(anyString(), eq(vendedorId), eq(dia), eq(1), eq(0));
+        Mockito.verify(jdbcTemplate).update(anyString(), eq(vendedorId), eq(dia), eq(0), eq(1));
+        Mockito.verify(jdbcTemplate).update(anyString(), eq(vendedorId), eq(dia), eq(-1), eq(-1));
+    }
+
+    @Test
+    void registrarCambioProducto_sinCambioQueContar_noModificaElCubo() {
+        Producto producto = producto(UUID.randomUUID());
+
+        ventasVendedorService.registrarCambioProducto(
+                producto, EstadoProducto.PENDIENTE_REVISION, EstadoProducto.RECHAZADO);
+
+        Mockito.verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static Pedido pedido(EstadoPedido estado) {
+        Pedido pedido = new Pedido();
+        pedido.setId(UUID.randomUUID());
+        pedido.setEstado(estado);
+        return pedido;
+    }
+
+    private static Producto producto(UUID vendedorId) {
+        Usuario vendedor = new Usuario();
+        vendedor.setId(vendedorId);
+        Producto producto = new Producto();
+        producto.setVendedor(vendedor);
+        producto.setFechaCreacion(LocalDateTime.of(2025, 3, 10, 9, 30));
+        return producto;
+    }
+}
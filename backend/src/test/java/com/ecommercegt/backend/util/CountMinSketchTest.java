@@ -0,0 +1,91 @@
+package com.ecommercegt.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CountMinSketchTest {
+
+    @Test
+    void estimar_nuncaSubestimaYSobreestimaComoMuchoElErrorMaximo() {
+        CountMinSketch sketch = new CountMinSketch(5, 1024, 10);
+        Map<UUID, Long> reales = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            UUID producto = new UUID(0, i);
+            long cantidad = 1 + i % 7;
+            sketch.agregar(producto, cantidad);
+            reales.put(producto, cantidad);
+        }
+
+        for (Map.Entry<UUID, Long> real : reales.entrySet()) {
+            long estimacion = sketch.estimar(real.getKey());
+            assertTrue(estimacion >= real.getValue());
+            assertTrue(estimacion - real.getValue() <= sketch.errorMaximo(),
+                    "Sobreestimación: " + (estimacion - real.getValue()));
+        }
+    }
+
+    @Test
+    void top_devuelveLosMasFrecuentesDeMayorAMenor() {
+        CountMinSketch sketch = new CountMinSketch(5, 1024, 5);
+        UUID primero = new UUID(1, 1);
+        UUID segundo = new UUID(2, 2);
+        UUID tercero = new UUID(3, 3);
+        for (int i = 0; i < 500; i++) {
+            sketch.agregar(new UUID(9, i), 1);
+        }
+        sketch.agregar(tercero, 300);
+        sketch.agregar(primero, 1000);
+        sketch.agregar(segundo, 600);
+
+        List<Map.Entry<UUID, Long>> top = sketch.top(3);
+
+        assertEquals(List.of(primero, segundo, tercero), top.stream().map(Map.Entry::getKey).toList());
+        assertTrue(top.get(0).getValue() >= 1000);
+    }
+
+    @Test
+    void unir_sumaContadoresYCandidatos() {
+        CountMinSketch lunes = new CountMinSketch(4, 512, 5);
+        CountMinSketch martes = new CountMinSketch(4, 512, 5);
+        UUID producto = new UUID(7, 7);
+        lunes.agregar(producto, 40);
+        martes.agregar(producto, 60);
+        martes.agregar(new UUID(8, 8), 10);
+
+        lunes.unir(martes);
+
+        assertEquals(110, lunes.getTotal());
+        assertTrue(lunes.estimar(producto) >= 100);
+        assertEquals(producto, lunes.top(1).get(0).getKey());
+    }
+
+    @Test
+    void unir_distintasDimensiones_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CountMinSketch(4, 512, 5).unir(new CountMinSketch(4, 256, 5)));
+    }
+
+    @Test
+    void aBytes_desdeBytes_conservaContadoresYCandidatos() {
+        CountMinSketch sketch = new CountMinSketch(4, 256, 3);
+        for (int i = 0; i < 50; i++) {
+            sketch.agregar(new UUID(0, i), i + 1);
+        }
+
+        CountMinSketch copia = CountMinSketch.desdeBytes(sketch.aBytes());
+
+        assertEquals(sketch.getTotal(), copia.getTotal());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(sketch.estimar(new UUID(0, i)), copia.estimar(new UUID(0, i)));
+        }
+        assertEquals(sketch.top(3), copia.top(3));
+    }
+}
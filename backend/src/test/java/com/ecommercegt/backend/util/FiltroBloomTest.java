@@ -0,0 +1,78 @@
+package com.ecommercegt.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FiltroBloomTest {
+
+    @Test
+    void puedeContener_elementosAgregados_nuncaDaFalsosNegativos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar(Hash64.de(new UUID(1, i)));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filtro.puedeContener(Hash64.de(new UUID(1, i))));
+        }
+    }
+
+    @Test
+    void puedeContener_conLaCapacidadLlena_respetaLaTasaDeFalsosPositivos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar(Hash64.de(new UUID(1, i)));
+        }
+
+        int falsosPositivos = 0;
+        int consultas = 100_000;
+        for (int i = 0; i < consultas; i++) {
+            if (filtro.puedeContener(Hash64.de(new UUID(2, i)))) {
+                falsosPositivos++;
+            }
+        }
+
+        double tasa = (double) falsosPositivos / consultas;
+        assertTrue(tasa <= 0.015, "Tasa de falsos positivos: " + tasa);
+    }
+
+    @Test
+    void agregar_doubleHashingConMitadAltaEnCero_siguePorDebajoDeLaTasa() {
+        // h2 = 0 deja todas las funciones en el mismo bit: el filtro sigue siendo
+        // correcto (sin falsos negativos) y los demás hashes no se ven afectados
+        FiltroBloom filtro = new FiltroBloom(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filtro.agregar(i & 0xFFFFFFFFL);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filtro.puedeContener(i & 0xFFFFFFFFL));
+        }
+        int falsosPositivos = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filtro.puedeContener(Hash64.de(new UUID(3, i)))) {
+                falsosPositivos++;
+            }
+        }
+        assertTrue(falsosPositivos / 10_000.0 <= 0.015, "Falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void puedeContener_filtroVacio_devuelveFalse() {
+        FiltroBloom filtro = new FiltroBloom(100, 0.01);
+
+        assertFalse(filtro.puedeContener(Hash64.de(new UUID(4, 4))));
+    }
+
+    @Test
+    void constructor_parametrosInvalidos_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(100, 1));
+    }
+}
@@ -0,0 +1,93 @@
+package com.ecommercegt.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HyperLogLogTest {
+
+    @Test
+    void estimar_sinElementos_devuelveCero() {
+        assertEquals(0, new HyperLogLog(12).estimar());
+    }
+
+    @Test
+    void estimar_pocosElementos_usaConteoLineal() {
+        HyperLogLog hll = new HyperLogLog(12);
+        for (long i = 0; i < 100; i++) {
+            hll.agregar(Hash64.mezclar(i));
+        }
+
+        assertTrue(Math.abs(hll.estimar() - 100) <= 2, "Estimación: " + hll.estimar());
+    }
+
+    @Test
+    void estimar_muchosElementos_quedaDentroDelErrorEsperado() {
+        HyperLogLog hll = new HyperLogLog(12);
+        int distintos = 200_000;
+        for (long i = 0; i < distintos; i++) {
+            hll.agregar(Hash64.mezclar(i));
+        }
+
+        // Tres desviaciones estándar (~4.9 % con p = 12)
+        double error = Math.abs(hll.estimar() - distintos) / (double) distintos;
+        assertTrue(error <= 3 * hll.errorRelativo(), "Error relativo: " + error);
+    }
+
+    @Test
+    void agregar_elementosRepetidos_noCambianLaEstimacion() {
+        HyperLogLog hll = new HyperLogLog(12);
+        for (long i = 0; i < 1000; i++) {
+            hll.agregar(Hash64.mezclar(i));
+        }
+        long antes = hll.estimar();
+
+        for (long i = 0; i < 1000; i++) {
+            hll.agregar(Hash64.mezclar(i));
+        }
+
+        assertEquals(antes, hll.estimar());
+    }
+
+    @Test
+    void unir_dosMitadesConSolapamiento_estimaLaUnion() {
+        HyperLogLog primero = new HyperLogLog(12);
+        HyperLogLog segundo = new HyperLogLog(12);
+        for (long i = 0; i < 60_000; i++) {
+            primero.agregar(Hash64.mezclar(i));
+        }
+        for (long i = 40_000; i < 100_000; i++) {
+            segundo.agregar(Hash64.mezclar(i));
+        }
+
+        primero.unir(segundo);
+
+        double error = Math.abs(primero.estimar() - 100_000) / 100_000.0;
+        assertTrue(error <= 3 * primero.errorRelativo(), "Error relativo: " + error);
+    }
+
+    @Test
+    void unir_distintaPrecision_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).unir(new HyperLogLog(10)));
+    }
+
+    @Test
+    void aBytes_desdeBytes_conservaLaEstimacion() {
+        HyperLogLog hll = new HyperLogLog(10);
+        for (long i = 0; i < 5000; i++) {
+            hll.agregar(Hash64.mezclar(i));
+        }
+
+        HyperLogLog copia = HyperLogLog.desdeBytes(hll.aBytes());
+
+        assertEquals(hll.estimar(), copia.estimar());
+    }
+
+    @Test
+    void constructor_precisionFueraDeRango_lanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(19));
+    }
+}
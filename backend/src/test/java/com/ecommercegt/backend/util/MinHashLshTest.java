@@ -0,0 +1,80 @@
+package com.ecommercegt.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MinHashLshTest {
+
+    private static final String RESENA = "Excelente producto, llegó en dos días y funciona perfecto. "
+            + "La batería dura todo el día y la pantalla se ve muy bien incluso al sol.";
+
+    private final MinHashLsh indice = new MinHashLsh(16, 8);
+
+    @Test
+    void calcularFirma_ignoraMayusculasTildesYSignos() {
+        int[] original = indice.calcularFirma("Llegó rápido, ¡muy buen vendedor!");
+        int[] normalizado = indice.calcularFirma("llego rapido muy buen vendedor");
+
+        assertArrayEquals(original, normalizado);
+    }
+
+    @Test
+    void calcularFirma_textoSinShingles_devuelveNull() {
+        assertNull(indice.calcularFirma(""));
+        assertNull(indice.calcularFirma("  ¡¿...?!  "));
+        assertNull(indice.calcularFirma(null));
+    }
+
+    @Test
+    void buscarSimilares_textoCasiIgual_loEncuentra() {
+        indice.agregar(1L, indice.calcularFirma(RESENA));
+
+        Map<Long, Double> similares = indice.buscarSimilares(
+                indice.calcularFirma(RESENA + " Recomendado."), 0.8, null);
+
+        assertTrue(similares.containsKey(1L));
+        assertTrue(similares.get(1L) >= 0.8);
+    }
+
+    @Test
+    void buscarSimilares_textoDistinto_noLoEncuentra() {
+        indice.agregar(1L, indice.calcularFirma(RESENA));
+
+        Map<Long, Double> similares = indice.buscarSimilares(indice.calcularFirma(
+                "El envío tardó tres semanas y la caja venía abierta, no lo volvería a comprar."), 0.8, null);
+
+        assertTrue(similares.isEmpty());
+    }
+
+    @Test
+    void buscarSimilares_excluyeElPropioId() {
+        int[] firma = indice.calcularFirma(RESENA);
+        indice.agregar(1L, firma);
+        indice.agregar(2L, firma);
+
+        Map<Long, Double> similares = indice.buscarSimilares(firma, 0.8, 1L);
+
+        assertEquals(Map.of(2L, 1.0), similares);
+    }
+
+    @Test
+    void agregar_reemplazaLaFirmaAnteriorYQuitarLaElimina() {
+        int[] original = indice.calcularFirma(RESENA);
+        indice.agregar(1L, original);
+        indice.agregar(1L, indice.calcularFirma("Un texto completamente diferente sobre otra cosa."));
+
+        assertTrue(indice.buscarSimilares(original, 0.8, null).isEmpty());
+        assertEquals(1, indice.tamano());
+
+        indice.quitar(1L);
+
+        assertEquals(0, indice.tamano());
+        assertNull(indice.obtenerFirma(1L));
+    }
+}
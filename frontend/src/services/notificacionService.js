@@ -19,3 +19,43 @@ export function marcarNotificacionComoLeida(id) {
 export function eliminarNotificacion(id) {
   return api.delete(`/notificaciones/${id}`);
 }
+
+/**
+ * Abrir stream SSE de notificaciones en tiempo real
+ * onNotificacion(notificacion) y onNoLeidas(count) se llaman al recibir cada evento.
+ * EventSource no envía headers: cada conexión usa un ticket de un solo uso
+ * (el JWT nunca va en la URL); al cortarse se pide otro ticket y se reconecta.
+ * Devuelve un objeto con .close()
+ */
+export function suscribirNotificaciones(onNotificacion, onNoLeidas) {
+  let fuente = null;
+  let cerrado = false;
+
+  const reintentar = (ms) => {
+    if (!cerrado) {
+      setTimeout(abrir, ms);
+    }
+  };
+
+  const abrir = () => api.post('/notificaciones/stream/ticket')
+    .then(res => {
+      if (cerrado) return;
+      fuente = new EventSource(`${api.defaults.baseURL}/notificaciones/stream?ticket=${encodeURIComponent(res.data.ticket)}`);
+      fuente.addEventListener('notificacion', e => onNotificacion && onNotificacion(JSON.parse(e.data)));
+      fuente.addEventListener('no-leidas', e => onNoLeidas && onNoLeidas(JSON.parse(e.data).count));
+      // El ticket ya se usó: la reconexión automática de EventSource fallaría
+      fuente.onerror = () => {
+        fuente.close();
+        reintentar(3000);
+      };
+    })
+    .catch(() => reintentar(10000));
+
+  abrir();
+  return {
+    close() {
+      cerrado = true;
+      if (fuente) fuente.close();
+    }
+  };
+}
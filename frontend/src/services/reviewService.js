@@ -25,5 +25,17 @@ export default {
   async rechazarReview(id) {
   const res = await api.put(`/reviews/${id}/rechazar`)
     return res.data
+  },
+  async aprobarReviewsEnLote(reviewIds) {
+  const res = await api.put('/reviews/aprobar-lote', { reviewIds })
+    return res.data
+  },
+  async rechazarReviewsEnLote(reviewIds, motivo = null) {
+  const res = await api.put('/reviews/rechazar-lote', { reviewIds, motivo })
+    return res.data
+  },
+  async getGruposDuplicados(limite = 20) {
+  const res = await api.get(`/reviews/duplicados?limite=${limite}`)
+    return res.data
   }
 }